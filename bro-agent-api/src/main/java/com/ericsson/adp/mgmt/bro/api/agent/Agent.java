@@ -14,28 +14,42 @@ package com.ericsson.adp.mgmt.bro.api.agent;
 
 import static com.ericsson.adp.mgmt.action.Action.BACKUP;
 import static com.ericsson.adp.mgmt.action.Action.RESTORE;
+import static com.ericsson.adp.mgmt.bro.api.grpc.GRPCConfig.AGENT_FRAGMENT_CHUNK_MAX_SIZE;
+import static com.ericsson.adp.mgmt.bro.api.grpc.GRPCConfig.AGENT_FRAGMENT_CHUNK_MEMORY_BUDGET;
+import static com.ericsson.adp.mgmt.bro.api.grpc.GRPCConfig.AGENT_FRAGMENT_CHUNK_MIN_SIZE;
+import static com.ericsson.adp.mgmt.bro.api.grpc.GRPCConfig.AGENT_FRAGMENT_CHUNK_SIZE;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.ericsson.adp.mgmt.action.Action;
+import com.ericsson.adp.mgmt.bro.api.grpc.AdaptiveChunkSize;
+import com.ericsson.adp.mgmt.bro.api.grpc.BackupDataStream;
+import com.ericsson.adp.mgmt.bro.api.grpc.ChunkMemoryBudget;
 import com.ericsson.adp.mgmt.bro.api.registration.RegistrationInformation;
 import com.ericsson.adp.mgmt.bro.api.registration.RegistrationMessageFactory;
+import com.ericsson.adp.mgmt.bro.api.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.control.AgentControl;
 import com.ericsson.adp.mgmt.control.AgentMessageType;
 import com.ericsson.adp.mgmt.control.OrchestratorControl;
+import com.ericsson.adp.mgmt.control.Register;
+import com.ericsson.adp.mgmt.control.RegisterAcknowledge;
 import com.ericsson.adp.mgmt.control.StageComplete;
 import com.ericsson.adp.mgmt.data.BackupData;
 import com.ericsson.adp.mgmt.data.Metadata;
 import com.ericsson.adp.mgmt.data.RestoreData;
+import com.ericsson.adp.mgmt.metadata.AgentFeature;
 
 import io.grpc.stub.StreamObserver;
 
@@ -45,6 +59,7 @@ import io.grpc.stub.StreamObserver;
 public class Agent {
     private static final String AGENT_API_VERSION = "5.9.0";
     private static final Logger log = LogManager.getLogger(Agent.class);
+    private static final ChunkMemoryBudget CHUNK_MEMORY_BUDGET = new ChunkMemoryBudget(AGENT_FRAGMENT_CHUNK_MEMORY_BUDGET.getValue());
 
     private final AgentBehavior agentBehavior;
     private final OrchestratorGrpcChannel channel;
@@ -52,6 +67,10 @@ public class Agent {
     private AgentState state;
     private int secondsToRetryACK = OrchestratorConnectionInformation.DEFAULT_REGISTRATION_ACK_TIMEOUT;
     private GrpcApiVersion grpcApiVersion = GrpcApiVersion.V4;
+    private volatile List<AgentFeature> registeredFeatures = Collections.emptyList();
+    private volatile ChecksumAlgorithm checksumAlgorithm = ChecksumAlgorithm.MD5;
+    private int maxInboundMessageSize = OrchestratorConnectionInformation.DEFAULT_MAX_INBOUND_MESSAGE_SIZE;
+    private volatile int maxChunkSize;
 
     private final AtomicReference<Optional<String>> lastMessageTypeReceived = new AtomicReference<>(Optional.empty());
 
@@ -112,6 +131,9 @@ public class Agent {
         this.channel.establishControlChannel(orchestratorStreamObserver);
         log.info("Agent <{}> has established a control channel.", getAgentId());
         final AgentControl registrationMessage = getRegistrationMessage();
+        this.registeredFeatures = registrationMessage.getRegister().getAgentFeatureList();
+        this.checksumAlgorithm = ChecksumAlgorithm.MD5;
+        this.maxChunkSize = 0;
         if (isGrpcApiVersion4() && secondsToRetryACK > 0) {
             sendRegistrationMessageUntilAcknowledged(registrationMessage);
         } else {
@@ -175,6 +197,49 @@ public class Agent {
         return lastMessageTypeReceived.get();
     }
 
+    /**
+     * Chooses the checksum algorithm of the data channel from the features the orchestrator supports.
+     * Orchestrators which acknowledge no checksum features get MD5 checksums.
+     * The backup chunk size adapts to the data channel if both the agent and the orchestrator support it.
+     * @param acknowledgement the registration acknowledgement of the orchestrator
+     */
+    protected void acknowledgeRegistration(final RegisterAcknowledge acknowledgement) {
+        this.checksumAlgorithm = ChecksumAlgorithm.negotiate(registeredFeatures, acknowledgement.getBroSupportedAgentFeatureList());
+        log.info("The agent is using the {} checksum algorithm on the data channel", checksumAlgorithm);
+        if (registeredFeatures.contains(AgentFeature.ADAPTIVE_CHUNK_SIZE)
+                && acknowledgement.getBroSupportedAgentFeatureList().contains(AgentFeature.ADAPTIVE_CHUNK_SIZE)
+                && acknowledgement.getMaxChunkSizeInBytes() > 0) {
+            this.maxChunkSize = Math.min(AGENT_FRAGMENT_CHUNK_MAX_SIZE.getValue(), acknowledgement.getMaxChunkSizeInBytes());
+            log.info("The agent is adapting the backup chunk size on the data channel up to {} bytes", maxChunkSize);
+        }
+    }
+
+    /**
+     * Get the checksum algorithm used on the data channel
+     * @return the checksum algorithm negotiated with the orchestrator
+     */
+    protected ChecksumAlgorithm getChecksumAlgorithm() {
+        return this.checksumAlgorithm;
+    }
+
+    /**
+     * Get the size of the chunks sent on a backup stream. It adapts to the stream, up to the largest chunk the
+     * orchestrator accepts, if that was negotiated on registration and is otherwise AGENT_FRAGMENT_CHUNK_SIZE.
+     * @param backupStream the stream the chunks are sent on
+     * @return the chunk size, to be closed once the stream is done
+     */
+    protected AdaptiveChunkSize getBackupChunkSize(final StreamObserver<BackupData> backupStream) {
+        final int negotiatedMaxChunkSize = this.maxChunkSize;
+        if (negotiatedMaxChunkSize <= 0) {
+            return AdaptiveChunkSize.fixed(AGENT_FRAGMENT_CHUNK_SIZE.getValue());
+        }
+        final LongSupplier blockedNanos = backupStream instanceof BackupDataStream
+                ? () -> ((BackupDataStream) backupStream).getTimeBlockedOnBackpressure().toNanos()
+                : () -> 0L;
+        return new AdaptiveChunkSize(AGENT_FRAGMENT_CHUNK_SIZE.getValue(), AGENT_FRAGMENT_CHUNK_MIN_SIZE.getValue(),
+                negotiatedMaxChunkSize, CHUNK_MEMORY_BUDGET, blockedNanos);
+    }
+
     /**
      * Execute a backup
      * @param backupExecutionActions actions the agent can execute
@@ -300,7 +365,16 @@ public class Agent {
         final RegistrationInformation registrationInformation = this.agentBehavior.getRegistrationInformation();
         registrationInformation.setApiVersion(this.grpcApiVersion.toString());
         log.info("The agent is using the agent GRPC API version {}", registrationInformation.getApiVersion());
-        return RegistrationMessageFactory.getRegistrationMessage(registrationInformation);
+        final AgentControl registrationMessage = RegistrationMessageFactory.getRegistrationMessage(registrationInformation);
+        final Register.Builder register = registrationMessage.getRegister().toBuilder();
+        // Tells the orchestrator the agent calculates the checksum it negotiates, unlike agents which predate it
+        if (!register.getAgentFeatureList().contains(AgentFeature.CHECKSUM_NEGOTIATION)) {
+            register.addAgentFeature(AgentFeature.CHECKSUM_NEGOTIATION);
+        }
+        if (register.getAgentFeatureList().contains(AgentFeature.ADAPTIVE_CHUNK_SIZE)) {
+            register.setMaxChunkSizeInBytes(AdaptiveChunkSize.getMaxChunkSize(maxInboundMessageSize));
+        }
+        return registrationMessage.toBuilder().setRegister(register).build();
     }
 
     private AgentControl getStageCompleteMessage(final String message, final boolean success, final Action action) {
@@ -327,6 +401,14 @@ public class Agent {
         this.secondsToRetryACK = seconds_to_retry_ack;
     }
 
+    /**
+     * Set the largest message the agent accepts from the orchestrator, which bounds the restore chunks it asks for
+     * @param maxInboundMessageSize the largest message, in bytes
+     */
+    public void setMaxInboundMessageSize(final int maxInboundMessageSize) {
+        this.maxInboundMessageSize = maxInboundMessageSize;
+    }
+
     /**
      * Set the type of the last message received by the Agent from the orchestrator
      * @param messageType the type of message received from the orchestrator
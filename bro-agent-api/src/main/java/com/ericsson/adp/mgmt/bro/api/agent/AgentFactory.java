@@ -83,6 +83,7 @@ public class AgentFactory {
         final int numSecondsToWaitForACK = orchestratorConnectionInformation.getNumberSecondsWaitForACK();
         log.info("The Agent will wait for <{}> seconds for an acknowledgment from the orchestrator", numSecondsToWaitForACK);
         agent.setSecondsToRetryACK(numSecondsToWaitForACK);
+        agent.setMaxInboundMessageSize(orchestratorConnectionInformation.getMaxInboundMessageSize());
 
         agent.register(new OrchestratorStreamObserver(agent));
 
@@ -11,9 +11,18 @@
  *----------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.bro.api.agent;
 
+import static com.ericsson.adp.mgmt.bro.api.grpc.GRPCConfig.AGENT_BACKUP_PARALLEL_STREAMS;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import com.ericsson.adp.mgmt.bro.api.exception.FailedToTransferBackupException;
 import com.ericsson.adp.mgmt.bro.api.fragment.BackupFragmentInformation;
 import com.ericsson.adp.mgmt.bro.api.service.BackupService;
+import com.ericsson.adp.mgmt.data.BackupData;
+
+import io.grpc.stub.StreamObserver;
 
 /**
  * Provides functions for an agent to send metadata, the backup and custom metadata.
@@ -37,10 +46,37 @@ public class BackupExecutionActions extends BackupActions {
      * @throws FailedToTransferBackupException If there is an issue in the transfer this will be thrown
      */
     public void sendBackup(final BackupFragmentInformation fragmentInformation) throws FailedToTransferBackupException {
-        final BackupService backupService = new BackupService(agent.getBackupStream());
+        final StreamObserver<BackupData> backupStream = agent.getBackupStream();
+        final BackupService backupService = new BackupService(backupStream, agent.getChecksumAlgorithm(),
+                agent.getBackupChunkSize(backupStream));
         backupService.backup(fragmentInformation, agent.getAgentId(), actionInformation.getBackupName());
     }
 
+    /**
+     * To be used to send several fragments to the orchestrator at once, each on its own data stream,
+     * with up to AGENT_BACKUP_PARALLEL_STREAMS streams open at a time.
+     * Returns without waiting for the fragments to be sent; wait on the completions before calling backupComplete.
+     * @param fragments The information about each fragment, with distinct fragment ids.
+     * @return The completion of each fragment by fragment id, in the order of the list. A completion fails with
+     *         {@link FailedToTransferBackupException} if its fragment could not be sent, which doesn't stop the others.
+     */
+    public Map<String, CompletableFuture<Void>> sendBackups(final List<BackupFragmentInformation> fragments) {
+        return sendBackups(fragments, AGENT_BACKUP_PARALLEL_STREAMS.getValue());
+    }
+
+    /**
+     * To be used to send several fragments to the orchestrator at once, each on its own data stream.
+     * Returns without waiting for the fragments to be sent; wait on the completions before calling backupComplete.
+     * @param fragments The information about each fragment, with distinct fragment ids.
+     * @param parallelStreams The most data streams open at a time.
+     * @return The completion of each fragment by fragment id, in the order of the list. A completion fails with
+     *         {@link FailedToTransferBackupException} if its fragment could not be sent, which doesn't stop the others.
+     */
+    public Map<String, CompletableFuture<Void>> sendBackups(final List<BackupFragmentInformation> fragments,
+                                                            final int parallelStreams) {
+        return new ParallelBackupSender(parallelStreams, this::sendBackup).send(fragments);
+    }
+
     /**
      * Once all backup fragments have been sent call this method to inform the orchestrator that the backup execution has completed
      * @param success Inform the orchestrator if the backup was successful or not
@@ -27,7 +27,7 @@ import java.util.Map;
  */
 public class OrchestratorConnectionInformation {
     public static final int DEFAULT_REGISTRATION_ACK_TIMEOUT = 10;
-    private static final int DEFAULT_MAX_INBOUND_MESSAGE_SIZE = GrpcUtil.DEFAULT_MAX_MESSAGE_SIZE;
+    public static final int DEFAULT_MAX_INBOUND_MESSAGE_SIZE = GrpcUtil.DEFAULT_MAX_MESSAGE_SIZE;
     private static final Logger log = LogManager.getLogger(OrchestratorConnectionInformation.class);
 
     private final String host;
@@ -58,6 +58,7 @@ public class OrchestratorStreamObserver implements StreamObserver<OrchestratorCo
         final OrchestratorMessageType orchestratorMessageType = message.getOrchestratorMessageType();
         setLastMessageTypeReceived(Optional.of(orchestratorMessageType.toString()));
         if (message.hasRegisterAcknowledge()) {
+            agent.acknowledgeRegistration(message.getRegisterAcknowledge());
             logRegistrationAck(message, previousMessageReceived);
         } else {
             logReceivedMessageTypeAndAction(message);
@@ -0,0 +1,123 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.bro.api.agent;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ericsson.adp.mgmt.bro.api.exception.FailedToTransferBackupException;
+import com.ericsson.adp.mgmt.bro.api.fragment.BackupFragmentInformation;
+
+/**
+ * Sends a list of fragments on up to a bounded number of data streams at once, one stream per fragment.
+ * The orchestrator keeps the state of each stream apart, so fragments with distinct ids can be sent concurrently.
+ */
+class ParallelBackupSender {
+
+    private static final Logger log = LogManager.getLogger(ParallelBackupSender.class);
+    private static final AtomicInteger SENDER_COUNT = new AtomicInteger();
+
+    private final int parallelStreams;
+    private final FragmentSender fragmentSender;
+
+    /**
+     * Creates the sender
+     * @param parallelStreams the most streams open at once
+     * @param fragmentSender sends one fragment on its own stream
+     */
+    ParallelBackupSender(final int parallelStreams, final FragmentSender fragmentSender) {
+        if (parallelStreams < 1) {
+            throw new IllegalArgumentException("The number of parallel streams must be positive, was " + parallelStreams);
+        }
+        this.parallelStreams = parallelStreams;
+        this.fragmentSender = fragmentSender;
+    }
+
+    /**
+     * Starts sending the fragments, in the order of the list, without waiting for them to be sent
+     * @param fragments to send, with distinct fragment ids
+     * @return the completion of each fragment by fragment id, in the order of the list
+     */
+    Map<String, CompletableFuture<Void>> send(final List<BackupFragmentInformation> fragments) {
+        validateFragmentIds(fragments);
+        final Map<String, CompletableFuture<Void>> completions = new LinkedHashMap<>();
+        if (fragments.isEmpty()) {
+            return Collections.unmodifiableMap(completions);
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelStreams, fragments.size()),
+                getThreadFactory(SENDER_COUNT.incrementAndGet()));
+        try {
+            for (final BackupFragmentInformation fragment : fragments) {
+                final CompletableFuture<Void> completion = new CompletableFuture<>();
+                completions.put(fragment.getFragmentId(), completion);
+                executor.execute(() -> send(fragment, completion));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return Collections.unmodifiableMap(completions);
+    }
+
+    private void send(final BackupFragmentInformation fragment, final CompletableFuture<Void> completion) {
+        try {
+            fragmentSender.send(fragment);
+            completion.complete(null);
+        } catch (final Exception e) {
+            log.error("Failed to send fragment <{}>", fragment.getFragmentId(), e);
+            completion.completeExceptionally(e);
+        }
+    }
+
+    private void validateFragmentIds(final List<BackupFragmentInformation> fragments) {
+        final Set<String> fragmentIds = new HashSet<>();
+        for (final BackupFragmentInformation fragment : fragments) {
+            if (!fragmentIds.add(fragment.getFragmentId())) {
+                throw new IllegalArgumentException("Fragment <" + fragment.getFragmentId() + "> is sent more than once");
+            }
+        }
+    }
+
+    private ThreadFactory getThreadFactory(final int senderId) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, "backup-sender-" + senderId + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Sends one fragment on its own data stream
+     */
+    @FunctionalInterface
+    interface FragmentSender {
+
+        /**
+         * Sends the fragment, returning once the orchestrator has received it
+         * @param fragment to send
+         * @throws FailedToTransferBackupException if the fragment could not be sent
+         */
+        void send(BackupFragmentInformation fragment) throws FailedToTransferBackupException;
+    }
+}
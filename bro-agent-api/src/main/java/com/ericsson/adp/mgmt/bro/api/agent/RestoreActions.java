@@ -65,7 +65,7 @@ public abstract class RestoreActions {
      * @throws FailedToDownloadException when there occurs an issue while downloading fragment
      */
     public void downloadFragment(final FragmentInformation fragment, final String restoreLocation) throws FailedToDownloadException {
-        final RestoreService restoreService = new RestoreService(restoreLocation);
+        final RestoreService restoreService = new RestoreService(restoreLocation, agent.getChecksumAlgorithm());
         final Iterator<RestoreData> restoreDataIterator = this.agent.getRestoreDataIterator(metadataBuilder(fragment));
         try {
             restoreService.download(restoreDataIterator);
@@ -14,6 +14,7 @@ package com.ericsson.adp.mgmt.bro.api.filetransfer;
 import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.function.IntSupplier;
 import java.util.function.ObjIntConsumer;
 
 /**
@@ -45,12 +46,33 @@ public class FileChunkServiceUtil {
      */
     public static void processFileChunks(final String path, final ObjIntConsumer<byte[]> chunkConsumer,
                                          final int fileChunkSize) throws IOException {
+        processFileChunks(path, chunkConsumer, () -> fileChunkSize);
+    }
+
+    /**
+     * Gives chunks of file from the given path, in chunks whose size may change between chunks
+     *
+     * @param path
+     *            to the file to be consumed
+     * @param chunkConsumer
+     *            Consume file in chunks
+     * @param fileChunkSize
+     *            supplies the file chunk size, in bytes, before each chunk is read
+     * @throws IOException
+     *             check file exists
+     */
+    public static void processFileChunks(final String path, final ObjIntConsumer<byte[]> chunkConsumer,
+                                         final IntSupplier fileChunkSize) throws IOException {
         try (BufferedInputStream fileStream = new BufferedInputStream(new FileInputStream(path))) {
-            final byte[] chunk = new byte[fileChunkSize];
+            byte[] chunk = new byte[fileChunkSize.getAsInt()];
             int bytesReadInChunk;
 
-            while ((bytesReadInChunk = fileStream.read(chunk, 0, fileChunkSize)) != NO_BYTES_READ) {
+            while ((bytesReadInChunk = fileStream.read(chunk, 0, chunk.length)) != NO_BYTES_READ) {
                 chunkConsumer.accept(chunk, bytesReadInChunk);
+                final int nextChunkSize = fileChunkSize.getAsInt();
+                if (nextChunkSize != chunk.length) {
+                    chunk = new byte[nextChunkSize];
+                }
             }
         }
     }
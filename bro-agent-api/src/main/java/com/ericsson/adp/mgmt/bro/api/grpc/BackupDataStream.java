@@ -11,10 +11,12 @@
  *------------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.bro.api.grpc;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.time.Duration;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -33,14 +35,20 @@ import static com.ericsson.adp.mgmt.bro.api.grpc.GRPCConfig.AGENT_DATA_CHANNEL_T
 
 /**
  * Wraps stream of backup data, adding flow control and timeout.
+ * While the stream is not ready, the sending thread is parked until gRPC signals
+ * through the listener's onReady callback that the transport can accept more messages.
  */
 public class BackupDataStream implements StreamObserver<BackupData> {
 
     private static final Logger log = LogManager.getLogger(BackupDataStream.class);
     private static final int SECONDS_TO_WAIT_FOR_RESPONSE_FROM_BRO = 2;
+    private static final long READINESS_RECHECK_NANOS = TimeUnit.SECONDS.toNanos(1);
 
     private final CountDownLatch latch = new CountDownLatch(1);
     private final ClientCall<BackupData, Empty> backupStream;
+    private final Lock readinessLock = new ReentrantLock();
+    private final Condition streamReady = readinessLock.newCondition();
+    private long nanosBlockedOnBackpressure;
 
     /**
      * Creates stream based on existing stream.
@@ -62,6 +70,7 @@ public class BackupDataStream implements StreamObserver<BackupData> {
         backupStream.request(1);
         backupStream.halfClose();
         Uninterruptibles.awaitUninterruptibly(latch, SECONDS_TO_WAIT_FOR_RESPONSE_FROM_BRO, TimeUnit.SECONDS);
+        log.debug("Data channel was blocked on backpressure for <{}> ms", getTimeBlockedOnBackpressure().toMillis());
     }
 
     @Override
@@ -88,16 +97,55 @@ public class BackupDataStream implements StreamObserver<BackupData> {
             public void onClose(final Status status, final Metadata trailers) {
                 log.debug("Data channel connection closed with status <{}>", status);
                 latch.countDown();
+                signalStreamReady();
+            }
+
+            @Override
+            public void onReady() {
+                signalStreamReady();
             }
         }, new io.grpc.Metadata());
     }
 
+    /**
+     * Total time the sender was blocked waiting for the stream to be ready.
+     * @return time blocked on backpressure.
+     */
+    public Duration getTimeBlockedOnBackpressure() {
+        return Duration.ofNanos(nanosBlockedOnBackpressure);
+    }
+
     private void waitForStreamToBeReady() {
-        final Instant startWaitingInstant = Instant.now();
-        while (!backupStream.isReady()) {
-            if (ChronoUnit.SECONDS.between(startWaitingInstant, Instant.now()) > AGENT_DATA_CHANNEL_TIMEOUT_SECS.getValue()) {
-                throw new TimedOutDataChannelException(AGENT_DATA_CHANNEL_TIMEOUT_SECS.getValue());
+        if (backupStream.isReady()) {
+            return;
+        }
+        final int timeToWait = AGENT_DATA_CHANNEL_TIMEOUT_SECS.getValue();
+        final long startWaiting = System.nanoTime();
+        final long deadline = startWaiting + TimeUnit.SECONDS.toNanos(timeToWait);
+        readinessLock.lock();
+        try {
+            while (!backupStream.isReady()) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimedOutDataChannelException(timeToWait);
+                }
+                streamReady.awaitNanos(Math.min(remaining, READINESS_RECHECK_NANOS));
             }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimedOutDataChannelException(timeToWait);
+        } finally {
+            readinessLock.unlock();
+            nanosBlockedOnBackpressure += System.nanoTime() - startWaiting;
+        }
+    }
+
+    private void signalStreamReady() {
+        readinessLock.lock();
+        try {
+            streamReady.signalAll();
+        } finally {
+            readinessLock.unlock();
         }
     }
 
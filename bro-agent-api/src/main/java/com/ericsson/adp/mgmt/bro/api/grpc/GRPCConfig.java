@@ -24,7 +24,27 @@ public enum GRPCConfig {
      /**
      * Maximum Size, in bytes, of fragment chunk to send with each backup data message
      */
-    AGENT_FRAGMENT_CHUNK_SIZE(512, 1024);
+    AGENT_FRAGMENT_CHUNK_SIZE(512, 1024),
+
+    /**
+     * Minimum Size, in bytes, a fragment chunk shrinks to when the chunk size is adapted to the data channel
+     */
+    AGENT_FRAGMENT_CHUNK_MIN_SIZE(64, 1024),
+
+    /**
+     * Maximum Size, in bytes, a fragment chunk grows to when the chunk size is adapted to the data channel
+     */
+    AGENT_FRAGMENT_CHUNK_MAX_SIZE(4096, 1024),
+
+    /**
+     * Memory, in bytes, the chunks in flight on all data channels of the agent may hold before they stop growing
+     */
+    AGENT_FRAGMENT_CHUNK_MEMORY_BUDGET(64, 1024 * 1024),
+
+    /**
+     * Number of data channels opened at once when a list of fragments is sent in parallel
+     */
+    AGENT_BACKUP_PARALLEL_STREAMS(4);
 
     private final int value;
 
@@ -21,9 +21,11 @@ import org.apache.logging.log4j.Logger;
 import com.ericsson.adp.mgmt.bro.api.exception.FailedToTransferBackupException;
 import com.ericsson.adp.mgmt.bro.api.filetransfer.FileChunkServiceUtil;
 import com.ericsson.adp.mgmt.bro.api.fragment.BackupFragmentInformation;
+import com.ericsson.adp.mgmt.bro.api.grpc.AdaptiveChunkSize;
 import com.ericsson.adp.mgmt.bro.api.grpc.BackupFileMessageBuilder;
 import com.ericsson.adp.mgmt.bro.api.grpc.BackupMessageBuilder;
 import com.ericsson.adp.mgmt.bro.api.grpc.CustomMetadataFileMessageBuilder;
+import com.ericsson.adp.mgmt.bro.api.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.bro.api.util.ChecksumCalculator;
 import com.ericsson.adp.mgmt.data.BackupData;
 import com.ericsson.adp.mgmt.data.DataMessageType;
@@ -41,6 +43,8 @@ public class BackupService {
 
     private static final Logger log = LogManager.getLogger(BackupService.class);
     private final StreamObserver<BackupData> backupStream;
+    private final ChecksumAlgorithm checksumAlgorithm;
+    private final AdaptiveChunkSize chunkSize;
 
     /**
      * Creates BackupService.
@@ -48,7 +52,34 @@ public class BackupService {
      *            The stream to use to send the backup data to the orchestrator
      */
     public BackupService(final StreamObserver<BackupData> backupStream) {
+        this(backupStream, ChecksumAlgorithm.MD5);
+    }
+
+    /**
+     * Creates BackupService.
+     * @param backupStream
+     *            The stream to use to send the backup data to the orchestrator
+     * @param checksumAlgorithm
+     *            The checksum algorithm negotiated with the orchestrator
+     */
+    public BackupService(final StreamObserver<BackupData> backupStream, final ChecksumAlgorithm checksumAlgorithm) {
+        this(backupStream, checksumAlgorithm, AdaptiveChunkSize.fixed(AGENT_FRAGMENT_CHUNK_SIZE.getValue()));
+    }
+
+    /**
+     * Creates BackupService.
+     * @param backupStream
+     *            The stream to use to send the backup data to the orchestrator
+     * @param checksumAlgorithm
+     *            The checksum algorithm negotiated with the orchestrator
+     * @param chunkSize
+     *            The size of the file chunks sent on the stream, released once the backup is sent
+     */
+    public BackupService(final StreamObserver<BackupData> backupStream, final ChecksumAlgorithm checksumAlgorithm,
+                         final AdaptiveChunkSize chunkSize) {
         this.backupStream = backupStream;
+        this.checksumAlgorithm = checksumAlgorithm;
+        this.chunkSize = chunkSize;
     }
 
     /**
@@ -77,6 +108,8 @@ public class BackupService {
             log.error("Error sending file for: " + backupName, e);
             sendErrorResponse(e);
             throw new FailedToTransferBackupException("There was an error while trying to transfer: " + fragmentInformation.getBackupFilePath(), e);
+        } finally {
+            chunkSize.close();
         }
     }
 
@@ -90,7 +123,7 @@ public class BackupService {
 
     private void sendFile(final String path, final BackupMessageBuilder backupMessageBuilder) throws IOException {
         log.debug("Transferring file <{}>", path);
-        final ChecksumCalculator calculator = new ChecksumCalculator();
+        final ChecksumCalculator calculator = new ChecksumCalculator(checksumAlgorithm);
 
         log.debug("Sending message with file name");
         sendMessage(backupMessageBuilder.getFileNameMessage(getFileName(path)));
@@ -100,7 +133,8 @@ public class BackupService {
             log.debug("Sending message with file chunk");
             sendMessage(backupMessageBuilder.getDataMessage(ByteString.copyFrom(chunk, 0, bytesReadInChunk)));
             calculator.addBytes(chunk, 0, bytesReadInChunk);
-        }, AGENT_FRAGMENT_CHUNK_SIZE.getValue());
+            chunkSize.record(bytesReadInChunk);
+        }, chunkSize);
 
         log.debug("Sending message with checksum");
         sendMessage(backupMessageBuilder.getChecksumMessage(calculator.getChecksum()));
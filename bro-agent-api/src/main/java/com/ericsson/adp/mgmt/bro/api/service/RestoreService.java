@@ -23,6 +23,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.ericsson.adp.mgmt.bro.api.exception.FailedToDownloadException;
+import com.ericsson.adp.mgmt.bro.api.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.bro.api.util.ChecksumCalculator;
 import com.ericsson.adp.mgmt.data.BackupFileChunk;
 import com.ericsson.adp.mgmt.data.CustomMetadataFileChunk;
@@ -52,7 +53,21 @@ public class RestoreService {
      *             exception
      */
     public RestoreService(final String restoreLocation) throws FailedToDownloadException {
-        this.calculator = new ChecksumCalculator();
+        this(restoreLocation, ChecksumAlgorithm.MD5);
+    }
+
+    /**
+     * Stores fragment data sent in restore data stream
+     *
+     * @param restoreLocation
+     *            the directory to download fragments to
+     * @param checksumAlgorithm
+     *            the checksum algorithm negotiated with the orchestrator
+     * @throws FailedToDownloadException
+     *             exception
+     */
+    public RestoreService(final String restoreLocation, final ChecksumAlgorithm checksumAlgorithm) throws FailedToDownloadException {
+        this.calculator = new ChecksumCalculator(checksumAlgorithm);
         this.restoreLocation = Paths.get(restoreLocation);
     }
 
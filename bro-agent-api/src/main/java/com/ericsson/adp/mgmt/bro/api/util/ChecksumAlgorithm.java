@@ -0,0 +1,66 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.bro.api.util;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.ericsson.adp.mgmt.metadata.AgentFeature;
+
+/**
+ * Checksum algorithms which can be used on the data channel.
+ * An agent uses CRC32C or xxHash64 when it registers with the matching CHECKSUM_* agent feature and the
+ * orchestrator acknowledges the same feature, as well as CHECKSUM_NEGOTIATION on both sides. Otherwise MD5 is used,
+ * as with orchestrators which predate them. Agents released before the negotiation could declare CHECKSUM_XXHASH_64
+ * while still sending MD5 checksums, so the feature alone doesn't say which checksum an agent sends.
+ */
+public enum ChecksumAlgorithm {
+    MD5(AgentFeature.CHECKSUM_MD5),
+    XXHASH64(AgentFeature.CHECKSUM_XXHASH_64),
+    CRC32C(AgentFeature.CHECKSUM_CRC32C);
+
+    /**
+     * Algorithms preferred over MD5, fastest first. The orchestrator makes the same choice.
+     */
+    private static final List<ChecksumAlgorithm> NEGOTIABLE = List.of(CRC32C, XXHASH64);
+
+    private final AgentFeature agentFeature;
+
+    ChecksumAlgorithm(final AgentFeature agentFeature) {
+        this.agentFeature = agentFeature;
+    }
+
+    /**
+     * Get the agent feature advertising this algorithm
+     * @return the agent feature
+     */
+    public AgentFeature getAgentFeature() {
+        return agentFeature;
+    }
+
+    /**
+     * Chooses the algorithm used on the data channel
+     * @param agentFeatures the features the agent registered with
+     * @param orchestratorFeatures the features acknowledged by the orchestrator
+     * @return the fastest algorithm supported by both, or MD5 if either side doesn't negotiate checksums
+     */
+    public static ChecksumAlgorithm negotiate(final Collection<AgentFeature> agentFeatures,
+                                              final Collection<AgentFeature> orchestratorFeatures) {
+        if (!agentFeatures.contains(AgentFeature.CHECKSUM_NEGOTIATION) || !orchestratorFeatures.contains(AgentFeature.CHECKSUM_NEGOTIATION)) {
+            return MD5;
+        }
+        return NEGOTIABLE.stream()
+                .filter(algorithm -> agentFeatures.contains(algorithm.agentFeature) && orchestratorFeatures.contains(algorithm.agentFeature))
+                .findFirst()
+                .orElse(MD5);
+    }
+}
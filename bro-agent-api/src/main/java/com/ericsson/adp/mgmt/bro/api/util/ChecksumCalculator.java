@@ -14,6 +14,7 @@ package com.ericsson.adp.mgmt.bro.api.util;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32C;
 
 import jakarta.xml.bind.DatatypeConverter;
 
@@ -22,6 +23,9 @@ import org.apache.logging.log4j.LogManager;
 
 import com.ericsson.adp.mgmt.bro.api.filetransfer.FileChunkServiceUtil;
 
+import net.jpountz.xxhash.StreamingXXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+
 /**
  * Calculates Checksum
  */
@@ -29,16 +33,30 @@ public class ChecksumCalculator {
 
     private static final Logger log = LogManager.getLogger(ChecksumCalculator.class);
 
-    private MessageDigest digest;
+    private final Hasher hasher;
 
     /**
-     * Creates a checksum calculator.
+     * Creates a MD5 checksum calculator.
      */
     public ChecksumCalculator() {
-        try {
-            this.digest = MessageDigest.getInstance("MD5");
-        } catch (final NoSuchAlgorithmException e) {
-            log.error("Checksum algorithm does not exists", e);
+        this(ChecksumAlgorithm.MD5);
+    }
+
+    /**
+     * Creates a checksum calculator.
+     * @param algorithm the checksum algorithm negotiated with the orchestrator
+     */
+    public ChecksumCalculator(final ChecksumAlgorithm algorithm) {
+        switch (algorithm) {
+            case CRC32C:
+                this.hasher = new CRC32CHasher();
+                break;
+            case XXHASH64:
+                this.hasher = new XXHash64Hasher();
+                break;
+            default:
+                this.hasher = new MD5Hasher();
+                break;
         }
     }
 
@@ -47,7 +65,7 @@ public class ChecksumCalculator {
      * @param bytes to be read.
      */
     public void addBytes(final byte[] bytes) {
-        digest.update(bytes);
+        hasher.update(bytes, 0, bytes.length);
     }
 
     /**
@@ -57,7 +75,7 @@ public class ChecksumCalculator {
      * @param length bytes read in chunk
      */
     public void addBytes(final byte[] bytes, final int offset, final int length) {
-        digest.update(bytes, offset, length);
+        hasher.update(bytes, offset, length);
     }
 
     /**
@@ -65,7 +83,7 @@ public class ChecksumCalculator {
      * @return checksum.
      */
     public String getChecksum() {
-        return toHex(digest.digest());
+        return hasher.finish();
     }
 
     /**
@@ -75,16 +93,70 @@ public class ChecksumCalculator {
      * @throws IOException check file exists
      */
     public String calculateChecksum(final String path) throws IOException {
-        FileChunkServiceUtil.processFileChunks(path, (chunk, bytesReadInChunk) -> digest.update(chunk, 0, bytesReadInChunk));
-        return toHex(digest.digest());
+        FileChunkServiceUtil.processFileChunks(path, (chunk, bytesReadInChunk) -> hasher.update(chunk, 0, bytesReadInChunk));
+        return hasher.finish();
     }
 
     /**
-     * Converts array of bytes to string
-     * @param bytes value of checksum
-     * @return string value of checksum
+     * Incremental calculation of a checksum, in the format the orchestrator uses for the same algorithm
      */
-    private String toHex(final byte[] bytes) {
-        return DatatypeConverter.printHexBinary(bytes);
+    private interface Hasher {
+        void update(byte[] bytes, int offset, int length);
+
+        String finish();
+    }
+
+    private static class MD5Hasher implements Hasher {
+        private MessageDigest digest;
+
+        MD5Hasher() {
+            try {
+                this.digest = MessageDigest.getInstance("MD5");
+            } catch (final NoSuchAlgorithmException e) {
+                log.error("Checksum algorithm does not exists", e);
+            }
+        }
+
+        @Override
+        public void update(final byte[] bytes, final int offset, final int length) {
+            digest.update(bytes, offset, length);
+        }
+
+        @Override
+        public String finish() {
+            return DatatypeConverter.printHexBinary(digest.digest());
+        }
+    }
+
+    private static class CRC32CHasher implements Hasher {
+        private final CRC32C crc = new CRC32C();
+
+        @Override
+        public void update(final byte[] bytes, final int offset, final int length) {
+            crc.update(bytes, offset, length);
+        }
+
+        @Override
+        public String finish() {
+            final String checksum = String.format("%08x", crc.getValue());
+            crc.reset();
+            return checksum;
+        }
+    }
+
+    private static class XXHash64Hasher implements Hasher {
+        private final StreamingXXHash64 hash64 = XXHashFactory.fastestInstance().newStreamingHash64(0);
+
+        @Override
+        public void update(final byte[] bytes, final int offset, final int length) {
+            hash64.update(bytes, offset, length);
+        }
+
+        @Override
+        public String finish() {
+            final String checksum = String.format("%016x", hash64.getValue());
+            hash64.reset();
+            return checksum;
+        }
     }
 }
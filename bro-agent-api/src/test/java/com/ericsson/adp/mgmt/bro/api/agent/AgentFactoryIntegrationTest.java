@@ -37,6 +37,7 @@ import com.ericsson.adp.mgmt.control.ControlInterfaceGrpc.ControlInterfaceImplBa
 import com.ericsson.adp.mgmt.control.OrchestratorControl;
 import com.ericsson.adp.mgmt.control.OrchestratorMessageType;
 import com.ericsson.adp.mgmt.control.Register;
+import com.ericsson.adp.mgmt.metadata.AgentFeature;
 import com.ericsson.adp.mgmt.metadata.SoftwareVersionInfo;
 
 import io.grpc.BindableService;
@@ -71,6 +72,7 @@ public class AgentFactoryIntegrationTest extends GrpcServiceIntegrationTest {
         assertEquals("123", register.getAgentId());
         assertEquals("4.0", register.getApiVersion());
         assertEquals("scope", register.getScope());
+        assertTrue(register.getAgentFeatureList().contains(AgentFeature.CHECKSUM_NEGOTIATION));
 
         final SoftwareVersionInfo softwareVersionInfo = register.getSoftwareVersionInfo();
         assertEquals("description", softwareVersionInfo.getDescription());
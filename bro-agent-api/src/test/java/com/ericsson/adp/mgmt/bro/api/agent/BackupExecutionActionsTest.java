@@ -24,6 +24,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.ericsson.adp.mgmt.bro.api.fragment.BackupFragmentInformation;
+import com.ericsson.adp.mgmt.bro.api.grpc.AdaptiveChunkSize;
+import com.ericsson.adp.mgmt.bro.api.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.data.BackupData;
 
 import io.grpc.stub.StreamObserver;
@@ -43,6 +45,8 @@ public class BackupExecutionActionsTest {
 
         expect(agent.getBackupStream()).andReturn(streamStub);
         expect(agent.getAgentId()).andReturn("id");
+        expect(agent.getChecksumAlgorithm()).andReturn(ChecksumAlgorithm.MD5).anyTimes();
+        expect(agent.getBackupChunkSize(streamStub)).andReturn(AdaptiveChunkSize.fixed(512 * 1024)).anyTimes();
 
         final ActionInformation actionInformation = createMock(ActionInformation.class);
         expect(actionInformation.getBackupName()).andReturn("myBackup");
@@ -62,6 +62,8 @@ public class OrchestratorStreamObserverTest {
         expect(agent.getLastMessageTypeReceived()).andReturn(Optional.empty());
         this.agent.setLastMessageTypeReceived(Optional.of(OrchestratorMessageType.REGISTER_ACKNOWLEDGE.toString()));
         expectLastCall();
+        this.agent.acknowledgeRegistration(RegisterAcknowledge.newBuilder().build());
+        expectLastCall();
         // logging calls getAgentId
         expect(agent.getAgentId()).andReturn("id");
         final OrchestratorControl message = OrchestratorControl.newBuilder()
@@ -79,6 +81,8 @@ public class OrchestratorStreamObserverTest {
         expect(agent.getLastMessageTypeReceived()).andReturn(Optional.of("ERROR"));
         this.agent.setLastMessageTypeReceived(Optional.of(OrchestratorMessageType.REGISTER_ACKNOWLEDGE.toString()));
         expectLastCall();
+        this.agent.acknowledgeRegistration(RegisterAcknowledge.newBuilder().build());
+        expectLastCall();
         // logging calls getAgentId
         expect(agent.getAgentId()).andReturn("id");
         final OrchestratorControl message = OrchestratorControl.newBuilder()
@@ -96,6 +100,8 @@ public class OrchestratorStreamObserverTest {
         expect(agent.getLastMessageTypeReceived()).andReturn(Optional.of(OrchestratorMessageType.REGISTER_ACKNOWLEDGE.toString()));
         this.agent.setLastMessageTypeReceived(Optional.of(OrchestratorMessageType.REGISTER_ACKNOWLEDGE.toString()));
         expectLastCall();
+        this.agent.acknowledgeRegistration(RegisterAcknowledge.newBuilder().build());
+        expectLastCall();
         final OrchestratorControl message = OrchestratorControl.newBuilder()
                 .setOrchestratorMessageType(OrchestratorMessageType.REGISTER_ACKNOWLEDGE)
                 .setRegisterAcknowledge(RegisterAcknowledge.newBuilder().build())
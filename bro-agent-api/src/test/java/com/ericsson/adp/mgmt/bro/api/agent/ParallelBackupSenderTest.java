@@ -0,0 +1,141 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.bro.api.agent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.ericsson.adp.mgmt.bro.api.exception.FailedToTransferBackupException;
+import com.ericsson.adp.mgmt.bro.api.fragment.BackupFragmentInformation;
+
+public class ParallelBackupSenderTest {
+
+    @Test
+    public void send_moreFragmentsThanStreams_sendsAllFragmentsWithBoundedStreamsOpen() throws Exception {
+        final AtomicInteger openStreams = new AtomicInteger();
+        final AtomicInteger mostOpenStreams = new AtomicInteger();
+        final Set<String> sentFragments = ConcurrentHashMap.newKeySet();
+
+        final Map<String, CompletableFuture<Void>> completions = new ParallelBackupSender(3, fragment -> {
+            mostOpenStreams.accumulateAndGet(openStreams.incrementAndGet(), Math::max);
+            sleep(10);
+            sentFragments.add(fragment.getFragmentId());
+            openStreams.decrementAndGet();
+        }).send(getFragments(12));
+
+        CompletableFuture.allOf(completions.values().toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertEquals(12, sentFragments.size());
+        assertEquals(getFragmentIds(12), new ArrayList<>(completions.keySet()));
+        assertTrue(mostOpenStreams.get() <= 3);
+        assertTrue(mostOpenStreams.get() > 1);
+    }
+
+    @Test
+    public void send_fragmentFails_failsOnlyItsCompletion() throws Exception {
+        final Map<String, CompletableFuture<Void>> completions = new ParallelBackupSender(2, fragment -> {
+            if ("fragment1".equals(fragment.getFragmentId())) {
+                throw new FailedToTransferBackupException("failed", new RuntimeException());
+            }
+        }).send(getFragments(3));
+
+        completions.get("fragment0").get(10, TimeUnit.SECONDS);
+        completions.get("fragment2").get(10, TimeUnit.SECONDS);
+        try {
+            completions.get("fragment1").get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof FailedToTransferBackupException);
+        }
+        assertFalse(completions.get("fragment0").isCompletedExceptionally());
+    }
+
+    @Test
+    public void send_returnsBeforeFragmentsAreSent() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final Map<String, CompletableFuture<Void>> completions = new ParallelBackupSender(1, fragment -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }).send(getFragments(2));
+
+        assertFalse(completions.get("fragment0").isDone());
+        release.countDown();
+        completions.get("fragment1").get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void send_noFragments_returnsNoCompletions() {
+        assertTrue(new ParallelBackupSender(2, fragment -> { }).send(new ArrayList<>()).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void send_duplicateFragmentId_throwsException() {
+        final List<BackupFragmentInformation> fragments = getFragments(2);
+        fragments.add(getFragment("fragment0"));
+
+        new ParallelBackupSender(2, fragment -> { }).send(fragments);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_noStreams_throwsException() {
+        new ParallelBackupSender(0, fragment -> { });
+    }
+
+    private List<BackupFragmentInformation> getFragments(final int count) {
+        final List<BackupFragmentInformation> fragments = new ArrayList<>();
+        for (final String fragmentId : getFragmentIds(count)) {
+            fragments.add(getFragment(fragmentId));
+        }
+        return fragments;
+    }
+
+    private List<String> getFragmentIds(final int count) {
+        final List<String> fragmentIds = new ArrayList<>();
+        for (int fragment = 0; fragment < count; fragment++) {
+            fragmentIds.add("fragment" + fragment);
+        }
+        return fragmentIds;
+    }
+
+    private BackupFragmentInformation getFragment(final String fragmentId) {
+        final BackupFragmentInformation fragment = new BackupFragmentInformation();
+        fragment.setFragmentId(fragmentId);
+        return fragment;
+    }
+
+    private void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -90,6 +90,19 @@ public class FileChunkServiceUtilTest {
         assertEquals(expectedContent, fileContent);
     }
 
+    @Test
+    public void processFileChunks_chunkSizeChangesBetweenChunks_readsChunksOfEachSize() throws Exception {
+        final List<Integer> chunkSizes = new ArrayList<>();
+        final Counter counter = new Counter();
+
+        FileChunkServiceUtil.processFileChunks(path, (chunk, numberOfBytesRead) -> {
+            chunkSizes.add(numberOfBytesRead);
+            counter.increment();
+        }, () -> counter.getValue() == 0 ? 256 * 1024 : 768 * 1024);
+
+        assertEquals(List.of(256 * 1024, 768 * 1024), chunkSizes);
+    }
+
     private void createBackupFile() throws IOException {
         Files.createDirectories(ROOT_LOCATION);
 
@@ -0,0 +1,150 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.bro.api.grpc;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveChunkSizeTest {
+
+    private static final int KIB = 1024;
+    private static final int CHUNKS_PER_WINDOW = 16;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private ChunkMemoryBudget budget;
+
+    @Before
+    public void setUp() {
+        budget = new ChunkMemoryBudget(64L * 1024 * KIB);
+    }
+
+    @Test
+    public void record_streamRarelyBlocked_doublesChunkSize() {
+        final AdaptiveChunkSize chunkSize = chunkSize(64 * KIB);
+
+        sendWindow(chunkSize, 1, 0);
+
+        assertEquals(128 * KIB, chunkSize.getAsInt());
+        assertEquals(128 * KIB, budget.getReserved());
+    }
+
+    @Test
+    public void record_streamMostlyBlocked_halvesChunkSize() {
+        final AdaptiveChunkSize chunkSize = chunkSize(64 * KIB);
+
+        sendWindow(chunkSize, 4, 3);
+
+        assertEquals(32 * KIB, chunkSize.getAsInt());
+        assertEquals(32 * KIB, budget.getReserved());
+    }
+
+    @Test
+    public void record_growthDoesNotRaiseThroughput_revertsAndHoldsChunkSize() {
+        final AdaptiveChunkSize chunkSize = chunkSize(64 * KIB);
+
+        sendWindow(chunkSize, 1, 0);
+        sendWindow(chunkSize, 2, 0);
+        assertEquals(64 * KIB, chunkSize.getAsInt());
+
+        sendWindow(chunkSize, 1, 0);
+        assertEquals(64 * KIB, chunkSize.getAsInt());
+    }
+
+    @Test
+    public void record_growthRaisesThroughput_keepsGrowingUpToMaximum() {
+        final AdaptiveChunkSize chunkSize = chunkSize(256 * KIB);
+
+        sendWindow(chunkSize, 4, 0);
+        sendWindow(chunkSize, 2, 0);
+        sendWindow(chunkSize, 1, 0);
+
+        assertEquals(KIB * KIB, chunkSize.getAsInt());
+    }
+
+    @Test
+    public void record_budgetHasNoRoom_keepsChunkSize() {
+        budget = new ChunkMemoryBudget(100 * KIB);
+        final AdaptiveChunkSize chunkSize = chunkSize(64 * KIB);
+
+        sendWindow(chunkSize, 1, 0);
+
+        assertEquals(64 * KIB, chunkSize.getAsInt());
+    }
+
+    @Test
+    public void record_budgetExceeded_halvesChunkSize() {
+        budget = new ChunkMemoryBudget(64 * KIB);
+        final AdaptiveChunkSize chunkSize = chunkSize(64 * KIB);
+        final AdaptiveChunkSize otherChunkSize = chunkSize(64 * KIB);
+
+        sendWindow(chunkSize, 1, 0);
+
+        assertEquals(32 * KIB, chunkSize.getAsInt());
+        otherChunkSize.close();
+    }
+
+    @Test
+    public void record_chunkSizeAtMinimum_keepsMinimum() {
+        final AdaptiveChunkSize chunkSize = chunkSize(16 * KIB);
+
+        sendWindow(chunkSize, 4, 4);
+
+        assertEquals(16 * KIB, chunkSize.getAsInt());
+    }
+
+    @Test
+    public void close_chunkSize_releasesReservationOnce() {
+        final AdaptiveChunkSize chunkSize = chunkSize(64 * KIB);
+        sendWindow(chunkSize, 1, 0);
+
+        chunkSize.close();
+        chunkSize.close();
+
+        assertEquals(0, budget.getReserved());
+    }
+
+    @Test
+    public void fixed_chunkSize_neverChanges() {
+        final AdaptiveChunkSize chunkSize = AdaptiveChunkSize.fixed(512 * KIB);
+
+        for (int chunk = 0; chunk < 4 * CHUNKS_PER_WINDOW; chunk++) {
+            chunkSize.record(512 * KIB);
+        }
+
+        assertEquals(512 * KIB, chunkSize.getAsInt());
+        assertEquals(512 * KIB, chunkSize.getMaximum());
+    }
+
+    @Test
+    public void getMaxChunkSize_defaultGrpcMessageSize_leavesRoomForRestOfMessage() {
+        assertEquals(4 * KIB * KIB - 16 * KIB, AdaptiveChunkSize.getMaxChunkSize(4 * KIB * KIB));
+    }
+
+    private AdaptiveChunkSize chunkSize(final int initial) {
+        return new AdaptiveChunkSize(initial, 16 * KIB, KIB * KIB, budget, blocked::get, clock::get);
+    }
+
+    private void sendWindow(final AdaptiveChunkSize chunkSize, final long millisPer64KiB, final long blockedMillisPer64KiB) {
+        for (int chunk = 0; chunk < CHUNKS_PER_WINDOW; chunk++) {
+            final int bytes = chunkSize.getAsInt();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millisPer64KiB * bytes / (64 * KIB)));
+            blocked.addAndGet(TimeUnit.MILLISECONDS.toNanos(blockedMillisPer64KiB * bytes / (64 * KIB)));
+            chunkSize.record(bytes);
+        }
+    }
+}
@@ -14,6 +14,8 @@ package com.ericsson.adp.mgmt.bro.api.grpc;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.time.Duration;
+
 import org.junit.Test;
 
 import com.ericsson.adp.mgmt.bro.api.exception.TimedOutDataChannelException;
@@ -40,6 +42,43 @@ public class BackupDataStreamTest {
         new BackupDataStream(new NeverReadyClientCallStub()).onNext(BackupData.getDefaultInstance());
     }
 
+    @Test
+    public void onNext_streamBecomesReadyLater_waitsForOnReadyCallbackAndRecordsTimeBlocked() throws Exception {
+        final ReadyOnSignalClientCallStub clientCallStub = new ReadyOnSignalClientCallStub();
+        final BackupData message = BackupData.getDefaultInstance();
+        final BackupDataStream stream = new BackupDataStream(clientCallStub);
+
+        final Thread transport = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            clientCallStub.becomeReady();
+        });
+        transport.start();
+        stream.onNext(message);
+        transport.join();
+
+        assertEquals(message, clientCallStub.getMessage());
+        assertTrue(stream.getTimeBlockedOnBackpressure().toMillis() >= 100);
+    }
+
+    @Test
+    public void onNext_streamIsReady_doesNotRecordTimeBlocked() throws Exception {
+        final ClientCallStub clientCallStub = new ClientCallStub() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+        };
+        final BackupDataStream stream = new BackupDataStream(clientCallStub);
+
+        stream.onNext(BackupData.getDefaultInstance());
+
+        assertEquals(Duration.ZERO, stream.getTimeBlockedOnBackpressure());
+    }
+
     @Test
     public void onCompleted_streamIsOpen_closesStream() throws Exception {
         final ClientCallStub clientCallStub = new ClientCallStub();
@@ -67,9 +106,11 @@ public class BackupDataStreamTest {
         private Throwable error;
         private boolean startedConnection;
         private boolean completedConnection;
+        protected Listener<Empty> listener;
 
         @Override
         public void start(final Listener<Empty> arg0, final io.grpc.Metadata arg1) {
+            listener = arg0;
 
             new Thread(() -> {
                 try {
@@ -133,6 +174,22 @@ public class BackupDataStreamTest {
 
     }
 
+    private class ReadyOnSignalClientCallStub extends ClientCallStub {
+
+        private volatile boolean isReady;
+
+        @Override
+        public boolean isReady() {
+            return isReady;
+        }
+
+        public void becomeReady() {
+            isReady = true;
+            listener.onReady();
+        }
+
+    }
+
     private class NeverReadyClientCallStub extends ClientCallStub {
 
         @Override
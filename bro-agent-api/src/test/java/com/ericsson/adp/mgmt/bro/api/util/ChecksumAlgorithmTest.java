@@ -0,0 +1,79 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.bro.api.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.ericsson.adp.mgmt.metadata.AgentFeature;
+
+public class ChecksumAlgorithmTest {
+
+    @Test
+    public void negotiate_orchestratorWithoutChecksumFeatures_md5() {
+        assertEquals(ChecksumAlgorithm.MD5, ChecksumAlgorithm.negotiate(
+                List.of(AgentFeature.CHECKSUM_NEGOTIATION, AgentFeature.CHECKSUM_CRC32C, AgentFeature.CHECKSUM_XXHASH_64),
+                List.of(AgentFeature.PLAINTEXT)));
+    }
+
+    @Test
+    public void negotiate_agentWithoutChecksumFeatures_md5() {
+        assertEquals(ChecksumAlgorithm.MD5, ChecksumAlgorithm.negotiate(List.of(AgentFeature.PLAINTEXT, AgentFeature.CHECKSUM_NEGOTIATION),
+                List.of(AgentFeature.CHECKSUM_NEGOTIATION, AgentFeature.CHECKSUM_CRC32C, AgentFeature.CHECKSUM_XXHASH_64)));
+    }
+
+    @Test
+    public void negotiate_orchestratorWithoutChecksumNegotiation_md5() {
+        assertEquals(ChecksumAlgorithm.MD5, ChecksumAlgorithm.negotiate(
+                List.of(AgentFeature.CHECKSUM_NEGOTIATION, AgentFeature.CHECKSUM_XXHASH_64),
+                List.of(AgentFeature.CHECKSUM_MD5, AgentFeature.CHECKSUM_XXHASH_64)));
+    }
+
+    @Test
+    public void negotiate_bothSupportSeveralChecksums_fastestSharedAlgorithm() {
+        assertEquals(ChecksumAlgorithm.CRC32C, ChecksumAlgorithm.negotiate(
+                List.of(AgentFeature.CHECKSUM_NEGOTIATION, AgentFeature.CHECKSUM_XXHASH_64, AgentFeature.CHECKSUM_CRC32C),
+                List.of(AgentFeature.CHECKSUM_NEGOTIATION, AgentFeature.CHECKSUM_MD5, AgentFeature.CHECKSUM_XXHASH_64,
+                        AgentFeature.CHECKSUM_CRC32C)));
+        assertEquals(ChecksumAlgorithm.XXHASH64, ChecksumAlgorithm.negotiate(
+                List.of(AgentFeature.CHECKSUM_NEGOTIATION, AgentFeature.CHECKSUM_XXHASH_64, AgentFeature.CHECKSUM_CRC32C),
+                List.of(AgentFeature.CHECKSUM_NEGOTIATION, AgentFeature.CHECKSUM_MD5, AgentFeature.CHECKSUM_XXHASH_64)));
+    }
+
+    @Test
+    public void checksumCalculator_eachAlgorithm_sameFormatAsOrchestrator() {
+        assertEquals("e3069283", checksum(ChecksumAlgorithm.CRC32C, "123456789"));
+        assertEquals("44bc2cf5ad770999", checksum(ChecksumAlgorithm.XXHASH64, "abc"));
+        assertEquals("25F9E794323B453885F5181F1B624D0B", checksum(ChecksumAlgorithm.MD5, "123456789"));
+    }
+
+    @Test
+    public void checksumCalculator_checksumCalculatedTwice_startsAgainAfterEachChecksum() {
+        for (final ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            final ChecksumCalculator calculator = new ChecksumCalculator(algorithm);
+            calculator.addBytes("abc".getBytes(StandardCharsets.US_ASCII));
+            final String first = calculator.getChecksum();
+            calculator.addBytes("abc".getBytes(StandardCharsets.US_ASCII));
+            assertEquals(algorithm.name(), first, calculator.getChecksum());
+        }
+    }
+
+    private String checksum(final ChecksumAlgorithm algorithm, final String input) {
+        final ChecksumCalculator calculator = new ChecksumCalculator(algorithm);
+        calculator.addBytes(input.getBytes(StandardCharsets.US_ASCII));
+        return calculator.getChecksum();
+    }
+}
@@ -0,0 +1,109 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Random;
+
+/**
+ * Backup data shared by the benchmarks of the data path.
+ */
+public final class BenchmarkData {
+
+    public static final int KIB = 1024;
+    public static final int MIB = 1024 * KIB;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates data which doesn't compress, like an already compressed dump
+     * @param size in bytes
+     * @return the data
+     */
+    public static byte[] incompressible(final int size) {
+        final byte[] data = new byte[size];
+        new Random(1).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Creates data which compresses about as well as an application log
+     * @param size in bytes
+     * @return the data
+     */
+    public static byte[] compressible(final int size) {
+        final Random random = new Random(2);
+        final StringBuilder log = new StringBuilder(size + 128);
+        while (log.length() < size) {
+            log.append("2024-05-01T10:").append(10 + random.nextInt(50)).append(':').append(10 + random.nextInt(50))
+                .append(" INFO  [agent-").append(random.nextInt(16)).append("] Fragment ").append(random.nextInt(100000))
+                .append(" transferred ").append(random.nextInt(1 << 20)).append(" bytes\n");
+        }
+        final byte[] data = new byte[size];
+        System.arraycopy(log.toString().getBytes(StandardCharsets.US_ASCII), 0, data, 0, size);
+        return data;
+    }
+
+    /**
+     * Creates data laid out as database pages, with fixed layout rows of a few random columns and zero padded free space
+     * @param size in bytes
+     * @return the data
+     */
+    public static byte[] databasePages(final int size) {
+        final Random random = new Random(3);
+        final byte[] data = new byte[size];
+        final int pageSize = 8 * KIB;
+        for (int page = 0; page + pageSize <= size; page += pageSize) {
+            for (int row = page + 64; row + 128 <= page + pageSize * 3 / 4; row += 128) {
+                data[row] = (byte) 0xAB;
+                for (int column = 8; column < 40; column++) {
+                    data[row + column] = (byte) random.nextInt(256);
+                }
+                for (int column = 40; column < 100; column++) {
+                    data[row + column] = (byte) ('a' + random.nextInt(4));
+                }
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Deletes a folder and everything in it
+     * @param folder to delete
+     * @throws IOException if the folder couldn't be deleted
+     */
+    public static void delete(final Path folder) throws IOException {
+        if (!Files.exists(folder)) {
+            return;
+        }
+        Files.walkFileTree(folder, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path directory, final IOException exception) throws IOException {
+                Files.delete(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,127 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.archive;
+
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.MIB;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ericsson.adp.mgmt.backupandrestore.BenchmarkData;
+
+/**
+ * Measures the compression and decompression of a 64 MiB fragment with each export codec, on the fastest level.
+ *
+ * The score in ops/s times 64 is the rate in MiB/s of uncompressed data. The compress benchmark also counts the
+ * uncompressedBytes and compressedBytes of its operations, whose quotient is the compression ratio of the fragment.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ArchiveCodecBenchmark {
+
+    private static final int FRAGMENT_BYTES = 64 * MIB;
+
+    @Param({"COMPRESSED_DUMP", "TEXT_LOG", "DATABASE_PAGES"})
+    private String fragmentType;
+
+    @Param({"GZIP", "ZSTD", "LZ4", "STORE"})
+    private ArchiveCodec codec;
+
+    @Param({"1", "4"})
+    private int workers;
+
+    private final StreamingArchiveService archiveService = new StreamingArchiveService(new ArchiveUtils());
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(FRAGMENT_BYTES);
+    private byte[] fragment;
+    private byte[] compressedFragment;
+
+    /**
+     * Creates the fragment and compresses it once for the decompress benchmark
+     * @throws IOException never
+     */
+    @Setup
+    public void setup() throws IOException {
+        switch (fragmentType) {
+            case "TEXT_LOG":
+                fragment = BenchmarkData.compressible(FRAGMENT_BYTES);
+                break;
+            case "DATABASE_PAGES":
+                fragment = BenchmarkData.databasePages(FRAGMENT_BYTES);
+                break;
+            default:
+                fragment = BenchmarkData.incompressible(FRAGMENT_BYTES);
+        }
+        compress(new Sizes());
+        compressedFragment = compressed.toByteArray();
+    }
+
+    /**
+     * Compresses the fragment
+     * @param sizes counts the bytes before and after compression
+     * @return the compressed fragment
+     * @throws IOException never
+     */
+    @Benchmark
+    public ByteArrayOutputStream compress(final Sizes sizes) throws IOException {
+        compressed.reset();
+        try (OutputStream output = archiveService.openCompressor(codec, compressed, Deflater.BEST_SPEED, workers, MIB, 64L * MIB)) {
+            output.write(fragment);
+        }
+        sizes.uncompressedBytes += fragment.length;
+        sizes.compressedBytes += compressed.size();
+        return compressed;
+    }
+
+    /**
+     * Decompresses the fragment compressed in the setup
+     * @return the number of bytes decompressed
+     * @throws IOException never
+     */
+    @Benchmark
+    public long decompress() throws IOException {
+        try (InputStream input = archiveService.openDecompressor(codec, new ByteArrayInputStream(compressedFragment))) {
+            return input.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    /**
+     * The bytes compressed by an iteration, before and after compression
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sizes {
+        public long uncompressedBytes;
+        public long compressedBytes;
+    }
+}
@@ -0,0 +1,167 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.archive;
+
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.MIB;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import com.ericsson.adp.mgmt.backupandrestore.BenchmarkData;
+import com.ericsson.adp.mgmt.backupandrestore.SpringContext;
+import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProviderFactory;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumHash64;
+
+/**
+ * Measures the export and import of a backup of 64 MiB of log-like data, in four files, through an in-memory tarball.
+ *
+ * The score in ops/s times 64 is the rate in MiB/s of uncompressed backup data. export reads the backup from disk
+ * and compresses it, importArchive decompresses a tarball exported in the setup and writes it to disk, and roundTrip
+ * does both. The codec and number of compression workers are set as the sftp.archive.* properties would.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamingArchiveBenchmark {
+
+    private static final int FILES = 4;
+    private static final int FILE_BYTES = 16 * MIB;
+    private static final String BACKUP_MANAGER = "DEFAULT";
+    private static final String BACKUP = "backup";
+
+    @Param({"GZIP", "ZSTD", "LZ4"})
+    private String codec;
+
+    @Param({"1", "4"})
+    private int compressionWorkers;
+
+    private final ByteArrayOutputStream archive = new ByteArrayOutputStream(FILES * FILE_BYTES);
+    private GenericApplicationContext context;
+    private StreamingArchiveService archiveService;
+    private Path root;
+    private Path backupFile;
+    private Path backupData;
+    private byte[] exported;
+
+    /**
+     * Writes the backup to a temporary folder, configures the codec and exports the tarball imported by importArchive
+     * @throws IOException if the backup couldn't be written
+     * @throws InterruptedException never
+     */
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        context = new GenericApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "sftp.archive.codec", codec,
+                "sftp.archive.compressionWorkers", String.valueOf(compressionWorkers))));
+        context.refresh();
+        new SpringContext().setApplicationContext(context);
+
+        final ArchiveUtils utils = new ArchiveUtils();
+        utils.setProvider(new PersistProviderFactory());
+        archiveService = new StreamingArchiveService(utils);
+
+        root = Files.createTempDirectory("streaming-archive");
+        backupFile = root.resolve("backupManagers").resolve(BACKUP_MANAGER).resolve("backups").resolve(BACKUP + ".json");
+        Files.createDirectories(backupFile.getParent());
+        Files.write(backupFile, "{\"backupId\":\"backup\",\"status\":\"COMPLETE\"}".getBytes(StandardCharsets.UTF_8));
+        backupData = root.resolve("backups").resolve(BACKUP_MANAGER).resolve(BACKUP);
+        final Path fragmentFolder = backupData.resolve("agent").resolve("fragment").resolve("data");
+        Files.createDirectories(fragmentFolder);
+        final byte[] file = BenchmarkData.compressible(FILE_BYTES);
+        for (int index = 0; index < FILES; index++) {
+            Files.write(fragmentFolder.resolve("file" + index + ".log"), file);
+        }
+        exported = export();
+    }
+
+    /**
+     * Removes the configuration of the codec and deletes the temporary folder
+     * @throws IOException if the folder couldn't be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        new SpringContext().setApplicationContext(null);
+        context.close();
+        BenchmarkData.delete(root);
+    }
+
+    /**
+     * Exports the backup
+     * @return the tarball
+     * @throws IOException if the backup couldn't be read
+     * @throws InterruptedException never
+     */
+    @Benchmark
+    public byte[] export() throws IOException, InterruptedException {
+        archive.reset();
+        try (TarArchiveOutputStream tarOutput = archiveService.openTarOutput(archive, new ChecksumHash64())) {
+            archiveService.addDataOutputStream(tarOutput, backupFile, backupData, BACKUP_MANAGER, BACKUP);
+        }
+        return archive.toByteArray();
+    }
+
+    /**
+     * Imports the tarball exported in the setup
+     * @return the files created
+     * @throws IOException if the tarball couldn't be read
+     */
+    @Benchmark
+    public List<Path> importArchive() throws IOException {
+        return unpack(exported);
+    }
+
+    /**
+     * Exports the backup and imports it
+     * @return the files created
+     * @throws IOException if the backup couldn't be read or the tarball couldn't be written
+     * @throws InterruptedException never
+     */
+    @Benchmark
+    public List<Path> roundTrip() throws IOException, InterruptedException {
+        return unpack(export());
+    }
+
+    private List<Path> unpack(final byte[] tarball) throws IOException {
+        try (TarArchiveInputStream tarInput = archiveService.openTarInput(new ByteArrayInputStream(tarball), new ChecksumHash64())) {
+            return archiveService.unpackTarStream(tarInput, root.resolve("imported").resolve("backups"),
+                    root.resolve("imported").resolve("backupManagers"), success -> { });
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.archive;
+
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.KIB;
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.MIB;
+import static com.ericsson.adp.mgmt.backupandrestore.util.ApplicationConstantsUtils.BACKUP_DATA_FOLDER_NAME;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ericsson.adp.mgmt.backupandrestore.BenchmarkData;
+import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProviderFactory;
+
+/**
+ * Measures the writing of the entries of an uncompressed tarball to disk, so the cost of each entry shows apart from
+ * the decompression measured by the StreamingArchiveBenchmark.
+ *
+ * Each operation unpacks 64 MiB, in files of the size given, so the score in ops/s times 64 is the rate in MiB/s.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class UnpackSessionBenchmark {
+
+    private static final int BYTES_PER_OPERATION = 64 * MIB;
+
+    @Param({"16", "1024", "16384"})
+    private int fileKiB;
+
+    private ArchiveUtils utils;
+    private Path root;
+    private byte[] tarball;
+
+    /**
+     * Creates the tarball and the folder it's unpacked to
+     * @throws IOException if the folder couldn't be created
+     */
+    @Setup
+    public void setup() throws IOException {
+        utils = new ArchiveUtils();
+        utils.setProvider(new PersistProviderFactory());
+        root = Files.createTempDirectory("unpack-session");
+
+        final String prefix = ArchiveUtils.prefix("DEFAULT").add("backup").fork(BACKUP_DATA_FOLDER_NAME).build();
+        final byte[] file = BenchmarkData.incompressible(fileKiB * KIB);
+        final ByteArrayOutputStream archive = new ByteArrayOutputStream(BYTES_PER_OPERATION + MIB);
+        try (TarArchiveOutputStream tarOutput = new TarArchiveOutputStream(archive)) {
+            tarOutput.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            addDirectory(tarOutput, prefix + "backup/");
+            addDirectory(tarOutput, prefix + "backup/agent/");
+            for (int index = 0; index < BYTES_PER_OPERATION / file.length; index++) {
+                final TarArchiveEntry entry = new TarArchiveEntry(prefix + "backup/agent/file" + index + ".dat");
+                entry.setSize(file.length);
+                tarOutput.putArchiveEntry(entry);
+                tarOutput.write(file);
+                tarOutput.closeArchiveEntry();
+            }
+        }
+        tarball = archive.toByteArray();
+    }
+
+    /**
+     * Deletes the folder unpacked to
+     * @throws IOException if the folder couldn't be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(root);
+    }
+
+    /**
+     * Unpacks every entry of the tarball, overwriting the files of the previous operation
+     * @return the files created
+     * @throws IOException if an entry couldn't be written
+     */
+    @Benchmark
+    public List<Path> next() throws IOException {
+        try (TarArchiveInputStream tarInput = new TarArchiveInputStream(new ByteArrayInputStream(tarball))) {
+            final UnpackSession session = new UnpackSession(root.resolve("backupManagers"), root.resolve("backups"), tarInput, utils);
+            TarArchiveEntry entry = tarInput.getNextTarEntry();
+            while (entry != null) {
+                session.next(entry);
+                entry = tarInput.getNextTarEntry();
+            }
+            return session.created();
+        }
+    }
+
+    private void addDirectory(final TarArchiveOutputStream tarOutput, final String name) throws IOException {
+        tarOutput.putArchiveEntry(new TarArchiveEntry(name));
+        tarOutput.closeArchiveEntry();
+    }
+}
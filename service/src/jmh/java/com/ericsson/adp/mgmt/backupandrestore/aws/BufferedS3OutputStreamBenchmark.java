@@ -0,0 +1,172 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.aws;
+
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.KIB;
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.MIB;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.ericsson.adp.mgmt.backupandrestore.BenchmarkData;
+import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3MultipartClient;
+
+/**
+ * Measures the buffering of an object uploaded to OSMN into parts, with a client which reads each part and discards
+ * it instead of sending it, so the cost of the stream shows apart from the network.
+ *
+ * Each operation uploads a 256 MiB object, written in blocks of the size given, so the score in ops/s times 256 is
+ * the rate in MiB/s. 8 KiB is the block an imported tarball is written in.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BufferedS3OutputStreamBenchmark {
+
+    private static final int OBJECT_BYTES = 256 * MIB;
+
+    @Param({"5", "16", "64"})
+    private int partMiB;
+
+    @Param({"1", "4"})
+    private int parallelParts;
+
+    @Param({"8", "128"})
+    private int writeKiB;
+
+    private S3MultipartClient client;
+    private S3PartBufferPool bufferPool;
+    private byte[] block;
+    private int blocks;
+
+    /**
+     * Creates the client and the pool of part buffers, kept between uploads as in the service
+     */
+    @Setup
+    public void setup() {
+        client = new StubClient();
+        bufferPool = new S3PartBufferPool((parallelParts + 1L) * partMiB * MIB);
+        block = BenchmarkData.incompressible(writeKiB * KIB);
+        blocks = OBJECT_BYTES / block.length;
+    }
+
+    /**
+     * Uploads an object
+     * @return the stream
+     */
+    @Benchmark
+    public OutputStream write() {
+        final BufferedS3OutputStream stream = new BufferedS3OutputStream(client, "object", partMiB * MIB, parallelParts, bufferPool,
+                client.getS3Config().getUploadExecutor());
+        for (int index = 0; index < blocks; index++) {
+            stream.write(block, 0, block.length);
+        }
+        stream.close();
+        return stream;
+    }
+
+    /**
+     * Client of a bucket which always exists
+     */
+    private static class StubClient extends S3MultipartClient {
+        private final AmazonS3 s3 = new StubS3();
+
+        StubClient() {
+            super(new S3Config());
+        }
+
+        @Override
+        public AmazonS3 getS3Client() {
+            return s3;
+        }
+
+        @Override
+        public String getDefaultBucketName() {
+            return "bro";
+        }
+
+        @Override
+        public void createBucket() {
+            // The bucket always exists
+        }
+    }
+
+    /**
+     * Reads each part uploaded to the end and discards it
+     */
+    private static class StubS3 extends AbstractAmazonS3 {
+
+        @Override
+        public InitiateMultipartUploadResult initiateMultipartUpload(final InitiateMultipartUploadRequest request) {
+            final InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+            result.setUploadId("upload");
+            return result;
+        }
+
+        @Override
+        public UploadPartResult uploadPart(final UploadPartRequest request) {
+            discard(request.getInputStream());
+            final UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag" + request.getPartNumber());
+            return result;
+        }
+
+        @Override
+        public CompleteMultipartUploadResult completeMultipartUpload(final CompleteMultipartUploadRequest request) {
+            return new CompleteMultipartUploadResult();
+        }
+
+        @Override
+        public PutObjectResult putObject(final String bucketName, final String key, final InputStream input,
+                                         final ObjectMetadata metadata) {
+            discard(input);
+            return new PutObjectResult();
+        }
+
+        private void discard(final InputStream input) {
+            try {
+                input.transferTo(OutputStream.nullOutputStream());
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
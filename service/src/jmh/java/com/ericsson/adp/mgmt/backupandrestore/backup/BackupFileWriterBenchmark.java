@@ -0,0 +1,110 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.backup;
+
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.KIB;
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.MIB;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ericsson.adp.mgmt.backupandrestore.BenchmarkData;
+import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
+
+/**
+ * Measures the writing of a file received on a backup data channel to the PVC, chunk by chunk.
+ *
+ * Each operation writes a 64 MiB file and its checksum file, so the score in ops/s times 64 is the rate in MiB/s.
+ * SYNC writes on the calling thread, as the public constructor does, and POOL hands the chunks to the writers of a
+ * BackupFileWriteService, as the data channel does. Files aren't forced to disk, so this measures the copy into the
+ * page cache rather than the disk.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BackupFileWriterBenchmark {
+
+    private static final int FILE_BYTES = 64 * MIB;
+
+    @Param({"64", "512", "4096"})
+    private int chunkKiB;
+
+    @Param({"SYNC", "POOL"})
+    private String writer;
+
+    @Param({"MD5", "XXHASH64"})
+    private ChecksumAlgorithm algorithm;
+
+    private final S3Config s3Config = new S3Config();
+    private BackupFileWriteService writeService;
+    private Path folder;
+    private byte[] chunk;
+    private int chunks;
+
+    /**
+     * Creates the chunk written and the folder it's written to
+     * @throws IOException if the folder couldn't be created
+     */
+    @Setup
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("backup-file-writer");
+        chunk = BenchmarkData.incompressible(chunkKiB * KIB);
+        chunks = FILE_BYTES / chunk.length;
+        writeService = new BackupFileWriteService();
+        writeService.setFsyncPolicy("NONE");
+    }
+
+    /**
+     * Deletes the folder written to
+     * @throws IOException if the folder couldn't be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(folder);
+    }
+
+    /**
+     * Writes a file, overwriting the one written by the previous operation
+     * @return the writer
+     */
+    @Benchmark
+    public BackupFileWriter addChunk() {
+        final BackupFileWriter fileWriter = "POOL".equals(writer)
+                ? writeService.createWriter(folder, "fragment.dat", s3Config, FILE_BYTES, algorithm)
+                : new BackupFileWriter(folder, "fragment.dat", s3Config, FILE_BYTES, algorithm);
+        for (int index = 0; index < chunks; index++) {
+            fileWriter.addChunk(chunk);
+        }
+        fileWriter.build();
+        fileWriter.writeChecksumFile();
+        return fileWriter;
+    }
+}
@@ -0,0 +1,114 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.grpc;
+
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.KIB;
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.MIB;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ericsson.adp.mgmt.backupandrestore.BenchmarkData;
+import com.ericsson.adp.mgmt.data.BackupData;
+import com.ericsson.adp.mgmt.data.BackupFileChunk;
+import com.ericsson.adp.mgmt.data.DataMessageType;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnsafeByteOperations;
+
+/**
+ * Measures the serialization of the BackupData messages carrying a backup file over the data channel.
+ *
+ * Each operation builds or parses the messages of 16 MiB of data, in chunks of the size given, so the score in ops/s
+ * times 16 is the rate in MiB/s. build copies each chunk into the message, as the agents do, and buildWrapped wraps
+ * it without copying.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BackupDataBenchmark {
+
+    private static final int BYTES_PER_OPERATION = 16 * MIB;
+
+    @Param({"64", "512", "1024", "4096"})
+    private int chunkKiB;
+
+    private byte[] chunk;
+    private byte[] serialized;
+    private int chunks;
+
+    /**
+     * Creates the chunk and its serialized message
+     */
+    @Setup
+    public void setup() {
+        chunk = BenchmarkData.incompressible(chunkKiB * KIB);
+        chunks = BYTES_PER_OPERATION / chunk.length;
+        serialized = message(ByteString.copyFrom(chunk)).toByteArray();
+    }
+
+    /**
+     * Builds and serializes the messages, copying the chunks
+     * @param blackhole consuming each serialized message
+     */
+    @Benchmark
+    public void build(final Blackhole blackhole) {
+        for (int index = 0; index < chunks; index++) {
+            blackhole.consume(message(ByteString.copyFrom(chunk)).toByteArray());
+        }
+    }
+
+    /**
+     * Builds and serializes the messages, wrapping the chunks
+     * @param blackhole consuming each serialized message
+     */
+    @Benchmark
+    public void buildWrapped(final Blackhole blackhole) {
+        for (int index = 0; index < chunks; index++) {
+            blackhole.consume(message(UnsafeByteOperations.unsafeWrap(chunk)).toByteArray());
+        }
+    }
+
+    /**
+     * Parses the messages and gets their content, as the data channel does
+     * @param blackhole consuming the content of each message
+     * @throws InvalidProtocolBufferException never, the message is valid
+     */
+    @Benchmark
+    public void parse(final Blackhole blackhole) throws InvalidProtocolBufferException {
+        for (int index = 0; index < chunks; index++) {
+            blackhole.consume(BackupData.parseFrom(serialized).getBackupFileChunk().getContent().asReadOnlyByteBuffer());
+        }
+    }
+
+    private BackupData message(final ByteString content) {
+        return BackupData.newBuilder()
+                .setDataMessageType(DataMessageType.BACKUP_FILE)
+                .setBackupFileChunk(BackupFileChunk.newBuilder().setContent(content))
+                .build();
+    }
+}
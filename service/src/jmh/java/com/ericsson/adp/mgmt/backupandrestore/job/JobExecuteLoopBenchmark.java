@@ -0,0 +1,135 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.job;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ericsson.adp.mgmt.backupandrestore.action.Action;
+import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
+import com.ericsson.adp.mgmt.backupandrestore.rest.action.CreateActionRequest;
+
+/**
+ * Measures how long the execution loop takes to start a job once it's queued.
+ *
+ * Each operation queues a job which does nothing, waits for the loop to start it, and then for the loop to take it off
+ * the queue, so the sampled times are the latency from accepting an action to running it, plus the time for the
+ * executor to accept the next action.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JobExecuteLoopBenchmark {
+
+    private final Semaphore jobsStarted = new Semaphore(0);
+    private JobQueue queue;
+    private JobQueueItem item;
+    private Thread loop;
+
+    /**
+     * Starts the execution loop
+     */
+    @Setup
+    public void setup() {
+        final JobFactory jobFactory = createMock(JobFactory.class);
+        expect(jobFactory.createJob(anyObject(), anyObject())).andAnswer(() -> {
+            final Job job = new StartSignallingJob();
+            job.setAction((Action) getCurrentArguments()[1]);
+            return job;
+        }).anyTimes();
+        final BackupManager manager = createNiceMock(BackupManager.class);
+        final Action action = createNiceMock(Action.class);
+        replay(jobFactory, manager, action);
+
+        queue = new JobQueue();
+        item = new JobQueueItem(manager, action);
+        loop = new Thread(new JobExecuteLoop(queue, queue, jobFactory, null, null, null, new CopyOnWriteArrayList<>()));
+        loop.start();
+    }
+
+    /**
+     * Stops the execution loop
+     * @throws InterruptedException if interrupted while waiting for the loop to exit
+     */
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        loop.interrupt();
+        loop.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Queues a job and waits for it to run and leave the queue
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Benchmark
+    public void queueAndStart() throws InterruptedException {
+        queue.add(item);
+        jobsStarted.acquire();
+        while (!queue.isEmpty()) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private class StartSignallingJob extends Job {
+
+        @Override
+        public List<CreateActionRequest> run() {
+            jobsStarted.release();
+            return new LinkedList<>();
+        }
+
+        @Override
+        protected void triggerJob() {
+            //Not needed
+        }
+
+        @Override
+        protected boolean didFinish() {
+            return true;
+        }
+
+        @Override
+        protected void completeJob() {
+            //Not needed
+        }
+
+        @Override
+        protected void fail() {
+            //Not needed
+        }
+    }
+}
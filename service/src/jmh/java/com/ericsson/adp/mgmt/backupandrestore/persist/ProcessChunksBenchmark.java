@@ -0,0 +1,77 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.persist;
+
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.KIB;
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.MIB;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ericsson.adp.mgmt.backupandrestore.BenchmarkData;
+
+/**
+ * Measures the chopping of a stream into the chunks sent to an agent during a restore.
+ *
+ * Each operation reads 64 MiB, so the score in ops/s times 64 is the rate in MiB/s. The 512 KiB chunk is the default.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ProcessChunksBenchmark {
+
+    private static final int BYTES_PER_OPERATION = 64 * MIB;
+
+    @Param({"64", "256", "512", "1024", "4096"})
+    private int chunkKiB;
+
+    private byte[] file;
+
+    /**
+     * Creates the file read
+     */
+    @Setup
+    public void setup() {
+        file = BenchmarkData.incompressible(BYTES_PER_OPERATION);
+    }
+
+    /**
+     * Reads the file in chunks
+     * @param blackhole consuming each chunk
+     * @return the number of bytes read
+     * @throws IOException never, the file is in memory
+     */
+    @Benchmark
+    public long processStreamChunks(final Blackhole blackhole) throws IOException {
+        return ProcessChunksUtil.processStreamChunks(new ByteArrayInputStream(file), (chunk, length) -> {
+            blackhole.consume(chunk);
+            blackhole.consume(length);
+        }, chunkKiB * KIB);
+    }
+}
@@ -0,0 +1,159 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.restore;
+
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.MIB;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ericsson.adp.mgmt.backupandrestore.BenchmarkData;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumCalculator;
+
+/**
+ * Measures the checksums of the fragments of a backup on the PVC, as calculated by the FileChecksumService.
+ *
+ * Each operation of calculate and batch hashes 8 fragments of 8 MiB, so the score in ops/s times 64 is the rate in
+ * MiB/s. byteAtATime is the former read of a file one byte at a time, kept as a reference, and hashes a single
+ * fragment, so its score times 8 is the rate in MiB/s. The fragments are read back from the page cache rather
+ * than the disk.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileChecksumBenchmark {
+
+    private static final int FRAGMENTS = 8;
+    private static final int FRAGMENT_BYTES = 8 * MIB;
+
+    /**
+     * Reads one fragment a byte at a time into an MD5 calculator, as checksums of files used to be calculated
+     * @param fragments the fragments
+     * @return the checksum
+     * @throws IOException if the fragment couldn't be read
+     */
+    @Benchmark
+    public String byteAtATime(final Fragments fragments) throws IOException {
+        final ChecksumCalculator calculator = new ChecksumCalculator();
+        try (BufferedInputStream fileStream = new BufferedInputStream(new FileInputStream(fragments.files.get(0).toFile()))) {
+            final byte[] chunk = new byte[1];
+            while (fileStream.read(chunk, 0, 1) != -1) {
+                calculator.addBytes(chunk);
+            }
+        }
+        return calculator.getChecksum();
+    }
+
+    /**
+     * Hashes the fragments one after the other on the calling thread
+     * @param fragments the fragments
+     * @param service the checksum service
+     * @return the checksum of the last fragment
+     */
+    @Benchmark
+    public String calculate(final Fragments fragments, final Service service) {
+        String checksum = null;
+        for (final Path file : fragments.files) {
+            checksum = service.service.calculate(file, service.algorithm);
+        }
+        return checksum;
+    }
+
+    /**
+     * Hashes the fragments as one batch on the pool of the checksum service
+     * @param fragments the fragments
+     * @param service the checksum service
+     * @return the checksum of each fragment
+     */
+    @Benchmark
+    public Map<Path, String> batch(final Fragments fragments, final Service service) {
+        return service.service.calculate(fragments.files, service.algorithm);
+    }
+
+    /**
+     * The fragments of a backup, written once for all the threads
+     */
+    @State(Scope.Benchmark)
+    public static class Fragments {
+
+        private final List<Path> files = new ArrayList<>();
+        private Path folder;
+
+        /**
+         * Writes the fragments
+         * @throws IOException if a fragment couldn't be written
+         */
+        @Setup
+        public void setup() throws IOException {
+            folder = Files.createTempDirectory("file-checksum");
+            for (int index = 0; index < FRAGMENTS; index++) {
+                files.add(Files.write(folder.resolve("fragment" + index), BenchmarkData.incompressible(FRAGMENT_BYTES)));
+            }
+        }
+
+        /**
+         * Deletes the fragments
+         * @throws IOException if the folder couldn't be deleted
+         */
+        @TearDown
+        public void tearDown() throws IOException {
+            BenchmarkData.delete(folder);
+        }
+    }
+
+    /**
+     * A checksum service hashing as many fragments at the same time as the parallelism given
+     */
+    @State(Scope.Thread)
+    public static class Service {
+
+        @Param({"MD5", "XXHASH64", "CRC32C"})
+        private ChecksumAlgorithm algorithm;
+
+        @Param({"1", "2", "4"})
+        private int parallelism;
+
+        private FileChecksumService service;
+
+        /**
+         * Creates the service
+         */
+        @Setup
+        public void setup() {
+            service = new FileChecksumService();
+            service.setParallelism(parallelism);
+        }
+    }
+}
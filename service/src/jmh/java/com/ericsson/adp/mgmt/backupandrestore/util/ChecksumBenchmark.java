@@ -0,0 +1,125 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.util;
+
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.KIB;
+import static com.ericsson.adp.mgmt.backupandrestore.BenchmarkData.MIB;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ericsson.adp.mgmt.backupandrestore.BenchmarkData;
+
+/**
+ * Measures the checksums calculated on every chunk of backup data received or sent.
+ *
+ * Each operation hashes 16 MiB, in chunks of the size given, so the score in ops/s times 16 is the rate in MiB/s
+ * and is comparable between chunk sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecksumBenchmark {
+
+    private static final int BYTES_PER_OPERATION = 16 * MIB;
+
+    /**
+     * Calculates the checksum of each chunk with the ChecksumCalculator, as the BackupFileWriter does
+     * @param data the chunks
+     * @param calculator the calculator
+     * @return the calculator
+     */
+    @Benchmark
+    public ChecksumCalculator calculator(final Data data, final Calculator calculator) {
+        for (int chunk = 0; chunk < data.chunks; chunk++) {
+            calculator.calculator.addBytes(data.chunk);
+        }
+        return calculator.calculator;
+    }
+
+    /**
+     * Calculates the checksum of each chunk with the ChecksumHash64, as the import and export streams do
+     * @param data the chunks
+     * @param hash64 the hash
+     * @return the value of the hash
+     */
+    @Benchmark
+    public long hash64(final Data data, final Hash64 hash64) {
+        for (int chunk = 0; chunk < data.chunks; chunk++) {
+            hash64.hash64.updateHash64(data.chunk, data.chunk.length);
+        }
+        return hash64.hash64.getNumericValue();
+    }
+
+    /**
+     * A chunk of backup data, hashed as many times as needed to make up the bytes of an operation
+     */
+    @State(Scope.Thread)
+    public static class Data {
+
+        @Param({"8", "64", "512", "4096"})
+        private int chunkKiB;
+
+        private byte[] chunk;
+        private int chunks;
+
+        /**
+         * Creates the chunk
+         */
+        @Setup
+        public void setup() {
+            chunk = BenchmarkData.incompressible(chunkKiB * KIB);
+            chunks = BYTES_PER_OPERATION / chunk.length;
+        }
+    }
+
+    /**
+     * A calculator of each algorithm an agent can negotiate
+     */
+    @State(Scope.Thread)
+    public static class Calculator {
+
+        @Param({"MD5", "XXHASH64", "CRC32C"})
+        private ChecksumAlgorithm algorithm;
+
+        private ChecksumCalculator calculator;
+
+        /**
+         * Creates the calculator
+         */
+        @Setup
+        public void setup() {
+            calculator = new ChecksumCalculator(algorithm);
+        }
+    }
+
+    /**
+     * The xxHash64 of an archive
+     */
+    @State(Scope.Thread)
+    public static class Hash64 {
+        private final ChecksumHash64 hash64 = new ChecksumHash64();
+    }
+}
@@ -0,0 +1,191 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.util;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the OrderedConcurrentMap with the LinkedList based implementation it replaced.
+ *
+ * The map holds the periodic events of a scheduler, so the single threaded benchmarks measure the operations of the
+ * REST and CM interfaces on events: removing an event, renaming it and listing them. The group benchmark is the
+ * contention of a scheduler listing its events, e.g. to work out its next run, while an event is being removed and
+ * added back. The LinkedList implementation can't be iterated while modified, so it's locked in that benchmark, as
+ * a caller would have to.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderedConcurrentMapBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int events;
+
+    @Param({"INDEXED", "LINKED_LIST"})
+    private String implementation;
+
+    private OrderedMap map;
+    private String[] keys;
+
+    /**
+     * Fills the map with the events
+     */
+    @Setup(Level.Iteration)
+    public void setup() {
+        map = "INDEXED".equals(implementation) ? new Indexed() : new LockedLinkedList();
+        keys = new String[events];
+        for (int event = 0; event < events; event++) {
+            keys[event] = "event" + event;
+            map.put(keys[event], event);
+        }
+    }
+
+    /**
+     * Removes a random event and adds it back, at the end of the order
+     * @return the value removed
+     */
+    @Benchmark
+    public Integer removeAndPut() {
+        final String key = randomKey();
+        final Integer value = map.remove(key);
+        map.put(key, value);
+        return value;
+    }
+
+    /**
+     * Renames a random event and renames it back, keeping its position
+     * @return the map
+     */
+    @Benchmark
+    public OrderedMap replaceKey() {
+        final String key = randomKey();
+        map.replaceKey(key, key + "-renamed");
+        map.replaceKey(key + "-renamed", key);
+        return map;
+    }
+
+    /**
+     * Lists the events in order
+     * @return the events
+     */
+    @Benchmark
+    public Collection<Integer> values() {
+        return map.values();
+    }
+
+    /**
+     * Lists the events in order while another thread modifies them
+     * @return the events
+     */
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public Collection<Integer> contendedValues() {
+        return map.values();
+    }
+
+    /**
+     * Removes and adds back events while other threads list them
+     * @return the value removed
+     */
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public Integer contendedRemoveAndPut() {
+        return removeAndPut();
+    }
+
+    private String randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+
+    /**
+     * The operations benchmarked, on either implementation
+     */
+    interface OrderedMap {
+        void put(String key, Integer value);
+
+        Integer remove(String key);
+
+        void replaceKey(String oldKey, String newKey);
+
+        Collection<Integer> values();
+    }
+
+    private static class Indexed implements OrderedMap {
+        private final OrderedConcurrentMap<String, Integer> map = new OrderedConcurrentMap<>();
+
+        @Override
+        public void put(final String key, final Integer value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public Integer remove(final String key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public void replaceKey(final String oldKey, final String newKey) {
+            map.replaceKey(oldKey, newKey);
+        }
+
+        @Override
+        public Collection<Integer> values() {
+            return map.values();
+        }
+    }
+
+    private static class LockedLinkedList implements OrderedMap {
+        private final LinkedListOrderedMap<String, Integer> map = new LinkedListOrderedMap<>();
+
+        @Override
+        public synchronized void put(final String key, final Integer value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public synchronized Integer remove(final String key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public synchronized void replaceKey(final String oldKey, final String newKey) {
+            map.replaceKey(oldKey, newKey);
+        }
+
+        @Override
+        public synchronized Collection<Integer> values() {
+            return map.values();
+        }
+    }
+}
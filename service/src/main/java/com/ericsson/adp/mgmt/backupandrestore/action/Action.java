@@ -42,6 +42,7 @@ import com.ericsson.adp.mgmt.backupandrestore.SpringContext;
 import com.ericsson.adp.mgmt.backupandrestore.action.payload.BackupNamePayload;
 import com.ericsson.adp.mgmt.backupandrestore.action.payload.ExportPayload;
 import com.ericsson.adp.mgmt.backupandrestore.action.payload.ImportPayload;
+import com.ericsson.adp.mgmt.backupandrestore.archive.ArchiveCodec;
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManagerRepository;
 import com.ericsson.adp.mgmt.backupandrestore.exception.UnprocessableEntityException;
@@ -110,6 +111,7 @@ public class Action extends ActionInformation implements Versioned<PersistedActi
     protected Action(final PersistedAction action, final String backupManagerId, final Consumer<Action> persistFunction) {
         actionId = action.getActionId();
         name = action.getName();
+        // Shared with the persisted action, which the ActionFileService keeps between reads, so it must not be modified
         payload = action.getPayload();
         additionalInfo = action.getAdditionalInfo();
         startTime = DateTimeUtils.parseToOffsetDateTime(action.getStartTime());
@@ -252,6 +254,14 @@ public class Action extends ActionInformation implements Versioned<PersistedActi
         persistFunction.accept(this);
     }
 
+    /**
+     * Indicates if the payload names a backup, in which case getBackupName doesn't throw.
+     * @return true if the action has a backupName
+     */
+    public boolean hasBackupName() {
+        return getPayload() instanceof BackupNamePayload || getPayload() instanceof ExportPayload || getPayload() instanceof ImportPayload;
+    }
+
     /**
      * Gets backupName from the payload.
      * @return backupName
@@ -276,7 +286,7 @@ public class Action extends ActionInformation implements Versioned<PersistedActi
 
     private String getImportBackupName (final String path) {
         final String backupName = Stream.of(path.split("/")).reduce((first, last)->last).orElse("");
-        if (!backupName.endsWith(".tar.gz")) {
+        if (!ArchiveCodec.isTarballName(backupName)) {
             return backupName;
         } else {
             return backupName.split("-", 4)[0];
@@ -105,13 +105,14 @@ public class ActionFileService extends OrchestratorDataFileService<PersistedActi
 
     /**
      * Gets persisted actions from a backupManager.
+     * Only the action files modified since they were last read or written are parsed, the others are kept in memory.
      * @param backupManagerId owner of actions.
-     * @return list of actions.
+     * @return list of actions, which must not be modified.
      */
     public List<PersistedAction> getActions(final String backupManagerId) {
         final Path actionsFolder = getActionFolder(backupManagerId);
         if (exists(actionsFolder)) {
-            return readObjectsFromFiles(actionsFolder);
+            return readCachedObjectsFromFiles(actionsFolder, path -> null);
         }
         return new ArrayList<>();
     }
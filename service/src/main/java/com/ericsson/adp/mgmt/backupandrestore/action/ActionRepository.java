@@ -95,6 +95,7 @@ public class ActionRepository {
                 .forEach(a -> {
                     actionFileService.performCleanup(a);
                     backupManagerRepository.getBackupManager(a.getBackupManagerId()).removeAction(a);
+                    cmMediatorService.forgetProgressReport(a);
                     logger.debug("Deleting persisted file <{}>", a.getAdditionalInfo());
                 });
         actionFileService.createDummyFile();
@@ -127,6 +128,14 @@ public class ActionRepository {
         cmMediatorService.enqueueProgressReport(action);
     }
 
+    /**
+     * Forgets the state of an action held to publish its progress report, once its job ended.
+     * @param action whose job ended.
+     */
+    public void forgetProgressReport(final Action action) {
+        cmMediatorService.forgetProgressReport(action);
+    }
+
     private boolean shouldPersistActionInCM(final Action action) {
         return !ActionType.RESTORE.equals(action.getName()) || ActionStateType.FINISHED.equals(action.getState());
     }
@@ -18,6 +18,7 @@ import com.ericsson.adp.mgmt.backupandrestore.backup.SoftwareVersion;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
 import com.ericsson.adp.mgmt.backupandrestore.job.RestoreJob;
 import com.ericsson.adp.mgmt.backupandrestore.util.ApiVersion;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.backupandrestore.util.IdValidator;
 import com.ericsson.adp.mgmt.control.AgentControl;
 import io.grpc.StatusRuntimeException;
@@ -73,6 +74,14 @@ public class Agent {
         return state.getSoftwareVersion();
     }
 
+    public ChecksumAlgorithm getChecksumAlgorithm() {
+        return state.getChecksumAlgorithm();
+    }
+
+    public int getMaxChunkSize() {
+        return state.getMaxChunkSize();
+    }
+
     public AgentState getState() {
         return state;
     }
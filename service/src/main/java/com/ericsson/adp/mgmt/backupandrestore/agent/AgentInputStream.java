@@ -29,16 +29,21 @@ import org.apache.logging.log4j.Logger;
 
 import com.ericsson.adp.mgmt.action.Action;
 import com.ericsson.adp.mgmt.action.CancelBackupRestore;
+import com.ericsson.adp.mgmt.backupandrestore.grpc.AdaptiveChunkSize;
+import com.ericsson.adp.mgmt.backupandrestore.grpc.ChunkSizeNegotiation;
 import com.ericsson.adp.mgmt.backupandrestore.restore.RestoreInformation;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.control.Execution;
 import com.ericsson.adp.mgmt.control.OrchestratorControl;
 import com.ericsson.adp.mgmt.control.PostActions;
 import com.ericsson.adp.mgmt.control.Preparation;
+import com.google.protobuf.UnknownFieldSet;
 
 import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -53,6 +58,7 @@ public class AgentInputStream {
     private final StreamObserver<OrchestratorControl> stream;
 
     private final List<AgentFeature> broFeatures = new ArrayList<>();
+    private final List<Integer> broFeatureValues = new ArrayList<>();
 
     /**
      * Creates agentInputStream with the stream to an agent.
@@ -233,7 +239,18 @@ public class AgentInputStream {
         return OrchestratorControl.newBuilder()
                 .setOrchestratorMessageType(OrchestratorMessageType.REGISTER_ACKNOWLEDGE)
                 .setRegisterAcknowledge(RegisterAcknowledge.newBuilder().setAcknowledgeMessage("Registered Agent")
-                .addAllBroSupportedAgentFeature(broFeatures).build())
+                .addAllBroSupportedAgentFeature(broFeatures)
+                .addAllBroSupportedAgentFeatureValue(broFeatureValues)
+                .setUnknownFields(getMaxChunkSizeField()).build())
+                .build();
+    }
+
+    private UnknownFieldSet getMaxChunkSizeField() {
+        // Set by number, as maxChunkSizeInBytes is newer than the agent api the orchestrator is built with
+        return UnknownFieldSet.newBuilder()
+                .addField(ChunkSizeNegotiation.ACKNOWLEDGE_MAX_CHUNK_SIZE_FIELD, UnknownFieldSet.Field.newBuilder()
+                        .addVarint(AdaptiveChunkSize.getMaxChunkSize(ChunkSizeNegotiation.DATA_CHANNEL_MAX_MESSAGE_SIZE))
+                        .build())
                 .build();
     }
 
@@ -246,6 +263,11 @@ public class AgentInputStream {
         // For now this will add all the agent features. This will be addressed in later story
         broFeatures.addAll(EnumSet.allOf(AgentFeature.class)
                 .stream().filter(a -> a != AgentFeature.UNRECOGNIZED).collect(Collectors.toList()).subList(0, 7));
+        // Added by number, as CHECKSUM_CRC32C, ADAPTIVE_CHUNK_SIZE and CHECKSUM_NEGOTIATION are newer than the agent api
+        // the orchestrator is built with
+        Arrays.stream(ChecksumAlgorithm.values()).forEach(algorithm -> broFeatureValues.add(algorithm.getAgentFeature()));
+        broFeatureValues.add(ChecksumAlgorithm.CHECKSUM_NEGOTIATION_VALUE);
+        broFeatureValues.add(ChunkSizeNegotiation.AGENT_FEATURE);
     }
 
 }
@@ -25,6 +25,7 @@ import com.ericsson.adp.mgmt.backupandrestore.job.JobWithStages;
 import com.ericsson.adp.mgmt.backupandrestore.job.RestoreJob;
 import com.ericsson.adp.mgmt.backupandrestore.job.progress.Progress;
 import com.ericsson.adp.mgmt.backupandrestore.util.ApiVersion;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.control.AgentControl;
 
 import io.micrometer.core.instrument.Gauge;
@@ -78,6 +79,24 @@ public interface AgentState {
      */
     SoftwareVersion getSoftwareVersion();
 
+    /**
+     * Gets the checksum algorithm used on the data channel of the agent.
+     *
+     * @return checksum algorithm.
+     */
+    default ChecksumAlgorithm getChecksumAlgorithm() {
+        return ChecksumAlgorithm.MD5;
+    }
+
+    /**
+     * Gets the largest restore chunk the agent accepts, if it adapts the chunk size of its data channel.
+     *
+     * @return the largest chunk, in bytes, or 0 if the chunk size of the agent is fixed.
+     */
+    default int getMaxChunkSize() {
+        return 0;
+    }
+
     /**
      * Steps to do upon error
      */
@@ -11,15 +11,19 @@
  *------------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.backupandrestore.agent.state;
 
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.ericsson.adp.mgmt.backupandrestore.agent.AgentInputStream;
 import com.ericsson.adp.mgmt.backupandrestore.backup.SoftwareVersion;
+import com.ericsson.adp.mgmt.backupandrestore.grpc.ChunkSizeNegotiation;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
 import com.ericsson.adp.mgmt.backupandrestore.job.RestoreJob;
 import com.ericsson.adp.mgmt.backupandrestore.restore.RestoreInformation;
 import com.ericsson.adp.mgmt.backupandrestore.util.ApiVersion;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.control.AgentControl;
 import com.ericsson.adp.mgmt.control.Register;
 import com.ericsson.adp.mgmt.metadata.SoftwareVersionInfo;
@@ -66,6 +70,22 @@ public class RecognizedState implements AgentState {
         return registrationInformation.getScope();
     }
 
+    @Override
+    public ChecksumAlgorithm getChecksumAlgorithm() {
+        return ChecksumAlgorithm.negotiate(registrationInformation.getAgentFeatureValueList());
+    }
+
+    @Override
+    public int getMaxChunkSize() {
+        if (!registrationInformation.getAgentFeatureValueList().contains(ChunkSizeNegotiation.AGENT_FEATURE)) {
+            return 0;
+        }
+        // Read by number, as maxChunkSizeInBytes is newer than the agent api the orchestrator is built with
+        final List<Long> maxChunkSize = registrationInformation.getUnknownFields()
+                .getField(ChunkSizeNegotiation.REGISTER_MAX_CHUNK_SIZE_FIELD).getVarintList();
+        return maxChunkSize.isEmpty() ? 0 : (int) Math.min(Integer.MAX_VALUE, maxChunkSize.get(maxChunkSize.size() - 1));
+    }
+
     @Override
     public SoftwareVersion getSoftwareVersion() {
         final SoftwareVersion softwareVersion = new SoftwareVersion();
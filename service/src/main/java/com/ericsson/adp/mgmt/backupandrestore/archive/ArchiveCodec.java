@@ -0,0 +1,103 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.archive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * The compression applied to the tarball of an exported backup.
+ * Each codec is recognized on import by the magic bytes at the start of its stream.
+ */
+public enum ArchiveCodec {
+    GZIP(".tar.gz", 0x1f, 0x8b),
+    ZSTD(".tar.zst", 0x28, 0xb5, 0x2f, 0xfd),
+    LZ4(".tar.lz4", 0x04, 0x22, 0x4d, 0x18),
+    /**
+     * A plain tar, which has no magic bytes at the start of the stream
+     */
+    STORE(".tar");
+
+    private static final int MAX_MAGIC_LENGTH = 4;
+
+    private final String extension;
+    private final byte[] magic;
+
+    ArchiveCodec(final String extension, final int... magic) {
+        this.extension = extension;
+        this.magic = new byte[magic.length];
+        for (int i = 0; i < magic.length; i++) {
+            this.magic[i] = (byte) magic[i];
+        }
+    }
+
+    /**
+     * Get the file extension of tarballs compressed with this codec
+     * @return the extension, including the leading dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Take a string value and match it to one of the enum constants here, in a CASE INSENSITIVE manner
+     * throws IllegalArgumentException if a matching enum constant can't be found
+     * @param value - value to be matched
+     * @return a matched value
+     * */
+    public static ArchiveCodec caseSafeOf(final String value) {
+        return ArchiveCodec.valueOf(value.trim().toUpperCase());
+    }
+
+    /**
+     * Detect the codec of a stream from its first bytes, without consuming them
+     * @param inputStream a stream which supports mark and reset
+     * @return the codec whose magic bytes start the stream, or STORE if none does
+     * @throws IOException if the stream can't be read
+     */
+    public static ArchiveCodec detect(final InputStream inputStream) throws IOException {
+        inputStream.mark(MAX_MAGIC_LENGTH);
+        final byte[] header = inputStream.readNBytes(MAX_MAGIC_LENGTH);
+        inputStream.reset();
+        for (final ArchiveCodec codec : values()) {
+            if (codec.magic.length > 0 && header.length >= codec.magic.length
+                    && Arrays.equals(codec.magic, Arrays.copyOf(header, codec.magic.length))) {
+                return codec;
+            }
+        }
+        return STORE;
+    }
+
+    /**
+     * Checks if a file name is the name of a tarball of any codec
+     * @param fileName the file name
+     * @return true if the name ends with the extension of a codec
+     */
+    public static boolean isTarballName(final String fileName) {
+        return Arrays.stream(values()).anyMatch(codec -> fileName.endsWith(codec.extension));
+    }
+
+    /**
+     * Removes the extension of whichever codec the file name ends with
+     * @param fileName the file name
+     * @return the file name without the tarball extension
+     */
+    public static String stripExtension(final String fileName) {
+        for (final ArchiveCodec codec : values()) {
+            if (fileName.endsWith(codec.extension)) {
+                return fileName.substring(0, fileName.length() - codec.extension.length());
+            }
+        }
+        return fileName;
+    }
+}
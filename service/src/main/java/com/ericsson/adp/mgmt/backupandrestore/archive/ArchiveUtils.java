@@ -11,7 +11,10 @@
  *------------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.backupandrestore.archive;
 
+import com.ericsson.adp.mgmt.backupandrestore.SpringContext;
 import com.ericsson.adp.mgmt.backupandrestore.backup.Backup;
+import com.ericsson.adp.mgmt.backupandrestore.backup.dedup.ChunkManifest;
+import com.ericsson.adp.mgmt.backupandrestore.backup.dedup.ChunkStore;
 import com.ericsson.adp.mgmt.backupandrestore.exception.FileDirectoryException;
 import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProvider;
 import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProviderFactory;
@@ -20,6 +23,8 @@ import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
@@ -29,8 +34,10 @@ import java.io.OutputStream;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -47,20 +54,59 @@ public class ArchiveUtils {
     private static final Logger log = LogManager.getLogger(ArchiveUtils.class);
 
     private PersistProvider provider;
+    private ChunkStore chunkStore;
 
     /**
-     * Returns the name (in the File.getName() sense) of the tarball to be created
+     * Returns the name (in the File.getName() sense) of the tarball to be created, using the configured export codec
      *
      * @param backup - the backup to be compressed
      * @return the name of the file to be created to store the compressed backup
      * */
     public static String getTarballName(final Backup backup) {
+        return getTarballName(backup, getConfiguredCodec());
+    }
+
+    /**
+     * Returns the name (in the File.getName() sense) of the tarball to be created
+     *
+     * @param backup - the backup to be compressed
+     * @param codec - the codec the tarball is compressed with
+     * @return the name of the file to be created to store the compressed backup
+     * */
+    public static String getTarballName(final Backup backup, final ArchiveCodec codec) {
         if (backup.getCreationType().equals(SCHEDULED)) {
-            return backup.getName() + TAR_GZ;
+            return backup.getName() + codec.getExtension();
         } else {
             final OffsetDateTime backupCreationTime = backup.getCreationTime();
             final String timestamp = DateTimeUtils.convertToString(backupCreationTime);
-            return backup.getName() + "-" + timestamp + TAR_GZ;
+            return backup.getName() + "-" + timestamp + codec.getExtension();
+        }
+    }
+
+    /**
+     * Returns the codec exported backups are compressed with, set by sftp.archive.codec
+     *
+     * @return the configured codec, GZIP if none is configured
+     * */
+    public static ArchiveCodec getConfiguredCodec() {
+        return SpringContext.getBean(Environment.class)
+                .map(environment -> ArchiveCodec.caseSafeOf(environment.getProperty("sftp.archive.codec", "GZIP")))
+                .orElse(ArchiveCodec.GZIP);
+    }
+
+    /**
+     * Checks the codec exported backups are compressed with when the service starts,
+     * so an unknown sftp.archive.codec fails the startup instead of every export
+     *
+     * @param codec - the configured codec
+     * */
+    @Value("${sftp.archive.codec:GZIP}")
+    public void checkConfiguredCodec(final String codec) {
+        try {
+            ArchiveCodec.caseSafeOf(codec);
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unrecognized export codec <" + codec + ">, must be one of "
+                    + Arrays.toString(ArchiveCodec.values()), e);
         }
     }
 
@@ -102,6 +148,30 @@ public class ArchiveUtils {
         return provider.newInputStream(location);
     }
 
+    /**
+     * Reads the manifest of a file stored as chunks, if the location is one
+     *
+     * @param location of the file to read from
+     * @return the manifest of the file, or empty if it isn't stored as chunks
+     * @throws IOException if the manifest can't be read
+     * */
+    public Optional<ChunkManifest> getChunkManifest(final Path location) throws IOException {
+        if (chunkStore == null || !ChunkManifest.isManifestFile(location)) {
+            return Optional.empty();
+        }
+        return chunkStore.readManifest(location);
+    }
+
+    /**
+     * Returns an input stream to read a file stored as chunks through
+     *
+     * @param manifest of the file to read from
+     * @return an input stream reading each chunk of the file in turn
+     * */
+    public InputStream getInputStream(final ChunkManifest manifest) {
+        return chunkStore.newInputStream(manifest);
+    }
+
     /**
      * Open an output stream to write data to for a given location. Will file at location if one does not exist, and
      * overwrite the present data if one does
@@ -192,6 +262,11 @@ public class ArchiveUtils {
         this.provider = providerFactory.getPersistProvider();
     }
 
+    @Autowired
+    public void setChunkStore(final ChunkStore chunkStore) {
+        this.chunkStore = chunkStore;
+    }
+
     /**
      * Simple builder style class for use in ArchiveService to construct archive entry name prefixes
      * */
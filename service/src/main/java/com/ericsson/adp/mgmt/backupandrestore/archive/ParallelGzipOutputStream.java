@@ -0,0 +1,230 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip output stream which splits the data into blocks and deflates the blocks on several threads.
+ * Every block is primed with the last 32KiB of the previous block and ended with a sync flush,
+ * so the concatenated blocks form a single deflate stream and the output is one standard gzip
+ * member, readable by any gzip reader.
+ * The blocks of all the streams are deflated on a pool shared by all streams, of one thread per processor.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int OS_UNKNOWN = 255;
+    private static final ExecutorService DEFLATERS = createDeflaters();
+
+    private final OutputStream out;
+    private final int compressionLevel;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block;
+    private int blockPos;
+    private byte[] previousBlock;
+    private int previousBlockLength;
+    private long totalIn;
+    private boolean closed;
+
+    /**
+     * Creates the stream and writes the gzip header
+     * @param out the stream the compressed data is written to
+     * @param compressionLevel the Deflater compression level
+     * @param workers the maximum number of blocks of the stream deflated or waiting to be written at the same time
+     * @param blockSize the size of the uncompressed blocks deflated independently
+     * @param memoryLimit the maximum number of bytes held by blocks waiting to be deflated or written
+     * @throws IOException if the header can't be written
+     */
+    public ParallelGzipOutputStream(final OutputStream out, final int compressionLevel, final int workers,
+                                    final int blockSize, final long memoryLimit) throws IOException {
+        this.out = out;
+        this.compressionLevel = compressionLevel;
+        this.blockSize = Math.max(blockSize, DICTIONARY_SIZE);
+        // Each pending block holds its input and, at worst, an output of the same size
+        this.maxPendingBlocks = (int) Math.max(1, Math.min(workers, memoryLimit / (2L * this.blockSize)));
+        this.block = new byte[this.blockSize];
+        writeHeader();
+    }
+
+    @Override
+    public void write(final int inputByte) throws IOException {
+        write(new byte[] {(byte) inputByte}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] input, final int off, final int len) throws IOException {
+        ensureOpen();
+        crc.update(input, off, len);
+        totalIn += len;
+        int written = 0;
+        while (written < len) {
+            final int toCopy = Math.min(blockSize - blockPos, len - written);
+            System.arraycopy(input, off + written, block, blockPos, toCopy);
+            blockPos += toCopy;
+            written += toCopy;
+            if (blockPos == blockSize) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    /**
+     * Writes the blocks which are already deflated. Data still being collected into the
+     * current block is not flushed, as that would shrink the block and hurt the compression.
+     * @throws IOException if the compressed data can't be written
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writeCompletedBlocks(false);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            submitBlock(true);
+            writeCompletedBlocks(true);
+            writeTrailer();
+            out.flush();
+        } finally {
+            closed = true;
+            pendingBlocks.forEach(pending -> pending.cancel(true));
+            out.close();
+        }
+    }
+
+    private void submitBlock(final boolean last) throws IOException {
+        final byte[] input = block;
+        final int inputLength = blockPos;
+        final byte[] dictionary = previousBlock;
+        final int dictionaryEnd = previousBlockLength;
+        pendingBlocks.add(DEFLATERS.submit(() -> deflate(input, inputLength, dictionary, dictionaryEnd, last)));
+        previousBlock = input;
+        previousBlockLength = inputLength;
+        block = new byte[blockSize];
+        blockPos = 0;
+        while (pendingBlocks.size() >= maxPendingBlocks) {
+            writeBlock(pendingBlocks.poll());
+        }
+        writeCompletedBlocks(false);
+    }
+
+    private byte[] deflate(final byte[] input, final int inputLength, final byte[] dictionary,
+                           final int dictionaryEnd, final boolean last) {
+        final Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            if (dictionary != null) {
+                final int dictionaryLength = Math.min(DICTIONARY_SIZE, dictionaryEnd);
+                deflater.setDictionary(dictionary, dictionaryEnd - dictionaryLength, dictionaryLength);
+            }
+            deflater.setInput(input, 0, inputLength);
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream(inputLength / 2 + 64);
+            final byte[] buffer = new byte[DICTIONARY_SIZE];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                // A sync flush ends the block on a byte boundary without marking it final
+                int length;
+                do {
+                    length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, length);
+                } while (length == buffer.length);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeCompletedBlocks(final boolean waitForAll) throws IOException {
+        while (!pendingBlocks.isEmpty() && (waitForAll || pendingBlocks.peek().isDone())) {
+            writeBlock(pendingBlocks.poll());
+        }
+    }
+
+    private void writeBlock(final Future<byte[]> pending) throws IOException {
+        try {
+            out.write(pending.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress block", e.getCause());
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        final byte extraFlags;
+        if (compressionLevel == Deflater.BEST_COMPRESSION) {
+            extraFlags = 2;
+        } else if (compressionLevel == Deflater.BEST_SPEED) {
+            extraFlags = 4;
+        } else {
+            extraFlags = 0;
+        }
+        out.write(new byte[] {(byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), Deflater.DEFLATED, 0, 0, 0, 0, 0,
+            extraFlags, (byte) OS_UNKNOWN});
+    }
+
+    private void writeTrailer() throws IOException {
+        final byte[] trailer = new byte[8];
+        writeIntLittleEndian(trailer, 0, crc.getValue());
+        writeIntLittleEndian(trailer, 4, totalIn);
+        out.write(trailer);
+    }
+
+    private static void writeIntLittleEndian(final byte[] target, final int offset, final long value) {
+        for (int i = 0; i < 4; i++) {
+            target[offset + i] = (byte) (value >> (8 * i));
+        }
+    }
+
+    private static ExecutorService createDeflaters() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            final Thread thread = new Thread(runnable, "gzip-deflater-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -26,6 +26,12 @@ import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.zip.Deflater;
 
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.xxhash.XXHashFactory;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
@@ -35,8 +41,10 @@ import org.apache.commons.compress.compressors.gzip.GzipParameters;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.core.env.Environment;
+import org.springframework.util.unit.DataSize;
 
 import com.ericsson.adp.mgmt.backupandrestore.SpringContext;
+import com.ericsson.adp.mgmt.backupandrestore.backup.dedup.ChunkManifest;
 import com.ericsson.adp.mgmt.backupandrestore.exception.ExportException;
 import com.ericsson.adp.mgmt.backupandrestore.exception.FileDirectoryException;
 import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumHash64;
@@ -53,6 +61,11 @@ public class StreamingArchiveService {
 
     private static final int BUFFER_BLOCK_SIZE = 128 * 1024;
     private static final int TAR_COMPRESS_SIZE_BUFFER = 32 * 512;
+    private static final int DEFAULT_COMPRESSION_BLOCK_KIB = 1024;
+    private static final int DEFAULT_COMPRESSION_MEMORY_MIB = 64;
+    private static final int ZSTD_BEST_SPEED = 1;
+    private static final int ZSTD_DEFAULT_COMPRESSION = 3;
+    private static final int ZSTD_BEST_COMPRESSION = 19;
 
     private final ArchiveUtils utils;
 
@@ -92,14 +105,23 @@ public class StreamingArchiveService {
     private void addFileToCompress(final Path source, final Path sourcePrefix, final TarArchiveOutputStream tos,
                                           final String destinationPrefix) throws IOException {
 
-        final TarArchiveEntry entry = utils.newEntry(sourcePrefix, source, destinationPrefix);
-        if (entry.isDirectory()) {
-            tos.putArchiveEntry(entry);
+        final TarArchiveEntry sourceEntry = utils.newEntry(sourcePrefix, source, destinationPrefix);
+        if (sourceEntry.isDirectory()) {
+            tos.putArchiveEntry(sourceEntry);
         } else {
-            utils.initEntry(entry, source);
+            // Files stored as chunks are exported whole, so the tarball can be imported whether or not chunks are used
+            final Optional<ChunkManifest> manifest = utils.getChunkManifest(source);
+            final TarArchiveEntry entry;
+            if (manifest.isPresent()) {
+                entry = utils.newEntry(sourcePrefix, ChunkManifest.getDataFile(source), destinationPrefix);
+                entry.setSize(manifest.get().getLength());
+            } else {
+                entry = sourceEntry;
+                utils.initEntry(entry, source);
+            }
             final byte[] buffer = new byte[ArchiveUtils.BLOCK_SIZE];
             log.info("Adding file {} to compress", source);
-            try (InputStream fis = utils.getInputStream(source)) {
+            try (InputStream fis = manifest.isPresent() ? utils.getInputStream(manifest.get()) : utils.getInputStream(source)) {
                 tos.putArchiveEntry(entry);
                 int len = fis.read(buffer);
                 while (len != -1) {
@@ -144,52 +166,130 @@ public class StreamingArchiveService {
     }
 
     /**
-     * Wrap the Input stream into a tar.gzip buffered stream
+     * Wrap the Input stream into a tar buffered stream, decompressed with the codec detected from the start of the stream
      * @param inputStream InputStream used as piped stream
      * @param hash64 inject the hash64 used for checksum
      * @return a Tar input stream
      * @throws IOException on IO file error
      */
     @SuppressWarnings("PMD.CloseResource")
-    public TarArchiveInputStream openTarGzipInput(final InputStream inputStream, final ChecksumHash64 hash64) throws IOException {
+    public TarArchiveInputStream openTarInput(final InputStream inputStream, final ChecksumHash64 hash64) throws IOException {
         final CustomInputStream customInputStream = new CustomInputStream (inputStream, BUFFER_BLOCK_SIZE);
         final BufferedInputStream bufferedStream = new BufferedInputStream (customInputStream, BUFFER_BLOCK_SIZE);
         if (hash64 != null) {
             customInputStream.setHash64(hash64);
         }
-        final GzipCompressorInputStream compressStream = new GzipCompressorInputStream(bufferedStream);
-        return new CustomTarArchiveInputStream(compressStream, BUFFER_BLOCK_SIZE);
+        final ArchiveCodec codec = ArchiveCodec.detect(bufferedStream);
+        log.info("Opening tarball compressed with {}", codec);
+        return new CustomTarArchiveInputStream(openDecompressor(codec, bufferedStream), BUFFER_BLOCK_SIZE);
     }
 
     /**
-     * Wrap the Output stream into a tar.gzip buffered stream
+     * Wrap the Output stream into a tar buffered stream, compressed with the configured codec
      * @param outputStream OutputStream used as piped stream
      * @param hash64 inject the hash64 used for checksum
      * @return a Tar output stream
      * @throws IOException on IO file error
      */
     @SuppressWarnings("PMD.CloseResource")
-    public TarArchiveOutputStream openTarGzipOutput(final OutputStream outputStream,
-                                                    final ChecksumHash64 hash64) throws IOException {
+    public TarArchiveOutputStream openTarOutput(final OutputStream outputStream,
+                                                final ChecksumHash64 hash64) throws IOException {
         final ChecksumBufferedOutputStream bufferedStream = new ChecksumBufferedOutputStream(outputStream, BUFFER_BLOCK_SIZE);
-        final GzipParameters parameters = new GzipParameters();
         final Optional<Environment> environment = SpringContext.getBean(Environment.class);
+        final int compressionLevel;
+        final int compressionWorkers;
+        final int blockSize;
+        final long memoryLimit;
         if (environment.isPresent()) {
-            final String compressionLevel = environment.get().getProperty("sftp.archive.compressionLevel", "BEST_SPEED");
-            final int compressionLevelValue = getCompressionLevelValue(compressionLevel);
-            parameters.setCompressionLevel(compressionLevelValue);
+            compressionLevel = getCompressionLevelValue(environment.get().getProperty("sftp.archive.compressionLevel", "BEST_SPEED"));
+            compressionWorkers = environment.get().getProperty("sftp.archive.compressionWorkers", Integer.class, 1);
+            blockSize = (int) DataSize.ofKilobytes(environment.get()
+                    .getProperty("sftp.archive.compressionBlockSizeKiB", Integer.class, DEFAULT_COMPRESSION_BLOCK_KIB)).toBytes();
+            memoryLimit = DataSize.ofMegabytes(environment.get()
+                    .getProperty("sftp.archive.compressionMemoryLimitMiB", Integer.class, DEFAULT_COMPRESSION_MEMORY_MIB)).toBytes();
         } else {
             throw new ExportException("Unable to load application properties");
         }
 
         bufferedStream.setHash64(hash64);
-        final OutputStream compressStream = new GzipCompressorOutputStream(bufferedStream, parameters);
+        final ArchiveCodec codec = ArchiveUtils.getConfiguredCodec();
+        log.info("Compressing export with {} using {} workers", codec, compressionWorkers);
+        final OutputStream compressStream = openCompressor(codec, bufferedStream, compressionLevel, compressionWorkers, blockSize, memoryLimit);
         final TarArchiveOutputStream tarArchiveOutputStream = new TarArchiveOutputStream(compressStream, TAR_COMPRESS_SIZE_BUFFER);
         tarArchiveOutputStream.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
         tarArchiveOutputStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
         return tarArchiveOutputStream;
     }
 
+    /**
+     * Wrap the Output stream into a compressing stream
+     * @param codec the codec to compress with
+     * @param outputStream the stream the compressed data is written to
+     * @param compressionLevel the Deflater compression level, mapped onto the level scale of the codec
+     * @param workers the number of threads compressing, if the codec supports more than one
+     * @param blockSize the block size of the parallel gzip compression
+     * @param memoryLimit the memory limit of the parallel gzip compression
+     * @return the compressing stream
+     * @throws IOException if the stream can't be opened
+     */
+    protected OutputStream openCompressor(final ArchiveCodec codec, final OutputStream outputStream, final int compressionLevel,
+                                          final int workers, final int blockSize, final long memoryLimit) throws IOException {
+        switch (codec) {
+            case ZSTD:
+                final ZstdOutputStream zstdStream = new ZstdOutputStream(outputStream, getZstdLevel(compressionLevel));
+                if (workers > 1) {
+                    zstdStream.setWorkers(workers);
+                }
+                return zstdStream;
+            case LZ4:
+                final LZ4Factory lz4Factory = LZ4Factory.fastestInstance();
+                return new LZ4FrameOutputStream(outputStream, LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB, -1L,
+                        compressionLevel == Deflater.BEST_COMPRESSION ? lz4Factory.highCompressor() : lz4Factory.fastCompressor(),
+                        XXHashFactory.fastestInstance().hash32(), LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
+            case STORE:
+                return outputStream;
+            default:
+                if (workers > 1) {
+                    return new ParallelGzipOutputStream(outputStream, compressionLevel, workers, blockSize, memoryLimit);
+                }
+                final GzipParameters parameters = new GzipParameters();
+                parameters.setCompressionLevel(compressionLevel);
+                return new GzipCompressorOutputStream(outputStream, parameters);
+        }
+    }
+
+    /**
+     * Wrap the Input stream into a decompressing stream
+     * @param codec the codec the data was compressed with
+     * @param inputStream the stream of compressed data
+     * @return the decompressing stream
+     * @throws IOException if the stream can't be opened
+     */
+    protected InputStream openDecompressor(final ArchiveCodec codec, final InputStream inputStream) throws IOException {
+        switch (codec) {
+            case ZSTD:
+                return new ZstdInputStream(inputStream);
+            case LZ4:
+                return new LZ4FrameInputStream(inputStream);
+            case STORE:
+                return inputStream;
+            default:
+                return new GzipCompressorInputStream(inputStream);
+        }
+    }
+
+    private int getZstdLevel(final int compressionLevel) {
+        switch (compressionLevel) {
+            case Deflater.BEST_COMPRESSION:
+                return ZSTD_BEST_COMPRESSION;
+            case Deflater.DEFAULT_COMPRESSION:
+                return ZSTD_DEFAULT_COMPRESSION;
+            default:
+                // zstd has no uncompressed mode, its fastest level is used for NO_COMPRESSION too
+                return ZSTD_BEST_SPEED;
+        }
+    }
+
     /**
      * Converts the String value of the compression level into the Deflater library's compressionLevel constant integer value
      * @param compressionLevel the compression level
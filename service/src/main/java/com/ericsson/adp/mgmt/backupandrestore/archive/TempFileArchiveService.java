@@ -80,7 +80,8 @@ public class TempFileArchiveService {
     public Optional<File> compressBackup(final Path backupFile, final Path backupData, final String backupManagerId, final String backupName,
                                          final Backup backup)
             throws IOException {
-        return compressBackup(backupFile, backupData, backupManagerId, backupName, ArchiveUtils.getTarballName(backup));
+        // HTTP export always produces gzip tarballs, the codec selection only applies to SFTP export
+        return compressBackup(backupFile, backupData, backupManagerId, backupName, ArchiveUtils.getTarballName(backup, ArchiveCodec.GZIP));
     }
 
     private Optional<File> compressBackup(final Path backupFile, final Path backupData, final String backupManagerId, final String backupName,
@@ -114,9 +115,9 @@ public class TempFileArchiveService {
      */
     public File uncompressBackup(final File tarFile) throws IOException {
         File untarFile;
-        try (TarArchiveInputStream tis = streamService.openTarGzipInput(new FileInputStream(tarFile), null)) {
+        try (TarArchiveInputStream tis = streamService.openTarInput(new FileInputStream(tarFile), null)) {
             // Create temp directory with tarFile name to store untarred files
-            final String untarFilename = tarFile.getName().split(ArchiveUtils.TAR_GZ)[0];
+            final String untarFilename = ArchiveCodec.stripExtension(tarFile.getName());
             final String untarPath = tarFile.getParent() + File.separator + untarFilename;
             log.info("untarPath {}", untarPath);
             untarFile = new File(untarPath);
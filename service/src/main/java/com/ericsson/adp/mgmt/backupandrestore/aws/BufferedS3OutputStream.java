@@ -20,13 +20,23 @@ import java.io.OutputStream;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
@@ -37,18 +47,23 @@ import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3MultipartClient;
 import com.ericsson.adp.mgmt.backupandrestore.exception.AWSException;
 
 /**
- * A buffered output stream for uploading large object to BRO in a streaming manner
+ * A buffered output stream for uploading large object to BRO in a streaming manner.
+ * When more than one part is allowed in flight, full parts are handed to the upload pool
+ * shared by all uploads so that the writer only blocks once all part buffers are in use.
  * */
 public class BufferedS3OutputStream extends OutputStream {
 
     private static final Logger log = LogManager.getLogger(BufferedS3OutputStream.class);
 
-
-    private final List<PartETag> partETags;
-    private final byte[] buffer;
+    private final Deque<Future<PartETag>> pendingParts;
     private final S3MultipartClient client;
     private final String key;
+    private final int parallelParts;
+    private final Semaphore freePartSlots;
+    private final S3PartBufferPool bufferPool;
+    private final Executor uploadExecutor;
 
+    private byte[] buffer;
     private int bufferPos;
 
     // Default minimum part size is 5 MB
@@ -56,27 +71,49 @@ public class BufferedS3OutputStream extends OutputStream {
     private long objectSize;
     private Optional<InitiateMultipartUploadResult> initResponse = Optional.empty();
     private int partNumber;
+    private boolean closed;
+    private boolean aborted;
 
     /**
-     * Construct a BufferedAWSOutputStream
+     * Construct a BufferedAWSOutputStream using the upload settings of the client configuration
      * @param client - the client used to communicate with AWS
      * @param key - the object key to store the written data to
      * @param chunkSize - the minimum size of each chunk to be uploaded
      * */
     public BufferedS3OutputStream(final S3MultipartClient client, final String key, final int chunkSize) {
+        this(client, key, chunkSize, client.getS3Config().getUploadParallelParts(), client.getS3Config().getPartBufferPool(),
+                client.getS3Config().getUploadExecutor());
+    }
+
+    /**
+     * Construct a BufferedAWSOutputStream
+     * @param client - the client used to communicate with AWS
+     * @param key - the object key to store the written data to
+     * @param chunkSize - the minimum size of each chunk to be uploaded
+     * @param parallelParts - the maximum number of parts uploaded at the same time, 1 uploads on the writing thread
+     * @param bufferPool - the pool the part buffers are taken from and returned to
+     * @param uploadExecutor - the pool the parts are uploaded on when more than one part is allowed in flight
+     * */
+    public BufferedS3OutputStream(final S3MultipartClient client, final String key, final int chunkSize,
+                                  final int parallelParts, final S3PartBufferPool bufferPool, final Executor uploadExecutor) {
         this.client = client;
         client.createBucket();
         partNumber = 1;
         objectSize = 0;
-        partETags = new ArrayList<>();
+        pendingParts = new ArrayDeque<>();
         this.key = key;
         this.chunkSize = Math.max(chunkSize, S3MultipartClient.PART_SIZE_LOWER_BOUND);
-        this.buffer = new byte[chunkSize];
+        this.parallelParts = Math.max(1, parallelParts);
+        this.freePartSlots = new Semaphore(this.parallelParts);
+        this.bufferPool = bufferPool;
+        this.uploadExecutor = uploadExecutor;
+        this.buffer = bufferPool.acquire(this.chunkSize);
         this.bufferPos = 0;
     }
 
     @Override
     public void write(final byte[] input, final int off, final int len) {
+        checkNotAborted();
         final int space = chunkSize - bufferPos;
         final int toCopy = Math.min(space, len);
         System.arraycopy(input, off, buffer, bufferPos, toCopy);
@@ -91,6 +128,7 @@ public class BufferedS3OutputStream extends OutputStream {
 
     @Override
     public void write(final int inputByte) {
+        checkNotAborted();
         buffer[bufferPos] = (byte) inputByte; // safe cast as interface specifies upper 24 bits ignored
         bufferPos += 1;
         if (bufferPos >= chunkSize) {
@@ -100,27 +138,53 @@ public class BufferedS3OutputStream extends OutputStream {
 
     @Override
     public void close() {
-        if (initResponse.isEmpty()) {
-            log.debug("The object size was less than minimum multipart upload, uploading all at once.");
-            final InputStream inputStream = new ByteArrayInputStream(buffer, 0, bufferPos);
-            client.getS3Client().putObject(client.getDefaultBucketName(), key, inputStream, null);
-        } else {
-            if (bufferPos > 0) {
-                uploadPart();
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (aborted) {
+                log.debug("Not completing the upload of {} as it was aborted", key);
+            } else if (initResponse.isEmpty()) {
+                log.debug("The object size was less than minimum multipart upload, uploading all at once.");
+                final InputStream inputStream = new ByteArrayInputStream(buffer, 0, bufferPos);
+                client.getS3Client().putObject(client.getDefaultBucketName(), key, inputStream, null);
             } else {
-                log.debug("Skipping final part upload as no bytes to send");
+                completeUpload();
             }
+        } finally {
+            releaseResources();
+        }
+    }
+
+    private void checkNotAborted() {
+        if (aborted) {
+            throw new AWSException("The upload of " + key + " was aborted");
+        }
+    }
+
+    private void completeUpload() {
+        if (bufferPos > 0) {
+            uploadPart();
+        } else {
+            log.debug("Skipping final part upload as no bytes to send");
+        }
+        final List<PartETag> partETags = awaitPendingParts();
 
-            log.debug("The object size is {}", objectSize);
-            if (initResponse.isPresent()) {
-                final CompleteMultipartUploadRequest compRequest = new CompleteMultipartUploadRequest(client.getDefaultBucketName(), key,
-                        initResponse.get().getUploadId(), partETags);
+        log.debug("The object size is {}", objectSize);
+        if (initResponse.isPresent()) {
+            final CompleteMultipartUploadRequest compRequest = new CompleteMultipartUploadRequest(client.getDefaultBucketName(), key,
+                    initResponse.get().getUploadId(), partETags);
+            try {
                 client.getS3Client().completeMultipartUpload(compRequest);
-            } else {
-                throw new AWSException("Upload re-initialized during stream closing");
+            } catch (RuntimeException e) {
+                abortUpload();
+                throw e;
             }
-            initResponse = Optional.empty();
+        } else {
+            throw new AWSException("Upload re-initialized during stream closing");
         }
+        initResponse = Optional.empty();
     }
 
     private void initUpload() {
@@ -150,8 +214,135 @@ public class BufferedS3OutputStream extends OutputStream {
 
             objectSize += bufferPos;
             bufferPos = 0;
-            final PartETag eTag = client.getS3Client().uploadPart(uploadRequest).getPartETag();
-            partETags.add(eTag);
+            if (parallelParts == 1) {
+                pendingParts.add(uploadInline(uploadRequest));
+            } else {
+                submitPart(uploadRequest);
+            }
+        }
+    }
+
+    private Future<PartETag> uploadInline(final UploadPartRequest uploadRequest) {
+        try {
+            return CompletableFuture.completedFuture(client.getS3Client().uploadPart(uploadRequest).getPartETag());
+        } catch (RuntimeException e) {
+            abortUpload();
+            throw e;
+        }
+    }
+
+    private void submitPart(final UploadPartRequest uploadRequest) {
+        try {
+            freePartSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortUpload();
+            throw new AWSException("Interrupted while waiting to upload part of " + key, e);
         }
+        try {
+            checkCompletedParts();
+        } catch (RuntimeException e) {
+            freePartSlots.release();
+            throw e;
+        }
+        final PartUpload part = new PartUpload(uploadRequest, buffer);
+        buffer = bufferPool.acquire(chunkSize);
+        pendingParts.add(part);
+        uploadExecutor.execute(part);
+    }
+
+    /**
+     * Fails fast if a part that was already sent in the background has failed,
+     * rather than waiting for close to notice it.
+     */
+    private void checkCompletedParts() {
+        for (final Future<PartETag> part : pendingParts) {
+            if (part.isDone()) {
+                getPartETag(part);
+            }
+        }
+    }
+
+    private List<PartETag> awaitPendingParts() {
+        final List<PartETag> partETags = new ArrayList<>(pendingParts.size());
+        for (final Future<PartETag> part : pendingParts) {
+            partETags.add(getPartETag(part));
+        }
+        return partETags;
+    }
+
+    private PartETag getPartETag(final Future<PartETag> part) {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortUpload();
+            throw new AWSException("Interrupted while uploading " + key, e);
+        } catch (ExecutionException e) {
+            abortUpload();
+            throw new AWSException("Failed to upload part of " + key, e.getCause());
+        }
+    }
+
+    private void abortUpload() {
+        if (initResponse.isEmpty()) {
+            return;
+        }
+        final String uploadId = initResponse.get().getUploadId();
+        initResponse = Optional.empty();
+        aborted = true;
+        pendingParts.forEach(part -> part.cancel(true));
+        try {
+            client.getS3Client().abortMultipartUpload(new AbortMultipartUploadRequest(client.getDefaultBucketName(), key, uploadId));
+            log.warn("Aborted multipart upload of {}", key);
+        } catch (RuntimeException e) {
+            log.warn("Failed to abort multipart upload of {}", key, e);
+        }
+    }
+
+    private void releaseResources() {
+        bufferPool.release(buffer);
+    }
+
+    /**
+     * Upload of a part in the background, which holds a part buffer and a part slot until it's finished.
+     * They're released by whichever of the upload and its cancellation claims them first, so a part
+     * cancelled before it started still gives them back, while a part cancelled during the upload
+     * keeps its buffer until the client is done reading it.
+     */
+    private class PartUpload extends FutureTask<PartETag> {
+        private final AtomicBoolean claimed;
+        private final byte[] partBuffer;
+
+        PartUpload(final UploadPartRequest uploadRequest, final byte[] partBuffer) {
+            this(uploadRequest, partBuffer, new AtomicBoolean());
+        }
+
+        private PartUpload(final UploadPartRequest uploadRequest, final byte[] partBuffer, final AtomicBoolean claimed) {
+            super(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    throw new AWSException("The upload of part " + uploadRequest.getPartNumber() + " of " + key + " was cancelled");
+                }
+                try {
+                    return client.getS3Client().uploadPart(uploadRequest).getPartETag();
+                } finally {
+                    releasePart(partBuffer);
+                }
+            });
+            this.claimed = claimed;
+            this.partBuffer = partBuffer;
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled() && claimed.compareAndSet(false, true)) {
+                releasePart(partBuffer);
+            }
+        }
+    }
+
+    private void releasePart(final byte[] partBuffer) {
+        bufferPool.release(partBuffer);
+        freePartSlots.release();
     }
 }
@@ -0,0 +1,219 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.aws;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3Client;
+
+/**
+ * An input stream over an object in OSMN which keeps a number of ranged GETs in flight
+ * ahead of the reader. Ranges are handed to the reader in order, so at most
+ * prefetchDepth ranges of rangeSize bytes are held in memory at any time.
+ * The ranges are fetched on a pool shared by all downloads, and each range fetched ahead
+ * is reserved in a budget shared by all downloads, in KiB. A download with no range in
+ * flight always fetches the next one, so it can't wait on the ranges of other downloads.
+ */
+public class PrefetchingS3InputStream extends InputStream {
+
+    private static final Logger log = LogManager.getLogger(PrefetchingS3InputStream.class);
+    private static final int KIB = 1024;
+
+    private final S3Client client;
+    private final String bucketName;
+    private final String objectKey;
+    private final long totalSize;
+    private final int rangeSize;
+    private final int prefetchDepth;
+    private final int rangeRetries;
+    private final ExecutorService rangeExecutor;
+    private final Semaphore prefetchBudgetKiB;
+    private final Deque<PendingRange> pendingRanges = new ArrayDeque<>();
+
+    private long nextRangeStart;
+    private byte[] currentRange = new byte[0];
+    private int currentPos;
+    private boolean closed;
+
+    /**
+     * Creates the stream. No request is sent until the first read.
+     * @param client the client used to fetch the ranges
+     * @param bucketName the bucket holding the object
+     * @param objectKey the key of the object
+     * @param totalSize the size of the object
+     * @param rangeSize the size of each ranged GET
+     * @param prefetchDepth the maximum number of ranges fetched or held ahead of the reader
+     * @param rangeRetries how many times a failed range is fetched again before giving up
+     * @param rangeExecutor the pool the ranges are fetched on
+     * @param prefetchBudgetKiB the KiB the ranges fetched ahead of the readers of all downloads may hold
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public PrefetchingS3InputStream(final S3Client client, final String bucketName, final String objectKey,
+                                    final long totalSize, final int rangeSize, final int prefetchDepth,
+                                    final int rangeRetries, final ExecutorService rangeExecutor,
+                                    final Semaphore prefetchBudgetKiB) {
+        this.client = client;
+        this.bucketName = bucketName;
+        this.objectKey = objectKey;
+        this.totalSize = totalSize;
+        this.rangeSize = rangeSize;
+        this.prefetchDepth = Math.max(1, prefetchDepth);
+        this.rangeRetries = Math.max(0, rangeRetries);
+        this.rangeExecutor = rangeExecutor;
+        this.prefetchBudgetKiB = prefetchBudgetKiB;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fillCurrentRange()) {
+            return -1;
+        }
+        return currentRange[currentPos++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] output, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fillCurrentRange()) {
+            return -1;
+        }
+        final int toCopy = Math.min(len, currentRange.length - currentPos);
+        System.arraycopy(currentRange, currentPos, output, off, toCopy);
+        currentPos += toCopy;
+        return toCopy;
+    }
+
+    @Override
+    public int available() {
+        return currentRange.length - currentPos;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pendingRanges.forEach(PendingRange::cancel);
+        pendingRanges.clear();
+        currentRange = new byte[0];
+        currentPos = 0;
+    }
+
+    private boolean fillCurrentRange() throws IOException {
+        if (closed) {
+            throw new IOException("Stream of " + objectKey + " is closed");
+        }
+        while (currentPos == currentRange.length) {
+            if (nextRangeStart >= totalSize && pendingRanges.isEmpty()) {
+                return false;
+            }
+            currentRange = nextRange();
+            currentPos = 0;
+        }
+        return true;
+    }
+
+    private byte[] nextRange() throws IOException {
+        if (totalSize <= rangeSize) {
+            // A single range is not worth a thread, fetch it on the reader
+            final long start = nextRangeStart;
+            nextRangeStart = totalSize;
+            return fetchRange(start);
+        }
+        scheduleRanges();
+        final PendingRange range = pendingRanges.poll();
+        try {
+            return range.content.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new InterruptedIOException("Interrupted while downloading " + objectKey);
+        } catch (ExecutionException e) {
+            close();
+            throw new IOException("Failed to download " + objectKey, e.getCause());
+        } finally {
+            range.release();
+        }
+    }
+
+    private void scheduleRanges() {
+        while (pendingRanges.size() < prefetchDepth && nextRangeStart < totalSize) {
+            final long start = nextRangeStart;
+            final int reservedKiB = (int) ((Math.min(rangeSize, totalSize - start) + KIB - 1) / KIB);
+            final boolean reserved = prefetchBudgetKiB.tryAcquire(reservedKiB);
+            if (!reserved && !pendingRanges.isEmpty()) {
+                return;
+            }
+            nextRangeStart += rangeSize;
+            pendingRanges.add(new PendingRange(rangeExecutor.submit(() -> fetchRange(start)), reserved ? reservedKiB : 0));
+        }
+    }
+
+    private byte[] fetchRange(final long start) throws IOException {
+        final long end = Math.min(start + rangeSize, totalSize) - 1;
+        int attempt = 0;
+        while (true) {
+            final GetObjectRequest request = new GetObjectRequest(bucketName, objectKey).withRange(start, end);
+            try (S3Object object = client.getS3Client().getObject(request);
+                 InputStream content = object.getObjectContent()) {
+                final byte[] range = content.readAllBytes();
+                if (range.length != end - start + 1) {
+                    throw new IOException("Received " + range.length + " bytes for range " + start + "-" + end);
+                }
+                return range;
+            } catch (IOException | RuntimeException e) {
+                if (attempt++ >= rangeRetries || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                log.warn("Failed to download range {}-{} of {}, attempt {} of {}", start, end, objectKey, attempt, rangeRetries, e);
+            }
+        }
+    }
+
+    /**
+     * A range fetched ahead of the reader, with the KiB it reserved in the prefetch budget
+     */
+    private class PendingRange {
+        private final Future<byte[]> content;
+        private final int reservedKiB;
+
+        PendingRange(final Future<byte[]> content, final int reservedKiB) {
+            this.content = content;
+            this.reservedKiB = reservedKiB;
+        }
+
+        void cancel() {
+            content.cancel(true);
+            release();
+        }
+
+        void release() {
+            prefetchBudgetKiB.release(reservedKiB);
+        }
+    }
+}
@@ -24,6 +24,10 @@ import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
@@ -34,6 +38,7 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.ClientConfiguration;
@@ -83,6 +88,18 @@ public class S3Config {
     private int retriesStartUp;
     private int readConnectTimeout;
     private int connectionTimeout;
+    private int uploadParallelParts = 2;
+    private int uploadThreads = 8;
+    private ExecutorService uploadExecutor;
+    private long uploadBufferPoolBytes = DataSize.ofMegabytes(64).toBytes();
+    private S3PartBufferPool partBufferPool;
+    private int downloadRangeSize = (int) DataSize.ofMegabytes(5).toBytes();
+    private int downloadPrefetchDepth = 4;
+    private int downloadRangeRetries = 3;
+    private int downloadThreads = 8;
+    private int downloadPrefetchKiB = (int) DataSize.ofMegabytes(64).toKilobytes();
+    private ExecutorService downloadExecutor;
+    private Semaphore downloadPrefetchBudget;
 
     /**
      * Gets a AWS client
@@ -454,4 +471,163 @@ public class S3Config {
     public void setConnectionTimeout(final int connectTimeout) {
         this.connectionTimeout = connectTimeout;
     }
+
+    /**
+     * Set how many parts of a single multipart upload can be sent to OSMN at the same time.
+     * A value of 1 uploads each part synchronously on the writing thread.
+     * @param uploadParallelParts the maximum number of in-flight parts per upload
+     */
+    @Value("${osmn.upload.parallelParts:2}")
+    public void setUploadParallelParts(final int uploadParallelParts) {
+        this.uploadParallelParts = Math.max(1, uploadParallelParts);
+    }
+
+    /**
+     * Get the maximum number of in-flight parts per multipart upload
+     * @return the maximum number of in-flight parts
+     */
+    public int getUploadParallelParts() {
+        return uploadParallelParts;
+    }
+
+    /**
+     * Set how many parts of all the multipart uploads can be sent to OSMN at the same time
+     * @param uploadThreads the number of threads of the upload pool
+     */
+    @Value("${osmn.upload.threads:8}")
+    public void setUploadThreads(final int uploadThreads) {
+        this.uploadThreads = Math.max(1, uploadThreads);
+    }
+
+    /**
+     * Get the pool the parts of all the multipart uploads are sent on
+     * @return the upload pool
+     */
+    public synchronized ExecutorService getUploadExecutor() {
+        if (uploadExecutor == null) {
+            uploadExecutor = createExecutor(uploadThreads, "osmn-upload-");
+        }
+        return uploadExecutor;
+    }
+
+    /**
+     * Set the memory kept by idle part buffers between multipart uploads
+     * @param uploadBufferPoolMegabytes the memory in megabytes
+     */
+    @Value("${osmn.upload.bufferPoolMegabytes:64}")
+    public void setUploadBufferPoolMegabytes(final long uploadBufferPoolMegabytes) {
+        this.uploadBufferPoolBytes = DataSize.ofMegabytes(uploadBufferPoolMegabytes).toBytes();
+    }
+
+    /**
+     * Get the pool the multipart uploads take their part buffers from
+     * @return the part buffer pool
+     */
+    public synchronized S3PartBufferPool getPartBufferPool() {
+        if (partBufferPool == null) {
+            partBufferPool = new S3PartBufferPool(uploadBufferPoolBytes);
+        }
+        return partBufferPool;
+    }
+
+    /**
+     * Set the size of each ranged GET used when streaming an object from OSMN
+     * @param downloadRangeMegabytes the range size in megabytes
+     */
+    @Value("${osmn.download.rangeMegabytes:5}")
+    public void setDownloadRangeMegabytes(final int downloadRangeMegabytes) {
+        this.downloadRangeSize = (int) DataSize.ofMegabytes(Math.max(1, downloadRangeMegabytes)).toBytes();
+    }
+
+    /**
+     * Get the size of each ranged GET used when streaming an object from OSMN
+     * @return the range size in bytes
+     */
+    public int getDownloadRangeSize() {
+        return downloadRangeSize;
+    }
+
+    /**
+     * Set how many ranges of an object are downloaded ahead of the reader.
+     * Together with the range size this bounds the memory used by each download, within the prefetch budget of all downloads.
+     * @param downloadPrefetchDepth the number of ranges in flight per download
+     */
+    @Value("${osmn.download.prefetchDepth:4}")
+    public void setDownloadPrefetchDepth(final int downloadPrefetchDepth) {
+        this.downloadPrefetchDepth = Math.max(1, downloadPrefetchDepth);
+    }
+
+    /**
+     * Get how many ranges of an object are downloaded ahead of the reader
+     * @return the number of ranges in flight per download
+     */
+    public int getDownloadPrefetchDepth() {
+        return downloadPrefetchDepth;
+    }
+
+    /**
+     * Set how many times a failed range is downloaded again before the download fails
+     * @param downloadRangeRetries the number of retries per range
+     */
+    @Value("${osmn.download.rangeRetries:3}")
+    public void setDownloadRangeRetries(final int downloadRangeRetries) {
+        this.downloadRangeRetries = Math.max(0, downloadRangeRetries);
+    }
+
+    /**
+     * Get how many times a failed range is downloaded again before the download fails
+     * @return the number of retries per range
+     */
+    public int getDownloadRangeRetries() {
+        return downloadRangeRetries;
+    }
+
+    /**
+     * Set how many ranges of all the downloads can be fetched from OSMN at the same time
+     * @param downloadThreads the number of threads of the download pool
+     */
+    @Value("${osmn.download.threads:8}")
+    public void setDownloadThreads(final int downloadThreads) {
+        this.downloadThreads = Math.max(1, downloadThreads);
+    }
+
+    /**
+     * Get the pool the ranges of all the downloads are fetched on
+     * @return the download pool
+     */
+    public synchronized ExecutorService getDownloadExecutor() {
+        if (downloadExecutor == null) {
+            downloadExecutor = createExecutor(downloadThreads, "osmn-download-");
+        }
+        return downloadExecutor;
+    }
+
+    /**
+     * Set the memory the ranges fetched ahead of the readers of all the downloads may hold
+     * @param downloadPrefetchMegabytes the memory in megabytes
+     */
+    @Value("${osmn.download.prefetchMegabytes:64}")
+    public void setDownloadPrefetchMegabytes(final int downloadPrefetchMegabytes) {
+        this.downloadPrefetchKiB = (int) DataSize.ofMegabytes(Math.max(0, downloadPrefetchMegabytes)).toKilobytes();
+    }
+
+    /**
+     * Get the budget the ranges fetched ahead of the readers of all the downloads are reserved in
+     * @return the budget, in KiB
+     */
+    public synchronized Semaphore getDownloadPrefetchBudget() {
+        if (downloadPrefetchBudget == null) {
+            downloadPrefetchBudget = new Semaphore(downloadPrefetchKiB);
+        }
+        return downloadPrefetchBudget;
+    }
+
+    private static ExecutorService createExecutor(final int threads, final String threadNamePrefix) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
@@ -0,0 +1,71 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.aws;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the part buffers released by finished multipart uploads so that the next
+ * upload of the same part size can reuse them instead of allocating new ones.
+ * The memory held by idle buffers is capped, buffers beyond the cap are left to the GC.
+ */
+public class S3PartBufferPool {
+
+    private final Map<Integer, Deque<byte[]>> idleBuffers = new HashMap<>();
+    private final long maxIdleBytes;
+    private long idleBytes;
+
+    /**
+     * Creates a pool
+     * @param maxIdleBytes the maximum number of bytes held by idle buffers
+     */
+    public S3PartBufferPool(final long maxIdleBytes) {
+        this.maxIdleBytes = maxIdleBytes;
+    }
+
+    /**
+     * Takes an idle buffer of the given size, or allocates a new one if none is available
+     * @param size the size of the buffer
+     * @return a buffer of exactly size bytes, its content is undefined
+     */
+    public synchronized byte[] acquire(final int size) {
+        final Deque<byte[]> buffers = idleBuffers.get(size);
+        if (buffers == null || buffers.isEmpty()) {
+            return new byte[size];
+        }
+        idleBytes -= size;
+        return buffers.pop();
+    }
+
+    /**
+     * Returns a buffer to the pool. It must not be used by the caller afterwards.
+     * @param buffer the buffer to return
+     */
+    public synchronized void release(final byte[] buffer) {
+        if (idleBytes + buffer.length > maxIdleBytes) {
+            return;
+        }
+        idleBytes += buffer.length;
+        idleBuffers.computeIfAbsent(buffer.length, size -> new ArrayDeque<>()).push(buffer);
+    }
+
+    /**
+     * Get the number of bytes currently held by idle buffers
+     * @return the idle bytes
+     */
+    public synchronized long getIdleBytes() {
+        return idleBytes;
+    }
+}
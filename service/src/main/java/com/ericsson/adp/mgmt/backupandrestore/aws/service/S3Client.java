@@ -23,11 +23,14 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
@@ -182,6 +185,18 @@ public interface S3Client {
      * @return ArrayList of object keys
      */
     default List<String> getObjectList(final String bucketName, final String prefix, final int maxReturn) {
+        return getObjectList(bucketName, prefix, maxReturn, () -> { });
+    }
+
+    /**
+     * Return a list of object keys from a prefix
+     * @param bucketName bucket Name to look for
+     * @param prefix String representing the path
+     * @param maxReturn the max number of the returned item
+     * @param onRequest called before each request is sent
+     * @return ArrayList of object keys
+     */
+    default List<String> getObjectList(final String bucketName, final String prefix, final int maxReturn, final Runnable onRequest) {
         ListObjectsV2Result v2result;
         final List<String> result = new ArrayList<>();
         int count = 0;
@@ -190,6 +205,7 @@ public interface S3Client {
                 .withPrefix(prefix)
                 .withMaxKeys(100);
         do {
+            onRequest.run();
             v2result = getS3Client().listObjectsV2(req);
             for (final S3ObjectSummary objectSummary : v2result.getObjectSummaries()) {
                 result.add(objectSummary.getKey());
@@ -201,6 +217,50 @@ public interface S3Client {
         return result;
     }
 
+    /**
+     * Return the ETag of every object under a prefix, which the listing already carries, so no request is made per object
+     * @param bucketName bucket Name to look for
+     * @param prefix String representing the path
+     * @param onRequest called before each request is sent
+     * @return ETags by object key, in listing order
+     */
+    default Map<String, String> getObjectETags(final String bucketName, final String prefix, final Runnable onRequest) {
+        ListObjectsV2Result v2result;
+        final Map<String, String> result = new LinkedHashMap<>();
+        final ListObjectsV2Request req = new ListObjectsV2Request()
+                .withBucketName(bucketName)
+                .withPrefix(prefix);
+        do {
+            onRequest.run();
+            v2result = getS3Client().listObjectsV2(req);
+            for (final S3ObjectSummary objectSummary : v2result.getObjectSummaries()) {
+                result.put(objectSummary.getKey(), objectSummary.getETag());
+            }
+            req.setContinuationToken(v2result.getNextContinuationToken());
+        } while (v2result.isTruncated());
+        return result;
+    }
+
+    /**
+     * List what's directly under a folder, one page at a time: the objects of the folder, with their size, and the
+     * folders in it, as common prefixes ending with "/". Nothing under these folders is listed.
+     * @param bucketName bucket Name to look for
+     * @param folderPrefix String representing the path of the folder, ending with "/" unless it's the bucket root
+     * @param onPage called with each page of the listing, once its request is answered
+     */
+    default void listFolder(final String bucketName, final String folderPrefix, final Consumer<ListObjectsV2Result> onPage) {
+        ListObjectsV2Result v2result;
+        final ListObjectsV2Request req = new ListObjectsV2Request()
+                .withBucketName(bucketName)
+                .withPrefix(folderPrefix)
+                .withDelimiter("/");
+        do {
+            v2result = getS3Client().listObjectsV2(req);
+            onPage.accept(v2result);
+            req.setContinuationToken(v2result.getNextContinuationToken());
+        } while (v2result.isTruncated());
+    }
+
     /**
      * Return a list of object keys from a prefix, order by creation time
      * @param bucketName bucket Name to look for
@@ -209,6 +269,19 @@ public interface S3Client {
      * @return ArrayList of object keys order by creation time
      */
     default List<String> getObjectListOrder(final String bucketName, final String prefix, final int maxReturn) {
+        return getObjectListOrder(bucketName, prefix, maxReturn, () -> { });
+    }
+
+    /**
+     * Return a list of object keys from a prefix, order by creation time
+     * @param bucketName bucket Name to look for
+     * @param prefix String representing the path
+     * @param maxReturn the max number of the returned item
+     * @param onRequest called before each request is sent, which includes a metadata request per object
+     * @return ArrayList of object keys order by creation time
+     */
+    default List<String> getObjectListOrder(final String bucketName, final String prefix, final int maxReturn,
+                                            final Runnable onRequest) {
         ListObjectsV2Result v2result;
         final List<S3ObjectInfo> result = new ArrayList<>();
 
@@ -220,9 +293,11 @@ public interface S3Client {
         final DateTimeFormatter dtf = DateTimeFormatter.ofPattern(S3_DATE_FORMAT)
                 .withZone(ZoneId.systemDefault());
         do {
+            onRequest.run();
             v2result = getS3Client().listObjectsV2(req);
             for (final S3ObjectSummary objectSummary : v2result.getObjectSummaries()) {
                 Date objectDate;
+                onRequest.run();
                 final ObjectMetadata metadata = getS3Client()
                         .getObjectMetadata(bucketName, objectSummary.getKey());
                 // Validate user data creation date field
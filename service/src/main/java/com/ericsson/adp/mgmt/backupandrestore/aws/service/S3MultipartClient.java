@@ -18,24 +18,22 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.SequenceInputStream;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.Enumeration;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.util.unit.DataSize;
 
-import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.transfer.Download;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
 import com.amazonaws.services.s3.transfer.Upload;
 import com.ericsson.adp.mgmt.backupandrestore.aws.BufferedS3OutputStream;
+import com.ericsson.adp.mgmt.backupandrestore.aws.PrefetchingS3InputStream;
 import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
 import com.ericsson.adp.mgmt.backupandrestore.exception.AWSException;
 
@@ -182,13 +180,16 @@ public class S3MultipartClient implements S3Client {
     }
 
     /**
-     * Download an object into an InputStream
+     * Download an object into an InputStream. The object is fetched in ranges,
+     * several of which are downloaded ahead of the reader.
      * @param bucketName the name of the bucket
      * @param objectKey the object key
      * @return the inputStream
      */
     public InputStream downloadObject(final String bucketName, final String objectKey) {
-        return new SequenceInputStream(getEnumeration(bucketName, objectKey));
+        return new PrefetchingS3InputStream(this, bucketName, objectKey, getObjectSize(bucketName, objectKey),
+                s3Config.getDownloadRangeSize(), s3Config.getDownloadPrefetchDepth(), s3Config.getDownloadRangeRetries(),
+                s3Config.getDownloadExecutor(), s3Config.getDownloadPrefetchBudget());
     }
 
     /**
@@ -219,24 +220,4 @@ public class S3MultipartClient implements S3Client {
     public void invalidateCachedClient() {
         this.getS3Config().invalidateCachedClient();
     }
-
-    private Enumeration<InputStream> getEnumeration(final String bucketName, final String objectKey) {
-        final long totalSize = getObjectSize(bucketName, objectKey);
-        return new Enumeration<>() {
-            private long currentPosition;
-
-            @Override
-            public boolean hasMoreElements() {
-                return currentPosition < totalSize;
-            }
-
-            @Override
-            public InputStream nextElement() {
-                final GetObjectRequest getObjectRequest = new GetObjectRequest(bucketName, objectKey)
-                        .withRange(currentPosition, currentPosition + PART_SIZE_LOWER_BOUND - 1);
-                currentPosition += PART_SIZE_LOWER_BOUND;
-                return getS3Client().getObject(getObjectRequest).getObjectContent();
-            }
-        };
-    }
-}
\ No newline at end of file
+}
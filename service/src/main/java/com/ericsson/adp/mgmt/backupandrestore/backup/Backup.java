@@ -13,6 +13,7 @@ package com.ericsson.adp.mgmt.backupandrestore.backup;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -83,7 +84,8 @@ public class Backup extends BackupInformation implements Versioned<PersistedBack
         creationType = backup.getCreationType();
         userLabel = backup.getUserLabel();
         status = backup.getStatus();
-        softwareVersions = backup.getSoftwareVersions();
+        // Copied, as persisted backups may be shared by the reads of the backup file service
+        softwareVersions = backup.getSoftwareVersions() == null ? null : new ArrayList<>(backup.getSoftwareVersions());
         this.persistFunction = persistFunction;
         this.version = backup.getVersion();
     }
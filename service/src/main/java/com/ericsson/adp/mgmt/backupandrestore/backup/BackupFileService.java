@@ -63,13 +63,14 @@ public class BackupFileService extends OrchestratorDataFileService<PersistedBack
 
     /**
      * Gets persisted backups from a backupManager.
+     * Only the backup files modified since they were last read or written are parsed, the others are kept in memory.
      * @param backupManagerId owner of backups.
-     * @return list of backups.
+     * @return list of backups, which must not be modified.
      */
     public List<PersistedBackup> getBackups(final String backupManagerId) {
         final Path backupFolder = getBackupFolder(backupManagerId);
         if (exists(backupFolder)) {
-            return readObjectsFromFiles(backupFolder, path -> getDefaultBackup(path, backupManagerId));
+            return readCachedObjectsFromFiles(backupFolder, path -> getDefaultBackup(path, backupManagerId));
         }
         return new ArrayList<>();
     }
@@ -0,0 +1,153 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.backup;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
+import com.ericsson.adp.mgmt.backupandrestore.backup.dedup.ChunkStore;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
+
+/**
+ * Creates the writers of the files received on backup data channels.
+ * Received chunks are queued and written by a shared pool of writers, so the data channel only waits for the disk
+ * when the queue of its file is full.
+ */
+@Service
+public class BackupFileWriteService {
+
+    private static final int MIB = 1024 * 1024;
+
+    private int queueChunks = 16;
+    private int writerThreads = 8;
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.NONE;
+    private long fsyncIntervalBytes = 64L * MIB;
+    private Executor executor;
+    private ChunkStore chunkStore;
+
+    /**
+     * Creates the writer of a file received on a backup data channel.
+     * @param folder the folder where the file is
+     * @param fileName the name of the file
+     * @param s3Config the configuration of OSMN
+     * @param fileSize the size of the file to be uploaded
+     * @param checksumAlgorithm the checksum algorithm negotiated with the agent sending the file
+     * @return writer of the file
+     */
+    public BackupFileWriter createWriter(final Path folder, final String fileName, final S3Config s3Config, final long fileSize,
+                                         final ChecksumAlgorithm checksumAlgorithm) {
+        return new BackupFileWriter(folder, fileName, s3Config, fileSize, checksumAlgorithm, this);
+    }
+
+    /**
+     * Creates the writer of a backup data file, which is deduplicated if the chunk store is enabled.
+     * @param folder the folder where the file is
+     * @param fileName the name of the file
+     * @param s3Config the configuration of OSMN
+     * @param fileSize the size of the file to be uploaded
+     * @param checksumAlgorithm the checksum algorithm negotiated with the agent sending the file
+     * @return writer of the file
+     */
+    public BackupFileWriter createDataFileWriter(final Path folder, final String fileName, final S3Config s3Config,
+                                                 final long fileSize, final ChecksumAlgorithm checksumAlgorithm) {
+        if (chunkStore == null || !chunkStore.isEnabled()) {
+            return createWriter(folder, fileName, s3Config, fileSize, checksumAlgorithm);
+        }
+        return new BackupFileWriter(folder, fileName, s3Config, fileSize, checksumAlgorithm, this,
+                chunkStore.openChannel(folder, fileName));
+    }
+
+    int getQueueChunks() {
+        return queueChunks;
+    }
+
+    FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    long getFsyncIntervalBytes() {
+        return fsyncIntervalBytes;
+    }
+
+    synchronized Executor getExecutor() {
+        if (executor == null) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(writerThreads, runnable -> {
+                final Thread thread = new Thread(runnable, "backup-write-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Sets the executor writing the files, instead of the pool of writers
+     * @param executor writing the files
+     */
+    public synchronized void setExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the store backup data files are deduplicated into, when it's enabled
+     * @param chunkStore store of the chunks of backup data files
+     */
+    @Autowired
+    public void setChunkStore(final ChunkStore chunkStore) {
+        this.chunkStore = chunkStore;
+    }
+
+    /**
+     * Sets how many received chunks of a file can wait to be written before the data channel waits
+     * @param queueChunks maximum number of chunks queued per file
+     */
+    @Value("${backup.write.queueChunks:16}")
+    public void setQueueChunks(final int queueChunks) {
+        this.queueChunks = Math.max(1, queueChunks);
+    }
+
+    /**
+     * Sets the number of files written at the same time
+     * @param writerThreads number of threads of the pool of writers
+     */
+    @Value("${backup.write.threads:8}")
+    public void setWriterThreads(final int writerThreads) {
+        this.writerThreads = Math.max(1, writerThreads);
+    }
+
+    /**
+     * Sets when files written to the PVC are forced to disk
+     * @param fsyncPolicy NONE, CHECKSUM or INTERVAL
+     */
+    @Value("${backup.write.fsync:NONE}")
+    public void setFsyncPolicy(final String fsyncPolicy) {
+        this.fsyncPolicy = FsyncPolicy.caseSafeOf(fsyncPolicy);
+    }
+
+    /**
+     * Sets how much data is written between two forces of a file, with the INTERVAL policy
+     * @param fsyncIntervalMiB amount of data, in MiB
+     */
+    @Value("${backup.write.fsyncIntervalMiB:64}")
+    public void setFsyncIntervalMiB(final int fsyncIntervalMiB) {
+        this.fsyncIntervalBytes = Math.max(1L, fsyncIntervalMiB) * MIB;
+    }
+
+}
@@ -15,27 +15,56 @@ import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
 import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3MultipartClient;
 import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3Client;
 import com.ericsson.adp.mgmt.backupandrestore.exception.BackupServiceException;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumCalculator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Writes backup data to file
  * upload them to OSMN server when config is given
+ *
+ * Chunks are queued to be hashed and written by the executor, so the thread receiving them is not held by either.
+ * The queued chunks are written together, with a gathering write on the PVC. The receiver of the chunks should wait
+ * for the writer to be ready, see whenReady, before adding the next chunk, as adding a chunk to a full queue blocks
+ * the calling thread until a chunk is written.
  */
 public class BackupFileWriter {
 
     private static final Logger log = LogManager.getLogger(BackupFileWriter.class);
+    // The checksum file keeps its name whatever the algorithm, the algorithm is named in its content
+    private static final String CHECKSUM_FILE_EXTENSION = ".md5";
+    private static final int MAX_CHUNKS_PER_WRITE = 64;
 
     private final ChecksumCalculator calculator;
-    private final OutputStream fileWriter;
+    private final WritableByteChannel fileWriter;
     private final OutputStream checksumFileWriter;
+    private final BlockingQueue<ByteBuffer> pendingChunks;
+    private final Executor executor;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalBytes;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Object drainLock = new Object();
+    private volatile Exception writeFailure;
+    private Runnable onReady;
+    private long bytesSinceForce;
     private String calculatedChecksum;
 
     /**
@@ -56,15 +85,70 @@ public class BackupFileWriter {
      * @param fileSize the size of the file to be uploaded
      */
     public BackupFileWriter(final Path folder, final String fileName, final S3Config s3Config, final long fileSize) {
-        this.calculator = new ChecksumCalculator();
+        this(folder, fileName, s3Config, fileSize, ChecksumAlgorithm.MD5);
+    }
+
+    /**
+     * Write the backup file to PVC or OSMN, on the calling thread
+     * @param folder the folder where the file is
+     * @param fileName the name of the file
+     * @param s3Config the configuration of OSMN
+     * @param fileSize the size of the file to be uploaded
+     * @param checksumAlgorithm the checksum algorithm negotiated with the agent sending the file
+     */
+    public BackupFileWriter(final Path folder, final String fileName, final S3Config s3Config, final long fileSize,
+                            final ChecksumAlgorithm checksumAlgorithm) {
+        this(folder, fileName, s3Config, fileSize, checksumAlgorithm, Runnable::run, 1, FsyncPolicy.NONE, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Write the backup file to PVC or OSMN, on the writers of the service
+     * @param folder the folder where the file is
+     * @param fileName the name of the file
+     * @param s3Config the configuration of OSMN
+     * @param fileSize the size of the file to be uploaded
+     * @param checksumAlgorithm the checksum algorithm negotiated with the agent sending the file
+     * @param writeService providing the writers, the size of the queue and the fsync policy
+     */
+    BackupFileWriter(final Path folder, final String fileName, final S3Config s3Config, final long fileSize,
+                     final ChecksumAlgorithm checksumAlgorithm, final BackupFileWriteService writeService) {
+        this(folder, fileName, s3Config, fileSize, checksumAlgorithm, writeService, null);
+    }
+
+    /**
+     * Write the backup file to a channel, on the writers of the service, and its checksum file to PVC or OSMN
+     * @param folder the folder where the file is
+     * @param fileName the name of the file
+     * @param s3Config the configuration of OSMN
+     * @param fileSize the size of the file to be uploaded
+     * @param checksumAlgorithm the checksum algorithm negotiated with the agent sending the file
+     * @param writeService providing the writers, the size of the queue and the fsync policy
+     * @param dataChannel where the content of the file is written, or null to write it to PVC or OSMN
+     */
+    BackupFileWriter(final Path folder, final String fileName, final S3Config s3Config, final long fileSize,
+                     final ChecksumAlgorithm checksumAlgorithm, final BackupFileWriteService writeService,
+                     final WritableByteChannel dataChannel) {
+        this(folder, fileName, s3Config, fileSize, checksumAlgorithm, writeService.getExecutor(), writeService.getQueueChunks(),
+                writeService.getFsyncPolicy(), writeService.getFsyncIntervalBytes(), dataChannel);
+    }
+
+    private BackupFileWriter(final Path folder, final String fileName, final S3Config s3Config, final long fileSize,
+                             final ChecksumAlgorithm checksumAlgorithm, final Executor executor, final int queueChunks,
+                             final FsyncPolicy fsyncPolicy, final long fsyncIntervalBytes, final WritableByteChannel dataChannel) {
+        this.calculator = new ChecksumCalculator(checksumAlgorithm);
+        this.executor = executor;
+        this.pendingChunks = new ArrayBlockingQueue<>(queueChunks);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalBytes = fsyncIntervalBytes;
         if (s3Config.isEnabled()) {
             final S3MultipartClient s3MultipartClient = new S3MultipartClient(s3Config);
-            this.fileWriter = s3MultipartClient.getOutputStream(S3Client.toObjectKey(folder.resolve(fileName)), fileSize);
-            this.checksumFileWriter = s3MultipartClient.getOutputStream(S3Client.toObjectKey(folder.resolve(fileName + "." +
-                calculator.getChecksumAlgorithm().toLowerCase())), 1024);
+            this.fileWriter = dataChannel != null ? dataChannel : new OutputStreamChannel(
+                s3MultipartClient.getOutputStream(S3Client.toObjectKey(folder.resolve(fileName)), fileSize));
+            this.checksumFileWriter = s3MultipartClient.getOutputStream(
+                S3Client.toObjectKey(folder.resolve(fileName + CHECKSUM_FILE_EXTENSION)), 1024);
         } else {
-            this.fileWriter = createFileWriter(folder, fileName);
-            this.checksumFileWriter = createFileWriter(folder, fileName + "." + calculator.getChecksumAlgorithm().toLowerCase());
+            this.fileWriter = dataChannel != null ? dataChannel : createFileChannel(folder, fileName);
+            this.checksumFileWriter = createFileWriter(folder, fileName + CHECKSUM_FILE_EXTENSION);
         }
     }
 
@@ -73,19 +157,51 @@ public class BackupFileWriter {
      * @param chunk BackupFileChunk to be stored
      */
     public void addChunk(final byte[] chunk) {
+        addChunk(ByteBuffer.wrap(chunk));
+    }
+
+    /**
+     * Queues a chunk to be hashed and written to file. If the queue is full, the calling thread is blocked until a
+     * chunk is written, so callers able to stop receiving should wait for whenReady instead.
+     * The chunk must not be modified afterwards.
+     * @param chunk to be stored
+     */
+    public void addChunk(final ByteBuffer chunk) {
+        throwIfWriteFailed();
         try {
-            fileWriter.write(chunk);
-            calculator.addBytes(chunk);
-        } catch (final Exception e) {
-            throw new BackupServiceException("Exception while saving backup file:", e);
+            pendingChunks.put(chunk);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackupServiceException("Interrupted while saving backup file:", e);
+        }
+        scheduleDrain();
+        throwIfWriteFailed();
+    }
+
+    /**
+     * Runs an action once another chunk can be added without blocking, at once if it can already be added.
+     * Only one action waits at a time, it's run by the thread writing the chunks.
+     * @param ready the action, such as requesting the next chunk from the sender
+     */
+    public void whenReady(final Runnable ready) {
+        synchronized (drainLock) {
+            if (pendingChunks.remainingCapacity() == 0 && writeFailure == null) {
+                onReady = ready;
+                return;
+            }
         }
+        ready.run();
     }
 
     /**
      * validates if checksum matches
+     * Waits for the queued chunks to be written, and forced to disk if the fsync policy requires it.
      * @param checksum sent by agent
      */
     public void validateChecksum(final String checksum) {
+        awaitWrites();
+        throwIfWriteFailed();
+        forceIfRequired();
         if (getCalculatedChecksum().equals(checksum)) {
             log.debug("BRO calculated and Agent sent checksums match");
         } else {
@@ -95,16 +211,21 @@ public class BackupFileWriter {
 
     private String getCalculatedChecksum() {
         if (this.calculatedChecksum == null) {
+            awaitWrites();
             this.calculatedChecksum = calculator.getChecksum();
         }
         return this.calculatedChecksum;
     }
 
     /**
-     * Finishes building a backup.
+     * Finishes building a backup. The file is closed even if the queued chunks couldn't be waited for.
      */
     public void build() {
-        closeFile();
+        try {
+            awaitWrites();
+        } finally {
+            closeFile();
+        }
     }
 
     /**
@@ -113,7 +234,7 @@ public class BackupFileWriter {
     public void writeChecksumFile() {
         try {
             log.debug("Saving backup checksum");
-            checksumFileWriter.write(this.getCalculatedChecksum().getBytes());
+            checksumFileWriter.write(calculator.getChecksumAlgorithm().toChecksumFileContent(getCalculatedChecksum()).getBytes());
         } catch (final IOException e) {
             throw new BackupServiceException("Exception while saving backup checksum file:", e);
         } finally {
@@ -125,6 +246,134 @@ public class BackupFileWriter {
         }
     }
 
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (final RejectedExecutionException e) {
+                drain();
+            }
+        }
+    }
+
+    private void drain() {
+        final List<ByteBuffer> chunks = new ArrayList<>();
+        do {
+            while (pendingChunks.drainTo(chunks, MAX_CHUNKS_PER_WRITE) > 0) {
+                write(chunks);
+                chunks.clear();
+                runOnReady();
+            }
+            synchronized (drainLock) {
+                draining.set(false);
+                drainLock.notifyAll();
+            }
+            // A chunk queued after the queue was found empty, but before draining was reset, is drained here
+        } while (!pendingChunks.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void write(final List<ByteBuffer> chunks) {
+        if (writeFailure != null) {
+            return;
+        }
+        try {
+            for (final ByteBuffer chunk : chunks) {
+                calculator.addBytes(chunk.duplicate());
+            }
+            final ByteBuffer[] buffers = chunks.toArray(new ByteBuffer[0]);
+            long written = 0;
+            while (hasRemaining(buffers)) {
+                written += fileWriter instanceof GatheringByteChannel
+                        ? ((GatheringByteChannel) fileWriter).write(buffers)
+                        : writeEach(buffers);
+            }
+            bytesSinceForce += written;
+            if (fsyncPolicy == FsyncPolicy.INTERVAL && bytesSinceForce >= fsyncIntervalBytes) {
+                force();
+            }
+        } catch (final Exception e) {
+            log.error("Exception while saving backup file:", e);
+            writeFailure = e;
+            pendingChunks.clear();
+        }
+    }
+
+    private void runOnReady() {
+        final Runnable ready;
+        synchronized (drainLock) {
+            ready = onReady;
+            onReady = null;
+        }
+        if (ready != null) {
+            ready.run();
+        }
+    }
+
+    private long writeEach(final ByteBuffer[] buffers) throws IOException {
+        long written = 0;
+        for (final ByteBuffer buffer : buffers) {
+            while (buffer.hasRemaining()) {
+                written += fileWriter.write(buffer);
+            }
+        }
+        return written;
+    }
+
+    private boolean hasRemaining(final ByteBuffer[] buffers) {
+        for (final ByteBuffer buffer : buffers) {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void awaitWrites() {
+        synchronized (drainLock) {
+            while (draining.get() || !pendingChunks.isEmpty()) {
+                try {
+                    drainLock.wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BackupServiceException("Interrupted while saving backup file:", e);
+                }
+            }
+        }
+    }
+
+    private void forceIfRequired() {
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            try {
+                force();
+            } catch (final IOException e) {
+                throw new BackupServiceException("Exception while saving backup file:", e);
+            }
+        }
+    }
+
+    private void force() throws IOException {
+        if (fileWriter instanceof FileChannel) {
+            ((FileChannel) fileWriter).force(false);
+        }
+        bytesSinceForce = 0;
+    }
+
+    private void throwIfWriteFailed() {
+        if (writeFailure != null) {
+            throw new BackupServiceException("Exception while saving backup file:", writeFailure);
+        }
+    }
+
+    private FileChannel createFileChannel(final Path folder, final String fileName) {
+        try {
+            Files.createDirectories(folder);
+            return FileChannel.open(folder.resolve(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (final IOException e) {
+            throw new BackupServiceException("Exception while creating output stream:", e);
+        }
+    }
+
     private OutputStream createFileWriter(final Path folder, final String fileName) {
         try {
             Files.createDirectories(folder);
@@ -143,4 +392,43 @@ public class BackupFileWriter {
             throw new BackupServiceException("Exception while closing file:", e);
         }
     }
+
+    /**
+     * Writes buffers to an output stream, without the intermediate copy of Channels.newChannel for heap buffers.
+     */
+    private static class OutputStreamChannel implements WritableByteChannel {
+        private final OutputStream outputStream;
+        private boolean open = true;
+
+        OutputStreamChannel(final OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public int write(final ByteBuffer buffer) throws IOException {
+            final int length = buffer.remaining();
+            if (buffer.hasArray()) {
+                outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+                buffer.position(buffer.limit());
+            } else {
+                final byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                outputStream.write(bytes);
+            }
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (open) {
+                open = false;
+                outputStream.close();
+            }
+        }
+    }
 }
@@ -18,6 +18,7 @@ import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +36,7 @@ import com.ericsson.adp.mgmt.backupandrestore.exception.ImportException;
 import com.ericsson.adp.mgmt.backupandrestore.external.ExternalClientImportProperties;
 import com.ericsson.adp.mgmt.backupandrestore.external.connection.ExternalConnection;
 import com.ericsson.adp.mgmt.backupandrestore.external.connection.SftpConnection;
+import com.ericsson.adp.mgmt.backupandrestore.restore.FileChecksumService;
 import com.ericsson.adp.mgmt.backupandrestore.util.BackupLimitValidator;
 
 /**
@@ -49,6 +51,7 @@ public class BackupImporter {
     private BackupLimitValidator backupLimitValidator;
 
     private ArchiveUtils archiveUtils;
+    private FileChecksumService fileChecksumService;
 
 
     /**
@@ -87,9 +90,12 @@ public class BackupImporter {
             // A persisted backup will be created with the _backup_.json and add to BackupManager.
             // The id from the _backup_.json will be validated in backupManager before backup is added to the BackupManager.
             backup = importBackupFile(connection, externalClientProperties, remotePath, backupManager);
-            log.info("Imported Backup: {} into Orchestrator.", backup.getBackupId());
-            connection.importBackupData(remotePath, externalClientProperties.getFolderToStoreBackupData(),
-                    externalClientProperties.getImportFormat());
+            final String importedBackupId = backup.getBackupId();
+            log.info("Imported Backup: {} into Orchestrator.", importedBackupId);
+            final Path backupDataFolder = externalClientProperties.getFolderToStoreBackupData();
+            connection.importBackupData(remotePath, backupDataFolder, externalClientProperties.getImportFormat());
+            // Checks every fragment that came with its checksum file, on the pool of the checksum service
+            fileChecksumService.validateFolder(backupDataFolder.resolve(importedBackupId));
         } catch (UnexpectedBackupManagerException | FileDirectoryException e) {
             if (backupID.isPresent()) {
                 deleteCorruptedBackup (externalClientProperties, backupID.get());
@@ -177,4 +183,9 @@ public class BackupImporter {
     public void setArchiveUtils(final ArchiveUtils archiveUtils) {
         this.archiveUtils = archiveUtils;
     }
+
+    @Autowired
+    public void setFileChecksumService(final FileChecksumService fileChecksumService) {
+        this.fileChecksumService = fileChecksumService;
+    }
 }
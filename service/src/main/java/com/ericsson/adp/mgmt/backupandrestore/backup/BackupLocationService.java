@@ -19,6 +19,7 @@ import java.util.stream.Collectors;
 import com.ericsson.adp.mgmt.backupandrestore.job.FragmentFolder;
 import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProvider;
 import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProviderFactory;
+import com.ericsson.adp.mgmt.backupandrestore.restore.RestoreLocationCache;
 import com.ericsson.adp.mgmt.data.Metadata;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -114,6 +115,16 @@ public class BackupLocationService {
         return new FragmentFolder(fragmentPath);
     }
 
+    /**
+     * Gets a cache of the locations of the fragments of a backup, to be prefetched when it is restored
+     * @param backupManagerId id of the backup manager
+     * @param backupName name of the backup
+     * @return cache of the locations under the backup folder
+     */
+    public RestoreLocationCache getRestoreLocationCache(final String backupManagerId, final String backupName) {
+        return new RestoreLocationCache(provider, getBackupFolder(backupManagerId, backupName).getBackupLocation());
+    }
+
     /**
      * Sets backup location
      *
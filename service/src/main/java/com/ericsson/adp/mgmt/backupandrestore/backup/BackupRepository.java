@@ -111,10 +111,10 @@ public class BackupRepository {
      * @return List of backups sorted by status and creation time
      */
     public List<Backup> getBackupsForAutoDeletion(final String backupManagerId, final int maxNumberBackups) {
-        final int totalBackups = getBackups(backupManagerId).size();
+        final List<PersistedBackup> backups = backupFileService.getBackups(backupManagerId);
+        final int totalBackups = backups.size();
         if (totalBackups > maxNumberBackups) {
-            return backupFileService
-                    .getBackups(backupManagerId)
+            return backups
                     .stream()
                     .map(persistedBackup -> new Backup(persistedBackup, this::persist))
                     .sorted((final Backup backup1, final Backup backup2) -> backup1.compareByStatusCreationTime(backup2))
@@ -157,11 +157,13 @@ public class BackupRepository {
     private void persist(final Backup backup) {
         backupFileService.writeToFile(backup);
         final BackupManager owner = backupManagerRepository.getBackupManager(backup.getBackupManagerId());
-        cmMediatorService.updateBackupAndWait(owner, backup);
+        final List<BackupManager> managers = new ArrayList<>();
+        managers.add(owner);
         backupManagerRepository.getChildren(owner.getBackupManagerId()).forEach(vBRM -> {
             log.debug("Updating vbrm {} backup {} information in CM", vBRM.getBackupManagerId(), backup.getName());
-            cmMediatorService.updateBackupAndWait(vBRM, backup);
+            managers.add(vBRM);
         });
+        cmMediatorService.updateBackupAndWait(managers, backup);
     }
 
     private void persistNewBackup(
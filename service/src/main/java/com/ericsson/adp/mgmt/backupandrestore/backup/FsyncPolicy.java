@@ -0,0 +1,40 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.backup;
+
+/**
+ * When backup files written to the PVC are forced to disk.
+ */
+public enum FsyncPolicy {
+    /**
+     * Leaves it to the operating system.
+     */
+    NONE,
+    /**
+     * Forces the file once all of it is written, before its checksum is validated and stored.
+     */
+    CHECKSUM,
+    /**
+     * Forces the file every time the configured amount of data is written, and before its checksum is validated and stored.
+     */
+    INTERVAL;
+
+    /**
+     * Take a string value and match it to one of the enum constants here, in a CASE INSENSITIVE manner
+     * throws IllegalArgumentException if a matching enum constant can't be found
+     * @param value - value to be matched
+     * @return a matched value
+     * */
+    public static FsyncPolicy caseSafeOf(final String value) {
+        return FsyncPolicy.valueOf(value.trim().toUpperCase());
+    }
+}
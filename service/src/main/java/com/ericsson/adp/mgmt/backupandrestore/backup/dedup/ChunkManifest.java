@@ -0,0 +1,169 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.backup.dedup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Lists the chunks a deduplicated backup file is made of, in order.
+ *
+ * It's stored next to where the file would be, named after it with the EXTENSION, as a header line holding the
+ * length of the file followed by one line per chunk holding the hash and the size of the chunk.
+ */
+public class ChunkManifest {
+
+    /**
+     * Extension of the manifest files, which sorts before the extension of the checksum files
+     */
+    public static final String EXTENSION = ".chunk-manifest";
+    private static final String HEADER = "BRO-CHUNK-MANIFEST";
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = " ";
+    private static final byte[] HEADER_BYTES = (HEADER + SEPARATOR).getBytes(StandardCharsets.UTF_8);
+    // A SHA-256 in lowercase hexadecimal, as the hash names the file of the chunk
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private long length;
+
+    /**
+     * Adds the next chunk of the file
+     * @param hash of the chunk content
+     * @param size of the chunk, in bytes
+     */
+    public void add(final String hash, final int size) {
+        chunks.add(new Chunk(hash, size));
+        length += size;
+    }
+
+    public List<Chunk> getChunks() {
+        return Collections.unmodifiableList(chunks);
+    }
+
+    /**
+     * Get the length of the file
+     * @return the sum of the chunk sizes, in bytes
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Get the content of the manifest file
+     * @return the manifest as bytes
+     */
+    public byte[] toBytes() {
+        final StringBuilder content = new StringBuilder()
+                .append(HEADER).append(SEPARATOR).append(VERSION).append(SEPARATOR).append(length).append('\n');
+        for (final Chunk chunk : chunks) {
+            content.append(chunk.getHash()).append(SEPARATOR).append(chunk.getSize()).append('\n');
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a manifest file
+     * @param content of the file, closed by the caller
+     * @return the manifest, or empty if the file is not a manifest
+     * @throws IOException if the file can't be read or is a malformed manifest, such as one with a chunk hash which
+     *             isn't a SHA-256 in lowercase hexadecimal
+     */
+    public static Optional<ChunkManifest> read(final InputStream content) throws IOException {
+        // The header is checked before reading lines, so a large file which only has the extension isn't read
+        if (!Arrays.equals(HEADER_BYTES, content.readNBytes(HEADER_BYTES.length))) {
+            return Optional.empty();
+        }
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8));
+        final String[] header = split(reader.readLine());
+        if (header.length != 2 || !VERSION.equals(header[0])) {
+            return Optional.empty();
+        }
+        final ChunkManifest manifest = new ChunkManifest();
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] chunk = split(line);
+                if (chunk.length != 2 || !HASH.matcher(chunk[0]).matches()) {
+                    throw new IOException("Malformed chunk <" + line + "> in chunk manifest");
+                }
+                manifest.add(chunk[0], Integer.parseInt(chunk[1]));
+            }
+            if (manifest.getLength() != Long.parseLong(header[1])) {
+                throw new IOException("Chunk manifest of <" + header[1] + "> bytes lists <" + manifest.getLength() + "> bytes");
+            }
+        } catch (final NumberFormatException e) {
+            throw new IOException("Malformed chunk manifest", e);
+        }
+        return Optional.of(manifest);
+    }
+
+    /**
+     * Checks if a file is named as a manifest
+     * @param file to check
+     * @return true if the file has the manifest extension
+     */
+    public static boolean isManifestFile(final Path file) {
+        final Path fileName = file.getFileName();
+        return fileName != null && fileName.toString().endsWith(EXTENSION);
+    }
+
+    /**
+     * Get the file a manifest stands for
+     * @param manifestFile location of the manifest
+     * @return location of the file, which doesn't exist as it's stored as chunks
+     */
+    public static Path getDataFile(final Path manifestFile) {
+        final String name = manifestFile.getFileName().toString();
+        return manifestFile.resolveSibling(name.substring(0, name.length() - EXTENSION.length()));
+    }
+
+    private static String[] split(final String line) {
+        return line == null ? new String[0] : line.split(SEPARATOR);
+    }
+
+    /**
+     * One chunk of a file
+     */
+    public static class Chunk {
+        private final String hash;
+        private final int size;
+
+        /**
+         * Creates a chunk
+         * @param hash of the chunk content
+         * @param size of the chunk, in bytes
+         */
+        public Chunk(final String hash, final int size) {
+            this.hash = hash;
+            this.size = size;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,426 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.backup.dedup;
+
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_DEDUP_COLLECTED_BYTES_TOTAL;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_DEDUP_INGESTED_BYTES_TOTAL;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_DEDUP_INGEST_SECONDS;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_DEDUP_RATIO;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_DEDUP_STORED_BYTES_TOTAL;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ericsson.adp.mgmt.backupandrestore.backup.BackupLocationService;
+import com.ericsson.adp.mgmt.backupandrestore.exception.BackupServiceException;
+import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProvider;
+import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProviderFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.xml.bind.DatatypeConverter;
+
+/**
+ * Stores the data files of backups as content defined chunks, each chunk once whatever the number of files and
+ * backups it's part of, so the unchanged parts of a fragment aren't stored again by the next backup.
+ *
+ * Chunks are named after the SHA-256 of their content, under the backup location, and each deduplicated file is
+ * replaced by a ChunkManifest listing its chunks. The references to a chunk are counted from the manifests when
+ * garbage is collected, shortly after backups are deleted, rather than kept up to date on every change: a chunk which no
+ * manifest lists anymore is deleted. Files being written don't wait for a collection, instead each chunk a file
+ * stores is pinned until its manifest is written, and a collection spares the pinned chunks as well as those
+ * released after it started, as their manifests may have been written after it read the manifests.
+ */
+@Service
+public class ChunkStore {
+
+    private static final Logger log = LogManager.getLogger(ChunkStore.class);
+    private static final String STORE_FOLDER = ".chunk-store";
+    // <backup manager>/<backup>/<agent>/<fragment>/<data folder>/<file>
+    private static final int DEPTH_OF_MANIFESTS = 6;
+    // <hash prefix>/<hash>
+    private static final int DEPTH_OF_CHUNKS = 2;
+    private static final int KIB = 1024;
+    private static final int MAX_CHUNK_AVERAGE_KIB = 16 * KIB;
+
+    private final Map<String, Integer> pinned = new ConcurrentHashMap<>();
+    private final AtomicBoolean collectionScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService collector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "chunk-store-collector");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong ingestedBytes = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+    private BackupLocationService backupLocationService;
+    private PersistProvider provider;
+    private MeterRegistry meterRegistry;
+    private boolean enabled;
+    private int chunkAverageSize = KIB * KIB;
+    private long collectionDelaySeconds = 30;
+    private volatile Set<String> releasedDuringCollection;
+
+    /**
+     * Opens a channel storing the bytes written to it as chunks, and the manifest of the file once closed.
+     * The chunks of the file aren't collected as garbage while the channel is open.
+     * @param folder where the file would be
+     * @param fileName name of the file
+     * @return channel to write the content of the file to
+     */
+    public WritableByteChannel openChannel(final Path folder, final String fileName) {
+        return new DeduplicatingChannel(this, folder, fileName);
+    }
+
+    /**
+     * Reads a manifest file
+     * @param manifestFile location of the manifest
+     * @return the manifest, or empty if the file only has the extension of a manifest
+     * @throws IOException if the file can't be read or is a malformed manifest
+     */
+    public Optional<ChunkManifest> readManifest(final Path manifestFile) throws IOException {
+        try (InputStream content = provider.newInputStream(manifestFile)) {
+            return ChunkManifest.read(content);
+        }
+    }
+
+    /**
+     * Opens a stream of the content of a deduplicated file, reading each chunk in turn
+     * @param manifest of the file
+     * @return stream of the content of the file
+     */
+    public InputStream newInputStream(final ChunkManifest manifest) {
+        final Iterator<ChunkManifest.Chunk> chunks = manifest.getChunks().iterator();
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            @Override
+            public boolean hasMoreElements() {
+                return chunks.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                final Path chunk = getChunkPath(chunks.next().getHash());
+                try {
+                    return provider.newInputStream(chunk);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException("Failed to read chunk <" + chunk + ">", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Schedules a collection of garbage once the collection delay is over, unless one is already scheduled, so the
+     * backups deleted one after the other, such as by housekeeping, are collected together.
+     */
+    public void scheduleGarbageCollection() {
+        if (collectionScheduled.compareAndSet(false, true)) {
+            collector.schedule(() -> {
+                collectionScheduled.set(false);
+                collectGarbage();
+            }, collectionDelaySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Deletes the chunks no manifest lists, other than those of the files being written. A collection which fails is
+     * scheduled again.
+     * @return the number of chunks deleted
+     */
+    public synchronized int collectGarbage() {
+        releasedDuringCollection = ConcurrentHashMap.newKeySet();
+        try {
+            if (!provider.exists(getRoot())) {
+                return 0;
+            }
+            return sweep(mark());
+        } catch (final IOException | UncheckedIOException e) {
+            log.error("Failed to collect unreferenced backup chunks, retrying in <{}> seconds", collectionDelaySeconds, e);
+            scheduleGarbageCollection();
+            return 0;
+        } finally {
+            releasedDuringCollection = null;
+        }
+    }
+
+    /**
+     * Get how many bytes were received for each byte stored, since startup
+     * @return ratio of received to stored bytes, 1 if nothing was received
+     */
+    public double getDeduplicationRatio() {
+        final long stored = storedBytes.get();
+        return stored == 0 ? 1 : (double) ingestedBytes.get() / stored;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    int getChunkAverageSize() {
+        return chunkAverageSize;
+    }
+
+    /**
+     * Stores a chunk, unless it's already stored, and pins it until released
+     * @param hash of the chunk content
+     * @param chunk content
+     * @return true if the chunk was stored, false if it already was
+     */
+    boolean put(final String hash, final byte[] chunk) {
+        // Pinned before checking it's stored, so a collection either deletes it first or leaves it
+        pinned.merge(hash, 1, Integer::sum);
+        try {
+            return store(hash, chunk);
+        } catch (final RuntimeException e) {
+            unpin(hash);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the manifest of a file next to where the file would be
+     * @param folder where the file would be
+     * @param fileName name of the file
+     * @param manifest of the file
+     */
+    void writeManifest(final Path folder, final String fileName, final ChunkManifest manifest) {
+        provider.write(folder, folder.resolve(fileName + ChunkManifest.EXTENSION), manifest.toBytes());
+    }
+
+    /**
+     * Records the outcome of deduplicating a file
+     * @param ingested bytes of the file
+     * @param stored bytes of the chunks which weren't already stored
+     * @param nanos taken to chunk, hash and store the file
+     */
+    void record(final long ingested, final long stored, final long nanos) {
+        ingestedBytes.addAndGet(ingested);
+        storedBytes.addAndGet(stored);
+        log.debug("Deduplicated <{}> bytes into <{}> new bytes", ingested, stored);
+        if (meterRegistry != null) {
+            Counter.builder(METRIC_BRO_DEDUP_INGESTED_BYTES_TOTAL.identification())
+                    .description(METRIC_BRO_DEDUP_INGESTED_BYTES_TOTAL.description())
+                    .register(meterRegistry)
+                    .increment(ingested);
+            Counter.builder(METRIC_BRO_DEDUP_STORED_BYTES_TOTAL.identification())
+                    .description(METRIC_BRO_DEDUP_STORED_BYTES_TOTAL.description())
+                    .register(meterRegistry)
+                    .increment(stored);
+            Timer.builder(METRIC_BRO_DEDUP_INGEST_SECONDS.identification())
+                    .description(METRIC_BRO_DEDUP_INGEST_SECONDS.description())
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Releases the chunks of a file, once its manifest is written or it failed
+     * @param manifest listing the chunks put for the file
+     */
+    void release(final ChunkManifest manifest) {
+        manifest.getChunks().forEach(chunk -> unpin(chunk.getHash()));
+    }
+
+    /**
+     * Get the hash a chunk is stored by
+     * @param chunk content
+     * @return SHA-256 of the content, in hexadecimal
+     */
+    static String hash(final byte[] chunk) {
+        try {
+            return DatatypeConverter.printHexBinary(MessageDigest.getInstance("SHA-256").digest(chunk)).toLowerCase(Locale.ROOT);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new BackupServiceException("Unable to hash backup chunk", e);
+        }
+    }
+
+    private boolean store(final String hash, final byte[] chunk) {
+        final Path chunkPath = getChunkPath(hash);
+        try {
+            // A chunk left incomplete by a restart is stored again
+            if (provider.exists(chunkPath) && provider.length(chunkPath) == chunk.length) {
+                return false;
+            }
+        } catch (final IOException e) {
+            throw new BackupServiceException("Exception while checking backup chunk <" + chunkPath + ">", e);
+        }
+        provider.write(chunkPath.getParent(), chunkPath, chunk);
+        return true;
+    }
+
+    private void unpin(final String hash) {
+        pinned.compute(hash, (key, pins) -> {
+            final Set<String> released = releasedDuringCollection;
+            if (released != null) {
+                released.add(key);
+            }
+            return pins == null || pins == 1 ? null : pins - 1;
+        });
+    }
+
+    private Set<String> mark() throws IOException {
+        final Path backupLocation = backupLocationService.getBackupLocation();
+        final List<Path> manifests;
+        try (Stream<Path> paths = provider.walk(backupLocation, DEPTH_OF_MANIFESTS)) {
+            manifests = paths.filter(path -> !path.startsWith(getRoot()))
+                    .filter(ChunkManifest::isManifestFile)
+                    .collect(Collectors.toList());
+        }
+        final Set<String> referenced = new HashSet<>();
+        for (final Path manifest : manifests) {
+            readManifest(manifest).ifPresent(value -> value.getChunks().forEach(chunk -> referenced.add(chunk.getHash())));
+        }
+        return referenced;
+    }
+
+    private int sweep(final Set<String> referenced) throws IOException {
+        final Path root = getRoot();
+        final List<Path> unreferenced;
+        try (Stream<Path> paths = provider.walk(root, DEPTH_OF_CHUNKS)) {
+            unreferenced = paths.filter(path -> path.getNameCount() - root.getNameCount() == DEPTH_OF_CHUNKS)
+                    .filter(path -> !referenced.contains(path.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
+        long collectedBytes = 0;
+        int collected = 0;
+        for (final Path chunk : unreferenced) {
+            final long length = delete(chunk);
+            if (length >= 0) {
+                collectedBytes += length;
+                collected++;
+            }
+        }
+        log.info("Deleted <{}> unreferenced backup chunks of <{}> bytes, <{}> chunks are referenced",
+                collected, collectedBytes, referenced.size());
+        if (meterRegistry != null) {
+            Counter.builder(METRIC_BRO_DEDUP_COLLECTED_BYTES_TOTAL.identification())
+                    .description(METRIC_BRO_DEDUP_COLLECTED_BYTES_TOTAL.description())
+                    .register(meterRegistry)
+                    .increment(collectedBytes);
+        }
+        return collected;
+    }
+
+    /**
+     * Deletes a chunk no manifest listed when the collection started, unless a file put it since
+     * @param chunk location of the chunk
+     * @return the length of the chunk deleted, or -1 if it's kept
+     */
+    private long delete(final Path chunk) {
+        final long[] length = {-1};
+        // Deleted while holding its entry, so a file putting the chunk waits and then finds it's not stored
+        pinned.compute(chunk.getFileName().toString(), (hash, pins) -> {
+            if (pins == null && !releasedDuringCollection.contains(hash)) {
+                try {
+                    length[0] = provider.length(chunk);
+                    provider.delete(chunk);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException("Failed to delete backup chunk <" + chunk + ">", e);
+                }
+            }
+            return pins;
+        });
+        return length[0];
+    }
+
+    private Path getChunkPath(final String hash) {
+        return getRoot().resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path getRoot() {
+        return backupLocationService.getBackupLocation().resolve(STORE_FOLDER);
+    }
+
+    @Autowired
+    public void setBackupLocationService(final BackupLocationService backupLocationService) {
+        this.backupLocationService = backupLocationService;
+    }
+
+    /**
+     * Setup the persistence provider used by the chunk store
+     * @param configuration - provider configuration used
+     * */
+    @Autowired
+    public void setProvider(final PersistProviderFactory configuration) {
+        provider = configuration.getPersistProvider();
+    }
+
+    /**
+     * Sets the registry of the deduplication metrics
+     * @param meterRegistry registry of the metrics
+     */
+    @Autowired(required = false)
+    public void setMeterRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(METRIC_BRO_DEDUP_RATIO.identification(), this, ChunkStore::getDeduplicationRatio)
+                .description(METRIC_BRO_DEDUP_RATIO.description())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sets whether new backup data files are deduplicated. Files already deduplicated are restored either way.
+     * @param enabled true to deduplicate backup data files
+     */
+    @Value("${backup.dedup.enabled:false}")
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Sets how long a collection of garbage waits once scheduled, for the deletions which follow to be collected by
+     * the same collection.
+     * @param collectionDelaySeconds delay of a collection, in seconds
+     */
+    @Value("${backup.dedup.collectionDelaySeconds:30}")
+    public void setCollectionDelaySeconds(final long collectionDelaySeconds) {
+        this.collectionDelaySeconds = Math.max(0, collectionDelaySeconds);
+    }
+
+    /**
+     * Sets the size chunks are close to, rounded down to a power of two. Each file being written holds up to four
+     * times this size in memory.
+     * @param chunkAverageKiB average chunk size, in KiB
+     */
+    @Value("${backup.dedup.chunkAverageKiB:1024}")
+    public void setChunkAverageKiB(final int chunkAverageKiB) {
+        this.chunkAverageSize = Math.min(Math.max(1, chunkAverageKiB), MAX_CHUNK_AVERAGE_KIB) * KIB;
+    }
+}
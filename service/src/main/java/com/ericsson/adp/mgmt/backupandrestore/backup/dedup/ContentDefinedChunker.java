@@ -0,0 +1,114 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.backup.dedup;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Splits a stream of bytes into chunks whose boundaries depend on the content, using FastCDC.
+ *
+ * A gear hash is rolled over the bytes and a chunk ends where the top bits of the hash are zero, so inserting or
+ * removing bytes only moves the boundaries near the change and the other chunks of a file stay the same from one
+ * backup to the next. No chunk is shorter than the minimum, except the last one, or longer than the maximum. The
+ * boundary is harder to hit before the average size and easier after it, which keeps the sizes close to the average.
+ *
+ * Not thread safe, the bytes of a file are added in order by one thread at a time.
+ */
+public class ContentDefinedChunker {
+
+    // The table must never change, or the chunks of new backups would not match the chunks already stored
+    private static final long GEAR_SEED = 0x42524F2D434443L;
+    private static final long[] GEAR = createGear();
+
+    private final int minimumSize;
+    private final int averageSize;
+    private final long smallChunkMask;
+    private final long largeChunkMask;
+    private final Consumer<byte[]> chunkConsumer;
+    private final byte[] chunk;
+    private int length;
+    private long hash;
+
+    /**
+     * Creates a chunker
+     * @param averageSize the size, in bytes, the chunks are close to, rounded down to a power of two. The chunks are
+     *                    at least a quarter and at most four times this size
+     * @param chunkConsumer receives each chunk, which it may keep
+     */
+    public ContentDefinedChunker(final int averageSize, final Consumer<byte[]> chunkConsumer) {
+        this.averageSize = Integer.highestOneBit(Math.max(averageSize, 64));
+        this.minimumSize = this.averageSize / 4;
+        this.chunkConsumer = chunkConsumer;
+        this.chunk = new byte[this.averageSize * 4];
+        final int bits = Integer.numberOfTrailingZeros(this.averageSize);
+        this.smallChunkMask = topBits(bits + 1);
+        this.largeChunkMask = topBits(bits - 1);
+    }
+
+    /**
+     * Adds the next bytes of the stream, passing on each chunk they complete
+     * @param bytes to add, read up to their limit
+     */
+    public void add(final ByteBuffer bytes) {
+        while (bytes.hasRemaining()) {
+            final byte value = bytes.get();
+            chunk[length++] = value;
+            if (length <= minimumSize) {
+                continue;
+            }
+            hash = (hash << 1) + GEAR[value & 0xFF];
+            final long mask = length < averageSize ? smallChunkMask : largeChunkMask;
+            if ((hash & mask) == 0 || length == chunk.length) {
+                cut();
+            }
+        }
+    }
+
+    /**
+     * Passes on the bytes added since the last chunk as the final chunk of the stream, if there are any
+     */
+    public void finish() {
+        if (length > 0) {
+            cut();
+        }
+    }
+
+    public int getMinimumSize() {
+        return minimumSize;
+    }
+
+    public int getMaximumSize() {
+        return chunk.length;
+    }
+
+    private void cut() {
+        chunkConsumer.accept(Arrays.copyOf(chunk, length));
+        length = 0;
+        hash = 0;
+    }
+
+    private static long topBits(final int bits) {
+        return bits <= 0 ? 0 : -1L << (Long.SIZE - Math.min(bits, Long.SIZE));
+    }
+
+    private static long[] createGear() {
+        final Random random = new Random(GEAR_SEED);
+        final long[] gear = new long[256];
+        for (int index = 0; index < gear.length; index++) {
+            gear[index] = random.nextLong();
+        }
+        return gear;
+    }
+}
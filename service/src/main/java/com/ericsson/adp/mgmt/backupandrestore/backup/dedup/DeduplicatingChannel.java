@@ -0,0 +1,86 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.backup.dedup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Splits the content of a file into chunks as it's written, stores the chunks which aren't already stored, and writes
+ * the manifest of the file once closed. It may be closed by another thread than the one writing to it, when the
+ * writes of the file couldn't be waited for.
+ */
+class DeduplicatingChannel implements WritableByteChannel {
+
+    private final ChunkStore store;
+    private final Path folder;
+    private final String fileName;
+    private final ContentDefinedChunker chunker;
+    private final ChunkManifest manifest = new ChunkManifest();
+    private final long openedAt = System.nanoTime();
+    private long storedBytes;
+    private boolean open = true;
+
+    /**
+     * Creates the channel of a file
+     * @param store where the chunks are stored
+     * @param folder where the file would be
+     * @param fileName name of the file
+     */
+    DeduplicatingChannel(final ChunkStore store, final Path folder, final String fileName) {
+        this.store = store;
+        this.folder = folder;
+        this.fileName = fileName;
+        this.chunker = new ContentDefinedChunker(store.getChunkAverageSize(), this::store);
+    }
+
+    @Override
+    public synchronized int write(final ByteBuffer buffer) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        final int length = buffer.remaining();
+        chunker.add(buffer);
+        return length;
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            chunker.finish();
+            store.writeManifest(folder, fileName, manifest);
+            store.record(manifest.getLength(), storedBytes, System.nanoTime() - openedAt);
+        } finally {
+            store.release(manifest);
+        }
+    }
+
+    private void store(final byte[] chunk) {
+        final String hash = ChunkStore.hash(chunk);
+        if (store.put(hash, chunk)) {
+            storedBytes += chunk.length;
+        }
+        manifest.add(hash, chunk.length);
+    }
+}
@@ -36,7 +36,6 @@ import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import com.ericsson.adp.mgmt.backupandrestore.action.ActionStateType;
 import org.apache.logging.log4j.LogManager;
@@ -76,9 +75,10 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
     private static final Pattern PATTERN = Pattern.compile("(.*)(?=" + TIMESTAMP_PATTERN + ")");
     private static final Logger log = LogManager.getLogger(BackupManager.class);
 
-    private final List<Action> actions = new ArrayList<>();
-    private final List<Backup> owned = new ArrayList<>();
-    private final List<Backup> readable = new ArrayList<>();
+    // Replaced, never modified, under the lock of the backup manager, so they can be read without copying
+    private volatile IndexedActions actions = IndexedActions.EMPTY;
+    private volatile IndexedBackups owned = IndexedBackups.EMPTY;
+    private volatile IndexedBackups readable = IndexedBackups.EMPTY;
     private final List<SftpServer> sftpServers = new ArrayList<>();
     private final Consumer<BackupManager> persistFunction;
     private final Housekeeping housekeeping;
@@ -157,9 +157,9 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
         backupManagerId = persistedBackupManager.getBackupManagerId();
         backupDomain = persistedBackupManager.getBackupDomain();
         backupType = persistedBackupManager.getBackupType();
-        this.actions.addAll(actions);
-        this.owned.addAll(owned);
-        this.readable.addAll(owned);
+        this.actions = IndexedActions.of(actions);
+        this.owned = IndexedBackups.of(owned);
+        this.readable = IndexedBackups.of(owned);
         this.sftpServers.addAll(new ArrayList<>(sftpServers));
         this.housekeeping = housekeeping;
         this.persistFunction = persistFunction;
@@ -173,7 +173,7 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
     }
 
     public List<Action> getActions() {
-        return new ArrayList<>(actions);
+        return actions.getActions();
     }
 
     public List<SftpServer> getSftpServers() {
@@ -208,14 +208,18 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
     /**
      * Get the backups this BRM has references to, defined by ownership
      * @param ownership - the ownership context of the backups being retrieved
-     * @return a list of backups available for write operations
+     * @return an unmodifiable list of the backups, as they were when it was requested
      * */
     public List<Backup> getBackups(final Ownership ownership) {
+        return getIndexedBackups(ownership).getBackups();
+    }
+
+    private IndexedBackups getIndexedBackups(final Ownership ownership) {
         switch (ownership) {
             case OWNED:
-                return new ArrayList<>(owned);
+                return owned;
             case READABLE:
-                return new ArrayList<>(readable);
+                return readable;
             default:
                 throw new NotImplementedException("Unknown ownership: " + ownership);
         }
@@ -264,8 +268,7 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
      * @return action.
      */
     public Action getAction(final String actionId) {
-        return getActions().stream().filter(action -> actionId.equals(action.getActionId())).findFirst()
-                .orElseThrow(() -> new ActionNotFoundException(actionId));
+        return actions.getById(actionId).orElseThrow(() -> new ActionNotFoundException(actionId));
     }
 
     /**
@@ -289,7 +292,7 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
      */
     public void syncChildren() {
         backupManagerRepository.getChildren(this.backupManagerId).forEach(child -> {
-            readable.stream()
+            readable.getBackups().stream()
                     .filter(b -> !child.hasReadableBackupWithSameId(b))
                     .forEach(b -> child.addBackup(b, Ownership.READABLE));
         });
@@ -302,8 +305,7 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
      * @return backup.
      */
     public Backup getBackup(final String backupId, final Ownership ownership) {
-        return getBackups(ownership).stream().filter(backup -> backupId.equals(backup.getBackupId())).findFirst()
-                .orElseThrow(() -> new BackupNotFoundException(backupId));
+        return getIndexedBackups(ownership).getById(backupId).orElseThrow(() -> new BackupNotFoundException(backupId));
     }
 
     /**
@@ -313,8 +315,7 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
      * @return backup.
      */
     public Backup getBackupByName(final String backupName, final Ownership ownership) {
-        return getBackups(ownership).stream().filter(backup -> backupName.equals(backup.getName())).findFirst()
-                .orElseThrow(() -> new BackupNotFoundException(backupName));
+        return getIndexedBackups(ownership).getByName(backupName).orElseThrow(() -> new BackupNotFoundException(backupName));
     }
 
     /**
@@ -322,10 +323,10 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
      * @param action to be added.
      */
     public synchronized void addAction(final Action action) {
-        if (actions.stream().anyMatch(existingAction -> existingAction.getActionId().equals(action.getActionId()))) {
+        if (actions.getById(action.getActionId()).isPresent()) {
             throw new InvalidActionException("Action with the same id already exists");
         }
-        actions.add(action);
+        actions = actions.with(action);
     }
 
     /**
@@ -333,7 +334,7 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
      * @param action to be removed.
      */
     public synchronized void removeAction(final Action action) {
-        actions.remove(action);
+        actions = actions.without(action);
     }
 
     /**
@@ -349,9 +350,9 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
             throw new BackupIdAlreadyExistsException(backup.getBackupId());
         }
         // Adding a backup to the owned list also adds it to the readable list, but not vice versa
-        readable.add(backup);
+        readable = readable.with(backup);
         if (ownership == Ownership.OWNED) {
-            owned.add(backup);
+            owned = owned.with(backup);
         }
     }
 
@@ -361,8 +362,8 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
      * @param backup to be removed.
      */
     public synchronized void removeBackup(final Backup backup) {
-        owned.remove(backup);
-        readable.remove(backup);
+        owned = owned.without(backup);
+        readable = readable.without(backup);
     }
 
     /**
@@ -387,10 +388,8 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
      * @return backup element based in the index
      */
     public Optional<Backup> getBackup(final int backupIndex) {
-        return getBackups(Ownership.READABLE)
-                .stream()
-                .skip(backupIndex)  // Skip the first nth elements
-                .findFirst();
+        final List<Backup> backups = readable.getBackups();
+        return backupIndex >= 0 && backupIndex < backups.size() ? Optional.of(backups.get(backupIndex)) : Optional.empty();
     }
 
     /**
@@ -399,10 +398,7 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
      * @return index of backup on Repository or -1 if backupId doesn't exist
      */
     public int getBackupIndex(final String backupId) {
-        return IntStream.range(0, getBackups(Ownership.READABLE).size())
-                .filter(i -> getBackups(Ownership.READABLE).get(i).getBackupId().equals(backupId))
-                .findFirst()
-                .orElse(-1);
+        return readable.getPosition(backupId);
     }
 
     /**
@@ -428,8 +424,7 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
      * @return true if backup is owned by backupManager.
      */
     public boolean ownsBackup(final String backup) {
-        return getBackups(Ownership.OWNED).stream()
-                .anyMatch(ownedBackup -> ownedBackup.getName().equals(backup));
+        return owned.getByName(backup).isPresent();
     }
 
     private boolean isVBRMAgent(final String agentId) {
@@ -482,11 +477,11 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
     }
 
     private boolean hasReadableBackupWithSameId(final Backup newBackup) {
-        return getBackups(Ownership.READABLE).stream().anyMatch(backup -> backup.getBackupId().equals(newBackup.getBackupId()));
+        return hasReadableBackupWithSameId(newBackup.getBackupId());
     }
 
     private boolean hasReadableBackupWithSameId(final String backupID) {
-        return getBackups(Ownership.READABLE).stream().anyMatch(backup -> backup.getBackupId().equals(backupID));
+        return readable.getById(backupID).isPresent();
     }
 
     private boolean agentScopeMatchesBackupManagerId(final String agentScope) {
@@ -582,11 +577,7 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
      * @return the last action with a certain actionType associated with the backup.
      */
     public Optional<Action> getLastAction(final Backup backup, final ActionType actionType) {
-        return actions.stream()
-            .filter(action -> action.getName().equals(actionType))
-            .filter(action -> (action.getBackupName().equals(backup.getName())))
-            .sorted( Comparator.comparing(Action::getStartTime).reversed())
-            .findFirst();
+        return actions.getLastAction(backup.getName(), actionType);
     }
 
     /**
@@ -596,8 +587,9 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
     public Optional<Action> getLastAction() {
         // If the last action was in the ignore list e.g.
         // HOUSEKEEPING, then search until an allowed action is found
-        for (int i = actions.size() - 1; i >= 0; i--) {
-            final var action = actions.get(i);
+        final List<Action> actionList = actions.getActions();
+        for (int i = actionList.size() - 1; i >= 0; i--) {
+            final var action = actionList.get(i);
             switch (action.getName()) {
                 case CREATE_BACKUP:
                 case DELETE_BACKUP:
@@ -616,7 +608,7 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
      * @return Optional of Action
      */
     public Optional<Action> getLastCompletedAction() {
-        final Optional<Action> action = actions.stream()
+        final Optional<Action> action = actions.getActions().stream()
                                   .filter(a -> a.getState().equals(ActionStateType.FINISHED))
                                   .sorted(Comparator.comparing(Action::getCompletionTime).reversed()).findFirst();
         return action;
@@ -686,7 +678,8 @@ public class BackupManager extends FullBackupManagerInformation implements Versi
 
     @Override
     public String toString() {
-        return "BackupManager [actions=" + actions + ", owned=" + owned + ", readable=" + readable + ", sftpServers=" + sftpServers
+        return "BackupManager [actions=" + actions.getActions() + ", owned=" + owned.getBackups() + ", readable=" + readable.getBackups()
+                + ", sftpServers=" + sftpServers
                 + ", persistFunction=" + persistFunction + ", housekeeping=" + housekeeping + ", scheduler=" + scheduler
                 + ", backupManagerLevelProgressReportCreated=" + backupManagerLevelProgressReportCreated + ", backupManagerfileService="
                 + backupManagerfileService + ", version=" + version + ", backupManagerRepository=" + backupManagerRepository + ", virtualInformation="
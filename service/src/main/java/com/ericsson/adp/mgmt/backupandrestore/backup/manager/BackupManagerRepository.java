@@ -14,14 +14,24 @@ package com.ericsson.adp.mgmt.backupandrestore.backup.manager;
 import static com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager.DEFAULT_BACKUP_MANAGER_ID;
 import static com.ericsson.adp.mgmt.backupandrestore.util.ApplicationConstantsUtils.AUTO_DELETE_ENABLED;
 import static com.ericsson.adp.mgmt.backupandrestore.util.ApplicationConstantsUtils.DEFAULT_MAX_BACKUP;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_STARTUP_PHASE_SECONDS;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.scheduler.calendar.CalendarEventFileService;
@@ -36,6 +46,7 @@ import com.ericsson.adp.mgmt.backupandrestore.action.ActionRepository;
 import com.ericsson.adp.mgmt.backupandrestore.action.ActionType;
 import com.ericsson.adp.mgmt.backupandrestore.agent.Agent;
 import com.ericsson.adp.mgmt.backupandrestore.agent.VBRMAutoCreate;
+import com.ericsson.adp.mgmt.backupandrestore.backup.Backup;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupRepository;
 import com.ericsson.adp.mgmt.backupandrestore.backup.Ownership;
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.persistence.BackupManagerFileService;
@@ -56,6 +67,10 @@ import com.ericsson.adp.mgmt.backupandrestore.exception.FilePersistenceException
 import com.ericsson.adp.mgmt.backupandrestore.job.ResetConfigJob;
 import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProviderFactory;
 import com.ericsson.adp.mgmt.backupandrestore.util.IdValidator;
+import com.ericsson.adp.mgmt.backupandrestore.util.MetricTags;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Controls access to backupManagers.
@@ -64,10 +79,17 @@ import com.ericsson.adp.mgmt.backupandrestore.util.IdValidator;
 @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.TooManyFields"})
 public class BackupManagerRepository {
     private static final String UNSPECIFIED_SCOPE = "";
+    private static final String STARTUP_LOAD = "load";
+    private static final String STARTUP_RECOVER = "recover";
+    private static final String STARTUP_SCHEDULE = "schedule";
+    private static final String STARTUP_SYNC = "sync";
     private static final Function<Integer, Integer> maxBackupNumber = n -> n > DEFAULT_MAX_BACKUP ? n : DEFAULT_MAX_BACKUP;
     private static Logger log = LogManager.getLogger(BackupManagerRepository.class);
 
-    private final List<BackupManager> backupManagers = new ArrayList<>();
+    // Backup managers are only ever added, so their positions never change
+    private final List<BackupManager> backupManagers = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> indexesById = new ConcurrentHashMap<>();
+    private final Map<String, List<BackupManager>> childrenByParentId = new ConcurrentHashMap<>();
     private BackupManagerFileService backupManagerfileService;
     private HousekeepingFileService housekeepingFileService;
     private SchedulerFileService schedulerFileService;
@@ -83,6 +105,8 @@ public class BackupManagerRepository {
     private BackupRepository backupRepository;
     private IdValidator idValidator;
     private PersistProviderFactory providerFactory;
+    private MeterRegistry meterRegistry;
+    private int startupThreads = 4;
     private final ReentrantLock lock = new ReentrantLock();
 
     /**
@@ -96,35 +120,71 @@ public class BackupManagerRepository {
     /**
      * Initializes BackupManagers from persisted ones.
      * Is the backup Manager is already in memory it ignores the initialization
+     * The persisted backup managers are read and recovered concurrently, but are added, scheduled and synced in the
+     * order they were persisted in, which their indexes depend on.
      */
     public void initializeBackupManagers() {
         log.debug("Initialize backup managers");
-        final List<String> discardedvBRMs = new ArrayList<>();
-        backupManagerfileService.getBackupManagers().stream()
-            .filter(deleteVBRM ? persistedBRM -> isvBRMRequired(persistedBRM, discardedvBRMs) : persistedBRM -> true)
-            .map(this::createBackupManager).forEach(backupManager -> {
-                addTobackupManagers (backupManager);
-                // Update any running actions. Don't send updates to CMM, since it isn't ready yet and we push our entire
-                // configuration later. If this is a vBRM and the action is a restore it's possible the action refers to a
-                // backup that the vBRM doesn't know about yet, so any attempt to write it's state to CMM would result in a
-                // *fun* new way to get BRO stuck in a boot loop
-                backupManager.getActions().forEach(action -> actionRepository.failActionIfRunning(action));
-                // As above, write to persistence layer but not CMM, as that's done later. The reason we can't write these
-                // to CMM is that we would need to write the backup to any vBRMs, which at this point might not know about
-                // their parents backups, and as such that would result in a boot loop (as the CMService tries to get an
-                // index for the backup from the vBRM and the vBRM throws a BackupNotFound exception)
-                backupManager.getBackups(Ownership.OWNED).forEach(backup -> backupRepository.corruptBackupIfIncomplete(backup));
-                // This does try to write to CMM, but that's fine, since the scheduler is definitely only going to write to
-                // it's own node under a BRM, so BRO will only get stuck in boot loop if CMM disagrees with us on how many
-                // BRMs there are, which was true before vBRMs were introduced
+        final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+        final ExecutorService executor = createStartupExecutor();
+        try {
+            long phaseStart = System.nanoTime();
+            final List<String> discardedvBRMs = new ArrayList<>();
+            final List<CompletableFuture<LoadedBackupManager>> loading = backupManagerfileService.getBackupManagers().stream()
+                .filter(deleteVBRM ? persistedBRM -> isvBRMRequired(persistedBRM, discardedvBRMs) : persistedBRM -> true)
+                .map(persistedBRM -> CompletableFuture.supplyAsync(() -> loadBackupManager(persistedBRM), executor))
+                .collect(Collectors.toList());
+            // Constructing a backup manager registers its metrics, so they are constructed one at a time, in order
+            final List<BackupManager> loaded = new ArrayList<>();
+            loading.forEach(loadedBRM -> {
+                final BackupManager backupManager = join(loadedBRM).toBackupManager();
+                addTobackupManagers(backupManager);
+                loaded.add(backupManager);
+            });
+            phaseStart = endPhase(STARTUP_LOAD, phaseStart, phaseNanos);
+
+            // Update any running actions. Don't send updates to CMM, since it isn't ready yet and we push our entire
+            // configuration later. If this is a vBRM and the action is a restore it's possible the action refers to a
+            // backup that the vBRM doesn't know about yet, so any attempt to write it's state to CMM would result in a
+            // *fun* new way to get BRO stuck in a boot loop
+            // As above, write the incomplete backups to persistence layer but not CMM, as that's done later. The reason
+            // we can't write these to CMM is that we would need to write the backup to any vBRMs, which at this point
+            // might not know about their parents backups, and as such that would result in a boot loop (as the CMService
+            // tries to get an index for the backup from the vBRM and the vBRM throws a BackupNotFound exception)
+            // The writes of each backup manager are batched in a single task
+            loaded.stream()
+                .map(backupManager -> CompletableFuture.runAsync(() -> recover(backupManager), executor))
+                .collect(Collectors.toList())
+                .forEach(BackupManagerRepository::join);
+            phaseStart = endPhase(STARTUP_RECOVER, phaseStart, phaseNanos);
+
+            // This does try to write to CMM, but that's fine, since the scheduler is definitely only going to write to
+            // it's own node under a BRM, so BRO will only get stuck in boot loop if CMM disagrees with us on how many
+            // BRMs there are, which was true before vBRMs were introduced
+            loaded.forEach(backupManager -> {
                 eventHandler.schedulePeriodicEvents(backupManager.getScheduler());
                 eventHandler.scheduleCalendarEvents(backupManager.getScheduler());
                 updateOperationsTotalMetric(backupManager.getBackupManagerId());
             });
+            phaseStart = endPhase(STARTUP_SCHEDULE, phaseStart, phaseNanos);
 
-        if (deleteVBRM) {
-            delete(discardedvBRMs);
+            if (deleteVBRM) {
+                delete(discardedvBRMs);
+            }
+            syncBackupManagers();
+            endPhase(STARTUP_SYNC, phaseStart, phaseNanos);
+        } finally {
+            executor.shutdown();
         }
+        log.info("Initialized {} backup managers in {} ms, by phase in ms: {}", backupManagers.size(),
+            TimeUnit.NANOSECONDS.toMillis(phaseNanos.values().stream().mapToLong(Long::longValue).sum()),
+            phaseNanos.entrySet().stream()
+                .map(phase -> phase.getKey() + "=" + TimeUnit.NANOSECONDS.toMillis(phase.getValue()))
+                .collect(Collectors.joining(", ")));
+        log.debug("Backup manager repository is ready");
+    }
+
+    private void syncBackupManagers() {
         // Now that all backup managers are in memory, we can sync the backup lists between child and parent, mark any
         // ongoing backups as corrupted, and persist them
         final List<String> missingResetVBRM = new ArrayList<>();
@@ -137,7 +197,48 @@ public class BackupManagerRepository {
             }
         }
         missingResetVBRM.forEach(id -> createBackupManager(id, id + ResetConfigJob.RESET_BRM_SUFFIX, new ArrayList<>()));
-        log.debug("Backup manager repository is ready");
+    }
+
+    private void recover(final BackupManager backupManager) {
+        backupManager.getActions().forEach(action -> actionRepository.failActionIfRunning(action));
+        backupManager.getBackups(Ownership.OWNED).forEach(backup -> backupRepository.corruptBackupIfIncomplete(backup));
+    }
+
+    private long endPhase(final String phase, final long phaseStart, final Map<String, Long> phaseNanos) {
+        final long phaseEnd = System.nanoTime();
+        phaseNanos.put(phase, phaseEnd - phaseStart);
+        if (meterRegistry != null) {
+            Timer.builder(METRIC_BRO_STARTUP_PHASE_SECONDS.identification())
+                    .description(METRIC_BRO_STARTUP_PHASE_SECONDS.description())
+                    .tag(MetricTags.STAGE.identification(), phase)
+                    .register(meterRegistry)
+                    .record(phaseEnd - phaseStart, TimeUnit.NANOSECONDS);
+        }
+        return phaseEnd;
+    }
+
+    private ExecutorService createStartupExecutor() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(startupThreads, runnable -> {
+            final Thread thread = new Thread(runnable, "brm-startup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            // Fail the startup with the exception of the task, as it would have failed if run on this thread
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
     }
 
     /**
@@ -178,9 +279,7 @@ public class BackupManagerRepository {
     }
 
     private boolean isMissingResetBRM(final BackupManager backupManager) {
-        return backupManagers.stream().noneMatch(
-            b -> b.getBackupManagerId().equals(backupManager.getBackupManagerId() + ResetConfigJob.RESET_BRM_SUFFIX)
-        );
+        return !indexesById.containsKey(backupManager.getBackupManagerId() + ResetConfigJob.RESET_BRM_SUFFIX);
     }
 
     private boolean isResetBRM(final String backupManagerId) {
@@ -213,10 +312,10 @@ public class BackupManagerRepository {
 
     /**
      * Gets all backupManagers.
-     * @return list of backupManagers.
+     * @return unmodifiable list of backupManagers.
      */
     public List<BackupManager> getBackupManagers() {
-        return new ArrayList<>(backupManagers);
+        return Collections.unmodifiableList(backupManagers);
     }
 
     /**
@@ -245,7 +344,7 @@ public class BackupManagerRepository {
      * @return a stream of the child vBRM's of the passed BRM
      * */
     public Stream<BackupManager> getChildren(final String backupManagerId) {
-        return backupManagers.stream().filter(b -> b.isVirtual() && b.getVirtualInformation().getParentId().equals(backupManagerId));
+        return childrenByParentId.getOrDefault(backupManagerId, List.of()).stream();
     }
 
     /**
@@ -304,15 +403,8 @@ public class BackupManagerRepository {
                         agents.stream().map(Agent::getAgentId).collect(Collectors.toList()),
                         notifyMediator);
             }
-            if (log.isDebugEnabled()) {
-                final Map<Integer, String> positionIdMap = IntStream.range(0, backupManagers.size())
-                        .boxed()
-                        .collect(Collectors.toMap(
-                            index -> index,
-                            index -> (String) backupManagers.get(index).getBackupManagerId()
-                            ));
-                log.debug ("<{}> was created in backup managers <{}>", backupManagerId, positionIdMap);
-            }
+            log.debug("<{}> is at index <{}> of <{}> backup managers", newBackupManagerId, indexesById.get(newBackupManagerId),
+                    backupManagers.size());
         } catch (final Exception excp) {
             log.error("Error creating backup manager: {}:", backupManagerId, excp);
         } finally {
@@ -326,12 +418,8 @@ public class BackupManagerRepository {
      * @return index of backupManager.
      */
     public int getIndex(final String backupManagerId) {
-        final int index = backupManagers
-                .stream()
-                .map(BackupManager::getBackupManagerId)
-                .collect(Collectors.toList())
-                .indexOf(backupManagerId);
-        if (index == -1) {
+        final Integer index = indexesById.get(backupManagerId);
+        if (index == null) {
             throw new BackupManagerNotFoundException(backupManagerId);
         }
         return index;
@@ -368,19 +456,7 @@ public class BackupManagerRepository {
     }
 
     private Optional<BackupManager> findBackupManager(final String backupManagerId) {
-        if (log.isDebugEnabled()) {
-            final Map<Integer, String> positionIdMap = IntStream.range(0, backupManagers.size())
-                    .boxed()
-                    .collect(Collectors.toMap(
-                        index -> index,
-                        index -> (String) backupManagers.get(index).getBackupManagerId()
-                        ));
-            log.debug ("Searching <{}> in the current repository <{}>", backupManagerId, positionIdMap);
-        }
-        return backupManagers
-                .stream()
-                .filter(backupManager -> backupManager.getBackupManagerId().equals(backupManagerId))
-                .findFirst();
+        return Optional.ofNullable(indexesById.get(backupManagerId)).map(backupManagers::get);
     }
 
     private Optional<BackupManager> findBackupManager(final int backupManagerIndex) {
@@ -398,20 +474,15 @@ public class BackupManagerRepository {
         return backupManagerId;
     }
 
-    private BackupManager createBackupManager(final PersistedBackupManager persistedBackupManager) {
+    private LoadedBackupManager loadBackupManager(final PersistedBackupManager persistedBackupManager) {
         final String backupManagerId = persistedBackupManager.getBackupManagerId();
-        return new BackupManager(
+        return new LoadedBackupManager(
                 persistedBackupManager,
                 actionRepository.getActions(backupManagerId),
                 backupRepository.getBackups(backupManagerId),
                 getPersistedSftpServers(backupManagerId),
-                getHousekeepingInformation(backupManagerId),
-                getOrCreateScheduler(backupManagerId),
-                this::persist,
-                backupManagerfileService,
-                this,
-                readVirtualInformation(backupManagerId)
-                );
+                readHousekeepingInformation(backupManagerId),
+                readVirtualInformation(backupManagerId));
     }
 
     /**
@@ -476,15 +547,24 @@ public class BackupManagerRepository {
      * @return Housekeeping object
      */
     public Housekeeping getHousekeepingInformation(final String backupManagerId) {
-        Housekeeping housekeeping;
-        final int numberOfBackups = backupRepository.getBackups(backupManagerId).size();
+        return getOrCreateHousekeeping(backupManagerId, readHousekeepingInformation(backupManagerId),
+                backupRepository.getBackups(backupManagerId).size());
+    }
 
+    private Optional<HousekeepingInformation> readHousekeepingInformation(final String backupManagerId) {
         try {
-            final HousekeepingInformation persistedHousekeeping = housekeepingFileService
-                    .getPersistedHousekeepingInformation(backupManagerId);
+            return Optional.of(housekeepingFileService.getPersistedHousekeepingInformation(backupManagerId));
+        } catch (final IndexOutOfBoundsException e) {
+            return Optional.empty();
+        }
+    }
 
-            housekeeping = new Housekeeping(persistedHousekeeping.getMaxNumberBackups(),
-                    persistedHousekeeping.getAutoDelete(), backupManagerId, this::persistHousekeeping);
+    private Housekeeping getOrCreateHousekeeping(final String backupManagerId, final Optional<HousekeepingInformation> persistedHousekeeping,
+                                                 final int numberOfBackups) {
+        Housekeeping housekeeping;
+        if (persistedHousekeeping.isPresent()) {
+            housekeeping = new Housekeeping(persistedHousekeeping.get().getMaxNumberBackups(),
+                    persistedHousekeeping.get().getAutoDelete(), backupManagerId, this::persistHousekeeping);
 
             if (numberOfBackups > housekeeping.getMaxNumberBackups()) {
                 housekeeping = new Housekeeping(numberOfBackups, housekeeping.getAutoDelete(),
@@ -493,13 +573,11 @@ public class BackupManagerRepository {
                 housekeeping.persist();
             }
             return housekeeping;
-
-        } catch (final IndexOutOfBoundsException e) {
-            housekeeping = new Housekeeping(maxBackupNumber.apply(numberOfBackups), AUTO_DELETE_ENABLED, backupManagerId, this::persistHousekeeping);
-            housekeepingFileService.writeToFile(housekeeping);
-            cmMediatorService.addHousekeeping(housekeeping);
-            return housekeeping;
         }
+        housekeeping = new Housekeeping(maxBackupNumber.apply(numberOfBackups), AUTO_DELETE_ENABLED, backupManagerId, this::persistHousekeeping);
+        housekeepingFileService.writeToFile(housekeeping);
+        cmMediatorService.addHousekeeping(housekeeping);
+        return housekeeping;
     }
 
     /**
@@ -524,12 +602,16 @@ public class BackupManagerRepository {
         return scheduler;
     }
 
-    private void addTobackupManagers(final BackupManager backupmanager) {
-        final boolean existBackupManager = backupManagers.stream()
-                .anyMatch(obj -> obj.equals(backupmanager));
-        if (!existBackupManager) {
+    private synchronized void addTobackupManagers(final BackupManager backupmanager) {
+        if (!indexesById.containsKey(backupmanager.getBackupManagerId())) {
             log.debug("Adding backupManager {} to List", backupmanager.getBackupManagerId());
             backupManagers.add(backupmanager);
+            // Indexed once in the list, so a backup manager found by id can always be got by its index
+            indexesById.put(backupmanager.getBackupManagerId(), backupManagers.size() - 1);
+            if (backupmanager.isVirtual()) {
+                childrenByParentId.computeIfAbsent(backupmanager.getVirtualInformation().getParentId(), parentId -> new CopyOnWriteArrayList<>())
+                        .add(backupmanager);
+            }
         }
     }
 
@@ -644,4 +726,61 @@ public class BackupManagerRepository {
     public void setDeleteVBRM(final boolean deleteVBRM) {
         this.deleteVBRM = deleteVBRM;
     }
+
+    @Autowired(required = false)
+    public void setMeterRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Sets how many persisted backup managers are read at the same time on startup
+     * @param startupThreads number of threads reading the backup managers
+     */
+    @Value("${backup.managers.startup.threads:4}")
+    public void setStartupThreads(final int startupThreads) {
+        this.startupThreads = Math.max(1, startupThreads);
+    }
+
+    /**
+     * Everything read for a persisted backup manager, before it's constructed.
+     */
+    private final class LoadedBackupManager {
+        private final PersistedBackupManager persistedBackupManager;
+        private final List<Action> actions;
+        private final List<Backup> backups;
+        private final List<SftpServer> sftpServers;
+        private final Optional<HousekeepingInformation> housekeepingInformation;
+        private final VirtualInformation virtualInformation;
+
+        @SuppressWarnings("PMD.ExcessiveParameterList")
+        private LoadedBackupManager(final PersistedBackupManager persistedBackupManager, final List<Action> actions,
+                                    final List<Backup> backups, final List<SftpServer> sftpServers,
+                                    final Optional<HousekeepingInformation> housekeepingInformation,
+                                    final VirtualInformation virtualInformation) {
+            this.persistedBackupManager = persistedBackupManager;
+            this.actions = actions;
+            this.backups = backups;
+            this.sftpServers = sftpServers;
+            this.housekeepingInformation = housekeepingInformation;
+            this.virtualInformation = virtualInformation;
+        }
+
+        private BackupManager toBackupManager() {
+            // A missing or outgrown housekeeping and a missing scheduler are persisted and added to CMM, which is done
+            // in the order of the backup managers
+            final String backupManagerId = persistedBackupManager.getBackupManagerId();
+            return new BackupManager(
+                    persistedBackupManager,
+                    actions,
+                    backups,
+                    sftpServers,
+                    getOrCreateHousekeeping(backupManagerId, housekeepingInformation, backups.size()),
+                    getOrCreateScheduler(backupManagerId),
+                    BackupManagerRepository.this::persist,
+                    backupManagerfileService,
+                    BackupManagerRepository.this,
+                    virtualInformation
+                    );
+        }
+    }
 }
@@ -0,0 +1,111 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.backup.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.ericsson.adp.mgmt.backupandrestore.action.Action;
+import com.ericsson.adp.mgmt.backupandrestore.action.ActionType;
+
+/**
+ * Immutable list of actions, indexed by id and by the backup and type of action.
+ * A backup manager replaces it on every change, so it's read without copying or locking.
+ * Each index is built on its first lookup.
+ */
+final class IndexedActions {
+
+    static final IndexedActions EMPTY = new IndexedActions(List.of());
+
+    private static final Comparator<Action> BY_START_TIME = Comparator.comparing(Action::getStartTime,
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final List<Action> actions;
+    private volatile Map<String, Action> actionsById;
+    private volatile Map<ActionType, Map<String, Action>> lastActionsByBackupName;
+
+    private IndexedActions(final List<Action> actions) {
+        this.actions = Collections.unmodifiableList(actions);
+    }
+
+    /**
+     * @param actions to index
+     * @return the actions, indexed
+     */
+    static IndexedActions of(final List<Action> actions) {
+        return new IndexedActions(new ArrayList<>(actions));
+    }
+
+    /**
+     * @param action to add at the end of the list
+     * @return new indexed list, with the action
+     */
+    IndexedActions with(final Action action) {
+        final List<Action> updated = new ArrayList<>(actions.size() + 1);
+        updated.addAll(actions);
+        updated.add(action);
+        return new IndexedActions(updated);
+    }
+
+    /**
+     * @param action to remove
+     * @return new indexed list, without the action
+     */
+    IndexedActions without(final Action action) {
+        final List<Action> updated = new ArrayList<>(actions);
+        return updated.remove(action) ? new IndexedActions(updated) : this;
+    }
+
+    List<Action> getActions() {
+        return actions;
+    }
+
+    Optional<Action> getById(final String actionId) {
+        Map<String, Action> index = actionsById;
+        if (index == null) {
+            index = new HashMap<>();
+            for (final Action action : actions) {
+                index.putIfAbsent(action.getActionId(), action);
+            }
+            actionsById = index;
+        }
+        return Optional.ofNullable(index.get(actionId));
+    }
+
+    /**
+     * @param backupName name of the backup
+     * @param actionType type of action
+     * @return the action of that type on the backup which started last
+     */
+    Optional<Action> getLastAction(final String backupName, final ActionType actionType) {
+        Map<ActionType, Map<String, Action>> index = lastActionsByBackupName;
+        if (index == null) {
+            index = new EnumMap<>(ActionType.class);
+            for (final Action action : actions) {
+                if (action.getName() != null && action.hasBackupName()) {
+                    // On equal start times the first action is kept, as a stable sort of the list would
+                    index.computeIfAbsent(action.getName(), type -> new HashMap<>())
+                            .merge(action.getBackupName(), action, (last, candidate) -> BY_START_TIME.compare(candidate, last) > 0 ? candidate : last);
+                }
+            }
+            lastActionsByBackupName = index;
+        }
+        return Optional.ofNullable(index.getOrDefault(actionType, Map.of()).get(backupName));
+    }
+
+}
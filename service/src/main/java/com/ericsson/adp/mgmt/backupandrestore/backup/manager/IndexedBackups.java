@@ -0,0 +1,102 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.backup.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.ericsson.adp.mgmt.backupandrestore.backup.Backup;
+
+/**
+ * Immutable list of backups, indexed by id and by name.
+ * A backup manager replaces it on every change, so it's read without copying or locking.
+ * Each index is built on its first lookup. When several backups share an id or a name, the first one in the list is
+ * indexed, as a search of the list would find.
+ */
+final class IndexedBackups {
+
+    static final IndexedBackups EMPTY = new IndexedBackups(List.of());
+
+    private final List<Backup> backups;
+    private volatile Map<String, Integer> positionsById;
+    private volatile Map<String, Backup> backupsByName;
+
+    private IndexedBackups(final List<Backup> backups) {
+        this.backups = Collections.unmodifiableList(backups);
+    }
+
+    /**
+     * @param backups to index
+     * @return the backups, indexed
+     */
+    static IndexedBackups of(final List<Backup> backups) {
+        return new IndexedBackups(new ArrayList<>(backups));
+    }
+
+    /**
+     * @param backup to add at the end of the list
+     * @return new indexed list, with the backup
+     */
+    IndexedBackups with(final Backup backup) {
+        final List<Backup> updated = new ArrayList<>(backups.size() + 1);
+        updated.addAll(backups);
+        updated.add(backup);
+        return new IndexedBackups(updated);
+    }
+
+    /**
+     * @param backup to remove, its first occurrence only
+     * @return new indexed list, without the backup
+     */
+    IndexedBackups without(final Backup backup) {
+        final List<Backup> updated = new ArrayList<>(backups);
+        return updated.remove(backup) ? new IndexedBackups(updated) : this;
+    }
+
+    List<Backup> getBackups() {
+        return backups;
+    }
+
+    Optional<Backup> getById(final String backupId) {
+        final int position = getPosition(backupId);
+        return position == -1 ? Optional.empty() : Optional.of(backups.get(position));
+    }
+
+    Optional<Backup> getByName(final String backupName) {
+        Map<String, Backup> index = backupsByName;
+        if (index == null) {
+            index = new HashMap<>();
+            for (final Backup backup : backups) {
+                index.putIfAbsent(backup.getName(), backup);
+            }
+            backupsByName = index;
+        }
+        return Optional.ofNullable(index.get(backupName));
+    }
+
+    int getPosition(final String backupId) {
+        Map<String, Integer> index = positionsById;
+        if (index == null) {
+            index = new HashMap<>();
+            for (int position = 0; position < backups.size(); position++) {
+                index.putIfAbsent(backups.get(position).getBackupId(), position);
+            }
+            positionsById = index;
+        }
+        return index.getOrDefault(backupId, -1);
+    }
+
+}
@@ -15,6 +15,7 @@ import com.ericsson.adp.mgmt.backupandrestore.backup.BackupFileWriter;
 import com.ericsson.adp.mgmt.backupandrestore.exception.BackupServiceException;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
 import com.ericsson.adp.mgmt.backupandrestore.job.FragmentFolder;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.data.BackupData;
 import com.ericsson.adp.mgmt.data.CustomMetadataFileChunk;
 import com.ericsson.adp.mgmt.data.Metadata;
@@ -28,6 +29,7 @@ public class BackupCustomMetadataState extends BackupState {
 
     private final FragmentFolder fragmentFolder;
 
+    private final ChecksumAlgorithm checksumAlgorithm;
     private BackupFileWriter customMetadataWriter;
 
     /**
@@ -36,8 +38,20 @@ public class BackupCustomMetadataState extends BackupState {
      * @param metadata fragment metadata
      */
     public BackupCustomMetadataState(final FragmentFolder fragmentFolder, final CreateBackupJob job, final Optional<Metadata> metadata) {
+        this(fragmentFolder, job, metadata, ChecksumAlgorithm.MD5);
+    }
+
+    /**
+     * @param fragmentFolder where to store fragment
+     * @param job CreateBackupJob responsible for fragment
+     * @param metadata fragment metadata
+     * @param checksumAlgorithm the checksum algorithm negotiated with the agent sending the fragment
+     */
+    public BackupCustomMetadataState(final FragmentFolder fragmentFolder, final CreateBackupJob job, final Optional<Metadata> metadata,
+                                     final ChecksumAlgorithm checksumAlgorithm) {
         super(job, metadata);
         this.fragmentFolder = fragmentFolder;
+        this.checksumAlgorithm = checksumAlgorithm;
     }
 
     @Override
@@ -45,12 +59,11 @@ public class BackupCustomMetadataState extends BackupState {
         if (isCustomMetadataMessage(message)) {
             final CustomMetadataFileChunk chunk = message.getCustomMetadataFileChunk();
             if (isFileName(chunk.getChecksum(), chunk.getContent())) {
-                this.customMetadataWriter = new BackupFileWriter(
-                        fragmentFolder.getCustomMetadataFileFolder(), chunk.getFileName(), job.getAwsConfig());
+                this.customMetadataWriter = createFileWriter(fragmentFolder.getCustomMetadataFileFolder(), chunk.getFileName(), 0, checksumAlgorithm);
                 return this;
             }
             if (containsFileChunk(chunk.getChecksum())) {
-                customMetadataWriter.addChunk(chunk.getContent().toByteArray());
+                customMetadataWriter.addChunk(chunk.getContent().asReadOnlyByteBuffer());
                 return this;
             }
             customMetadataWriter.validateChecksum(chunk.getChecksum());
@@ -62,6 +75,15 @@ public class BackupCustomMetadataState extends BackupState {
         throw new BackupServiceException("Unexpected message received on data channel (streamId:{}) during backup", streamId);
     }
 
+    @Override
+    public void whenReadyForMessage(final Runnable ready) {
+        if (customMetadataWriter != null) {
+            customMetadataWriter.whenReady(ready);
+        } else {
+            ready.run();
+        }
+    }
+
     @Override
     public void close() {
         if (customMetadataWriter != null) {
@@ -15,6 +15,7 @@ import com.ericsson.adp.mgmt.backupandrestore.backup.BackupFileWriter;
 import com.ericsson.adp.mgmt.backupandrestore.exception.BackupServiceException;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
 import com.ericsson.adp.mgmt.backupandrestore.job.FragmentFolder;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.data.BackupData;
 import com.ericsson.adp.mgmt.data.BackupFileChunk;
 import com.ericsson.adp.mgmt.data.Metadata;
@@ -44,12 +45,13 @@ public class BackupFileDataState extends BackupState {
         if (isBackupFileMessage(message)) {
             final BackupFileChunk chunk = message.getBackupFileChunk();
             if (isFileName(chunk.getChecksum(), chunk.getContent())) {
-                this.backupFileWriter = new BackupFileWriter(
-                        fragmentFolder.getDataFileFolder(), chunk.getFileName(), job.getAwsConfig(), getFragmentSize().orElse(0L));
+                this.backupFileWriter = createDataFileWriter(fragmentFolder.getDataFileFolder(), chunk.getFileName(),
+                        getFragmentSize().orElse(0L), getChecksumAlgorithm());
                 return this;
             }
             if (containsFileChunk(chunk.getChecksum())) {
-                backupFileWriter.addChunk(chunk.getContent().toByteArray());
+                // The content is immutable, so it's queued without copying it
+                backupFileWriter.addChunk(chunk.getContent().asReadOnlyByteBuffer());
                 updateTransferredBytes(chunk.getContent().size());
                 return this;
             }
@@ -57,7 +59,7 @@ public class BackupFileDataState extends BackupState {
             backupFileWriter.writeChecksumFile();
             backupFileWriter.build();
 
-            return new BackupCustomMetadataState(fragmentFolder, job, metadata);
+            return new BackupCustomMetadataState(fragmentFolder, job, metadata, getChecksumAlgorithm());
         }
         throw new BackupServiceException("Unexpected message received on data channel (streamId:{}) during backup", streamId);
     }
@@ -70,6 +72,19 @@ public class BackupFileDataState extends BackupState {
         }
     }
 
+    private ChecksumAlgorithm getChecksumAlgorithm() {
+        return metadata.map(value -> job.getChecksumAlgorithm(value.getAgentId())).orElse(ChecksumAlgorithm.MD5);
+    }
+
+    @Override
+    public void whenReadyForMessage(final Runnable ready) {
+        if (backupFileWriter != null) {
+            backupFileWriter.whenReady(ready);
+        } else {
+            ready.run();
+        }
+    }
+
     @Override
     public void close() {
         if (backupFileWriter != null) {
@@ -12,6 +12,7 @@
 package com.ericsson.adp.mgmt.backupandrestore.backup.state;
 
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -20,6 +21,7 @@ import com.ericsson.adp.mgmt.backupandrestore.backup.BackupMetadataWriter;
 import com.ericsson.adp.mgmt.backupandrestore.exception.BackupServiceException;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
 import com.ericsson.adp.mgmt.backupandrestore.job.FragmentFolder;
+import com.ericsson.adp.mgmt.backupandrestore.persist.S3RequestCount;
 import com.ericsson.adp.mgmt.backupandrestore.util.IdValidator;
 import com.ericsson.adp.mgmt.data.BackupData;
 import com.ericsson.adp.mgmt.data.Metadata;
@@ -34,6 +36,7 @@ public class BackupMetadataState extends BackupState {
 
     private final BackupMetadataWriter backupMetadataWriter;
     private final IdValidator idValidator;
+    private final Function<String, Optional<CreateBackupJob>> jobOfAgent;
 
     /**
      * Creates state.
@@ -42,9 +45,22 @@ public class BackupMetadataState extends BackupState {
      * @param idValidator to validate fragmentId.
      */
     public BackupMetadataState(final BackupMetadataWriter backupMetadataWriter, final CreateBackupJob job, final IdValidator idValidator) {
-        super(job);
+        this(backupMetadataWriter, agentId -> Optional.of(job), idValidator);
+    }
+
+    /**
+     * Creates state for a data channel whose job is only known once the agent sending on it identifies itself.
+     * @param backupMetadataWriter used to write metadata.
+     * @param jobOfAgent gets the ongoing job backing up an agent, from the agent id.
+     * @param idValidator to validate fragmentId.
+     */
+    public BackupMetadataState(final BackupMetadataWriter backupMetadataWriter,
+                               final Function<String, Optional<CreateBackupJob>> jobOfAgent,
+                               final IdValidator idValidator) {
+        super(null);
         this.backupMetadataWriter = backupMetadataWriter;
         this.idValidator = idValidator;
+        this.jobOfAgent = jobOfAgent;
     }
 
     @Override
@@ -53,11 +69,17 @@ public class BackupMetadataState extends BackupState {
             log.info("Received message {} from backup data channel (streamId:{})", message, streamId);
             validateMetadataMessage(message.getMetadata());
 
+            final String agentId = message.getMetadata().getAgentId();
+            this.job = jobOfAgent.apply(agentId)
+                    .orElseThrow(() -> new BackupServiceException("No create-backup job is in progress for agent <" + agentId + ">"));
             this.metadata = Optional.ofNullable(message.getMetadata());
             final FragmentFolder fragmentFolder = job.getFragmentFolder(message.getMetadata());
             job.receiveNewFragment(message.getMetadata().getAgentId(), message.getMetadata().getFragment().getFragmentId());
 
-            backupMetadataWriter.storeFragment(fragmentFolder, message.getMetadata());
+            // The job of the stream is only known from its metadata, so the requests are counted from here
+            try (S3RequestCount.Binding osmnRequests = job.countOsmnRequests()) {
+                backupMetadataWriter.storeFragment(fragmentFolder, message.getMetadata());
+            }
 
             return new BackupFileDataState(fragmentFolder, job, this.metadata);
         }
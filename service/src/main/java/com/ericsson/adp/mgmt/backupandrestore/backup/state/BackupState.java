@@ -11,14 +11,19 @@
  *----------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.backupandrestore.backup.state;
 
+import com.ericsson.adp.mgmt.backupandrestore.backup.BackupFileWriteService;
+import com.ericsson.adp.mgmt.backupandrestore.backup.BackupFileWriter;
 import com.ericsson.adp.mgmt.backupandrestore.exception.DataChannelException;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
+import com.ericsson.adp.mgmt.backupandrestore.persist.S3RequestCount;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.data.BackupData;
 import com.ericsson.adp.mgmt.data.DataMessageType;
 import com.ericsson.adp.mgmt.data.Metadata;
 import com.google.protobuf.ByteString;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Optional;
 
 import org.apache.logging.log4j.LogManager;
@@ -70,6 +75,22 @@ public abstract class BackupState {
      */
     public abstract void close();
 
+    /**
+     * Runs an action once the state can process another message without blocking the calling thread
+     * @param ready the action, such as requesting the next message from the agent
+     */
+    public void whenReadyForMessage(final Runnable ready) {
+        ready.run();
+    }
+
+    /**
+     * Counts the object store requests of the calling thread as requests of the job of this state, if it's known
+     * @return the binding of the count of the job to the calling thread
+     */
+    public S3RequestCount.Binding countOsmnRequests() {
+        return job == null ? S3RequestCount.Binding.NONE : job.countOsmnRequests();
+    }
+
     /**
      * Update the job with fragment's success and closes any lingering opened files.
      * @return BackupState next state.
@@ -150,6 +171,41 @@ public abstract class BackupState {
         return (checksum == null || checksum.isEmpty()) && (content == null || content.isEmpty());
     }
 
+    /**
+     * Creates the writer of a file received on the data channel, on the writers of the job if it has any.
+     * @param folder where the file is stored
+     * @param fileName name of the file
+     * @param fileSize expected size of the file, 0 if unknown
+     * @param checksumAlgorithm the checksum algorithm negotiated with the agent
+     * @return writer of the file
+     */
+    protected BackupFileWriter createFileWriter(final Path folder, final String fileName, final long fileSize,
+                                                final ChecksumAlgorithm checksumAlgorithm) {
+        final BackupFileWriteService writeService = job.getBackupFileWriteService();
+        if (writeService == null) {
+            return new BackupFileWriter(folder, fileName, job.getAwsConfig(), fileSize, checksumAlgorithm);
+        }
+        return writeService.createWriter(folder, fileName, job.getAwsConfig(), fileSize, checksumAlgorithm);
+    }
+
+    /**
+     * Creates the writer of a data file received on the data channel, deduplicated if the writers of the job
+     * deduplicate data files.
+     * @param folder where the file is stored
+     * @param fileName name of the file
+     * @param fileSize expected size of the file, 0 if unknown
+     * @param checksumAlgorithm the checksum algorithm negotiated with the agent
+     * @return writer of the file
+     */
+    protected BackupFileWriter createDataFileWriter(final Path folder, final String fileName, final long fileSize,
+                                                    final ChecksumAlgorithm checksumAlgorithm) {
+        final BackupFileWriteService writeService = job.getBackupFileWriteService();
+        if (writeService == null) {
+            return createFileWriter(folder, fileName, fileSize, checksumAlgorithm);
+        }
+        return writeService.createDataFileWriter(folder, fileName, job.getAwsConfig(), fileSize, checksumAlgorithm);
+    }
+
     private void updateJobWithFragmentFailure(final Metadata metadata) {
         this.job.fragmentFailed(metadata.getAgentId(), metadata.getFragment().getFragmentId());
     }
@@ -0,0 +1,119 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.cminterface;
+
+import static com.ericsson.adp.mgmt.backupandrestore.util.ApplicationConstantsUtils.CONFIGURATION_BRO_RESOURCE;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpMethod;
+
+import com.ericsson.adp.mgmt.backupandrestore.cminterface.operation.BatchedPatch;
+import com.ericsson.adp.mgmt.backupandrestore.cminterface.operation.PatchOperation;
+import com.ericsson.adp.mgmt.backupandrestore.cminterface.operation.ProgressReportPatch;
+
+/**
+ * Several PATCH messages of the BRO configuration, sent as one JSON Patch document with a single ETag check.
+ * If the batch fails, other than on a stale ETag, its messages are sent again one by one, with their own fallbacks.
+ */
+public class BatchedCMMMessage extends CMMMessage {
+
+    private final List<CMMMessage> messages;
+    private boolean failed;
+
+    /**
+     * Creates a batch of messages, which must all be batchable.
+     * @param messages to be sent together, in order.
+     */
+    public BatchedCMMMessage(final List<CMMMessage> messages) {
+        super(CONFIGURATION_BRO_RESOURCE, null,
+                new BatchedPatch(messages.stream().map(CMMMessage::getConfigurationPatch).collect(Collectors.toList())),
+                HttpMethod.PATCH, (m, e) -> Optional.empty(), getRetry(messages));
+        this.messages = new ArrayList<>(messages);
+    }
+
+    /**
+     * Checks if a message can be sent together with other messages.
+     * @param message to check
+     * @return true if it's a plain PATCH of the BRO configuration
+     */
+    public static boolean isBatchable(final CMMMessage message) {
+        return !(message instanceof BatchedCMMMessage)
+                && HttpMethod.PATCH.equals(message.getHttpMethod())
+                && CONFIGURATION_BRO_RESOURCE.equalsIgnoreCase(message.getResource())
+                && message.getHttpEntity() == null
+                && message.getConfigurationPatch() != null;
+    }
+
+    /**
+     * Checks if nothing can be sent after a message in the same batch.
+     * Adding or removing an element shifts the indexes the paths of the next messages were resolved with.
+     * @param message to check
+     * @return true if the message adds or removes an element
+     */
+    public static boolean endsBatch(final CMMMessage message) {
+        return message.getConfigurationPatch().getOperation() != PatchOperation.REPLACE;
+    }
+
+    /**
+     * Checks if a message replaces everything an earlier message would write, which is the case of two updates of the
+     * same progress report.
+     * @param later message queued later
+     * @param earlier message queued earlier
+     * @return true if the earlier message doesn't need to be sent
+     */
+    public static boolean supersedes(final CMMMessage later, final CMMMessage earlier) {
+        return later.getConfigurationPatch() instanceof ProgressReportPatch
+                && earlier.getConfigurationPatch() instanceof ProgressReportPatch
+                && later.getConfigurationPatch().getOperation() == PatchOperation.REPLACE
+                && earlier.getConfigurationPatch().getOperation() == PatchOperation.REPLACE
+                && later.getConfigurationPatch().getPath().equals(earlier.getConfigurationPatch().getPath());
+    }
+
+    /**
+     * Gets the messages sent together.
+     * @return the messages, in order.
+     */
+    public List<CMMMessage> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Marks the batch as failed, so its messages are sent one by one.
+     */
+    public void setFailed() {
+        failed = true;
+    }
+
+    /**
+     * Checks if the batch failed.
+     * @return true if its messages are to be sent one by one
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    private static int getRetry(final List<CMMMessage> messages) {
+        if (messages.stream().anyMatch(message -> message.getRetry() == CMMClient.RETRY_INDEFINITELY)) {
+            return CMMClient.RETRY_INDEFINITELY;
+        }
+        return messages.stream().mapToInt(CMMMessage::getRetry).max().orElse(0);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchedCMMMessage [messages=" + messages + ", retry=" + getRetry() + "]";
+    }
+}
@@ -22,10 +22,18 @@ import static com.ericsson.adp.mgmt.backupandrestore.util.ApplicationConstantsUt
 import static com.ericsson.adp.mgmt.backupandrestore.util.ApplicationConstantsUtils.getBrmConfigurationResource;
 import static com.ericsson.adp.mgmt.backupandrestore.util.ApplicationConstantsUtils.BACKUP_MANAGER_POSITION_IN_CONTEXT;
 import static com.ericsson.adp.mgmt.backupandrestore.util.ApplicationConstantsUtils.BACKUP_POSITION_IN_CONTEXT;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_CMM_MESSAGES_MERGED_TOTAL;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_CMM_MESSAGE_QUEUE_SECONDS;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_CMM_MESSAGE_TRANSFER_SECONDS;
 import static org.springframework.http.HttpMethod.PATCH;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -40,15 +48,21 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.ResourceAccessException;
+import com.ericsson.adp.mgmt.backupandrestore.cminterface.operation.BatchedPatch;
 import com.ericsson.adp.mgmt.backupandrestore.cminterface.operation.ConfigurationPatch;
 import com.ericsson.adp.mgmt.backupandrestore.cminterface.operation.PatchOperation;
 import com.ericsson.adp.mgmt.backupandrestore.exception.CMMediatorException;
 import com.ericsson.adp.mgmt.backupandrestore.util.ManagedQueueingWorker;
+import com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds;
 import com.ericsson.adp.mgmt.backupandrestore.util.ProcessorEngine;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 /**
  * A service for interacting with the CMM REST API.
  */
@@ -66,13 +80,18 @@ public class CMMClient {
     private EtagNotifIdBase etagNotifidBase;
     private int maxDelay;
     private int maxAttempts;
+    private int maxBatchSize = 50;
+    private MeterRegistry meterRegistry;
 
     /**
      * Push the request to CMM server
+     * Consecutive PATCH messages of the BRO configuration are sent together, in one request, when they are queued at
+     * the same time.
      *
      * @param cmmMessage the message to be processed
      */
     public void processMessage(final CMMMessage cmmMessage) {
+        cmmMessage.setQueuedAt(System.nanoTime());
         blockingQueueService.add(cmmMessage);
     }
 
@@ -268,6 +287,20 @@ public class CMMClient {
         this.maxAttempts = Integer.parseInt(maxAttempts);
     }
 
+    /**
+     * Sets how many queued messages can be sent together in one PATCH request
+     * @param maxBatchSize maximum number of messages sent together, 1 to send them one by one
+     */
+    @Value("${cmm.patch.maxBatchSize:50}")
+    public void setMaxBatchSize(final int maxBatchSize) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    @Autowired(required = false)
+    public void setMeterRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Autowired
     public void setCmmRestClient(final CMMRestClient cmmRestClient) {
         this.cmmRestClient = cmmRestClient;
@@ -321,6 +354,15 @@ public class CMMClient {
         return Optional.empty();
     }
 
+    private void record(final MetricsIds metric, final long nanos) {
+        if (meterRegistry != null) {
+            Timer.builder(metric.identification())
+                    .description(metric.description())
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
     private class CMMClientEngine implements ProcessorEngine<CMMMessage> {
         /**
          * Push the request to a element processor
@@ -329,15 +371,92 @@ public class CMMClient {
          * @return ServiceState service state after the processed message
          */
         @Override
-        public CMMMessage transferMessage(final CMMMessage cmmMessage) { // NOPMD CyclomaticComplexity
-            int retryCount = 0;
-            Optional<String> cfgPath_original = Optional.empty();
-            final Optional<ConfigurationPatch> configurationPath = Optional.ofNullable(cmmMessage.getConfigurationPatch());
-            if (configurationPath.isPresent() &&
-                    configurationPath.get().getPath() != null &&
-                    ! configurationPath.get().getPath().isEmpty()) {
-                cfgPath_original = Optional.of(configurationPath.get().getPath());
+        public CMMMessage transferMessage(final CMMMessage cmmMessage) {
+            final long startedAt = System.nanoTime();
+            final CMMMessage result;
+            try {
+                result = transfer(cmmMessage);
+            } finally {
+                record(METRIC_BRO_CMM_MESSAGE_TRANSFER_SECONDS, System.nanoTime() - startedAt);
             }
+            if (cmmMessage instanceof BatchedCMMMessage && ((BatchedCMMMessage) cmmMessage).isFailed()) {
+                return transferOneByOne(((BatchedCMMMessage) cmmMessage).getMessages());
+            }
+            return result;
+        }
+
+        /**
+         * Sends the messages of a failed batch on their own, so each fails, is retried or remedied as if it had never
+         * been batched. A message to be processed again is sent again right away, before the next message of the batch,
+         * rather than being put back in the queue, so the messages of the batch keep their order.
+         * @param messages of the batch
+         * @return null, as every message of the batch has been processed
+         */
+        private CMMMessage transferOneByOne(final List<CMMMessage> messages) {
+            log.info("Sending the messages <{}> one by one", messages);
+            for (final CMMMessage message : messages) {
+                CMMMessage pending = transferMessage(message);
+                while (pending != null && blockingQueueService.isProcessRunning()) {
+                    pending = transferMessage(pending);
+                }
+                if (pending != null) {
+                    log.warn("Dropping the message <{}> of a batch as the CMM messages are no longer processed", pending);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Sends the PATCH messages of the BRO configuration queued right after a message along with it, up to the
+         * first message adding or removing an element. Progress report updates replaced by a later one are dropped.
+         *
+         * @param cmmMessage the message taken from the queue
+         * @param queued the messages still queued
+         * @return the message to be processed
+         */
+        @Override
+        public CMMMessage merge(final CMMMessage cmmMessage, final Deque<CMMMessage> queued) {
+            recordQueueWait(cmmMessage);
+            if (maxBatchSize == 1 || !BatchedCMMMessage.isBatchable(cmmMessage) || BatchedCMMMessage.endsBatch(cmmMessage)) {
+                return cmmMessage;
+            }
+            final List<CMMMessage> batch = new ArrayList<>();
+            batch.add(cmmMessage);
+            int taken = 1;
+            while (taken < maxBatchSize && queued.peekFirst() != null && BatchedCMMMessage.isBatchable(queued.peekFirst())) {
+                final CMMMessage next = queued.pollFirst();
+                recordQueueWait(next);
+                taken++;
+                batch.removeIf(earlier -> BatchedCMMMessage.supersedes(next, earlier));
+                batch.add(next);
+                if (BatchedCMMMessage.endsBatch(next)) {
+                    break;
+                }
+            }
+            if (taken == 1) {
+                return cmmMessage;
+            }
+            log.debug("Merged <{}> queued messages into a batch of <{}>", taken, batch.size());
+            if (meterRegistry != null) {
+                Counter.builder(METRIC_BRO_CMM_MESSAGES_MERGED_TOTAL.identification())
+                        .description(METRIC_BRO_CMM_MESSAGES_MERGED_TOTAL.description())
+                        .register(meterRegistry)
+                        .increment(taken - 1.0);
+            }
+            return batch.size() == 1 ? batch.get(0) : new BatchedCMMMessage(batch);
+        }
+
+        private void recordQueueWait(final CMMMessage cmmMessage) {
+            // Messages put back in the queue are only measured the first time they are taken
+            if (cmmMessage.getQueuedAt() != 0) {
+                record(METRIC_BRO_CMM_MESSAGE_QUEUE_SECONDS, System.nanoTime() - cmmMessage.getQueuedAt());
+                cmmMessage.setQueuedAt(0);
+            }
+        }
+
+        private CMMMessage transfer(final CMMMessage cmmMessage) { // NOPMD CyclomaticComplexity
+            int retryCount = 0;
+            final Map<ConfigurationPatch, String> cfgPath_original = getOriginalPaths(cmmMessage);
             while (true) {
                 try {
                     if (!isFlagEnabled()) {
@@ -358,6 +477,14 @@ public class CMMClient {
                     }
                 } catch (final HttpClientErrorException exception) {
                     sleepAfterException(exception, cmmMessage, INITIAL_DELAY_MS);
+                    if (cmmMessage instanceof BatchedCMMMessage) {
+                        if (isMessageContainsEtag(exception, cmmMessage)) {
+                            log.info("Retry to send the message <{}> - attempt {}", cmmMessage, retryCount + 1);
+                            retryCount++;
+                            continue;
+                        }
+                        return remedy(cmmMessage, exception);
+                    }
                     if (isMessageMovedToTop(exception, cmmMessage)) {
                         return null;
                     }
@@ -391,10 +518,21 @@ public class CMMClient {
             return (cmmMessage.getRetry() == RETRY_INDEFINITELY || cmmMessage.getRetryAndDecrement() > 0);
         }
 
-        private void processFinally(final Optional<String> cfgPath_original, final CMMMessage cmmMessage) {
-            if (cfgPath_original.isPresent()) {
-                cmmMessage.getConfigurationPatch().setPath(cfgPath_original.get());
+        private void processFinally(final Map<ConfigurationPatch, String> cfgPath_original, final CMMMessage cmmMessage) {
+            cfgPath_original.forEach(ConfigurationPatch::setPath);
+        }
+
+        private Map<ConfigurationPatch, String> getOriginalPaths(final CMMMessage cmmMessage) {
+            final Map<ConfigurationPatch, String> originalPaths = new LinkedHashMap<>();
+            final List<ConfigurationPatch> patches = new ArrayList<>();
+            Optional.ofNullable(cmmMessage.getConfigurationPatch()).ifPresent(patches::add);
+            if (cmmMessage.getConfigurationPatch() instanceof BatchedPatch) {
+                patches.addAll(((BatchedPatch) cmmMessage.getConfigurationPatch()).getPatches());
             }
+            patches.stream()
+                    .filter(patch -> patch.getPath() != null && !patch.getPath().isEmpty())
+                    .forEach(patch -> originalPaths.put(patch, patch.getPath()));
+            return originalPaths;
         }
 
         private boolean isMessageMovedToTop(final HttpClientErrorException exception, final CMMMessage cmmMessage) {
@@ -517,10 +655,15 @@ public class CMMClient {
          */
         private void executeRestActions(final CMMMessage cmmMessage) {
             final HttpMethod httpMethod = cmmMessage.getHttpMethod();
-            final Optional<ConfigurationPatch> configurationPath = Optional.ofNullable(cmmMessage.getConfigurationPatch());
-            final Optional<String> pathUpdated = getPathUpdated(configurationPath, cmmMessage);
-            if (pathUpdated.isPresent()) {
-                configurationPath.get().setPath(pathUpdated.get());
+            if (cmmMessage.getConfigurationPatch() instanceof BatchedPatch) {
+                ((BatchedPatch) cmmMessage.getConfigurationPatch()).getPatches().forEach(patch ->
+                        getPathUpdated(Optional.of(patch), cmmMessage.getResource(), httpMethod).ifPresent(patch::setPath));
+            } else {
+                final Optional<ConfigurationPatch> configurationPath = Optional.ofNullable(cmmMessage.getConfigurationPatch());
+                final Optional<String> pathUpdated = getPathUpdated(configurationPath, cmmMessage.getResource(), httpMethod);
+                if (pathUpdated.isPresent()) {
+                    configurationPath.get().setPath(pathUpdated.get());
+                }
             }
             if (HttpMethod.PATCH.equals(httpMethod)) {
                 if (cmmMessage.getHttpEntity() != null ) {
@@ -541,20 +684,21 @@ public class CMMClient {
             }
         }
 
-        private Optional<String> getPathUpdated(final Optional<ConfigurationPatch> configurationPath, final CMMMessage cmmMessage) {
+        private Optional<String> getPathUpdated(final Optional<ConfigurationPatch> configurationPath, final String resource,
+                                                final HttpMethod httpMethod) {
             // filtered to be used only in configuration/BRO
             Optional<String> pathUpdated = Optional.empty();
 
             if (configurationPath.isPresent() &&
                     ! configurationPath.get().getPath().isEmpty() &&
-                    cmmMessage.getResource().equalsIgnoreCase(CONFIGURATION_BRO_RESOURCE) ) {
+                    resource.equalsIgnoreCase(CONFIGURATION_BRO_RESOURCE) ) {
                 final String path = configurationPath.get().getPath();
                 final String newPath;
                 final int bmIndex = etagNotifidBase.
                         getCMMIndexBackupManager(path);
-                if (bmIndex == -1 && cmmMessage.getHttpMethod() == PATCH
-                        && cmmMessage.getConfigurationPatch().getOperation( ) != PatchOperation.ADD) {
-                    throw new HttpClientErrorException(HttpStatus.CONFLICT, "Backup Manager is missing in CMM:" + cmmMessage.getConfigurationPatch());
+                if (bmIndex == -1 && httpMethod == PATCH
+                        && configurationPath.get().getOperation( ) != PatchOperation.ADD) {
+                    throw new HttpClientErrorException(HttpStatus.CONFLICT, "Backup Manager is missing in CMM:" + configurationPath.get());
                 }
                 final int backupIndex = etagNotifidBase.
                         getCMMIndexBackupManagerBackup(path, bmIndex);
@@ -565,7 +709,7 @@ public class CMMClient {
                 }
                 pathUpdated = Optional.of(newPath);
                 log.debug("Updating Path in <{}> - from <{} to {}>",
-                        cmmMessage.getResource(),
+                        resource,
                         path,
                         pathUpdated);
             }
@@ -573,6 +717,11 @@ public class CMMClient {
         }
 
         private CMMMessage remedy(final CMMMessage cmmMessage, final Exception exception) {
+            if (cmmMessage instanceof BatchedCMMMessage) {
+                // The messages are sent one by one once the paths of the batch are restored
+                ((BatchedCMMMessage) cmmMessage).setFailed();
+                return null;
+            }
             return cmmMessage.getFallback().apply(cmmMessage, exception).orElse(null);
         }
     }
@@ -32,6 +32,7 @@ public class CMMMessage {
 
     private int retry;
     private HttpEntity httpEntity;
+    private long queuedAt;
 
     /**
      * The constructor of CMM message
@@ -114,6 +115,18 @@ public class CMMMessage {
         this.httpEntity = httpEntity;
     }
 
+    /**
+     * Records when the message was queued, as given by System.nanoTime
+     * @param queuedAt when the message was queued
+     */
+    public void setQueuedAt(final long queuedAt) {
+        this.queuedAt = queuedAt;
+    }
+
+    public long getQueuedAt() {
+        return queuedAt;
+    }
+
     @Override
     public String toString() {
         return "CMMMessage [resource=" + resource +
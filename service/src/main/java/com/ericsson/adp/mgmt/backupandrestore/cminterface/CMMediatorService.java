@@ -20,18 +20,18 @@ import static com.ericsson.adp.mgmt.backupandrestore.util.ApplicationConstantsUt
 
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -83,7 +83,7 @@ public class CMMediatorService extends CMService{
         return Optional.of(m);
     };
 
-    private final ExecutorService progressReportUpdateExecutor = Executors.newSingleThreadExecutor();
+    private final ProgressReportPublisher progressReportPublisher = new ProgressReportPublisher(this::addProgressReport, 1000, 100);
 
     /**
      * Constructs CM Mediator Service.
@@ -167,7 +167,7 @@ public class CMMediatorService extends CMService{
      * Shuts down the progress report update execution thread
      */
     public void stopProcessingProgressReport() {
-        progressReportUpdateExecutor.shutdownNow();
+        progressReportPublisher.stop();
     }
 
     /**
@@ -376,6 +376,25 @@ public class CMMediatorService extends CMService{
         });
     }
 
+    /**
+     * Updates a backup under several managers in CM, in a single request.
+     * @param managers the managers to update the backup under
+     * @param backup to be updated.
+     */
+    public void updateBackupAndWait(final List<BackupManager> managers, final Backup backup) {
+        if (managers.size() == 1) {
+            updateBackupAndWait(managers.get(0), backup);
+            return;
+        }
+        executeIfCMIsEnabled(() -> {
+            log.info("Updating backup under {} backup managers in CM Mediator", managers.size());
+            final List<CMMMessage> messages = managers.stream()
+                    .map(manager -> getCMMessageFactory().getMessageToUpdateBackup(manager, backup, remedy, RETRY_INDEFINITELY))
+                    .collect(Collectors.toList());
+            getCMMClient().processMessageAndWait(new BatchedCMMMessage(messages));
+        });
+    }
+
     /**
      * Deletes a backup in CM.
      * @param backupManagerId owner of backup.
@@ -403,21 +422,20 @@ public class CMMediatorService extends CMService{
     }
 
     /**
-     * Enqueues a progress report to progress report queue
-     * that is internal to the single threaded executor.
+     * Enqueues a progress report to the progress report publisher, which replaces any update of the same action not
+     * published yet. State changes are published right away, other updates at most once per flush interval.
      * @param action to be added.
      */
     public void enqueueProgressReport(final Action action) {
-        final Runnable progressReportUpdateTask = () -> {
-            try {
-                final Action clone = action.getCopy().get();
-                addProgressReport(clone);
-                log.debug("Added action {} to the progress report queue.", clone);
-            } catch (Exception e) {
-                log.warn("Failed to update progress report in CM for action: <{}>", action, e);
-            }
-        };
-        progressReportUpdateExecutor.submit(progressReportUpdateTask);
+        progressReportPublisher.submit(action);
+    }
+
+    /**
+     * Forgets the state of an action held by the progress report publisher, once its job ended or it was removed.
+     * @param action ended or removed.
+     */
+    public void forgetProgressReport(final Action action) {
+        progressReportPublisher.forget(action);
     }
 
     /**
@@ -715,6 +733,24 @@ public class CMMediatorService extends CMService{
         this.keyStoreService = keyStoreService;
     }
 
+    /**
+     * Sets how long progress report updates not changing the state of an action are held before being published
+     * @param flushIntervalMs interval in milliseconds
+     */
+    @Value("${cmm.progressReport.flushIntervalMs:1000}")
+    public void setProgressReportFlushInterval(final long flushIntervalMs) {
+        progressReportPublisher.setFlushIntervalMs(flushIntervalMs);
+    }
+
+    /**
+     * Sets how many actions can have a progress report update waiting to be published
+     * @param maxPending maximum number of pending updates
+     */
+    @Value("${cmm.progressReport.maxPending:100}")
+    public void setProgressReportMaxPending(final int maxPending) {
+        progressReportPublisher.setMaxPending(maxPending);
+    }
+
     /**
      * update the last baseEtag from CMMediator
      * @return Optional Etag value from BRMCOnfiguration
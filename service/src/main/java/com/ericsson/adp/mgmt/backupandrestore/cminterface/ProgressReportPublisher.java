@@ -0,0 +1,186 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.cminterface;
+
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_CMM_PROGRESS_REPORTS_DROPPED_TOTAL;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_CMM_PROGRESS_REPORTS_MERGED_TOTAL;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ericsson.adp.mgmt.backupandrestore.action.Action;
+import com.ericsson.adp.mgmt.backupandrestore.action.ActionStateType;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Publishes the progress reports of actions, keeping only the latest update of each action until it's published.
+ * Updates are published at most once per flush interval, except when the state of an action changes, or the first
+ * time an action is seen, which are published right away along with everything pending.
+ * Reports are published one at a time, in the order their actions were first updated.
+ * The last state of an action is kept until the action finishes, its job ends or it's removed.
+ */
+class ProgressReportPublisher {
+
+    private static final Logger log = LogManager.getLogger(ProgressReportPublisher.class);
+
+    private final Consumer<Action> publisher;
+    private final ScheduledExecutorService executor;
+    private final Map<String, PendingReport> pending = new LinkedHashMap<>();
+    private final Map<String, ActionStateType> lastStates = new HashMap<>();
+    private long flushIntervalMs;
+    private int maxPending;
+    private ScheduledFuture<?> scheduledFlush;
+    private long scheduledFlushAt;
+
+    /**
+     * @param publisher publishes a copy of an action
+     * @param flushIntervalMs how long updates are held, at most, before being published
+     * @param maxPending how many actions can have an update pending
+     */
+    ProgressReportPublisher(final Consumer<Action> publisher, final long flushIntervalMs, final int maxPending) {
+        this.publisher = publisher;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxPending = maxPending;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "progress-report-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the current progress of an action, replacing any update of the same action not published yet.
+     * When as many actions as allowed have an update pending, the oldest update not changing the state of its action
+     * is dropped to make room.
+     * @param action updated
+     */
+    synchronized void submit(final Action action) {
+        final String key = getKey(action);
+        final ActionStateType state = action.getState();
+        final ActionStateType previousState = state == ActionStateType.FINISHED ? lastStates.remove(key) : lastStates.put(key, state);
+        final boolean urgent = previousState != state;
+
+        final PendingReport existing = pending.get(key);
+        if (existing != null) {
+            existing.action = action;
+            existing.urgent |= urgent;
+            Metrics.counter(METRIC_BRO_CMM_PROGRESS_REPORTS_MERGED_TOTAL.identification()).increment();
+        } else {
+            if (pending.size() >= maxPending && !dropOldest(urgent)) {
+                log.debug("Dropped the progress report update of action <{}>, too many updates pending", key);
+                Metrics.counter(METRIC_BRO_CMM_PROGRESS_REPORTS_DROPPED_TOTAL.identification()).increment();
+                return;
+            }
+            pending.put(key, new PendingReport(action, urgent));
+        }
+        scheduleFlush(urgent ? 0 : flushIntervalMs);
+    }
+
+    /**
+     * Forgets the last state of an action, as its job ended or it was removed. An update of the action still pending is
+     * published, and a later update is handled as if the action was seen for the first time.
+     * @param action ended or removed
+     */
+    synchronized void forget(final Action action) {
+        lastStates.remove(getKey(action));
+    }
+
+    /**
+     * Stops publishing, dropping the updates pending.
+     */
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    void setFlushIntervalMs(final long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    void setMaxPending(final int maxPending) {
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    private static String getKey(final Action action) {
+        return action.getBackupManagerId() + "/" + action.getActionId();
+    }
+
+    private boolean dropOldest(final boolean urgent) {
+        final Iterator<Map.Entry<String, PendingReport>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, PendingReport> entry = iterator.next();
+            if (!entry.getValue().urgent) {
+                log.debug("Dropped the progress report update of action <{}>, too many updates pending", entry.getKey());
+                Metrics.counter(METRIC_BRO_CMM_PROGRESS_REPORTS_DROPPED_TOTAL.identification()).increment();
+                iterator.remove();
+                return true;
+            }
+        }
+        // State changes are never dropped, even if that means going over the limit
+        return urgent;
+    }
+
+    private void scheduleFlush(final long delayMs) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        final long flushAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        if (scheduledFlush != null) {
+            if (scheduledFlushAt - flushAt <= 0) {
+                return;
+            }
+            scheduledFlush.cancel(false);
+        }
+        scheduledFlushAt = flushAt;
+        scheduledFlush = executor.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        final List<Action> reports = new ArrayList<>();
+        synchronized (this) {
+            scheduledFlush = null;
+            pending.values().forEach(report -> reports.add(report.action));
+            pending.clear();
+        }
+        for (final Action action : reports) {
+            try {
+                final Action clone = action.getCopy().get();
+                publisher.accept(clone);
+                log.debug("Published the progress report of action {}", clone);
+            } catch (Exception e) {
+                log.warn("Failed to update progress report in CM for action: <{}>", action, e);
+            }
+        }
+    }
+
+    private static class PendingReport {
+        private Action action;
+        private boolean urgent;
+
+        PendingReport(final Action action, final boolean urgent) {
+            this.action = action;
+            this.urgent = urgent;
+        }
+    }
+}
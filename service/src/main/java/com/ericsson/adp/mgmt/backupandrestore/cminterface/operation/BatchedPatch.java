@@ -0,0 +1,55 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.cminterface.operation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ericsson.adp.mgmt.backupandrestore.cminterface.json.PatchOperationJson;
+
+/**
+ * Several patches of the same configuration, sent as one patch with the operations of each, in order.
+ * It takes the operation and path of its first patch.
+ */
+public class BatchedPatch extends ConfigurationPatch {
+
+    private final List<ConfigurationPatch> patches;
+
+    /**
+     * Creates patch.
+     * @param patches to be sent together, in order.
+     */
+    public BatchedPatch(final List<ConfigurationPatch> patches) {
+        super(patches.get(0).getOperation(), patches.get(0).getPath());
+        this.patches = new ArrayList<>(patches);
+    }
+
+    @Override
+    protected List<PatchOperationJson> getJsonOfOperations() {
+        final List<PatchOperationJson> operations = new ArrayList<>();
+        patches.forEach(patch -> operations.addAll(patch.getJsonOfOperations()));
+        return operations;
+    }
+
+    /**
+     * Gets the patches sent together.
+     * @return patches, in order.
+     */
+    public List<ConfigurationPatch> getPatches() {
+        return patches;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchedPatch [patches=" + patches + ", eTag=" + getEtag() + "]";
+    }
+}
@@ -20,6 +20,7 @@ import java.nio.file.Paths;
 
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.ericsson.adp.mgmt.backupandrestore.archive.ArchiveCodec;
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.sftpserver.SftpServer;
 
 /**
@@ -76,7 +77,7 @@ public class ExternalClientImportProperties extends ExternalClientProperties {
     }
 
     private ImportFormat getImportFormat(final URI uri) {
-        return !uri.toString().endsWith(".tar.gz") ? LEGACY : TARBALL;
+        return !ArchiveCodec.isTarballName(uri.toString()) ? LEGACY : TARBALL;
     }
 
     /**
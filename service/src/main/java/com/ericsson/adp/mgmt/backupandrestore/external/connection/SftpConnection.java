@@ -47,6 +47,7 @@ import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.ericsson.adp.mgmt.backupandrestore.archive.ArchiveCodec;
 import com.ericsson.adp.mgmt.backupandrestore.archive.ArchiveUtils;
 import com.ericsson.adp.mgmt.backupandrestore.archive.StreamingArchiveService;
 import com.ericsson.adp.mgmt.backupandrestore.backup.Backup;
@@ -139,7 +140,7 @@ public class SftpConnection implements ExternalConnection, PropertyChangeListene
             final ProgressMonitor progress = new ProgressMonitor(pathFileSize, finished::get);
             progress.addListener(this);
             progress.addListener(listener);
-            try (TarArchiveOutputStream outputStream = archiveService.openTarGzipOutput(
+            try (TarArchiveOutputStream outputStream = archiveService.openTarOutput(
                     manager.channel().put(compressedBackupFilename, progress,
                     ChannelSftp.OVERWRITE), hash64)) {
                 log.debug("tar.gz OutputStream opened for {}", compressedBackupFilename);
@@ -354,7 +355,7 @@ public class SftpConnection implements ExternalConnection, PropertyChangeListene
         final ProgressMonitor progress = new ProgressMonitor(fileSize, RATIO_100_PERCENT, finished::get);
         progress.addListener(listener);
         // Perform operations with custom InputStream
-        try (TarArchiveInputStream inputStream = archiveService.openTarGzipInput (
+        try (TarArchiveInputStream inputStream = archiveService.openTarInput (
                 manager.channel().get(remoteBackupPath, progress),
                 hash64)) {
             // NOTE: map done here to avoid refactoring SftpConnection before finishing ArchiveService
@@ -464,7 +465,7 @@ public class SftpConnection implements ExternalConnection, PropertyChangeListene
             result = files.stream()
                         .filter(file -> !file.getAttrs().isDir()
                                 && file.getFilename().startsWith(tmpFile.getName() + "-")
-                                && file.getFilename().endsWith(".tar.gz"))
+                                && ArchiveCodec.isTarballName(file.getFilename()))
                         .map(LsEntry::getFilename).collect(Collectors.toList());
         } catch (final SftpException e) {
             log.info("No files found");
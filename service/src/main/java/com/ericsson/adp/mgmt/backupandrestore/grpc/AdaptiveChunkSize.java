@@ -0,0 +1,188 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.grpc;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Size of the chunks sent on one data stream, adapted to the stream as it runs.
+ *
+ * The chunks sent are recorded in windows of CHUNKS_PER_WINDOW chunks. At the end of each window the size is halved
+ * if the stream spent most of the window blocked on backpressure or the memory budget is exceeded, as larger chunks
+ * would then only hold more memory. Otherwise it's doubled while the stream is rarely blocked and the budget has
+ * room, and a doubling is reverted if it didn't raise the throughput. The size always stays within its limits.
+ *
+ * Not thread safe, it's meant to be used by the thread sending on the stream.
+ *
+ * Copy of com.ericsson.adp.mgmt.bro.api.grpc.AdaptiveChunkSize, where it's tested, as the orchestrator is built with
+ * a released agent api which doesn't have it yet. It's to be kept identical and replaced by the agent api class once
+ * the orchestrator moves to an agent api which has it.
+ */
+public class AdaptiveChunkSize implements IntSupplier, AutoCloseable {
+
+    private static final Logger log = LogManager.getLogger(AdaptiveChunkSize.class);
+    private static final int CHUNKS_PER_WINDOW = 16;
+    private static final double SHRINK_BLOCKED_FRACTION = 0.5;
+    private static final double GROW_BLOCKED_FRACTION = 0.1;
+    private static final double MIN_GROWTH_GAIN = 1.05;
+    private static final int MESSAGE_HEADROOM = 16 * 1024;
+
+    private final int minimum;
+    private final int maximum;
+    private final ChunkMemoryBudget budget;
+    private final LongSupplier blockedNanos;
+    private final LongSupplier clock;
+
+    private int size;
+    private int previousSize;
+    private double previousThroughput;
+    private boolean growing = true;
+    private boolean closed;
+
+    private int windowChunks;
+    private long windowBytes;
+    private long windowStart;
+    private long windowStartBlockedNanos;
+
+    /**
+     * Creates the chunk size of a stream, reserving the initial size from the budget
+     * @param initial size, in bytes, of the first chunks
+     * @param minimum size, in bytes, the chunks may shrink to
+     * @param maximum size, in bytes, the chunks may grow to
+     * @param budget shared by the streams of the process
+     * @param blockedNanos total time the stream has been blocked on backpressure, in nanoseconds
+     */
+    public AdaptiveChunkSize(final int initial, final int minimum, final int maximum,
+                             final ChunkMemoryBudget budget, final LongSupplier blockedNanos) {
+        this(initial, minimum, maximum, budget, blockedNanos, System::nanoTime);
+    }
+
+    AdaptiveChunkSize(final int initial, final int minimum, final int maximum,
+                      final ChunkMemoryBudget budget, final LongSupplier blockedNanos, final LongSupplier clock) {
+        this.minimum = Math.max(1, Math.min(minimum, maximum));
+        this.maximum = Math.max(this.minimum, maximum);
+        this.budget = budget;
+        this.blockedNanos = blockedNanos;
+        this.clock = clock;
+        this.size = clamp(initial);
+        this.previousSize = size;
+        budget.reserve(size);
+        startWindow();
+    }
+
+    /**
+     * Creates a chunk size which never changes
+     * @param size of the chunks, in bytes
+     * @return the chunk size
+     */
+    public static AdaptiveChunkSize fixed(final int size) {
+        return new AdaptiveChunkSize(size, size, size, ChunkMemoryBudget.UNLIMITED, () -> 0L);
+    }
+
+    /**
+     * Get the largest chunk a peer can receive in a message
+     * @param maxMessageSize the largest message, in bytes, the peer accepts
+     * @return the largest chunk, in bytes, leaving room for the rest of the message
+     */
+    public static int getMaxChunkSize(final int maxMessageSize) {
+        return Math.max(1, maxMessageSize - MESSAGE_HEADROOM);
+    }
+
+    /**
+     * Get the size of the next chunk
+     * @return the size, in bytes
+     */
+    @Override
+    public int getAsInt() {
+        return size;
+    }
+
+    public int getMinimum() {
+        return minimum;
+    }
+
+    public int getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * Records a chunk sent on the stream, adapting the size at the end of each window
+     * @param bytes sent in the chunk
+     */
+    public void record(final int bytes) {
+        if (minimum == maximum) {
+            return;
+        }
+        windowBytes += bytes;
+        if (++windowChunks < CHUNKS_PER_WINDOW) {
+            return;
+        }
+        final long elapsed = Math.max(1, clock.getAsLong() - windowStart);
+        adapt((double) windowBytes / elapsed, (double) (blockedNanos.getAsLong() - windowStartBlockedNanos) / elapsed);
+        startWindow();
+    }
+
+    /**
+     * Releases the size reserved from the budget
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            budget.release(size);
+        }
+    }
+
+    private void adapt(final double throughput, final double blockedFraction) {
+        final int current = size;
+        if (budget.isExceeded() || blockedFraction > SHRINK_BLOCKED_FRACTION) {
+            resize(current / 2);
+            growing = true;
+        } else if (current > previousSize && throughput < previousThroughput * MIN_GROWTH_GAIN) {
+            resize(previousSize);
+            growing = false;
+        } else if (growing && blockedFraction < GROW_BLOCKED_FRACTION) {
+            resize((int) Math.min(2L * current, maximum));
+        }
+        previousSize = current;
+        previousThroughput = throughput;
+    }
+
+    private void resize(final int target) {
+        final int newSize = clamp(target);
+        if (newSize > size && !budget.tryReserve((long) newSize - size)) {
+            return;
+        }
+        if (newSize < size) {
+            budget.release((long) size - newSize);
+        }
+        if (newSize != size) {
+            log.debug("Changing the chunk size from <{}> to <{}> bytes", size, newSize);
+            size = newSize;
+        }
+    }
+
+    private int clamp(final int value) {
+        return Math.max(minimum, Math.min(maximum, value));
+    }
+
+    private void startWindow() {
+        windowChunks = 0;
+        windowBytes = 0;
+        windowStart = clock.getAsLong();
+        windowStartBlockedNanos = blockedNanos.getAsLong();
+    }
+}
@@ -0,0 +1,92 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.grpc;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the memory held by the chunks in flight on all the data channels of a process.
+ * Each stream reserves the size of its current chunk, so a stream may only grow its chunks while the sum of the
+ * chunk sizes of all streams is within the limit.
+ *
+ * Copy of com.ericsson.adp.mgmt.bro.api.grpc.ChunkMemoryBudget, kept and replaced as the AdaptiveChunkSize copy.
+ */
+public class ChunkMemoryBudget {
+
+    /**
+     * Budget which never refuses a reservation
+     */
+    public static final ChunkMemoryBudget UNLIMITED = new ChunkMemoryBudget(Long.MAX_VALUE);
+
+    private final long limit;
+    private final AtomicLong reserved = new AtomicLong();
+
+    /**
+     * Creates a budget
+     * @param limit the bytes the chunks in flight may hold
+     */
+    public ChunkMemoryBudget(final long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Reserves bytes even if that takes the budget over its limit, as a stream always needs one chunk to send.
+     * @param bytes to reserve
+     */
+    public void reserve(final long bytes) {
+        reserved.addAndGet(bytes);
+    }
+
+    /**
+     * Reserves bytes if that keeps the budget within its limit
+     * @param bytes to reserve
+     * @return true if the bytes were reserved
+     */
+    public boolean tryReserve(final long bytes) {
+        long current;
+        do {
+            current = reserved.get();
+            if (bytes > limit - current) {
+                return false;
+            }
+        } while (!reserved.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    /**
+     * Releases bytes reserved before
+     * @param bytes to release
+     */
+    public void release(final long bytes) {
+        reserved.addAndGet(-bytes);
+    }
+
+    /**
+     * Whether the chunks in flight hold more than the limit
+     * @return true if the reserved bytes exceed the limit
+     */
+    public boolean isExceeded() {
+        return reserved.get() > limit;
+    }
+
+    /**
+     * Get the bytes reserved
+     * @return the bytes held by the chunks in flight
+     */
+    public long getReserved() {
+        return reserved.get();
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+}
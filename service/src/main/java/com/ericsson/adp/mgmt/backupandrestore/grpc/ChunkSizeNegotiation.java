@@ -0,0 +1,35 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.grpc;
+
+/**
+ * Numbers the orchestrator uses to negotiate an AdaptiveChunkSize with the agents. The ADAPTIVE_CHUNK_SIZE agent
+ * feature and the maxChunkSizeInBytes fields of the registration messages are newer than the agent api the
+ * orchestrator is built with, so they're used by number.
+ */
+public final class ChunkSizeNegotiation {
+
+    /**
+     * Number of the ADAPTIVE_CHUNK_SIZE agent feature
+     */
+    public static final int AGENT_FEATURE = 13;
+    public static final int REGISTER_MAX_CHUNK_SIZE_FIELD = 7;
+    public static final int ACKNOWLEDGE_MAX_CHUNK_SIZE_FIELD = 3;
+
+    /**
+     * Largest message the data channel server accepts, the gRPC default
+     */
+    public static final int DATA_CHANNEL_MAX_MESSAGE_SIZE = 4 * 1024 * 1024;
+
+    private ChunkSizeNegotiation() {
+    }
+}
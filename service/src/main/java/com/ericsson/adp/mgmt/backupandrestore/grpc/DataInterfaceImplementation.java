@@ -11,10 +11,11 @@
  *------------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.backupandrestore.grpc;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -26,6 +27,7 @@ import com.ericsson.adp.mgmt.backupandrestore.backup.BackupMetadataWriter;
 import com.ericsson.adp.mgmt.backupandrestore.exception.UncontrollableRestoreDataChannelException;
 import com.ericsson.adp.mgmt.backupandrestore.grpc.backup.BackupDataStream;
 import com.ericsson.adp.mgmt.backupandrestore.grpc.backup.UnexpectedBackupDataStream;
+import com.ericsson.adp.mgmt.backupandrestore.grpc.restore.RestoreDataScheduler;
 import com.ericsson.adp.mgmt.backupandrestore.grpc.restore.RestoreDataService;
 import com.ericsson.adp.mgmt.backupandrestore.grpc.restore.RestoreFragmentStream;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
@@ -49,13 +51,14 @@ import io.grpc.stub.StreamObserver;
  */
 @Service
 public class DataInterfaceImplementation extends DataInterfaceImplBase {
-    protected static List<String> backupDataStreamIds = new ArrayList<>();
+    protected static Set<String> backupDataStreamIds = ConcurrentHashMap.newKeySet();
 
     private static final Logger log = LogManager.getLogger(DataInterfaceImplementation.class);
 
 
     private BackupMetadataWriter backupMetadataWriter;
     private RestoreDataService restoreDataService;
+    private RestoreDataScheduler restoreDataScheduler;
     private JobExecutor jobExecutor;
     private IdValidator idValidator;
     private int timeToWait;
@@ -79,37 +82,56 @@ public class DataInterfaceImplementation extends DataInterfaceImplBase {
         }
     }
 
-    private Optional<Job> findJob(final List<Job> runningJobs, final Predicate<Job> jobType) {
-        return runningJobs.stream().filter(jobType).findFirst();
-    }
-
+    /**
+     * Opens a backup data channel. Several create-backup jobs can run at the same time on backup managers with different
+     * agents, so the job of the channel is only chosen once the agent sending on it identifies itself in its first
+     * message. When a single create-backup job is running, the channel belongs to it.
+     */
     private StreamObserver<BackupData> createBackupDataStream(final List<Job> runningJobs, final StreamObserver<Empty> stream) {
-        final Optional<Job> currentCreateBackupJob = findJob(runningJobs, job -> job instanceof CreateBackupJob);
-        if (currentCreateBackupJob.isPresent()) {
+        final List<CreateBackupJob> createBackupJobs = jobsOfType(runningJobs, CreateBackupJob.class);
+        if (!createBackupJobs.isEmpty()) {
             final BackupDataStream backupDataStream = new BackupDataStream(backupMetadataWriter,
-                                                                           (CreateBackupJob) currentCreateBackupJob.get(),
+                                                                           agentId -> findCreateBackupJob(createBackupJobs, agentId),
                                                                            stream, idValidator);
-            while (backupDataStreamIds.contains(backupDataStream.getStreamId()) ||
-                    backupDataStream.getStreamId().equals("")) {  // assign a unique ID
+            backupDataStream.updateStreamId();
+            while (!backupDataStreamIds.add(backupDataStream.getStreamId())) {  // assign a unique ID
                 backupDataStream.updateStreamId();
             }
-            backupDataStreamIds.add(backupDataStream.getStreamId());
             log.info("Agent is opening backup data channel for stream {}", backupDataStream.getStreamId());
             return backupDataStream;
         }
         return createUnexpectedBackupDataStream(stream);
     }
 
+    private Optional<CreateBackupJob> findCreateBackupJob(final List<CreateBackupJob> createBackupJobs, final String agentId) {
+        if (createBackupJobs.size() == 1) {
+            return Optional.of(createBackupJobs.get(0));
+        }
+        return createBackupJobs.stream().filter(job -> job.hasAgent(agentId)).findFirst();
+    }
+
+    private Optional<RestoreJob> findRestoreJob(final List<Job> runningJobs, final String agentId) {
+        final List<RestoreJob> restoreJobs = jobsOfType(runningJobs, RestoreJob.class);
+        if (restoreJobs.size() == 1) {
+            return Optional.of(restoreJobs.get(0));
+        }
+        return restoreJobs.stream().filter(job -> job.hasAgent(agentId)).findFirst();
+    }
+
+    private <T extends Job> List<T> jobsOfType(final List<Job> runningJobs, final Class<T> type) {
+        return runningJobs.stream().filter(type::isInstance).map(type::cast).collect(Collectors.toList());
+    }
+
     /**
-     * Method to get the list of stream Ids
-     * @return list of backupDataStream Ids
+     * Method to get the set of stream Ids
+     * @return set of backupDataStream Ids
      */
-    public static List<String> getBackupDataStreamIds() {
+    public static Set<String> getBackupDataStreamIds() {
         return backupDataStreamIds;
     }
 
     /**
-     * Method to remove the ID of a backupDataStream on closing stream, from the list of IDs
+     * Method to remove the ID of a backupDataStream on closing stream, from the set of IDs
      * @param streamId ID of the stream to be removed
      */
     public static void removeStreamId(final String streamId) {
@@ -123,12 +145,13 @@ public class DataInterfaceImplementation extends DataInterfaceImplBase {
     }
 
     private void handleRestore(final Metadata metadata, final StreamObserver<RestoreData> stream, final List<Job> runningJobs) {
-        final Optional<Job> currentRestoreJob = findJob(runningJobs, job -> job instanceof RestoreJob);
+        final Optional<RestoreJob> currentRestoreJob = findRestoreJob(runningJobs, metadata.getAgentId());
         if (currentRestoreJob.isPresent()) {
-            performRestore(metadata, stream, (RestoreJob) currentRestoreJob.get());
+            performRestore(metadata, stream, currentRestoreJob.get());
         } else {
             Job otherJob = runningJobs.get(0);
-            final Optional<Job> otherCreateBackupJob = findJob(runningJobs, job -> job instanceof CreateBackupJob);
+            final Optional<CreateBackupJob> otherCreateBackupJob =
+                    findCreateBackupJob(jobsOfType(runningJobs, CreateBackupJob.class), metadata.getAgentId());
             // If EXPORT and CREATE_BACKUP jobs are running in parallel,
             // ensure the Create Backup job handles the unexpected data channel.
             if (runningJobs.size() > 1 && otherCreateBackupJob.isPresent()) {
@@ -140,18 +163,34 @@ public class DataInterfaceImplementation extends DataInterfaceImplBase {
     }
 
     private void performRestore(final Metadata metadata, final StreamObserver<RestoreData> stream, final RestoreJob job) {
+        final RestoreFragmentStream fragmentStream;
         try {
             log.info("Agent is opening restore data channel with metadata <{}>", metadata);
-            restoreDataService.processMessage(metadata, job, controlStreamAccess(stream));
-            log.info("Closing restore data channel for metadata <{}>", metadata);
-            stream.onCompleted();
+            fragmentStream = controlStreamAccess(stream);
         } catch (final Exception e) {
-            log.error("Closing restore data channel for metadata <{}> due to error", metadata, e);
-            stream.onError(getAbortedException(e.getMessage()));
+            closeRestoreDataChannel(metadata, stream, e);
+            return;
         }
-    }
-
-    private StreamObserver<RestoreData> controlStreamAccess(final StreamObserver<RestoreData> stream) {
+        // The fragment is sent by the scheduler, the call returns and leaves the channel open until it's done
+        restoreDataScheduler.schedule(metadata.getAgentId(), () -> restoreDataService.processMessage(metadata, job, fragmentStream))
+            .whenComplete((result, error) -> {
+                job.updateAgentBackpressureWaitTime(metadata.getAgentId(), fragmentStream.getTimeBlockedOnBackpressure());
+                if (error == null) {
+                    log.info("Closing restore data channel for metadata <{}>, blocked on backpressure for <{}> ms",
+                            metadata, fragmentStream.getTimeBlockedOnBackpressure().toMillis());
+                    stream.onCompleted();
+                } else {
+                    closeRestoreDataChannel(metadata, stream, error);
+                }
+            });
+    }
+
+    private void closeRestoreDataChannel(final Metadata metadata, final StreamObserver<RestoreData> stream, final Throwable error) {
+        log.error("Closing restore data channel for metadata <{}> due to error", metadata, error);
+        stream.onError(getAbortedException(error.getMessage()));
+    }
+
+    private RestoreFragmentStream controlStreamAccess(final StreamObserver<RestoreData> stream) {
         if (streamCanBeControlled(stream)) {
             final ServerCallStreamObserver<RestoreData> serverCallStream = (ServerCallStreamObserver<RestoreData>) stream;
             return new RestoreFragmentStream(serverCallStream, this.timeToWait);
@@ -182,6 +221,11 @@ public class DataInterfaceImplementation extends DataInterfaceImplBase {
         this.restoreDataService = restoreDataService;
     }
 
+    @Autowired
+    public void setRestoreDataScheduler(final RestoreDataScheduler restoreDataScheduler) {
+        this.restoreDataScheduler = restoreDataScheduler;
+    }
+
     @Autowired
     public void setJobExecutor(final JobExecutor jobExecutor) {
         this.jobExecutor = jobExecutor;
@@ -11,6 +11,9 @@
  *----------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.backupandrestore.grpc.backup;
 
+import java.util.Optional;
+import java.util.function.Function;
+
 import com.ericsson.adp.mgmt.backupandrestore.grpc.DataInterfaceImplementation;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -20,15 +23,20 @@ import com.ericsson.adp.mgmt.backupandrestore.backup.BackupMetadataWriter;
 import com.ericsson.adp.mgmt.backupandrestore.backup.state.BackupMetadataState;
 import com.ericsson.adp.mgmt.backupandrestore.backup.state.BackupState;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
+import com.ericsson.adp.mgmt.backupandrestore.persist.S3RequestCount;
 import com.ericsson.adp.mgmt.backupandrestore.util.IdValidator;
 import com.ericsson.adp.mgmt.data.BackupData;
 import com.google.protobuf.Empty;
 
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 /**
  * observes message from BackupDataChannel stream and directs them to relevant classes to process
+ *
+ * When the stream comes from the gRPC server, messages are requested one at a time, and the next one only once the
+ * state can take it, so an agent sending faster than its files are written waits without holding a gRPC thread.
  */
 public class BackupDataStream implements StreamObserver<BackupData> {
 
@@ -37,6 +45,7 @@ public class BackupDataStream implements StreamObserver<BackupData> {
 
     private BackupState state;
     private final StreamObserver<Empty> orchestratorStream;
+    private final ServerCallStreamObserver<Empty> flowControl;
     private String streamId = "";
 
     /**
@@ -48,9 +57,33 @@ public class BackupDataStream implements StreamObserver<BackupData> {
     public BackupDataStream(final BackupMetadataWriter backupMetadataWriter, final CreateBackupJob job,
                             final StreamObserver<Empty> orchestratorStream, final IdValidator idValidator) {
         this.orchestratorStream = orchestratorStream;
+        this.flowControl = controlFlow(orchestratorStream);
         this.state = new BackupMetadataState(backupMetadataWriter, job, idValidator);
     }
 
+    /**
+     * @param backupMetadataWriter used to write metadata.
+     * @param jobOfAgent gets the ongoing backup of the agent sending on this stream, from the agent id.
+     * @param orchestratorStream empty stream observer.
+     * @param idValidator to validate fragmentId.
+     */
+    public BackupDataStream(final BackupMetadataWriter backupMetadataWriter, final Function<String, Optional<CreateBackupJob>> jobOfAgent,
+                            final StreamObserver<Empty> orchestratorStream, final IdValidator idValidator) {
+        this.orchestratorStream = orchestratorStream;
+        this.flowControl = controlFlow(orchestratorStream);
+        this.state = new BackupMetadataState(backupMetadataWriter, jobOfAgent, idValidator);
+    }
+
+    private static ServerCallStreamObserver<Empty> controlFlow(final StreamObserver<Empty> orchestratorStream) {
+        if (orchestratorStream instanceof ServerCallStreamObserver) {
+            final ServerCallStreamObserver<Empty> serverCallStream = (ServerCallStreamObserver<Empty>) orchestratorStream;
+            serverCallStream.disableAutoInboundFlowControl();
+            serverCallStream.request(1);
+            return serverCallStream;
+        }
+        return null;
+    }
+
     /**
      * Method to generate an ID for the BackupDataStream instance
      * @return generated random ID
@@ -74,6 +107,35 @@ public class BackupDataStream implements StreamObserver<BackupData> {
 
     @Override
     public void onNext(final BackupData message) {
+        try (S3RequestCount.Binding osmnRequests = state.countOsmnRequests()) {
+            process(message);
+        }
+        if (flowControl != null) {
+            state.whenReadyForMessage(() -> flowControl.request(1));
+        }
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        log.info("backup data stream (streamId:{}) connection closed due to error", this.getStreamId());
+        try (S3RequestCount.Binding osmnRequests = state.countOsmnRequests()) {
+            this.state = state.fail();
+        }
+        DataInterfaceImplementation.removeStreamId(this.streamId);
+    }
+
+    @Override
+    public void onCompleted() {
+        log.info("backup data stream (streamId:{}) connection closed", this.streamId);
+        try (S3RequestCount.Binding osmnRequests = state.countOsmnRequests()) {
+            this.state = state.complete();
+        }
+        this.orchestratorStream.onNext(Empty.getDefaultInstance());
+        this.orchestratorStream.onCompleted();
+        DataInterfaceImplementation.removeStreamId(this.getStreamId());
+    }
+
+    private void process(final BackupData message) {
         try {
             this.state = state.processMessage(message, getStreamId());
         } catch (final Exception e) {
@@ -92,20 +154,4 @@ public class BackupDataStream implements StreamObserver<BackupData> {
         }
     }
 
-    @Override
-    public void onError(final Throwable throwable) {
-        log.info("backup data stream (streamId:{}) connection closed due to error", this.getStreamId());
-        this.state = state.fail();
-        DataInterfaceImplementation.removeStreamId(this.streamId);
-    }
-
-    @Override
-    public void onCompleted() {
-        log.info("backup data stream (streamId:{}) connection closed", this.streamId);
-        this.state = state.complete();
-        this.orchestratorStream.onNext(Empty.getDefaultInstance());
-        this.orchestratorStream.onCompleted();
-        DataInterfaceImplementation.removeStreamId(this.getStreamId());
-    }
-
 }
@@ -0,0 +1,204 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.grpc.restore;
+
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_RESTORE_FRAGMENT_QUEUE_SECONDS;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_RESTORE_FRAGMENT_TRANSFER_SECONDS;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ericsson.adp.mgmt.backupandrestore.util.MetricTags;
+import com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs the transfer of restore fragments off the gRPC call threads.
+ * At most maxConcurrentFragments fragments are sent at the same time, and at most maxConcurrentFragmentsPerAgent
+ * of them for the same agent, so one agent opening many data channels can't hold every sender.
+ * Fragments over the limit of their agent wait in order, without taking a sender.
+ */
+@Service
+public class RestoreDataScheduler {
+
+    private static final Logger log = LogManager.getLogger(RestoreDataScheduler.class);
+    private static final int DEFAULT_MAX_CONCURRENT_FRAGMENTS = 16;
+    private static final int DEFAULT_MAX_CONCURRENT_FRAGMENTS_PER_AGENT = 4;
+
+    private final Map<String, AgentQueue> agentQueues = new HashMap<>();
+    private int maxConcurrentFragments = DEFAULT_MAX_CONCURRENT_FRAGMENTS;
+    private int maxConcurrentFragmentsPerAgent = DEFAULT_MAX_CONCURRENT_FRAGMENTS_PER_AGENT;
+    private Executor executor;
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Creates the scheduler, whose senders are started on first use.
+     */
+    public RestoreDataScheduler() {
+    }
+
+    /**
+     * Creates a scheduler running transfers on an executor, which bounds the number of concurrent transfers.
+     * @param executor runs the transfers
+     * @param maxConcurrentFragmentsPerAgent maximum number of fragments of the same agent transferred at the same time
+     */
+    public RestoreDataScheduler(final Executor executor, final int maxConcurrentFragmentsPerAgent) {
+        this.executor = executor;
+        setMaxConcurrentFragmentsPerAgent(maxConcurrentFragmentsPerAgent);
+    }
+
+    /**
+     * Schedules the transfer of a fragment.
+     * @param agentId the agent receiving the fragment
+     * @param transfer sends the fragment
+     * @return completes when the fragment is sent, exceptionally if the transfer failed
+     */
+    public CompletableFuture<Void> schedule(final String agentId, final Runnable transfer) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        final ScheduledTransfer scheduledTransfer = new ScheduledTransfer(agentId, transfer, result);
+        final boolean start;
+        synchronized (agentQueues) {
+            final AgentQueue queue = agentQueues.computeIfAbsent(agentId, id -> new AgentQueue());
+            start = queue.running < maxConcurrentFragmentsPerAgent;
+            if (start) {
+                queue.running++;
+            } else {
+                queue.waiting.add(scheduledTransfer);
+                log.debug("Restore of a fragment of agent <{}> is waiting for one of its <{}> transfers to finish",
+                        agentId, queue.running);
+            }
+        }
+        if (start) {
+            execute(scheduledTransfer);
+        }
+        return result;
+    }
+
+    private void execute(final ScheduledTransfer scheduledTransfer) {
+        try {
+            getExecutor().execute(scheduledTransfer);
+        } catch (final RuntimeException e) {
+            scheduledTransfer.result.completeExceptionally(e);
+            startNext(scheduledTransfer.agentId);
+        }
+    }
+
+    private void startNext(final String agentId) {
+        final ScheduledTransfer next;
+        synchronized (agentQueues) {
+            final AgentQueue queue = agentQueues.get(agentId);
+            next = queue.waiting.poll();
+            if (next == null) {
+                queue.running--;
+                if (queue.running == 0) {
+                    agentQueues.remove(agentId);
+                }
+            }
+        }
+        if (next != null) {
+            execute(next);
+        }
+    }
+
+    private void record(final MetricsIds metric, final String agentId, final long nanos) {
+        if (meterRegistry != null) {
+            Timer.builder(metric.identification())
+                    .description(metric.description())
+                    .tag(MetricTags.AGENT.identification(), agentId)
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private synchronized Executor getExecutor() {
+        if (executor == null) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(maxConcurrentFragments, runnable -> {
+                final Thread thread = new Thread(runnable, "restore-data-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Sets the maximum number of fragments transferred at the same time, for all agents
+     * @param maxConcurrentFragments number of senders
+     */
+    @Value("${restore.maxConcurrentFragments:16}")
+    public void setMaxConcurrentFragments(final int maxConcurrentFragments) {
+        this.maxConcurrentFragments = Math.max(1, maxConcurrentFragments);
+    }
+
+    /**
+     * Sets the maximum number of fragments of the same agent transferred at the same time
+     * @param maxConcurrentFragmentsPerAgent number of senders an agent can use
+     */
+    @Value("${restore.maxConcurrentFragmentsPerAgent:4}")
+    public void setMaxConcurrentFragmentsPerAgent(final int maxConcurrentFragmentsPerAgent) {
+        this.maxConcurrentFragmentsPerAgent = Math.max(1, maxConcurrentFragmentsPerAgent);
+    }
+
+    @Autowired(required = false)
+    public void setMeterRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    private static class AgentQueue {
+        private int running;
+        private final Queue<ScheduledTransfer> waiting = new ArrayDeque<>();
+    }
+
+    private class ScheduledTransfer implements Runnable {
+        private final String agentId;
+        private final Runnable transfer;
+        private final CompletableFuture<Void> result;
+        private final long scheduledAt = System.nanoTime();
+
+        ScheduledTransfer(final String agentId, final Runnable transfer, final CompletableFuture<Void> result) {
+            this.agentId = agentId;
+            this.transfer = transfer;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            final long startedAt = System.nanoTime();
+            record(METRIC_BRO_RESTORE_FRAGMENT_QUEUE_SECONDS, agentId, startedAt - scheduledAt);
+            try {
+                transfer.run();
+                result.complete(null);
+            } catch (final RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            } finally {
+                record(METRIC_BRO_RESTORE_FRAGMENT_TRANSFER_SECONDS, agentId, System.nanoTime() - startedAt);
+                startNext(agentId);
+            }
+        }
+    }
+}
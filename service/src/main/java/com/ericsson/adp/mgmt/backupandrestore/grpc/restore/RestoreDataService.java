@@ -12,14 +12,23 @@
 package com.ericsson.adp.mgmt.backupandrestore.grpc.restore;
 
 import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
+import com.ericsson.adp.mgmt.backupandrestore.backup.dedup.ChunkManifest;
+import com.ericsson.adp.mgmt.backupandrestore.backup.dedup.ChunkStore;
+import com.ericsson.adp.mgmt.backupandrestore.exception.RestoreDownloadException;
 import com.ericsson.adp.mgmt.backupandrestore.exception.RestoreLocationDoesNotExistException;
+import com.ericsson.adp.mgmt.backupandrestore.grpc.AdaptiveChunkSize;
+import com.ericsson.adp.mgmt.backupandrestore.grpc.ChunkMemoryBudget;
 import com.ericsson.adp.mgmt.backupandrestore.job.RestoreJob;
 import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProvider;
 import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProviderFactory;
+import com.ericsson.adp.mgmt.backupandrestore.persist.S3RequestCount;
 import com.ericsson.adp.mgmt.backupandrestore.restore.ChecksumValidationException;
 import com.ericsson.adp.mgmt.backupandrestore.restore.RestoreBackupFile;
 
 import com.ericsson.adp.mgmt.backupandrestore.restore.RestoreCustomMetadataFile;
+import com.ericsson.adp.mgmt.backupandrestore.restore.RestoreLocationCache;
+import com.ericsson.adp.mgmt.backupandrestore.restore.RestoreTransferMode;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.data.Metadata;
 import com.ericsson.adp.mgmt.data.RestoreData;
 import com.ericsson.adp.mgmt.metadata.Fragment;
@@ -32,8 +41,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Optional;
+import java.util.function.LongSupplier;
 
 /**
  * Responsible for passing responseObserver and metadata for validation and processing.
@@ -45,8 +56,18 @@ public class RestoreDataService {
 
     private int restoreFragmentChunkSize;
 
+    private int restoreFragmentChunkMinSize = 64 * 1024;
+
+    private int restoreFragmentChunkMaxSize = 4096 * 1024;
+
+    private ChunkMemoryBudget chunkMemoryBudget = new ChunkMemoryBudget(64L * 1024 * 1024);
+
+    private RestoreTransferMode restoreTransferMode = RestoreTransferMode.BUFFERED;
+
     private PersistProvider provider;
 
+    private ChunkStore chunkStore;
+
     /**
      * Setup the persistence provider used by the file service
      * @param configuration - provider configuration used
@@ -66,16 +87,29 @@ public class RestoreDataService {
      *            - Stream Observer.
      */
     public void processMessage(final Metadata metadata, final RestoreJob job, final StreamObserver<RestoreData> stream) {
-        validateMessage(metadata, job);
+        try (S3RequestCount.Binding osmnRequests = job.countOsmnRequests()) {
+            sendFragment(metadata, job, stream);
+        }
+    }
+
+    private void sendFragment(final Metadata metadata, final RestoreJob job, final StreamObserver<RestoreData> stream) {
+        final RestoreLocationCache locations = job.getRestoreLocations().orElseGet(() -> new RestoreLocationCache(provider));
+        validateMessage(metadata, job, locations);
 
         try {
             // send the backup file to the agent
-            final long sent = new RestoreBackupFile(stream, restoreFragmentChunkSize, job.getAwsConfig()).sendFile(getBackupFile(metadata, job));
+            final ChecksumAlgorithm checksumAlgorithm = job.getChecksumAlgorithm(metadata.getAgentId());
+            final long sent;
+            try (AdaptiveChunkSize chunkSize = getChunkSize(job.getMaxChunkSize(metadata.getAgentId()), stream)) {
+                sent = sendBackupFile(new RestoreBackupFile(stream, chunkSize, job.getAwsConfig(), restoreTransferMode,
+                        checksumAlgorithm), getBackupFile(metadata, job, locations));
+            }
             job.updateAgentChunkSize(metadata.getAgentId(), sent);
 
             // send the custom metadata to the agent
-            final Optional<Path> customMetadataFileFolder = findFile(job.getFragmentFolder(metadata).getCustomMetadataFileFolder());
-            customMetadataFileFolder.ifPresent(customMetadataPath -> sendCustomMetadata(customMetadataPath, stream, job.getAwsConfig()));
+            final Optional<Path> customMetadataFileFolder = locations.findFile(job.getFragmentFolder(metadata).getCustomMetadataFileFolder());
+            customMetadataFileFolder.ifPresent(customMetadataPath ->
+                    sendCustomMetadata(customMetadataPath, stream, job.getAwsConfig(), checksumAlgorithm));
         } catch (ChecksumValidationException e) {
             log.error("Backup checksum verification failed", e);
             job.markBackupAsCorrupted();
@@ -83,8 +117,48 @@ public class RestoreDataService {
         }
     }
 
-    private void sendCustomMetadata(final Path customMetadataPath, final StreamObserver<RestoreData> stream, final S3Config s3Config) {
-        new RestoreCustomMetadataFile(stream, s3Config).sendCustomMetadataFile(customMetadataPath);
+    /**
+     * The chunk size adapts to the stream, up to the largest chunk the agent accepts, for agents which negotiated it
+     * on registration, and is otherwise restore.fragmentChunk.size.
+     */
+    private AdaptiveChunkSize getChunkSize(final int agentMaxChunkSize, final StreamObserver<RestoreData> stream) {
+        if (agentMaxChunkSize <= 0) {
+            return AdaptiveChunkSize.fixed(restoreFragmentChunkSize);
+        }
+        final LongSupplier blockedNanos = stream instanceof RestoreFragmentStream
+                ? () -> ((RestoreFragmentStream) stream).getTimeBlockedOnBackpressure().toNanos()
+                : () -> 0L;
+        final int maxChunkSize = Math.min(restoreFragmentChunkMaxSize, agentMaxChunkSize);
+        return new AdaptiveChunkSize(Math.min(restoreFragmentChunkSize, maxChunkSize), Math.min(restoreFragmentChunkMinSize, maxChunkSize),
+                maxChunkSize, chunkMemoryBudget, blockedNanos);
+    }
+
+    /**
+     * Files stored as chunks are restored whether or not deduplication is still enabled.
+     */
+    private long sendBackupFile(final RestoreBackupFile restoreBackupFile, final Path backupFile) {
+        if (!ChunkManifest.isManifestFile(backupFile)) {
+            return restoreBackupFile.sendFile(backupFile);
+        }
+        final Optional<ChunkManifest> manifest;
+        try {
+            manifest = chunkStore.readManifest(backupFile);
+        } catch (final IOException e) {
+            throw new RestoreDownloadException("Error reading chunk manifest <" + backupFile + ">", e);
+        }
+        return manifest
+                .map(value -> restoreBackupFile.sendDeduplicatedFile(backupFile, chunkStore.newInputStream(value)))
+                .orElseGet(() -> restoreBackupFile.sendFile(backupFile));
+    }
+
+    private void sendCustomMetadata(final Path customMetadataPath, final StreamObserver<RestoreData> stream, final S3Config s3Config,
+                                    final ChecksumAlgorithm checksumAlgorithm) {
+        new RestoreCustomMetadataFile(stream, s3Config, checksumAlgorithm).sendCustomMetadataFile(customMetadataPath);
+    }
+
+    @Autowired
+    public void setChunkStore(final ChunkStore chunkStore) {
+        this.chunkStore = chunkStore;
     }
 
     @Value("${restore.fragmentChunk.size}")
@@ -92,25 +166,64 @@ public class RestoreDataService {
         this.restoreFragmentChunkSize = restoreFragmentChunkSize * 1024;
     }
 
+    /**
+     * Sets the size, in KiB, restore fragment chunks shrink to when the chunk size adapts to the data channel.
+     * @param restoreFragmentChunkMinSize minimum chunk size, in KiB
+     */
+    @Value("${restore.fragmentChunk.minSize:64}")
+    public void setRestoreChunkMinSize(final int restoreFragmentChunkMinSize) {
+        this.restoreFragmentChunkMinSize = restoreFragmentChunkMinSize * 1024;
+    }
+
+    /**
+     * Sets the size, in KiB, restore fragment chunks grow to when the chunk size adapts to the data channel.
+     * @param restoreFragmentChunkMaxSize maximum chunk size, in KiB
+     */
+    @Value("${restore.fragmentChunk.maxSize:4096}")
+    public void setRestoreChunkMaxSize(final int restoreFragmentChunkMaxSize) {
+        this.restoreFragmentChunkMaxSize = restoreFragmentChunkMaxSize * 1024;
+    }
+
+    /**
+     * Sets the memory, in MiB, the restore chunks in flight to all agents may hold before they stop growing.
+     * @param memoryBudgetMiB memory budget, in MiB
+     */
+    @Value("${restore.fragmentChunk.memoryBudgetMiB:64}")
+    public void setRestoreChunkMemoryBudget(final int memoryBudgetMiB) {
+        this.chunkMemoryBudget = new ChunkMemoryBudget(memoryBudgetMiB * 1024L * 1024L);
+    }
+
+    /**
+     * Sets how fragment data files stored on the PVC are read and sent to the agent.
+     * @param restoreTransferMode BUFFERED or MAPPED
+     */
+    @Value("${restore.transferMode:BUFFERED}")
+    public void setRestoreTransferMode(final String restoreTransferMode) {
+        this.restoreTransferMode = RestoreTransferMode.caseSafeOf(restoreTransferMode);
+    }
+
     /**
      * responsible for validating metadata message & checks backup path.
      * @param metadata contains information from which location of the restore files can be determined.
      * @param job responsible for generating file path from metadata information.
+     * @param locations where to look for the fragment.
      */
-    private void validateMessage(final Metadata metadata, final RestoreJob job) {
+    private void validateMessage(final Metadata metadata, final RestoreJob job, final RestoreLocationCache locations) {
         validateMetadataMessage(metadata);
-        pathGuard(job.getFragmentFolder(metadata).getMetadataFile());
-        pathGuard(job.getFragmentFolder(metadata).getDataFileFolder());
+        pathGuard(job.getFragmentFolder(metadata).getMetadataFile(), locations);
+        pathGuard(job.getFragmentFolder(metadata).getDataFileFolder(), locations);
     }
 
     /**
      * checks Backup data path.
      * @param metadata contains information from which location of the restore files can be determined.
      * @param job responsible for generating file path from metadata information.
+     * @param locations where to look for the fragment.
      * @return backup data file path.
      */
-    private Path getBackupFile(final Metadata metadata, final RestoreJob job) {
-        return findFile(job.getFragmentFolder(metadata).getDataFileFolder()).orElseThrow(() -> handleBackupFileNotFound(metadata, job));
+    private Path getBackupFile(final Metadata metadata, final RestoreJob job, final RestoreLocationCache locations) {
+        return locations.findFile(job.getFragmentFolder(metadata).getDataFileFolder())
+                .orElseThrow(() -> handleBackupFileNotFound(metadata, job));
     }
 
     private RestoreLocationDoesNotExistException handleBackupFileNotFound(final Metadata metadata, final RestoreJob job) {
@@ -120,19 +233,6 @@ public class RestoreDataService {
                 "Backup file for fragment <" + fragmentId + "> not found at <" + dataFileFolder + ">");
     }
 
-    /**
-     * Find the file inside this folder.
-     * @param folderLocation the location of the folder
-     * @return the path of the file reside in this folder.
-     */
-    private Optional<Path> findFile(final Path folderLocation) {
-        return provider.list(folderLocation)
-                .stream()
-                .filter(provider::isFile)
-                .sorted(Path::compareTo)
-                .findFirst();
-    }
-
     private void validateMetadataMessage(final Metadata metadata) {
         if (metadata.getAgentId().isEmpty() || metadata.getBackupName().isEmpty() || hasInvalidFragmentInfo(metadata.getFragment())) {
             throw new RestoreLocationDoesNotExistException("Invalid metadata <" + metadata + "> received");
@@ -144,8 +244,8 @@ public class RestoreDataService {
     }
 
 
-    private void pathGuard(final Path filePath) {
-        if (!provider.exists(filePath)) {
+    private void pathGuard(final Path filePath, final RestoreLocationCache locations) {
+        if (!locations.exists(filePath)) {
             throw new RestoreLocationDoesNotExistException("Restore file does not exist at <" + filePath + ">");
         }
     }
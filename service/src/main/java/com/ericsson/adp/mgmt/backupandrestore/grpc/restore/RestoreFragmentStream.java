@@ -11,8 +11,11 @@
  *------------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.backupandrestore.grpc.restore;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.ericsson.adp.mgmt.backupandrestore.exception.TimedOutDataChannelException;
 import com.ericsson.adp.mgmt.data.RestoreData;
@@ -22,20 +25,29 @@ import io.grpc.stub.StreamObserver;
 
 /**
  * Wraps stream of restore data, adding flow control and timeout.
+ * While the stream is not ready, the sending thread is parked until gRPC signals
+ * through the onReady handler that the transport can accept more messages.
  */
 public class RestoreFragmentStream implements StreamObserver<RestoreData> {
 
+    private static final long READINESS_RECHECK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
     private final ServerCallStreamObserver<RestoreData> restoreStream;
     private final int timeToWait;
+    private final Lock readinessLock = new ReentrantLock();
+    private final Condition streamReady = readinessLock.newCondition();
+    private long nanosBlockedOnBackpressure;
 
     /**
      * Creates stream based on existing stream.
+     * Must be created before the service call returns, so the onReady handler can be registered.
      * @param restoreStream restore data stream.
      * @param timeToWait time in seconds to wait.
      */
     public RestoreFragmentStream(final ServerCallStreamObserver<RestoreData> restoreStream, final int timeToWait) {
         this.restoreStream = restoreStream;
         this.timeToWait = timeToWait;
+        this.restoreStream.setOnReadyHandler(this::signalStreamReady);
     }
 
     @Override
@@ -54,12 +66,44 @@ public class RestoreFragmentStream implements StreamObserver<RestoreData> {
         this.restoreStream.onError(throwable);
     }
 
+    /**
+     * Total time the sender was blocked waiting for the stream to be ready.
+     * @return time blocked on backpressure.
+     */
+    public Duration getTimeBlockedOnBackpressure() {
+        return Duration.ofNanos(nanosBlockedOnBackpressure);
+    }
+
     private void waitForStreamToBeReady() {
-        final Instant startWaitingInstant = Instant.now();
-        while (!this.restoreStream.isReady()) {
-            if (ChronoUnit.SECONDS.between(startWaitingInstant, Instant.now()) > this.timeToWait) {
-                throw new TimedOutDataChannelException(this.timeToWait);
+        if (this.restoreStream.isReady()) {
+            return;
+        }
+        final long startWaiting = System.nanoTime();
+        final long deadline = startWaiting + TimeUnit.SECONDS.toNanos(this.timeToWait);
+        readinessLock.lock();
+        try {
+            while (!this.restoreStream.isReady()) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimedOutDataChannelException(this.timeToWait);
+                }
+                streamReady.awaitNanos(Math.min(remaining, READINESS_RECHECK_NANOS));
             }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimedOutDataChannelException(this.timeToWait);
+        } finally {
+            readinessLock.unlock();
+            nanosBlockedOnBackpressure += System.nanoTime() - startWaiting;
+        }
+    }
+
+    private void signalStreamReady() {
+        readinessLock.lock();
+        try {
+            streamReady.signalAll();
+        } finally {
+            readinessLock.unlock();
         }
     }
 
@@ -23,6 +23,7 @@ import org.apache.logging.log4j.Logger;
 import com.ericsson.adp.mgmt.backupandrestore.action.payload.ExportPayload;
 import com.ericsson.adp.mgmt.backupandrestore.agent.discovery.AgentDiscoveryService;
 import com.ericsson.adp.mgmt.backupandrestore.backup.Backup;
+import com.ericsson.adp.mgmt.backupandrestore.backup.BackupFileWriteService;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupLocationService;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupRepository;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupStatus;
@@ -44,6 +45,7 @@ public class CreateBackupJob extends JobWithStages<CreateBackupJob> {
     private BackupLocationService backupLocationService;
     private AgentDiscoveryService agentDiscoveryService;
     private StorageMetadataFileService storageMetadataFileService;
+    private BackupFileWriteService backupFileWriteService;
 
     private final List<CreateActionRequest> postExecActions = new ArrayList<>();
 
@@ -93,7 +95,7 @@ public class CreateBackupJob extends JobWithStages<CreateBackupJob> {
 
     @Override
     public void handleUnexpectedDataChannel(final Metadata metadata) {
-        if (getAgents().stream().anyMatch(agent -> agent.getAgentId().equals(metadata.getAgentId()))) {
+        if (hasAgent(metadata.getAgentId())) {
             handleUnexpectedDataChannel(metadata.getAgentId());
         }
     }
@@ -158,8 +160,7 @@ public class CreateBackupJob extends JobWithStages<CreateBackupJob> {
     }
 
     private boolean metadataBelongsToBackup(final Metadata metadata) {
-        return this.backup.getName().equals(metadata.getBackupName())
-                && this.agents.stream().anyMatch(agent -> agent.getAgentId().equals(metadata.getAgentId()));
+        return this.backup.getName().equals(metadata.getBackupName()) && hasAgent(metadata.getAgentId());
     }
 
     protected void setBackupRepository(final BackupRepository backupRepository) {
@@ -182,4 +183,12 @@ public class CreateBackupJob extends JobWithStages<CreateBackupJob> {
         this.autoDeleteFailures = autoDeleteFailures;
     }
 
+    public BackupFileWriteService getBackupFileWriteService() {
+        return backupFileWriteService;
+    }
+
+    public void setBackupFileWriteService(final BackupFileWriteService backupFileWriteService) {
+        this.backupFileWriteService = backupFileWriteService;
+    }
+
 }
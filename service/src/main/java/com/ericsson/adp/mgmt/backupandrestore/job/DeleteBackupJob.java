@@ -26,6 +26,7 @@ import com.ericsson.adp.mgmt.backupandrestore.backup.Backup;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupLocationService;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupRepository;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupStatus;
+import com.ericsson.adp.mgmt.backupandrestore.backup.dedup.ChunkStore;
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
 import com.ericsson.adp.mgmt.backupandrestore.exception.DeleteBackupException;
 import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProvider;
@@ -40,6 +41,7 @@ public class DeleteBackupJob extends Job {
     private BackupLocationService backupLocationService;
     private BackupRepository backupRepository;
     private Backup backup;
+    private ChunkStore chunkStore;
 
     @Override
     protected void triggerJob() {
@@ -54,6 +56,7 @@ public class DeleteBackupJob extends Job {
 
         deleteBackupFiles();
         backupRepository.deleteBackup(backup, backupManager);
+        collectUnreferencedChunks();
     }
 
     @Override
@@ -123,6 +126,16 @@ public class DeleteBackupJob extends Job {
         }
     }
 
+    /**
+     * The chunks only the deleted backup listed are deleted shortly after it, along with those of the backups deleted
+     * in the meantime.
+     */
+    private void collectUnreferencedChunks() {
+        if (chunkStore != null) {
+            chunkStore.scheduleGarbageCollection();
+        }
+    }
+
     protected void setBackupLocationService(final BackupLocationService backupLocationService) {
         this.backupLocationService = backupLocationService;
     }
@@ -130,4 +143,8 @@ public class DeleteBackupJob extends Job {
     public void setBackupRepository(final BackupRepository backupRepository) {
         this.backupRepository = backupRepository;
     }
+
+    public void setChunkStore(final ChunkStore chunkStore) {
+        this.chunkStore = chunkStore;
+    }
 }
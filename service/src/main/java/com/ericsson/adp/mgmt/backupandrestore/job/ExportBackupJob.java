@@ -64,9 +64,10 @@ public class ExportBackupJob extends Job implements PropertyChangeListener {
                                                                             final Backup backup) {
 
         final ExportPayload payload = ((ExportPayload) action.getPayload());
-        if (payload.hasPassword() && action.isScheduledEvent() && cmKeyPassphraseService.isEnabled()) {
-            payload.setPassword(cmKeyPassphraseService.getPassphrase(payload.getPassword()));
-        }
+        // The payload may be shared with the persisted action it was read from, so the decrypted password is kept apart
+        final String password = payload.hasPassword() && action.isScheduledEvent() && cmKeyPassphraseService.isEnabled()
+                ? cmKeyPassphraseService.getPassphrase(payload.getPassword())
+                : payload.getPassword();
 
         if (payload.hasSftpServerName()) {
             log.info("Creating client properties using the sftp server public key authentication credentials");
@@ -77,7 +78,7 @@ public class ExportBackupJob extends Job implements PropertyChangeListener {
                     backupManager.getBackupManagerId(), backup);
         } else {
             log.info("Creating client properties using the sftp server password credential.");
-            return new ExternalClientExportProperties(payload.getUri().toString(), payload.getPassword(), backupDataLocation, backupFile,
+            return new ExternalClientExportProperties(payload.getUri().toString(), password, backupDataLocation, backupFile,
                     backupManager.getBackupManagerId(), backup);
         }
     }
@@ -18,6 +18,7 @@ import static com.ericsson.adp.mgmt.backupandrestore.action.ResultType.FAILURE;
 import static com.ericsson.adp.mgmt.backupandrestore.action.ResultType.SUCCESS;
 import static com.ericsson.adp.mgmt.backupandrestore.util.ExceptionUtils.getRootCause;
 import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_GRANULAR_OPERATIONS_TOTAL;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_OPERATION_OSMN_REQUESTS_TOTAL;
 import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_OPERATION_STAGE_DURATION_SECONDS;
 import static com.ericsson.adp.mgmt.backupandrestore.util.OSUtils.sleep;
 
@@ -52,6 +53,7 @@ import com.ericsson.adp.mgmt.backupandrestore.job.progress.Progress;
 import com.ericsson.adp.mgmt.backupandrestore.job.stage.JobStageName;
 import com.ericsson.adp.mgmt.backupandrestore.notification.NotificationFailedException;
 import com.ericsson.adp.mgmt.backupandrestore.notification.NotificationService;
+import com.ericsson.adp.mgmt.backupandrestore.persist.S3RequestCount;
 import com.ericsson.adp.mgmt.backupandrestore.rest.action.CreateActionRequest;
 import com.ericsson.adp.mgmt.data.Metadata;
 
@@ -77,6 +79,7 @@ public abstract class Job {
     private S3Config s3Config;
     private JobExecutor jobExecutor;
     private CMMediatorService cmMediatorService;
+    private volatile S3RequestCount osmnRequests;
 
     /**
      * Runs job.
@@ -205,6 +208,8 @@ public abstract class Job {
     private void runJob() {
         final JobMonitor monitor = new JobMonitor(this, JOB_MONITOR_PERIOD_IN_SECONDS);
         removePreviousJobMetrics();
+        osmnRequests = S3RequestCount.start();
+        final S3RequestCount.Binding osmnRequestsOfJobThread = osmnRequests.bind();
         try {
             log.info("Job starting for {} action - <{}>", action.getName(), action.getActionId());
             lockBackup();
@@ -231,9 +236,12 @@ public abstract class Job {
             handleFailure(e);
             failAction(runTimeError);
         } finally {
+            osmnRequests.close();
+            osmnRequestsOfJobThread.close();
             unlockBackup();
             monitor.stop();
             clearRunningJob();
+            actionRepository.forgetProgressReport(action);
             actionRepository.performActionCleanup();
             clearPVCMetricsCache();
         }
@@ -346,6 +354,16 @@ public abstract class Job {
         action.setAdditionalInfo(additionalInfo);
     }
 
+    /**
+     * Counts the requests the calling thread sends to the object store as requests of this job, until the binding is
+     * closed. Used by the threads working for the job other than its own.
+     * @return the binding of the count of the job to the calling thread
+     */
+    public final S3RequestCount.Binding countOsmnRequests() {
+        final S3RequestCount count = osmnRequests;
+        return count == null ? S3RequestCount.Binding.NONE : count.bind();
+    }
+
     /**
      * Mark the action as completed. This is exposed so that job executors that must
      * take some post job execution actions are able to control the time at which the
@@ -424,6 +442,7 @@ public abstract class Job {
     private void buildMetrics(final MeterRegistry registry) {
         action.updateOperationsTotalMetric();
         action.updateLastOperationInfoMetric();
+        updateOsmnRequestsMetric();
         switch (action.getName()) {
             case DELETE_BACKUP:
             case EXPORT:
@@ -447,6 +466,19 @@ public abstract class Job {
     }
 
 
+    private void updateOsmnRequestsMetric() {
+        if (s3Config == null || !s3Config.isEnabled()) {
+            return;
+        }
+        // Counts the requests sent by the job thread and by the threads working for the job meanwhile
+        final long requests = osmnRequests == null ? 0 : osmnRequests.get();
+        log.info("Action {} - <{}> sent <{}> requests to the object store", action.getName(), action.getActionId(), requests);
+        METRIC_BRO_OPERATION_OSMN_REQUESTS_TOTAL.unRegister();
+        Metrics.counter(METRIC_BRO_OPERATION_OSMN_REQUESTS_TOTAL.identification(),
+                "action", action.getName().name(),
+                "backup_type", getBackupManagerId()).increment(requests);
+    }
+
     public void setCmMediatorService(final CMMediatorService cmMediatorService) {
         this.cmMediatorService = cmMediatorService;
     }
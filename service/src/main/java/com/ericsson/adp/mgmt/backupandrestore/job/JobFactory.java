@@ -22,9 +22,11 @@ import com.ericsson.adp.mgmt.backupandrestore.agent.discovery.AgentDiscoveryServ
 import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupExporter;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupFileService;
+import com.ericsson.adp.mgmt.backupandrestore.backup.BackupFileWriteService;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupImporter;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupLocationService;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupRepository;
+import com.ericsson.adp.mgmt.backupandrestore.backup.dedup.ChunkStore;
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.persistence.BackupManagerFileService;
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.persistence.HousekeepingFileService;
@@ -74,6 +76,8 @@ public class JobFactory {
     private NotificationService notificationService;
     private AgentDiscoveryService agentDiscoveryService;
     private StorageMetadataFileService storageMetadataFileService;
+    private BackupFileWriteService backupFileWriteService;
+    private ChunkStore chunkStore;
     private CMMediatorService cmMediatorService;
     private BackupImporter backupImporter;
     private BackupExporter backupExporter;
@@ -147,6 +151,7 @@ public class JobFactory {
             job.setAgents(agents);
             job.setAgentDiscoveryService(agentDiscoveryService);
             job.setStorageMetadataFileService(storageMetadataFileService);
+            job.setBackupFileWriteService(backupFileWriteService);
             job.setAutoDeleteFailures(autoDeleteFailures);
             job.setActionRepository(actionRepository);
             job.setCmMediatorService(cmMediatorService);
@@ -208,6 +213,7 @@ public class JobFactory {
         final DeleteBackupJob job = new DeleteBackupJob();
         job.setBackupLocationService(backupLocationService);
         job.setBackupRepository(backupRepository);
+        job.setChunkStore(chunkStore);
         job.setActionRepository(actionRepository);
         job.setAwsConfig(s3Config);
         job.setCmMediatorService(cmMediatorService);
@@ -245,6 +251,7 @@ public class JobFactory {
         job.setNotificationService(notificationService);
         job.setActionService(actionService);
         job.setActionRepository(actionRepository);
+        job.setAwsConfig(s3Config);
         return job;
     }
 
@@ -312,6 +319,16 @@ public class JobFactory {
         this.storageMetadataFileService = storageMetadataFileService;
     }
 
+    @Autowired
+    public void setBackupFileWriteService(final BackupFileWriteService backupFileWriteService) {
+        this.backupFileWriteService = backupFileWriteService;
+    }
+
+    @Autowired
+    public void setChunkStore(final ChunkStore chunkStore) {
+        this.chunkStore = chunkStore;
+    }
+
     @Autowired
     public void setCmMediatorService(final CMMediatorService cmMediatorService) {
         this.cmMediatorService = cmMediatorService;
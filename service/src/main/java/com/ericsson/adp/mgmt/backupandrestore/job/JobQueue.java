@@ -0,0 +1,100 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.job;
+
+import java.util.Collection;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queue of jobs which can wait for a job to be at its head without removing it, so the job stays in the queue while it
+ * runs and the queue keeps reporting it isn't empty.
+ * Every way of adding to a LinkedBlockingDeque goes through offerFirst, offerLast, putFirst, putLast or addAll, so
+ * these are the only methods signalling the waiting thread.
+ */
+class JobQueue extends LinkedBlockingDeque<JobQueueItem> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ReentrantLock lock = new ReentrantLock();
+    private final transient Condition notEmpty = lock.newCondition();
+
+    /**
+     * Waits until there's a job in the queue, and returns it without removing it.
+     * @return the job at the head of the queue
+     * @throws InterruptedException if interrupted while waiting
+     */
+    JobQueueItem awaitHead() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            JobQueueItem head = peek();
+            while (head == null) {
+                notEmpty.await();
+                head = peek();
+            }
+            return head;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offerFirst(final JobQueueItem item) {
+        return signalIf(super.offerFirst(item));
+    }
+
+    @Override
+    public boolean offerLast(final JobQueueItem item) {
+        return signalIf(super.offerLast(item));
+    }
+
+    @Override
+    public boolean offerFirst(final JobQueueItem item, final long timeout, final TimeUnit unit) throws InterruptedException {
+        return signalIf(super.offerFirst(item, timeout, unit));
+    }
+
+    @Override
+    public boolean offerLast(final JobQueueItem item, final long timeout, final TimeUnit unit) throws InterruptedException {
+        return signalIf(super.offerLast(item, timeout, unit));
+    }
+
+    @Override
+    public void putFirst(final JobQueueItem item) throws InterruptedException {
+        super.putFirst(item);
+        signalIf(true);
+    }
+
+    @Override
+    public void putLast(final JobQueueItem item) throws InterruptedException {
+        super.putLast(item);
+        signalIf(true);
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends JobQueueItem> items) {
+        return signalIf(super.addAll(items));
+    }
+
+    private boolean signalIf(final boolean added) {
+        if (added) {
+            lock.lock();
+            try {
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return added;
+    }
+}
@@ -20,6 +20,7 @@ import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
 class JobQueueItem {
     private final Action action;
     private final BackupManager manager;
+    private final long queuedAt = System.nanoTime();
 
     /**
      * Creates an instance of a JobQueueItem
@@ -38,4 +39,12 @@ class JobQueueItem {
     public BackupManager getManager() {
         return manager;
     }
+
+    /**
+     * Gets when the job was queued
+     * @return {@link System#nanoTime()} when queued
+     */
+    public long getQueuedAt() {
+        return queuedAt;
+    }
 }
\ No newline at end of file
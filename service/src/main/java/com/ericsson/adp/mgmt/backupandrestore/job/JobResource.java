@@ -0,0 +1,185 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.job;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import com.ericsson.adp.mgmt.backupandrestore.SpringContext;
+import com.ericsson.adp.mgmt.backupandrestore.action.Action;
+import com.ericsson.adp.mgmt.backupandrestore.agent.AgentRepository;
+import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
+
+/**
+ * Something a job uses while it runs, either exclusively or shared with other jobs.
+ * Two jobs can run at the same time when none of the resources they use conflict.
+ */
+final class JobResource {
+
+    /**
+     * Kinds of resources used by jobs. The keys of each kind are a namespace of their own: BACKUP_MANAGER_AGENTS is
+     * keyed by the backup manager agents see, AGENT by agent id, so an agent named after a backup manager is distinct.
+     */
+    enum Type {
+        BACKUP_MANAGER, BACKUP, BACKUP_MANAGER_AGENTS, AGENT, EXTERNAL_SERVER
+    }
+
+    // Import and export share the single connection BRO keeps to external servers
+    private static final String EXTERNAL_SERVER_KEY = "sftp";
+
+    private final Type type;
+    private final String key;
+    private final boolean exclusive;
+
+    private JobResource(final Type type, final String key, final boolean exclusive) {
+        this.type = type;
+        this.key = key;
+        this.exclusive = exclusive;
+    }
+
+    /**
+     * Creates a resource no other job can use at the same time
+     * @param type of resource
+     * @param key identifying the resource
+     * @return the resource
+     */
+    static JobResource exclusive(final Type type, final String key) {
+        return new JobResource(type, key, true);
+    }
+
+    /**
+     * Creates a resource other jobs can use at the same time, unless they need it exclusively
+     * @param type of resource
+     * @param key identifying the resource
+     * @return the resource
+     */
+    static JobResource shared(final Type type, final String key) {
+        return new JobResource(type, key, false);
+    }
+
+    /**
+     * Indicates if this resource can't be used at the same time as another one
+     * @param other resource
+     * @return true if both are the same resource and either is used exclusively
+     */
+    boolean conflictsWith(final JobResource other) {
+        return type == other.type && key.equals(other.key) && (exclusive || other.exclusive);
+    }
+
+    /**
+     * Indicates if any resource of a set can't be used at the same time as any resource of another set
+     * @param resources used by a job
+     * @param others used by another job
+     * @return true if the jobs can't run at the same time
+     */
+    static boolean conflict(final Collection<JobResource> resources, final Collection<JobResource> others) {
+        return resources.stream().anyMatch(resource -> others.stream().anyMatch(resource::conflictsWith));
+    }
+
+    /**
+     * Gets the resources used by the job of an action.
+     *
+     * Every action uses its backup manager, exclusively if it removes backups from it.
+     * Backups are identified by the backup manager agents see and the backup name, so actions on a backup manager, its
+     * vBRMs and its configuration backup manager all compete for backups of the same name.
+     * Creating a backup and restoring it need the agents of the backup manager to themselves, and import and export
+     * need the external server connection.
+     * @param manager the action is on
+     * @param action to run
+     * @return the resources used by the job of the action
+     */
+    static List<JobResource> requiredBy(final BackupManager manager, final Action action) {
+        final List<JobResource> resources = new ArrayList<>();
+        switch (action.getName()) {
+            case CREATE_BACKUP:
+                resources.add(shared(Type.BACKUP_MANAGER, manager.getBackupManagerId()));
+                resources.add(exclusive(Type.BACKUP, backupKey(manager, action)));
+                resources.addAll(agents(manager));
+                break;
+            case RESTORE:
+                resources.add(shared(Type.BACKUP_MANAGER, manager.getBackupManagerId()));
+                resources.add(shared(Type.BACKUP, backupKey(manager, action)));
+                resources.addAll(agents(manager));
+                if (isConfigurationBackupManager(manager)) {
+                    // Restoring the configuration of a backup manager resets it
+                    resources.add(exclusive(Type.BACKUP_MANAGER, owner(manager)));
+                }
+                break;
+            case EXPORT:
+                resources.add(shared(Type.BACKUP_MANAGER, manager.getBackupManagerId()));
+                resources.add(shared(Type.BACKUP, backupKey(manager, action)));
+                resources.add(exclusive(Type.EXTERNAL_SERVER, EXTERNAL_SERVER_KEY));
+                break;
+            case IMPORT:
+                resources.add(shared(Type.BACKUP_MANAGER, manager.getBackupManagerId()));
+                resources.add(exclusive(Type.BACKUP, backupKey(manager, action)));
+                resources.add(exclusive(Type.EXTERNAL_SERVER, EXTERNAL_SERVER_KEY));
+                break;
+            default:
+                resources.add(exclusive(Type.BACKUP_MANAGER, manager.getBackupManagerId()));
+                if (action.hasBackupName()) {
+                    resources.add(exclusive(Type.BACKUP, backupKey(manager, action)));
+                }
+                break;
+        }
+        return resources;
+    }
+
+    private static List<JobResource> agents(final BackupManager manager) {
+        final List<JobResource> agents = new ArrayList<>();
+        // Covers agents registering after the action is accepted, and the agents of vBRMs, which share their parent's
+        agents.add(exclusive(Type.BACKUP_MANAGER_AGENTS, manager.getAgentVisibleBRMId()));
+        SpringContext.getBean(AgentRepository.class).ifPresent(repository -> repository.getAgents().stream()
+                .filter(agent -> manager.ownsAgent(agent.getScope(), agent.getAgentId()))
+                .forEach(agent -> agents.add(exclusive(Type.AGENT, agent.getAgentId()))));
+        return agents;
+    }
+
+    private static String backupKey(final BackupManager manager, final Action action) {
+        return owner(manager) + "/" + action.getBackupName();
+    }
+
+    private static String owner(final BackupManager manager) {
+        final String owner = manager.getAgentVisibleBRMId();
+        return isConfigurationBackupManager(manager)
+                ? owner.substring(0, owner.length() - ResetConfigJob.RESET_BRM_SUFFIX.length())
+                : owner;
+    }
+
+    private static boolean isConfigurationBackupManager(final BackupManager manager) {
+        return manager.getAgentVisibleBRMId().endsWith(ResetConfigJob.RESET_BRM_SUFFIX);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, key, exclusive);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final JobResource other = (JobResource) obj;
+        return type == other.type && key.equals(other.key) && exclusive == other.exclusive;
+    }
+
+    @Override
+    public String toString() {
+        return (exclusive ? "exclusive " : "shared ") + type + " <" + key + ">";
+    }
+}
@@ -0,0 +1,154 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.job;
+
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_JOB_QUEUE_WAIT_SECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ericsson.adp.mgmt.backupandrestore.action.Action;
+import com.ericsson.adp.mgmt.backupandrestore.action.ActionFileService;
+import com.ericsson.adp.mgmt.backupandrestore.action.ActionRepository;
+import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
+import com.ericsson.adp.mgmt.backupandrestore.cminterface.CMMediatorService;
+import com.ericsson.adp.mgmt.backupandrestore.rest.action.CreateActionRequest;
+import com.ericsson.adp.mgmt.backupandrestore.util.ExceptionUtils;
+import com.ericsson.adp.mgmt.backupandrestore.util.MetricTags;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs a queued job to completion on the calling thread, on behalf of the execution threads of the executor.
+ */
+class JobRunner {
+
+    private final Logger log = LogManager.getLogger(JobRunner.class);
+
+    private final JobFactory jobFactory;
+    private final ActionRepository actionRepository;
+    private final ActionFileService actionFileService;
+    private final CMMediatorService cmMediatorService;
+    private final CopyOnWriteArrayList<Job> runningJobs;
+
+    /**
+     * Creates a job runner
+     * @param jobFactory the job factory
+     * @param actionRepository the action repository
+     * @param cmMediatorService the CM mediator service
+     * @param actionFileService the action file service
+     * @param runningJobs the list of jobs running on the executor
+     */
+    JobRunner(final JobFactory jobFactory,
+              final ActionRepository actionRepository,
+              final CMMediatorService cmMediatorService,
+              final ActionFileService actionFileService,
+              final CopyOnWriteArrayList<Job> runningJobs) {
+        this.jobFactory = jobFactory;
+        this.actionRepository = actionRepository;
+        this.cmMediatorService = cmMediatorService;
+        this.actionFileService = actionFileService;
+        this.runningJobs = runningJobs;
+    }
+
+    /**
+     * Creates the job of a queued action and runs it, adding it to the running jobs. The job stays in the running jobs
+     * until {@link #finished(Optional)} is called, so the caller can first make the executor able to accept actions.
+     * @param jobInfo the queued action
+     * @param postExecutionQueue where the actions returned by the job are queued, once accepted
+     * @return the job run, if it could be created
+     */
+    Optional<Job> run(final JobQueueItem jobInfo, final Consumer<JobQueueItem> postExecutionQueue) {
+        recordQueueWait(jobInfo);
+        final Optional<Job> newJob = ExceptionUtils.tryCatch(
+            () -> jobFactory.createJob(jobInfo.getManager(), jobInfo.getAction()),
+            e -> log.error("Failed to construct job for action {}, failing", jobInfo.getAction().getActionId(), e)
+        );
+        newJob.ifPresent(toRun -> {
+            runningJobs.add(toRun);
+            log.info("The action {} is running on {}. The running actions on all the threads are {}", toRun.action.getActionId(),
+                      Thread.currentThread().getName(), runningActions());
+            final List<CreateActionRequest> postExecutionActions = new ArrayList<>();
+            ExceptionUtils.tryCatch(toRun::run, e -> log.error("Failed to run action", e)).ifPresent(postExecutionActions::addAll);
+            ExceptionUtils.tryCatch(
+                () -> handlePostExecutionActions(postExecutionActions, toRun.backupManager, postExecutionQueue),
+                e -> log.error("Failed to handle post-execution actions", e)
+            );
+            ExceptionUtils.tryCatch(toRun::completeAction, e -> log.warn("Failed to mark action as complete", e));
+        });
+        return newJob;
+    }
+
+    /**
+     * Removes a job from the running jobs
+     * @param job the job run, if it could be created
+     */
+    void finished(final Optional<Job> job) {
+        job.ifPresent(runningJobs::remove);
+        log.info("The action {} is now removed from the execution queue. The actions running on all the threads are {}",
+                job.isPresent() ? job.get().getActionId() : "", runningActions());
+    }
+
+    private String runningActions() {
+        final Iterable<Job> currentRunningJobs = () -> runningJobs.iterator();
+        String runningActions = StreamSupport.stream(currentRunningJobs.spliterator(), false)
+                                            .map(Job::getActionId)
+                                            .collect(Collectors.joining(","));
+        runningActions = runningActions.isEmpty() ? "none" : runningActions;
+        return runningActions;
+    }
+
+    private void recordQueueWait(final JobQueueItem jobInfo) {
+        ExceptionUtils.tryCatch(() -> {
+            Timer.builder(METRIC_BRO_JOB_QUEUE_WAIT_SECONDS.identification())
+                    .description(METRIC_BRO_JOB_QUEUE_WAIT_SECONDS.description())
+                    .tag(MetricTags.ACTION.identification(), jobInfo.getAction().getName().name())
+                    .register(Metrics.globalRegistry)
+                    .record(System.nanoTime() - jobInfo.getQueuedAt(), TimeUnit.NANOSECONDS);
+        }, e -> log.debug("Failed to record the queue wait of action {}", jobInfo.getAction().getActionId(), e));
+    }
+
+    private void persistAcceptedAction(final Action action, final BackupManager manager) {
+        if (!action.isPartOfHousekeeping()) {
+            cmMediatorService.enqueueProgressReport(action);
+        }
+        // Action won't be persisted if it fails to push to CMM
+        manager.addAction(action);
+        actionFileService.writeToFile(action);
+    }
+
+    /**
+     * As of now, only the Scheduled Create Backup Job has post execution actions which is the auto-export.
+     * This method ensures that the auto-export job is enqueued into the post execution queue.
+     * @param requests the action requests
+     * @param manager the backup manager
+     * @param postExecutionQueue where the actions are queued
+     */
+    private void handlePostExecutionActions(final List<CreateActionRequest> requests, final BackupManager manager,
+                                            final Consumer<JobQueueItem> postExecutionQueue) {
+        requests.stream()
+                .map(r -> actionRepository.createAction(manager, r))
+                .peek(a -> persistAcceptedAction(a, manager))
+                .map(a -> new JobQueueItem(manager, a))
+                .forEach(postExecutionQueue);
+    }
+}
@@ -13,9 +13,11 @@
 package com.ericsson.adp.mgmt.backupandrestore.job;
 
 import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_GRANULAR_STAGE_INFO;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_OPERATION_BACKPRESSURE_WAIT_SECONDS;
 import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_OPERATION_TRANSFERRED_BYTES;
 
 import java.text.MessageFormat;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -35,6 +37,7 @@ import com.ericsson.adp.mgmt.backupandrestore.job.stage.JobStage;
 import com.ericsson.adp.mgmt.control.StageComplete;
 import com.ericsson.adp.mgmt.data.Metadata;
 import com.ericsson.adp.mgmt.backupandrestore.job.progress.Progress;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 
 /**
  * Represents jobs that deal with agents and have stages.
@@ -56,6 +59,7 @@ public abstract class JobWithStages<T extends Job> extends Job {
     protected JobStage<T> jobStage;
     protected Instant stageStartTime = Instant.now();
     private final Map<String, Long> agentChunkSizes = new ConcurrentHashMap<>();
+    private final Map<String, Long> agentBackpressureWaitNanos = new ConcurrentHashMap<>();
 
     /**
      * Where data regarding fragment is stored.
@@ -200,6 +204,15 @@ public abstract class JobWithStages<T extends Job> extends Job {
         return this.agents;
     }
 
+    /**
+     * Indicates if an agent takes part in this job
+     * @param agentId the agent id
+     * @return true if the agent is one of the agents of the job
+     */
+    public boolean hasAgent(final String agentId) {
+        return getAgents().stream().anyMatch(agent -> agent.getAgentId().equals(agentId));
+    }
+
     protected void setAgents(final List<Agent> agents) {
         this.agents = agents;
     }
@@ -208,6 +221,32 @@ public abstract class JobWithStages<T extends Job> extends Job {
         this.jobStage = jobStage;
     }
 
+    /**
+     * Gets the checksum algorithm negotiated with an agent of this job
+     * @param agentId the agent id
+     * @return the checksum algorithm of the agent, or MD5 if the agent is not part of the job
+     */
+    public ChecksumAlgorithm getChecksumAlgorithm(final String agentId) {
+        return getAgents().stream()
+                .filter(agent -> agent.getAgentId().equals(agentId))
+                .findFirst()
+                .map(Agent::getChecksumAlgorithm)
+                .orElse(ChecksumAlgorithm.MD5);
+    }
+
+    /**
+     * Gets the largest restore chunk an agent of this job accepts, if it adapts the chunk size of its data channel
+     * @param agentId the agent id
+     * @return the largest chunk, in bytes, or 0 if the chunk size of the agent is fixed or it is not part of the job
+     */
+    public int getMaxChunkSize(final String agentId) {
+        return getAgents().stream()
+                .filter(agent -> agent.getAgentId().equals(agentId))
+                .findFirst()
+                .map(Agent::getMaxChunkSize)
+                .orElse(0);
+    }
+
     /**
      * Updates transferred chunk size for an agent
      * @param agentId the agent id
@@ -221,6 +260,19 @@ public abstract class JobWithStages<T extends Job> extends Job {
         return agentChunkSizes.getOrDefault(agentId, 0L);
     }
 
+    /**
+     * Updates the time a data channel of an agent was blocked waiting for the agent to accept more data
+     * @param agentId the agent id
+     * @param waitTime time blocked on backpressure by one data channel
+     */
+    public void updateAgentBackpressureWaitTime(final String agentId, final Duration waitTime) {
+        agentBackpressureWaitNanos.merge(agentId, waitTime.toNanos(), (oldValue, newValue) -> oldValue + newValue);
+    }
+
+    private double getAgentBackpressureWaitSeconds(final String agentId) {
+        return agentBackpressureWaitNanos.getOrDefault(agentId, 0L) / 1_000_000_000.0;
+    }
+
     private void logAgentTransferredBytes() {
         agentChunkSizes.forEach( (agent, bytes) -> {
             log.info("Agent <{}> transferred <{}> bytes", agent, bytes);
@@ -256,6 +308,29 @@ public abstract class JobWithStages<T extends Job> extends Job {
                                         AGENT, agent.getAgentId())
                                 .register(meterRegistry);
                     });
+
+                    meterRegistry
+                            .find(METRIC_BRO_OPERATION_BACKPRESSURE_WAIT_SECONDS.identification())
+                            .tag(BACKUP_TYPE, getBackupManagerId())
+                            .tag(JOB_ACTION, getAction().getName().name())
+                            .gauges().forEach(meterRegistry::remove);
+
+                    getAgents().stream()
+                            .filter(agent -> agentBackpressureWaitNanos.containsKey(agent.getAgentId()))
+                            .forEach(agent -> {
+                                // Metric for monitoring time the data channels of each agent were blocked on backpressure
+                                METRIC_BRO_OPERATION_BACKPRESSURE_WAIT_SECONDS.unRegister();
+                                Gauge.builder(METRIC_BRO_OPERATION_BACKPRESSURE_WAIT_SECONDS.identification(),
+                                        () -> getAgentBackpressureWaitSeconds(agent.getAgentId()))
+                                        .description(METRIC_BRO_OPERATION_BACKPRESSURE_WAIT_SECONDS.description())
+                                        .baseUnit("seconds")
+                                        .tags(BACKUP_TYPE, getBackupManagerId(),
+                                                JOB_ACTION, getAction().getName().name(),
+                                                BACKUP_NAME, action.getBackupName(),
+                                                ACTION_ID, this.getActionId(),
+                                                AGENT, agent.getAgentId())
+                                        .register(meterRegistry);
+                            });
                 });
                 break;
             default:
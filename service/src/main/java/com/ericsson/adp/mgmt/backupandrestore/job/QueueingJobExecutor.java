@@ -19,7 +19,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -47,6 +46,10 @@ import com.ericsson.adp.mgmt.backupandrestore.util.ExceptionUtils;
  *  - Ensures only one job is running at a time (job lock handling no longer necessary)
  *  - Supports "tail call" behaviour - jobs queuing other actions after they finish, e.g. housekeeping, auto_export
  *  - Ensures "tail call" actions executed before any unrelated queued actions
+ *
+ * With resource based scheduling enabled, actions are instead queued up to a configured depth and run on a number of
+ * slots, as long as none of the resources they need conflict, see {@link ResourceJobScheduler}. Otherwise one action
+ * runs at a time, or two with limited parallel actions enabled, and actions are rejected while they can't run.
  * */
 @Service
 public class QueueingJobExecutor implements JobExecutor {
@@ -54,12 +57,13 @@ public class QueueingJobExecutor implements JobExecutor {
     private final Logger log = LogManager.getLogger(QueueingJobExecutor.class);
 
     // The mainQueue has the CREATE_BACKUP, RESTORE, DELETE and HOUSEKEEPING actions
-    private final BlockingDeque<JobQueueItem> mainQueue;
+    private final JobQueue mainQueue;
 
     // The sftpServerJobQueue has the IMPORT and EXPORT actions
-    private final BlockingDeque<JobQueueItem> sftpServerJobQueue;
+    private final JobQueue sftpServerJobQueue;
     private final CopyOnWriteArrayList<Job> runningJobs;
     private final AtomicBoolean isLimitedParallelActionsEnabled;
+    private final ResourceJobScheduler scheduler;
     private Thread mainThread;
     private Thread sftpServerJobThread;
     private JobFactory jobFactory;
@@ -67,6 +71,23 @@ public class QueueingJobExecutor implements JobExecutor {
     private ActionFileService actionFileService;
     private CMMediatorService cmMediatorService;
 
+    /**
+     * Creates a QueueingJobExecutor running one action at a time, or two with limited parallel actions enabled,
+     * and rejecting actions while they can't run.
+     * @param jobFactory the job factory
+     * @param actionRepository the action repository
+     * @param actionFileService the action file service
+     * @param cmMediatorService the CM mediator service
+     * @param isLimitedParallelActionsEnabled the flag to enable limited parallel actions
+     */
+    public QueueingJobExecutor(final JobFactory jobFactory,
+                              final ActionRepository actionRepository,
+                              final ActionFileService actionFileService,
+                              final CMMediatorService cmMediatorService,
+                              final boolean isLimitedParallelActionsEnabled) {
+        this(jobFactory, actionRepository, actionFileService, cmMediatorService, isLimitedParallelActionsEnabled, false, 1, 0);
+    }
+
     /**
      * Constructor used by spring boot to construct a QueueingJobExecutor bean.
      * The dependencies are injected through the constructor to ensure
@@ -82,27 +103,43 @@ public class QueueingJobExecutor implements JobExecutor {
      * @param actionFileService the action file service
      * @param cmMediatorService the CM mediator service
      * @param isLimitedParallelActionsEnabled the flag to enable limited parallel actions
+     * @param isResourceBasedSchedulingEnabled the flag to enable resource based scheduling, which takes precedence
+     * @param schedulerSlots how many actions can run at the same time with resource based scheduling
+     * @param schedulerQueueDepth how many actions can wait to run with resource based scheduling
      */
     @Autowired
     public QueueingJobExecutor(@Lazy final JobFactory jobFactory,
                               final ActionRepository actionRepository,
                               final ActionFileService actionFileService,
                               final CMMediatorService cmMediatorService,
-                              @Value("${flag.enable.enableLimitedParallelActions:false}") final boolean isLimitedParallelActionsEnabled) {
+                              @Value("${flag.enable.enableLimitedParallelActions:false}") final boolean isLimitedParallelActionsEnabled,
+                              @Value("${flag.enable.resourceBasedScheduling:false}") final boolean isResourceBasedSchedulingEnabled,
+                              @Value("${jobs.scheduler.slots:4}") final int schedulerSlots,
+                              @Value("${jobs.scheduler.queueDepth:10}") final int schedulerQueueDepth) {
         this.jobFactory = jobFactory;
         this.actionRepository = actionRepository;
         this.actionFileService = actionFileService;
         this.cmMediatorService = cmMediatorService;
         runningJobs = new CopyOnWriteArrayList<>();
         this.isLimitedParallelActionsEnabled = new AtomicBoolean(isLimitedParallelActionsEnabled);
-        mainQueue = new LinkedBlockingDeque<>();
+        mainQueue = new JobQueue();
 
+        if (isResourceBasedSchedulingEnabled) {
+            scheduler = new ResourceJobScheduler(
+                    new JobRunner(jobFactory, actionRepository, cmMediatorService, actionFileService, runningJobs),
+                    schedulerSlots, schedulerQueueDepth);
+            sftpServerJobQueue = null;
+            mainThread = null;
+            sftpServerJobThread = null;
+            return;
+        }
+        scheduler = null;
         if (this.isLimitedParallelActionsEnabled.get()) {
            /**
             * Create an additional queue and thread which will handle the import/export action.
             * This means, any auto-export is added to the sftpServerJobqueue.
             */
-            sftpServerJobQueue = new LinkedBlockingDeque<>();
+            sftpServerJobQueue = new JobQueue();
             mainThread = new Thread(getExecuteLoop(mainQueue, sftpServerJobQueue));
             sftpServerJobThread = new Thread(getExecuteLoop(sftpServerJobQueue, sftpServerJobQueue));
             sftpServerJobThread.start();
@@ -124,7 +161,7 @@ public class QueueingJobExecutor implements JobExecutor {
      * @param postExecActionsJobQueue the queue where any post-exec actions (ie the auto-export actions) are put into.
      * @return a JobExecuteLoop runnable.
      */
-    private JobExecuteLoop getExecuteLoop(final BlockingDeque<JobQueueItem> queue,
+    private JobExecuteLoop getExecuteLoop(final JobQueue queue,
                                           final BlockingDeque<JobQueueItem> postExecActionsJobQueue) {
         return new JobExecuteLoop(queue,
                 postExecActionsJobQueue,
@@ -140,7 +177,9 @@ public class QueueingJobExecutor implements JobExecutor {
      * */
     @Override
     public void execute(final BackupManager backupManager, final Action action) {
-        if (isLimitedParallelActionsEnabled.get()) {
+        if (scheduler != null) {
+            scheduleAction(backupManager, action);
+        } else if (isLimitedParallelActionsEnabled.get()) {
             queueParallelAction(backupManager, action);
         } else {
             queueAction(backupManager, action);
@@ -214,6 +253,16 @@ public class QueueingJobExecutor implements JobExecutor {
         }
     }
 
+    /**
+     * Queues an action to run once a slot is free and none of the resources it needs are in use. The action is
+     * rejected if as many actions as allowed are already waiting, and it can't run right away.
+     * */
+    private void scheduleAction(final BackupManager manager, final Action newAction) {
+        if (!scheduler.offer(new JobQueueItem(manager, newAction), () -> persistAcceptedAction(newAction, manager))) {
+            rejectAction(newAction);
+        }
+    }
+
     /**
      * Checks the actions in the queues, and, if they're empty, adds an action to one of the queues.
      * An action can be queued in one of the two queues:
@@ -339,7 +388,8 @@ public class QueueingJobExecutor implements JobExecutor {
         final String failureMessage = newAction.getName() +
                 " action did not execute because another action " + runningActionIds + "is already running. "
                 + (isLimitedParallelActionsEnabled.get() ? newAction.getName() +
-                " cannot be executed in parallel as a conflict scenario was detected." : "");
+                " cannot be executed in parallel as a conflict scenario was detected." : "")
+                + (scheduler != null ? "The maximum number of actions waiting to run has been reached." : "");
         throw new AnotherActionRunningException(failureMessage);
     }
 
@@ -348,6 +398,9 @@ public class QueueingJobExecutor implements JobExecutor {
      * always be running, as long as BRO is attempting to execute jobs.
      * */
     private synchronized void restartExecutionIfNecessary() {
+        if (mainThread == null) {
+            return;
+        }
         if (!mainThread.isAlive()) {
             mainThread = new Thread(getExecuteLoop(mainQueue,
                                                    isLimitedParallelActionsEnabled.get() ? sftpServerJobQueue : mainQueue));
@@ -0,0 +1,159 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.job;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs queued jobs on a fixed number of slots, starting a job as soon as a slot is free and none of the resources it
+ * needs conflict with the resources of a running job.
+ *
+ * Jobs of the same backup manager start in the order they were queued. A queued job also holds back later jobs it
+ * conflicts with, so a job waiting for a busy resource isn't starved by jobs arriving after it. When jobs of several
+ * backup managers could start, the one of the backup manager with the fewest running jobs starts first.
+ */
+class ResourceJobScheduler {
+
+    private static final Logger log = LogManager.getLogger(ResourceJobScheduler.class);
+
+    private final JobRunner jobRunner;
+    private final int slots;
+    private final int maxQueued;
+    private final ExecutorService executor;
+    private final List<ScheduledJob> queued = new ArrayList<>();
+    private final List<ScheduledJob> running = new ArrayList<>();
+
+    /**
+     * Creates a scheduler
+     * @param jobRunner runs the jobs
+     * @param slots how many jobs can run at the same time
+     * @param maxQueued how many jobs can wait for a slot or a resource before new jobs are rejected
+     */
+    ResourceJobScheduler(final JobRunner jobRunner, final int slots, final int maxQueued) {
+        this.jobRunner = jobRunner;
+        this.slots = Math.max(1, slots);
+        this.maxQueued = Math.max(0, maxQueued);
+        final AtomicInteger slot = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.slots, runnable -> {
+            final Thread thread = new Thread(runnable, "job-slot-" + slot.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a job, unless the queue is full and the job can't start right away.
+     * @param item the action to run
+     * @param onAccepted called before the job is queued, if it's accepted
+     * @return true if the job was queued, false if it was rejected
+     */
+    synchronized boolean offer(final JobQueueItem item, final Runnable onAccepted) {
+        final ScheduledJob job = new ScheduledJob(item);
+        if (queued.size() >= maxQueued && !(running.size() < slots && canStart(job, queued, queuedManagers()))) {
+            log.info("Rejected action {}, {} actions already waiting to run", item.getAction().getActionId(), queued.size());
+            return false;
+        }
+        onAccepted.run();
+        queued.add(job);
+        log.info("Queued action {} needing {}", item.getAction().getActionId(), job.resources);
+        dispatch();
+        return true;
+    }
+
+    /**
+     * Queues a job ahead of every other queued job, however many jobs are queued. Used for the actions jobs return
+     * to be run after them.
+     * @param item the action to run
+     */
+    synchronized void offerFirst(final JobQueueItem item) {
+        queued.add(0, new ScheduledJob(item));
+        dispatch();
+    }
+
+    private synchronized void dispatch() {
+        while (running.size() < slots) {
+            final Optional<ScheduledJob> next = nextJob();
+            if (next.isEmpty()) {
+                return;
+            }
+            queued.remove(next.get());
+            running.add(next.get());
+            executor.execute(() -> run(next.get()));
+        }
+    }
+
+    private Optional<ScheduledJob> nextJob() {
+        final List<ScheduledJob> earlier = new ArrayList<>();
+        final Set<String> managersSeen = new HashSet<>();
+        ScheduledJob next = null;
+        long nextManagerRunning = Long.MAX_VALUE;
+        for (final ScheduledJob job : queued) {
+            if (canStart(job, earlier, managersSeen)) {
+                final long managerRunning = running.stream().filter(other -> other.managerId.equals(job.managerId)).count();
+                if (managerRunning < nextManagerRunning) {
+                    next = job;
+                    nextManagerRunning = managerRunning;
+                }
+            }
+            earlier.add(job);
+            managersSeen.add(job.managerId);
+        }
+        return Optional.ofNullable(next);
+    }
+
+    private Set<String> queuedManagers() {
+        return queued.stream().map(job -> job.managerId).collect(Collectors.toSet());
+    }
+
+    private boolean canStart(final ScheduledJob job, final List<ScheduledJob> earlier, final Set<String> managersSeen) {
+        return !managersSeen.contains(job.managerId)
+                && running.stream().noneMatch(other -> JobResource.conflict(job.resources, other.resources))
+                && earlier.stream().noneMatch(other -> JobResource.conflict(job.resources, other.resources));
+    }
+
+    private void run(final ScheduledJob job) {
+        Optional<Job> ran = Optional.empty();
+        try {
+            ran = jobRunner.run(job.item, this::offerFirst);
+        } finally {
+            // The job leaves the running jobs of the executor before a job waiting for its resources starts
+            jobRunner.finished(ran);
+            synchronized (this) {
+                running.remove(job);
+                dispatch();
+            }
+        }
+    }
+
+    private static class ScheduledJob {
+        private final JobQueueItem item;
+        private final String managerId;
+        private final List<JobResource> resources;
+
+        ScheduledJob(final JobQueueItem item) {
+            this.item = item;
+            this.managerId = item.getManager().getBackupManagerId();
+            this.resources = JobResource.requiredBy(item.getManager(), item.getAction());
+        }
+    }
+}
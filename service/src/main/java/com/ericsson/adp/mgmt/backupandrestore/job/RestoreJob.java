@@ -11,10 +11,18 @@
  *------------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.backupandrestore.job;
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -31,11 +39,13 @@ import com.ericsson.adp.mgmt.backupandrestore.exception.AgentsNotAvailableExcept
 import com.ericsson.adp.mgmt.backupandrestore.exception.RestoreDownloadException;
 import com.ericsson.adp.mgmt.backupandrestore.exception.SemanticVersionNullValueException;
 import com.ericsson.adp.mgmt.backupandrestore.exception.UnauthorizedDataChannelException;
+import com.ericsson.adp.mgmt.backupandrestore.persist.S3RequestCount;
 import com.ericsson.adp.mgmt.backupandrestore.productinfo.ProductInfoService;
 import com.ericsson.adp.mgmt.backupandrestore.productinfo.exception.UnableToRetrieveDataFromConfigmapException;
 import com.ericsson.adp.mgmt.backupandrestore.productinfo.exception.UnsupportedSoftwareVersionException;
 import com.ericsson.adp.mgmt.backupandrestore.restore.FragmentFileService;
 import com.ericsson.adp.mgmt.backupandrestore.restore.RestoreInformation;
+import com.ericsson.adp.mgmt.backupandrestore.restore.RestoreLocationCache;
 import com.ericsson.adp.mgmt.data.Metadata;
 
 import io.kubernetes.client.openapi.ApiException;
@@ -50,11 +60,15 @@ public class RestoreJob extends JobWithStages<RestoreJob> {
     private static final String EXACT_MATCH_TYPE = "EXACT_MATCH";
     private static final String LIST_MATCH_TYPE = "LIST";
     private static final String GREATER_THAN_MATCH_TYPE = "GREATER_THAN";
+    private static final int PREFETCH_THREADS = 2;
+    // The prefetches block on walking the backup, so they share a small pool of their own rather than the common pool
+    private static final ExecutorService PREFETCH_EXECUTOR = createPrefetchExecutor();
     private BackupLocationService backupLocationService;
     private FragmentFileService fragmentFileService;
     private Backup backup;
     private ProductInfoService productInfoService;
     private boolean backupCorrupted;
+    private CompletableFuture<RestoreLocationCache> restoreLocations;
 
     /**
      * creates restoreInformation for the restore action for agent.
@@ -85,10 +99,26 @@ public class RestoreJob extends JobWithStages<RestoreJob> {
         if (!metadataBelongsToBackup(metadata)) {
             throw new UnauthorizedDataChannelException(backup.getBackupId(), metadata);
         }
-        if (isVbrmRestoringParentBackup()) {
-            return backupLocationService.getFragmentFolder(metadata, backupManager.getAgentVisibleBRMId(), backup.getName());
-        } else {
-            return backupLocationService.getFragmentFolder(metadata, backupManager.getBackupManagerId(), backup.getName());
+        return backupLocationService.getFragmentFolder(metadata, getBackupOwnerId(), backup.getName());
+    }
+
+    /**
+     * The locations of the fragments of the backup, prefetched when the job was triggered.
+     * Waits for the prefetch if it is still running.
+     * @return the prefetched locations, or empty if they couldn't be prefetched
+     */
+    public Optional<RestoreLocationCache> getRestoreLocations() {
+        if (restoreLocations == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(restoreLocations.get());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (final ExecutionException e) {
+            log.debug("Restore locations were not prefetched", e);
+            return Optional.empty();
         }
     }
 
@@ -96,10 +126,41 @@ public class RestoreJob extends JobWithStages<RestoreJob> {
     protected void triggerJob() {
         backup = backupManager.getBackup(action.getBackupName(), Ownership.READABLE);
         validate();
+        prefetchRestoreLocations();
         buildJobPerfMetric();
         jobStage.trigger();
     }
 
+    private void prefetchRestoreLocations() {
+        final String backupName = action.getBackupName();
+        final RestoreLocationCache cache = backupLocationService.getRestoreLocationCache(getBackupOwnerId(), backupName);
+        // Runs while the agents prepare, so it's usually done before the first data channel opens
+        restoreLocations = CompletableFuture.supplyAsync(() -> {
+            try (S3RequestCount.Binding osmnRequests = countOsmnRequests()) {
+                return cache.prefetch();
+            } catch (final IOException e) {
+                log.warn("Failed to prefetch the locations of backup <{}>, they will be looked up per fragment", backupName, e);
+                return null;
+            }
+        }, PREFETCH_EXECUTOR);
+    }
+
+    private static ExecutorService createPrefetchExecutor() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(PREFETCH_THREADS, PREFETCH_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable, "restore-location-prefetch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private String getBackupOwnerId() {
+        return isVbrmRestoringParentBackup() ? backupManager.getAgentVisibleBRMId() : backupManager.getBackupManagerId();
+    }
+
     @Override
     protected void completeJob() {
         forceResetCM();
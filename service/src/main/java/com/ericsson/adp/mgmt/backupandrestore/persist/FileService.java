@@ -17,8 +17,10 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
@@ -29,6 +31,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.ericsson.adp.mgmt.backupandrestore.persist.PersistedObjectCache.Entry;
 import com.ericsson.adp.mgmt.backupandrestore.persist.version.Version;
 import com.ericsson.adp.mgmt.backupandrestore.persist.version.Versioned;
 import org.apache.logging.log4j.LogManager;
@@ -53,6 +56,7 @@ public abstract class FileService<T extends Versioned<T>> {
 
     protected JsonService jsonService;
     protected PersistProvider provider;
+    private final PersistedObjectCache<T> objectCache = new PersistedObjectCache<>();
 
     /**
      * Default FileService constructor, defaults to relying on PVC provider
@@ -75,6 +79,7 @@ public abstract class FileService<T extends Versioned<T>> {
         file = version.fromBase(file);
         final Path toFolder = file.getParent();
         provider.write(toFolder, file, content);
+        objectCache.written(file, new String(content), version);
     }
 
     /**
@@ -129,8 +134,7 @@ public abstract class FileService<T extends Versioned<T>> {
      */
     protected List<T> readObjectsFromFiles(final Path rootFolder, final Function<Path, T> defaultSupplier, final boolean order) {
         try {
-            final int depth = getVersions().stream().mapToInt(v -> v.fromDepth(getMaximumDepth())).max().orElse(getMaximumDepth());
-            return provider.walk(rootFolder, depth, order)
+            return provider.walk(rootFolder, getWalkDepth(), order)
                     .map(p -> getOrDefault(defaultSupplier, rootFolder, p))
                     .filter(Objects::nonNull)
                     .collect(Collectors.toList());
@@ -144,6 +148,72 @@ public abstract class FileService<T extends Versioned<T>> {
     }
 
 
+    /**
+     * Read all files as objects under the passed path, like readObjectsFromFiles, keeping the objects read in memory.
+     * Only the files modified since they were last read or written by this service are read and parsed again, as long as
+     * the persistence layer can tell the revisions of files. Otherwise, every file is read.
+     * The objects returned are shared between calls, so they must not be modified.
+     *
+     * @param rootFolder where to start reading from.
+     * @param defaultSupplier A callback that returns a default object of type T when the file can't be parsed into JSON
+     * @return objects read from files.
+     */
+    protected List<T> readCachedObjectsFromFiles(final Path rootFolder, final Function<Path, T> defaultSupplier) {
+        try {
+            final Optional<Map<Path, String>> revisions = provider.getFileRevisions(rootFolder, getWalkDepth());
+            if (revisions.isEmpty()) {
+                return readObjectsFromFiles(rootFolder, defaultSupplier);
+            }
+            final Map<Path, Entry<T>> entries = objectCache.getEntries(rootFolder);
+            final List<Path> found = new ArrayList<>();
+            final List<T> objects = new ArrayList<>();
+            revisions.get().forEach((file, revision) -> {
+                final Path path = PersistedObjectCache.normalize(file);
+                final Entry<T> cached = entries.get(path);
+                final Entry<T> current;
+                if (cached == null || !cached.isCurrent(revision)) {
+                    current = Entry.read(revision, getOrDefault(defaultSupplier, rootFolder, file));
+                } else if (cached.isWritten()) {
+                    current = Entry.read(revision, parseWritten(cached, defaultSupplier, rootFolder, file));
+                } else {
+                    current = cached;
+                }
+                // A file written meanwhile keeps what was written, rather than what was read before
+                if (cached == null) {
+                    entries.putIfAbsent(path, current);
+                } else if (current != cached) {
+                    entries.replace(path, cached, current);
+                }
+                found.add(path);
+                if (current.getValue() != null) {
+                    objects.add(current.getValue());
+                }
+            });
+            entries.keySet().retainAll(found);
+            return objects;
+        } catch (final FilePersistenceException e) {
+            logger.error("File handling error while reading files of persisted objects", e);
+            throw e;
+        } catch (final Exception e) {
+            logger.error("Error handling objects persisted as files", e);
+            throw new FilePersistenceException(e);
+        }
+    }
+
+    private T parseWritten(final Entry<T> written, final Function<Path, T> defaultSupplier, final Path rootFolder, final Path filePath) {
+        final Version<T> version = written.getVersion();
+        final Optional<T> value = version.filterFile(filePath) ? version.parse(written.getContent()) : Optional.empty();
+        if (value.isEmpty()) {
+            return getOrDefault(defaultSupplier, rootFolder, filePath);
+        }
+        value.get().setVersion(version);
+        return value.get();
+    }
+
+    private int getWalkDepth() {
+        return getVersions().stream().mapToInt(v -> v.fromDepth(getMaximumDepth())).max().orElse(getMaximumDepth());
+    }
+
     private T getOrDefault(final Function<Path, T> defaultSupplier, final Path rootFolder, final Path filePath) {
         // This is the nicest way I could figure out how to do this - you can probably do better
         boolean passedFilter = false;
@@ -312,6 +382,7 @@ public abstract class FileService<T extends Versioned<T>> {
      * */
     public void delete(final Path path) throws IOException {
         provider.delete(path);
+        objectCache.deleted(path);
     }
 
     /**
@@ -330,6 +401,7 @@ public abstract class FileService<T extends Versioned<T>> {
                         logger.error("Failed to delete the path/object {}", file);
                     }
                 });
+            objectCache.deleted(path);
         } else {
             logger.error("The path <{}> is not a directory", path);
         }
@@ -395,5 +467,6 @@ public abstract class FileService<T extends Versioned<T>> {
     @Autowired
     public void setProvider(final PersistProviderFactory configuration) {
         provider = configuration.getPersistProvider();
+        objectCache.clear();
     }
 }
\ No newline at end of file
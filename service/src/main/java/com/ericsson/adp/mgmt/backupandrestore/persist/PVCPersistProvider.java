@@ -14,16 +14,22 @@ package com.ericsson.adp.mgmt.backupandrestore.persist;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -69,6 +75,22 @@ public class PVCPersistProvider extends PersistProvider {
         return Files.walk(rootFolder, maxDepth);
     }
 
+    @Override
+    public Optional<Map<Path, String>> getFileRevisions(final Path rootFolder, final int maxDepth) throws IOException {
+        final Map<Path, String> revisions = new LinkedHashMap<>();
+        // The modification time and size are read together, so this costs a single stat per file
+        Files.walkFileTree(rootFolder, Set.of(), maxDepth, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    revisions.put(file, attributes.lastModifiedTime().toMillis() + "-" + attributes.size());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return Optional.of(revisions);
+    }
+
     /*
      * Due Files is a final classes it can't work properly in junit
      */
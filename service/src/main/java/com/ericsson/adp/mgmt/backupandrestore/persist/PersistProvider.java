@@ -17,6 +17,8 @@ import java.io.OutputStream;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
@@ -78,6 +80,20 @@ public abstract class PersistProvider {
      * */
     public abstract Stream<Path> walk(Path path, int maxDepth, boolean ordered) throws IOException;
 
+    /**
+     * Get the revision of every file found below path, up to maxDepth. A revision is an opaque value which changes
+     * whenever the file is modified, which lets the contents of files kept in memory be revalidated without reading
+     * them again. Persist providers which can't tell revisions return an empty Optional, in which case files have to
+     * be read every time.
+     * @param path - the path to start the walk from
+     * @param maxDepth - the maximum depth to traverse to during the walk
+     * @throws IOException - if an I/O error is thrown when accessing the underlying persistence layer.
+     * @return the revisions of the files found, by path, in walk order
+     * */
+    public Optional<Map<Path, String>> getFileRevisions(final Path path, final int maxDepth) throws IOException {
+        return Optional.empty();
+    }
+
     /**
      * Read a given persisted object and return the string contents in the persist layer
      * @param path - the location of the object to read
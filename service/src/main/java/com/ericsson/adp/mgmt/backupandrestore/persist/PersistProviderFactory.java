@@ -16,11 +16,17 @@ import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3MultipartClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Persistence provider configuration class, used as factory service for persistence providers
  * */
 @Configuration
 public class PersistProviderFactory {
+    // Shared by the providers of every factory, so a write through any provider drops the listings all of them read
+    private static final Map<String, S3ListingCache> LISTINGS = new ConcurrentHashMap<>();
+
     private S3Config s3Config;
 
     /**
@@ -28,9 +34,20 @@ public class PersistProviderFactory {
      * @return a persistence provider configured using the passed FileService
      * */
     public PersistProvider getPersistProvider() {
-        return (s3Config != null && s3Config.isEnabled()) ?
-                new S3PersistProvider(new S3MultipartClient(s3Config)) :
-                new PVCPersistProvider();
+        if (s3Config != null && s3Config.isEnabled()) {
+            final S3MultipartClient client = new S3MultipartClient(s3Config);
+            return new S3PersistProvider(client, getListings(client.getDefaultBucketName()));
+        }
+        return new PVCPersistProvider();
+    }
+
+    /**
+     * Get the listings of a bucket, shared by all the providers of the bucket
+     * @param bucket the name of the bucket
+     * @return the listings of the bucket
+     */
+    static S3ListingCache getListings(final String bucket) {
+        return LISTINGS.computeIfAbsent(bucket, name -> new S3ListingCache(S3PersistProvider.LISTING_TTL));
     }
 
     @Autowired
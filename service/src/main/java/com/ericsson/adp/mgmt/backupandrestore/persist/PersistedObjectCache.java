@@ -0,0 +1,144 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.persist;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ericsson.adp.mgmt.backupandrestore.persist.version.Version;
+import com.ericsson.adp.mgmt.backupandrestore.persist.version.Versioned;
+
+/**
+ * Objects read from the files of some folders, kept with the revision of the file they were read from.
+ * A folder is tracked once it has been read through the cache. From then on, writes to its files are kept as they are
+ * written, and deletes are forgotten, so the next read of the folder only parses the files modified by someone else.
+ * @param <T> Persisted Class
+ */
+class PersistedObjectCache<T extends Versioned<T>> {
+
+    private final Map<Path, Map<Path, Entry<T>>> entriesByFolder = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the entries of a folder, and starts tracking it if it wasn't yet.
+     * @param folder the root folder of the files
+     * @return the entries of the files under the folder, by path
+     */
+    Map<Path, Entry<T>> getEntries(final Path folder) {
+        return entriesByFolder.computeIfAbsent(normalize(folder), path -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Keeps the content written to a file, if the file is under a tracked folder.
+     * Its revision is unknown until the folder is next read, where the revision found is taken as the one written.
+     * @param file the file written
+     * @param content the content written
+     * @param version the version the content was written as
+     */
+    void written(final Path file, final String content, final Version<T> version) {
+        final Path path = normalize(file);
+        findEntries(path).ifPresent(entries -> entries.put(path, Entry.written(content, version)));
+    }
+
+    /**
+     * Forgets a file, or everything under a folder.
+     * @param path the file or folder deleted
+     */
+    void deleted(final Path path) {
+        final Path normalized = normalize(path);
+        entriesByFolder.keySet().removeIf(folder -> folder.startsWith(normalized));
+        findEntries(normalized).ifPresent(entries -> entries.keySet().removeIf(file -> file.startsWith(normalized)));
+    }
+
+    /**
+     * Stops tracking every folder.
+     */
+    void clear() {
+        entriesByFolder.clear();
+    }
+
+    private Optional<Map<Path, Entry<T>>> findEntries(final Path path) {
+        for (Path folder = path.getParent(); folder != null; folder = folder.getParent()) {
+            final Map<Path, Entry<T>> entries = entriesByFolder.get(folder);
+            if (entries != null) {
+                return Optional.of(entries);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @param path to normalize
+     * @return the absolute, normalized path, which files are kept by
+     */
+    static Path normalize(final Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * A file of a tracked folder, either as it was read, or as it was written.
+     * @param <T> Persisted Class
+     */
+    static final class Entry<T extends Versioned<T>> {
+        private final String revision;
+        private final T value;
+        private final String content;
+        private final Version<T> version;
+
+        private Entry(final String revision, final T value, final String content, final Version<T> version) {
+            this.revision = revision;
+            this.value = value;
+            this.content = content;
+            this.version = version;
+        }
+
+        /**
+         * @param revision of the file read
+         * @param value read from the file, or null if the file doesn't hold an object
+         * @param <T> Persisted Class
+         * @return entry of the file read
+         */
+        static <T extends Versioned<T>> Entry<T> read(final String revision, final T value) {
+            return new Entry<>(revision, value, null, null);
+        }
+
+        private static <T extends Versioned<T>> Entry<T> written(final String content, final Version<T> version) {
+            return new Entry<>(null, null, content, version);
+        }
+
+        /**
+         * @param currentRevision the revision the file has now
+         * @return true if the file wasn't modified since it was read, or if it was written since
+         */
+        boolean isCurrent(final String currentRevision) {
+            return revision == null || revision.equals(currentRevision);
+        }
+
+        boolean isWritten() {
+            return content != null;
+        }
+
+        T getValue() {
+            return value;
+        }
+
+        String getContent() {
+            return content;
+        }
+
+        Version<T> getVersion() {
+            return version;
+        }
+    }
+
+}
@@ -14,6 +14,7 @@ package com.ericsson.adp.mgmt.backupandrestore.persist;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.function.IntSupplier;
 import java.util.function.ObjIntConsumer;
 
 /**
@@ -43,14 +44,37 @@ public class ProcessChunksUtil {
     public static long processStreamChunks(final InputStream inputStream,
                                            final ObjIntConsumer<byte[]> chunkConsumer,
                                            final int fileChunkSize) throws IOException {
+        return processStreamChunks(inputStream, chunkConsumer, () -> fileChunkSize);
+    }
+
+    /**
+     * Gives chunks of bytes from the given inputStream, in chunks whose size may change between chunks
+     *
+     * @param inputStream
+     *            the inputStream as the content to be consumed
+     * @param chunkConsumer
+     *            Consume file in chunks
+     * @param fileChunkSize
+     *            supplies the file chunk size, in bytes, before each chunk is read
+     * @throws IOException
+     *             check file exists
+     * @return the number of bytes processed
+     */
+    public static long processStreamChunks(final InputStream inputStream,
+                                           final ObjIntConsumer<byte[]> chunkConsumer,
+                                           final IntSupplier fileChunkSize) throws IOException {
         long processed = 0;
         try (BufferedInputStream fileStream = new BufferedInputStream(inputStream)) {
-            final byte[] chunk = new byte[fileChunkSize];
+            byte[] chunk = new byte[fileChunkSize.getAsInt()];
             int bytesReadInChunk;
 
-            while ((bytesReadInChunk = fileStream.read(chunk, 0, fileChunkSize)) != NO_BYTES_READ) {
+            while ((bytesReadInChunk = fileStream.read(chunk, 0, chunk.length)) != NO_BYTES_READ) {
                 chunkConsumer.accept(chunk, bytesReadInChunk);
                 processed += bytesReadInChunk;
+                final int nextChunkSize = fileChunkSize.getAsInt();
+                if (nextChunkSize != chunk.length) {
+                    chunk = new byte[nextChunkSize];
+                }
             }
         }
         return processed;
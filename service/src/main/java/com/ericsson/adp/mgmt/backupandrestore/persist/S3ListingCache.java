@@ -0,0 +1,180 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.persist;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Listings of what's directly under some folders of a bucket, so looking up the paths of a folder costs a single
+ * delimited listing, whatever is stored under its subfolders.
+ * A listing is kept for a short time, and is dropped when an object under its folder is written or deleted. The
+ * providers of a bucket share its listings, so a write through any of them drops the listings all of them read.
+ * Folders are object key prefixes, without the trailing "/", and the bucket root is the empty prefix.
+ */
+class S3ListingCache {
+
+    private static final String SEPARATOR = "/";
+
+    private final Map<String, Listing> listings = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    /**
+     * @param ttl how long a listing is used for
+     */
+    S3ListingCache(final Duration ttl) {
+        this(ttl, System::nanoTime);
+    }
+
+    /**
+     * @param ttl how long a listing is used for
+     * @param clock current time, in nanoseconds
+     */
+    S3ListingCache(final Duration ttl, final LongSupplier clock) {
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the listing of the parent folder of a key, which tells if the key is an object or a folder
+     * @param key the object key to look up
+     * @param lister lists what's directly under a folder
+     * @return the listing of the parent folder of the key
+     */
+    Listing getListingHolding(final String key, final Lister lister) {
+        return getListingOf(parentOf(key), lister);
+    }
+
+    /**
+     * Gets the listing of a folder
+     * @param folder the folder to look up
+     * @param lister lists what's directly under a folder
+     * @return the listing of the folder
+     */
+    Listing getListingOf(final String folder, final Lister lister) {
+        final long now = clock.getAsLong();
+        final Listing listing = listings.get(folder);
+        if (listing != null) {
+            if (now - listing.listedAt < ttlNanos) {
+                return listing;
+            }
+            listings.remove(folder, listing);
+        }
+        return list(folder, lister);
+    }
+
+    /**
+     * Drops the listings an object was listed in, as the object was written or deleted. These are the listings of
+     * the folders above the object, as a folder shows up in its parent's listing only while it holds objects.
+     * @param key of the object modified, or the prefix of the objects modified
+     */
+    void modified(final String key) {
+        listings.keySet().removeIf(folder -> holds(folder, key));
+    }
+
+    private Listing list(final String folder, final Lister lister) {
+        final long listedAt = clock.getAsLong();
+        final Listing listing = new Listing(listedAt);
+        lister.list(prefixOf(folder), listing.sizes::put, prefix -> listing.folders.add(withoutSeparator(prefix)));
+        listings.put(folder, listing);
+        return listing;
+    }
+
+    private static boolean holds(final String folder, final String key) {
+        return folder.isEmpty() || key.equals(folder) || key.startsWith(prefixOf(folder)) || folder.startsWith(prefixOf(key));
+    }
+
+    private static String prefixOf(final String folder) {
+        return folder.isEmpty() ? folder : folder + SEPARATOR;
+    }
+
+    private static String parentOf(final String key) {
+        final int separator = key.lastIndexOf(SEPARATOR);
+        return separator < 0 ? "" : key.substring(0, separator);
+    }
+
+    private static String withoutSeparator(final String prefix) {
+        return prefix.endsWith(SEPARATOR) ? prefix.substring(0, prefix.length() - SEPARATOR.length()) : prefix;
+    }
+
+    /**
+     * Lists what's directly under a folder of the bucket.
+     */
+    @FunctionalInterface
+    interface Lister {
+        /**
+         * @param prefix of the folder, ending with "/" unless it's the bucket root
+         * @param objects takes the key and the size of each object of the folder
+         * @param folders takes the prefix of each folder in the folder, ending with "/"
+         */
+        void list(String prefix, ObjLongConsumer<String> objects, Consumer<String> folders);
+    }
+
+    /**
+     * What's directly under a folder, as it was listed.
+     */
+    static final class Listing {
+        private final NavigableMap<String, Long> sizes = new TreeMap<>();
+        private final NavigableSet<String> folders = new TreeSet<>();
+        private final long listedAt;
+
+        private Listing(final long listedAt) {
+            this.listedAt = listedAt;
+        }
+
+        /**
+         * @param key to look up
+         * @return true if there's an object with this key
+         */
+        boolean isObject(final String key) {
+            return sizes.containsKey(key);
+        }
+
+        /**
+         * @param key to look up
+         * @return true if there are objects under this key, taken as a folder
+         */
+        boolean hasObjectsUnder(final String key) {
+            return folders.contains(key);
+        }
+
+        /**
+         * @param key to look up
+         * @return the size of the object with this key, if there's one
+         */
+        OptionalLong sizeOf(final String key) {
+            final Long size = sizes.get(key);
+            return size == null ? OptionalLong.empty() : OptionalLong.of(size);
+        }
+
+        /**
+         * @return the keys of the objects and folders of the folder listed, in key order
+         */
+        List<String> children() {
+            final NavigableSet<String> children = new TreeSet<>(sizes.keySet());
+            children.addAll(folders);
+            return new ArrayList<>(children);
+        }
+    }
+}
@@ -21,42 +21,69 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.util.unit.DataSize;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Persistence provider which relies on AWS S3 storage to provide
  * persistence layer
+ * Checking if paths exist, are files or folders, and their size is answered from a delimited listing of their folder,
+ * which is reused for the other paths of the folder for a short time, or until something under the folder is written
+ * or deleted. Every request sent is counted in the S3RequestCount bound to the thread sending it.
  */
 public class S3PersistProvider extends PersistProvider {
     private static final Logger log = LogManager.getLogger(S3PersistProvider.class);
+    static final Duration LISTING_TTL = Duration.ofSeconds(1);
 
     private final S3MultipartClient client;
+    private final S3ListingCache listings;
 
     /**
-     * Constructor
+     * Constructor, with listings of its own, which the writes of other providers don't drop
      * @param client - the AWSSimpleClient used by this persistProvider
      * */
     public S3PersistProvider(final S3MultipartClient client) {
+        this(client, new S3ListingCache(LISTING_TTL));
+    }
+
+    /**
+     * Constructor
+     * @param client - the AWSSimpleClient used by this persistProvider
+     * @param listings - the listings to look paths up in
+     * */
+    S3PersistProvider(final S3MultipartClient client, final S3ListingCache listings) {
         this.client = client;
+        this.listings = listings;
     }
 
     @Override
     public void write(final Path folder, final Path file, final byte[] content) {
+        final String key = S3Client.toObjectKey(file.toAbsolutePath());
         try {
-            client.uploadObject(client.getDefaultBucketName(), S3Client.toObjectKey(file.toAbsolutePath()), content);
+            S3RequestCount.countRequest();
+            client.uploadObject(client.getDefaultBucketName(), key, content);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             log.error("Error while writing data", e);
             throw new FilePersistenceException(e);
+        } finally {
+            listings.modified(key);
         }
     }
 
@@ -64,7 +91,8 @@ public class S3PersistProvider extends PersistProvider {
     public Stream<Path> walk(final Path base, final int maxDepth, final boolean ordered) {
         final List<Path> allChildren;
         if (ordered) {
-            allChildren = client.getObjectListOrder(client.getDefaultBucketName(), S3Client.toObjectKey(base))
+            allChildren = client.getObjectListOrder(client.getDefaultBucketName(), S3Client.toObjectKey(base), Integer.MAX_VALUE,
+                    S3RequestCount::countRequest)
                     .stream()
                     .map(S3Client::fromObjectKey)
                     .filter(p -> p.startsWith(base))
@@ -72,7 +100,8 @@ public class S3PersistProvider extends PersistProvider {
                     .sorted(Comparator.comparingInt(Path::getNameCount).reversed())
                     .collect(Collectors.toList());
         } else {
-            allChildren = client.getObjectList(client.getDefaultBucketName(), S3Client.toObjectKey(base))
+            allChildren = client.getObjectList(client.getDefaultBucketName(), S3Client.toObjectKey(base), Integer.MAX_VALUE,
+                    S3RequestCount::countRequest)
                     .stream()
                     .map(S3Client::fromObjectKey)
                     .filter(p -> p.startsWith(base))
@@ -80,27 +109,14 @@ public class S3PersistProvider extends PersistProvider {
                     .sorted(Comparator.comparingInt(Path::getNameCount).reversed())
                     .collect(Collectors.toList());
         }
-        // Some notes on complexity here:
-        // This ends up being something like O(n^2) where n is the count of objects under the passed method
-        // because of how list membership testing works. This is pretty bad, but we generally expect n to be very small
-        // so for now I'm not going to optimise it. If this does turn out to be a bottleneck, the easiest optimisation
-        // would be to also keep a Set<Path> called something like "seen" and use seen.contains() instead of result.contains()
-        // everywhere result.contains() is used, and do seen.add() everywhere we do result.add(). This would take it from
-        // O(n^2) to O(n) by making the "is this path already in the returned stream" check O(1) instead of O(n). Worth noting
-        // here that the actual worst case complexity includes maxDepth^2 as a term, which would be significantly larger than
-        // n in many cases. The Set<Path> optimisation would change that term from maxDepth^2 to maxDepth, which is nice,
-        // although, to be clear, this only applies in worst-case complexity, which is extremely unlikely to occur given our
-        // usage of the filesystem (we don't create extremely nested, completely random folder hierarchies and then walk their
-        // entire depth)
-        final List<Path> result = new ArrayList<>();
+        // Each path is added once, so this is linear in the number of objects times maxDepth
+        final Set<Path> result = new LinkedHashSet<>();
         result.add(base); // The top level directory is always returned by Files.walk
-        for (final Path child: allChildren) { // n
+        for (final Path child: allChildren) {
             Path prefix = base;
-            for (int i = 0; i < child.getNameCount() && i < maxDepth; i++) { // min(depth of child, maxDepth)
+            for (int i = 0; i < child.getNameCount() && i < maxDepth; i++) {
                 prefix = prefix.resolve(child.getName(i));
-                if (!result.contains(prefix)) { // worst case ((n*maxDepth) - some amortizing factor), generally ~n
-                    result.add(prefix);
-                }
+                result.add(prefix);
             }
         }
         return result.stream();
@@ -111,8 +127,22 @@ public class S3PersistProvider extends PersistProvider {
         return walk(base, maxDepth, false);
     }
 
+    @Override
+    public Optional<Map<Path, String>> getFileRevisions(final Path base, final int maxDepth) {
+        final Map<Path, String> revisions = new LinkedHashMap<>();
+        final String prefix = S3Client.toObjectKey(base);
+        client.getObjectETags(client.getDefaultBucketName(), prefix, S3RequestCount::countRequest).forEach((key, eTag) -> {
+            final Path path = S3Client.fromObjectKey(key);
+            if (path.startsWith(base) && base.relativize(path).getNameCount() <= maxDepth) {
+                revisions.put(base.resolve(base.relativize(path)), eTag);
+            }
+        });
+        return Optional.of(revisions);
+    }
+
     @Override
     public String read(final Path path) {
+        S3RequestCount.countRequest();
         try (InputStream stream = client.downloadObject(client.getDefaultBucketName(), S3Client.toObjectKey(path))) {
             return new String(stream.readAllBytes());
         } catch (IOException e) {
@@ -125,12 +155,20 @@ public class S3PersistProvider extends PersistProvider {
         if (isDir(path)) { // It doesn't make sense to try and delete a "directory" in S3
             return;
         }
-        client.removeObject(client.getDefaultBucketName(), S3Client.toObjectKey(path));
+        final String key = S3Client.toObjectKey(path);
+        try {
+            S3RequestCount.countRequest();
+            client.removeObject(client.getDefaultBucketName(), key);
+        } finally {
+            listings.modified(key);
+        }
     }
 
     @Override
     public boolean exists(final Path path) {
-        return !client.getObjectList(client.getDefaultBucketName(), S3Client.toObjectKey(path), 1).isEmpty();
+        final String key = S3Client.toObjectKey(path);
+        final S3ListingCache.Listing listing = listings.getListingHolding(key, this::listFolder);
+        return listing.isObject(key) || listing.hasObjectsUnder(key);
     }
 
     /**
@@ -141,13 +179,9 @@ public class S3PersistProvider extends PersistProvider {
      */
     @Override
     public List<Path> list(final Path dir) {
-        final String prefix = S3Client.toObjectKey(dir);
-        final Path abs = dir.toAbsolutePath().normalize();
-        return client.getObjectList(client.getDefaultBucketName(), prefix).stream()
+        final String key = S3Client.toObjectKey(dir);
+        return listings.getListingOf(key, this::listFolder).children().stream() // Includes "sub directories"
                 .map(S3Client::fromObjectKey)
-                .filter(p -> p.startsWith(abs))
-                .map(p -> abs.resolve(abs.relativize(p).subpath(0, 1))) // Return "sub directories" if they exist
-                .distinct()
                 .collect(Collectors.toList());
     }
 
@@ -159,13 +193,14 @@ public class S3PersistProvider extends PersistProvider {
      */
     @Override
     public boolean isDir(final Path path) {
-        final String prefix = S3Client.toObjectKey(path);
-        final List<String> matches =  client.getObjectList(client.getDefaultBucketName(), prefix, 2);
-        final boolean exactMatch = client.isObjectExist(client.getDefaultBucketName(), prefix);
-        if (matches.size() > 1 && exactMatch) {
-            log.error("Found exact match and prefix match for object key: {}", prefix);
+        final String key = S3Client.toObjectKey(path);
+        final S3ListingCache.Listing listing = listings.getListingHolding(key, this::listFolder);
+        final boolean exactMatch = listing.isObject(key);
+        final boolean prefixMatch = listing.hasObjectsUnder(key);
+        if (prefixMatch && exactMatch) {
+            log.error("Found exact match and prefix match for object key: {}", key);
         }
-        return !exactMatch && !matches.isEmpty();
+        return !exactMatch && prefixMatch;
     }
 
     /**
@@ -176,22 +211,46 @@ public class S3PersistProvider extends PersistProvider {
      */
     @Override
     public boolean isFile(final Path path) {
-        return exists(path) && !isDir(path);
+        final String key = S3Client.toObjectKey(path);
+        return listings.getListingHolding(key, this::listFolder).isObject(key);
     }
 
     @Override
     public long length(final Path path) {
-        return client.getObjectSize(client.getDefaultBucketName(), S3Client.toObjectKey(path));
+        final String key = S3Client.toObjectKey(path);
+        return listings.getListingHolding(key, this::listFolder).sizeOf(key).orElseGet(() -> {
+            S3RequestCount.countRequest();
+            return client.getObjectSize(client.getDefaultBucketName(), key);
+        });
     }
 
     @Override
     public InputStream newInputStream(final Path path, final OpenOption... options) {
+        S3RequestCount.countRequest();
         return client.downloadObject(client.getDefaultBucketName(), S3Client.toObjectKey(path));
     }
 
     @Override
     public OutputStream newOutputStream(final Path path, final OpenOption... options)  throws IOException {
-        return client.getOutputStream(S3Client.toObjectKey(path));
+        final String key = S3Client.toObjectKey(path);
+        S3RequestCount.countRequest();
+        listings.modified(key);
+        // The object only shows up in listings once it's closed
+        return new FilterOutputStream(client.getOutputStream(key)) {
+            @Override
+            public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    listings.modified(key);
+                }
+            }
+        };
     }
 
     @Override
@@ -240,8 +299,21 @@ public class S3PersistProvider extends PersistProvider {
                 S3Client.toObjectKey(src),
                 client.getDefaultBucketName(),
                 S3Client.toObjectKey(dst));
-        client.getS3Client().copyObject(request);
+        try {
+            S3RequestCount.countRequest();
+            client.getS3Client().copyObject(request);
+        } finally {
+            listings.modified(request.getDestinationKey());
+        }
         return overwrote;
     }
 
+    private void listFolder(final String prefix, final ObjLongConsumer<String> objects, final Consumer<String> folders) {
+        client.listFolder(client.getDefaultBucketName(), prefix, page -> {
+            S3RequestCount.countRequest();
+            page.getObjectSummaries().forEach(summary -> objects.accept(summary.getKey(), summary.getSize()));
+            page.getCommonPrefixes().forEach(folders);
+        });
+    }
+
 }
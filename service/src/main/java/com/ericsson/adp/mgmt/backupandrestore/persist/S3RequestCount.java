@@ -0,0 +1,98 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.persist;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the requests the S3PersistProviders send to the object store for a job, from when its count is started until
+ * it's closed. A request is counted by the count bound to the thread sending it: the thread of the job, and the threads
+ * working for the job, such as those of the agent streams while they handle a message of the job. Requests sent by a
+ * thread no count is bound to aren't counted, so jobs running at the same time only count their own requests.
+ * A listing is counted once per page, while an upload or a download through a stream is counted once, however many
+ * parts it takes.
+ */
+public final class S3RequestCount implements AutoCloseable {
+
+    private static final ThreadLocal<S3RequestCount> BOUND = new ThreadLocal<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private volatile boolean open = true;
+
+    private S3RequestCount() {
+    }
+
+    /**
+     * Starts counting requests
+     * @return the count, to be bound to the threads sending requests and closed once done
+     */
+    public static S3RequestCount start() {
+        return new S3RequestCount();
+    }
+
+    /**
+     * Counts the requests sent by the calling thread, until the binding is closed
+     * @return the binding, which binds back the count the thread had before once closed
+     */
+    public Binding bind() {
+        final S3RequestCount previous = BOUND.get();
+        BOUND.set(this);
+        return () -> {
+            if (previous == null) {
+                BOUND.remove();
+            } else {
+                BOUND.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Counts a request sent to the object store in the count bound to the calling thread, if it's still open
+     */
+    static void countRequest() {
+        final S3RequestCount count = BOUND.get();
+        if (count != null && count.open) {
+            count.requests.incrementAndGet();
+        }
+    }
+
+    /**
+     * Get the number of requests counted
+     * @return the number of requests sent since the count was started, until it was closed
+     */
+    public long get() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    /**
+     * Binding of a count to a thread
+     */
+    @FunctionalInterface
+    public interface Binding extends AutoCloseable {
+
+        /**
+         * Binding which doesn't change the count of the thread
+         */
+        Binding NONE = () -> { };
+
+        /**
+         * Binds back the count the thread had before
+         */
+        @Override
+        void close();
+    }
+}
@@ -15,13 +15,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
 
 import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
 import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3MultipartClient;
 import com.ericsson.adp.mgmt.backupandrestore.exception.RestoreDownloadException;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumCalculator;
 
 /**
  * ChecksumValidator is responsible for validating the calculated and stored checksum.
+ * The checksum file names the algorithm it was written with, except for MD5 checksum files,
+ * which contain only the checksum.
  */
 public class ChecksumValidator {
 
@@ -39,6 +44,26 @@ public class ChecksumValidator {
         this.s3MultipartClient = s3MultipartClient;
     }
 
+    /**
+     * Gets the algorithm the stored checksum was calculated with, so it can be calculated while the file is sent.
+     * @param checksumFilePath
+     *              - the checksum file path
+     * @return the algorithm of the stored checksum, or empty if there is no stored checksum
+     */
+    public Optional<ChecksumAlgorithm> getStoredAlgorithm(final Path checksumFilePath) {
+        return readChecksumFile(checksumFilePath).map(ChecksumAlgorithm::ofChecksumFileContent);
+    }
+
+    /**
+     * Gets the algorithm the stored checksum was calculated with, so it can be calculated while the object is sent.
+     * @param checksumObjectKey
+     *              - the checksum object key
+     * @return the algorithm of the stored checksum, or empty if there is no stored checksum
+     */
+    public Optional<ChecksumAlgorithm> getStoredAlgorithmFromOSMN(final String checksumObjectKey) {
+        return readChecksumObject(checksumObjectKey).map(ChecksumAlgorithm::ofChecksumFileContent);
+    }
+
     /**
      * If a stored checksum exists, validates if a calculated checksum matches the content of checksum object key.
      * If the stored checksum does not exist the comparison validation is successful.
@@ -49,7 +74,23 @@ public class ChecksumValidator {
      * @throws ChecksumValidationException if the result of the checksums comparison fails
      */
     public void validateFromOSMN(final String calculatedChecksum, final String checksumObjectKey) {
-        if (!isValidFromOSMN(calculatedChecksum, checksumObjectKey)) {
+        if (!readChecksumObject(checksumObjectKey).map(content -> isValid(calculatedChecksum, content)).orElse(true)) {
+            throw new ChecksumValidationException("Checksum mismatch: <" + checksumObjectKey + ">");
+        }
+    }
+
+    /**
+     * If a stored checksum exists, validates if the checksum the calculator calculated with the algorithm
+     * of the stored checksum matches the content of checksum object key.
+     * If the stored checksum does not exist the comparison validation is successful.
+     * @param calculator
+     *              - calculator of the algorithm returned by getStoredAlgorithmFromOSMN
+     * @param checksumObjectKey
+     *              - the checksum object key
+     * @throws ChecksumValidationException if the result of the checksums comparison fails
+     */
+    public void validateFromOSMN(final ChecksumCalculator calculator, final String checksumObjectKey) {
+        if (!readChecksumObject(checksumObjectKey).map(content -> isValid(calculator, content)).orElse(true)) {
             throw new ChecksumValidationException("Checksum mismatch: <" + checksumObjectKey + ">");
         }
     }
@@ -64,37 +105,57 @@ public class ChecksumValidator {
      * @throws ChecksumValidationException if the result of the checksums comparison fails
      */
     public void validate(final String calculatedChecksum, final Path checksumFilePath) {
-        if (!isValid(calculatedChecksum, checksumFilePath)) {
+        if (!readChecksumFile(checksumFilePath).map(content -> isValid(calculatedChecksum, content)).orElse(true)) {
             throw new ChecksumValidationException("Checksum mismatch: <" + checksumFilePath + ">");
         }
     }
 
-    private boolean isValidFromOSMN(final String calculatedChecksum, final String checksumObjectKey) {
+    /**
+     * If a stored checksum exists, validates if the checksum the calculator calculated with the algorithm
+     * of the stored checksum matches the content of checksum file.
+     * If the stored checksum does not exist the comparison validation is successful.
+     * @param calculator
+     *              - calculator of the algorithm returned by getStoredAlgorithm
+     * @param checksumFilePath
+     *              - the checksum file path
+     * @throws ChecksumValidationException if the result of the checksums comparison fails
+     */
+    public void validate(final ChecksumCalculator calculator, final Path checksumFilePath) {
+        if (!readChecksumFile(checksumFilePath).map(content -> isValid(calculator, content)).orElse(true)) {
+            throw new ChecksumValidationException("Checksum mismatch: <" + checksumFilePath + ">");
+        }
+    }
+
+    private Optional<String> readChecksumObject(final String checksumObjectKey) {
         if (s3MultipartClient.isObjectExist(s3Config.getDefaultBucketName(), checksumObjectKey)) {
             try (InputStream checksumInputStream = s3MultipartClient.downloadObject(s3Config.getDefaultBucketName(),
             checksumObjectKey)) {
-                return isValid(calculatedChecksum, checksumInputStream);
+                return Optional.of(new String(checksumInputStream.readAllBytes()));
             } catch (IOException e) {
                 throw new RestoreDownloadException("Error validating checksum  <" + checksumObjectKey + ">", e);
             }
         }
-        return true;
+        return Optional.empty();
     }
 
-    private boolean isValid(final String calculatedChecksum, final Path checksumFilePath) {
+    private Optional<String> readChecksumFile(final Path checksumFilePath) {
         if (Files.exists(checksumFilePath)) {
             try (InputStream checksumInputStream = Files.newInputStream(checksumFilePath)) {
-                return isValid(calculatedChecksum, checksumInputStream);
+                return Optional.of(new String(checksumInputStream.readAllBytes()));
             } catch (IOException e) {
                 throw new RestoreDownloadException("Error validating checksum  <" + checksumFilePath + ">", e);
             }
         }
-        return true;
+        return Optional.empty();
+    }
+
+    private boolean isValid(final String calculatedChecksum, final String checksumFileContent) {
+        return calculatedChecksum.equals(ChecksumAlgorithm.checksumOfChecksumFileContent(checksumFileContent));
     }
 
-    private boolean isValid(final String calculatedChecksum, final InputStream checksumInputStream) throws IOException {
-        final String savedChecksum = new String(checksumInputStream.readAllBytes());
-        return calculatedChecksum.equals(savedChecksum);
+    private boolean isValid(final ChecksumCalculator calculator, final String checksumFileContent) {
+        final ChecksumAlgorithm storedAlgorithm = ChecksumAlgorithm.ofChecksumFileContent(checksumFileContent);
+        return isValid(calculator.getChecksum(storedAlgorithm), checksumFileContent);
     }
 
 }
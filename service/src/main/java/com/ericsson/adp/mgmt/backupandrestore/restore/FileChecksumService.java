@@ -0,0 +1,207 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.restore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ericsson.adp.mgmt.backupandrestore.exception.BackupServiceException;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumCalculator;
+
+/**
+ * Calculates the checksums of files stored on the PVC.
+ * Files are read through pooled direct buffers, and batches of files are hashed in parallel on a bounded pool,
+ * so all the fragments of a backup can be checked at once.
+ */
+@Service
+public class FileChecksumService {
+
+    private static final Logger log = LogManager.getLogger(FileChecksumService.class);
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final String CHECKSUM_FILE_EXTENSION = ".md5";
+
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private int parallelism = DEFAULT_PARALLELISM;
+    private ExecutorService executor;
+
+    /**
+     * Calculates the checksum of a file on the calling thread.
+     * @param file to calculate the checksum of
+     * @param algorithm the checksum algorithm
+     * @return checksum of the file
+     */
+    public String calculate(final Path file, final ChecksumAlgorithm algorithm) {
+        final ChecksumCalculator calculator = new ChecksumCalculator(algorithm);
+        final ByteBuffer buffer = acquireBuffer();
+        try {
+            calculator.addFile(file, buffer);
+        } catch (final IOException e) {
+            throw new BackupServiceException("Exception reading file <" + file + "> for checksum calculation", e);
+        } finally {
+            buffers.offer(buffer);
+        }
+        return calculator.getChecksum();
+    }
+
+    /**
+     * Calculates the checksums of several files in parallel, with the same algorithm.
+     * @param files to calculate the checksum of
+     * @param algorithm the checksum algorithm
+     * @return checksum of each file, in the order of the files
+     */
+    public Map<Path, String> calculate(final Collection<Path> files, final ChecksumAlgorithm algorithm) {
+        final Map<Path, ChecksumAlgorithm> algorithms = new LinkedHashMap<>();
+        files.forEach(file -> algorithms.put(file, algorithm));
+        return calculate(algorithms);
+    }
+
+    /**
+     * Calculates the checksums of several files in parallel.
+     * At most the configured number of files are read at the same time, whatever the number of callers.
+     * @param files to calculate the checksum of, with the algorithm of each
+     * @return checksum of each file, in the order of the files
+     */
+    public Map<Path, String> calculate(final Map<Path, ChecksumAlgorithm> files) {
+        if (files.size() <= 1) {
+            final Map<Path, String> checksums = new LinkedHashMap<>();
+            files.forEach((file, algorithm) -> checksums.put(file, calculate(file, algorithm)));
+            return checksums;
+        }
+        final List<Callable<String>> tasks = new ArrayList<>();
+        files.forEach((file, algorithm) -> tasks.add(() -> calculate(file, algorithm)));
+        final List<Future<String>> results;
+        try {
+            results = getExecutor().invokeAll(tasks);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackupServiceException("Interrupted while calculating checksums", e);
+        }
+        final Map<Path, String> checksums = new LinkedHashMap<>();
+        int index = 0;
+        for (final Path file : files.keySet()) {
+            checksums.put(file, getResult(results.get(index++)));
+        }
+        return checksums;
+    }
+
+    /**
+     * Validates every file under a folder which has a checksum file against its stored checksum.
+     * Files without a checksum file are not validated, as for restores.
+     * @param folder to validate, e.g. the data folder of a backup
+     * @throws ChecksumValidationException listing the files whose checksum doesn't match
+     */
+    public void validateFolder(final Path folder) {
+        if (!Files.isDirectory(folder)) {
+            return;
+        }
+        final Map<Path, String> storedChecksums = getStoredChecksums(folder);
+        final Map<Path, ChecksumAlgorithm> algorithms = new LinkedHashMap<>();
+        storedChecksums.forEach((file, content) -> algorithms.put(file, ChecksumAlgorithm.ofChecksumFileContent(content)));
+        log.info("Validating the checksums of {} files under <{}>", algorithms.size(), folder);
+
+        final Map<Path, String> calculatedChecksums = calculate(algorithms);
+        final List<Path> mismatches = calculatedChecksums.entrySet().stream()
+                .filter(entry -> !entry.getValue().equals(ChecksumAlgorithm.checksumOfChecksumFileContent(storedChecksums.get(entry.getKey()))))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (!mismatches.isEmpty()) {
+            throw new ChecksumValidationException("Checksum mismatch: " + mismatches);
+        }
+    }
+
+    private Map<Path, String> getStoredChecksums(final Path folder) {
+        final Map<Path, String> storedChecksums = new LinkedHashMap<>();
+        try (Stream<Path> paths = Files.walk(folder)) {
+            final List<Path> checksumFiles = paths
+                    .filter(path -> path.getFileName().toString().endsWith(CHECKSUM_FILE_EXTENSION))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+            for (final Path checksumFile : checksumFiles) {
+                final String checksumFileName = checksumFile.toString();
+                final Path file = Paths.get(checksumFileName.substring(0, checksumFileName.length() - CHECKSUM_FILE_EXTENSION.length()));
+                if (Files.isRegularFile(file)) {
+                    storedChecksums.put(file, Files.readString(checksumFile));
+                }
+            }
+        } catch (final IOException e) {
+            throw new BackupServiceException("Exception reading checksum files under <" + folder + ">", e);
+        }
+        return storedChecksums;
+    }
+
+    private String getResult(final Future<String> result) {
+        try {
+            return result.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackupServiceException("Interrupted while calculating checksums", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new BackupServiceException("Exception calculating checksum", e);
+        }
+    }
+
+    private ByteBuffer acquireBuffer() {
+        final ByteBuffer buffer = buffers.poll();
+        return buffer == null ? ByteBuffer.allocateDirect(BUFFER_SIZE) : buffer;
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                final Thread thread = new Thread(runnable, "file-checksum-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Sets the number of files hashed at the same time by batches
+     * @param parallelism number of threads of the pool
+     */
+    @Value("${checksum.file.parallelism:4}")
+    public void setParallelism(final int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+}
@@ -12,25 +12,43 @@
 package com.ericsson.adp.mgmt.backupandrestore.restore;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.concurrent.atomic.AtomicLong;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
 import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3MultipartClient;
 import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3Client;
+import com.ericsson.adp.mgmt.backupandrestore.backup.dedup.ChunkManifest;
+import com.ericsson.adp.mgmt.backupandrestore.grpc.AdaptiveChunkSize;
 import com.ericsson.adp.mgmt.backupandrestore.persist.ProcessChunksUtil;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumCalculator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.ericsson.adp.mgmt.backupandrestore.exception.RestoreDownloadException;
-import com.ericsson.adp.mgmt.bro.api.filetransfer.FileChunkServiceUtil;
-import com.ericsson.adp.mgmt.bro.api.util.ChecksumCalculator;
 import com.ericsson.adp.mgmt.data.BackupFileChunk;
 import com.ericsson.adp.mgmt.data.DataMessageType;
 import com.ericsson.adp.mgmt.data.RestoreData;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 
 import io.grpc.stub.StreamObserver;
 
@@ -40,12 +58,21 @@ import io.grpc.stub.StreamObserver;
 public class RestoreBackupFile {
 
     private static final String CHECKSUM_ALGORITHM_EXTENSION = ".md5";
+    private static final int CHUNKS_PER_MAPPED_REGION = 64;
+    private static final int MAX_PENDING_REGION_HASHES = 4;
+    private static final int KIB = 1024;
+    // Bounds the mapped regions referenced at once by all the restores, in KiB
+    private static final int MAX_MAPPED_KIB = 256 * KIB;
+    private static final Semaphore MAPPED_KIB = new Semaphore(MAX_MAPPED_KIB);
+    private static final ExecutorService HASHING_EXECUTOR = createHashingExecutor();
     private static final Logger log = LogManager.getLogger(RestoreBackupFile.class);
     private final StreamObserver<RestoreData> responseObserver;
-    private final int fragmentChunkSize;
+    private final AdaptiveChunkSize chunkSize;
     private final S3Config s3Config;
     private final S3MultipartClient s3MultipartClient;
     private final  ChecksumValidator checksumValidator;
+    private final RestoreTransferMode transferMode;
+    private final ChecksumAlgorithm checksumAlgorithm;
 
     /**
      * @param responseObserver
@@ -56,9 +83,60 @@ public class RestoreBackupFile {
      *            - the configuration of OSMN
      */
     public RestoreBackupFile(final StreamObserver<RestoreData> responseObserver, final int fragmentChunkSize, final S3Config s3Config) {
+        this(responseObserver, fragmentChunkSize, s3Config, RestoreTransferMode.BUFFERED);
+    }
+
+    /**
+     * @param responseObserver
+     *            - Stream Observer.
+     * @param fragmentChunkSize
+     *            - Maximum fragment chunk size
+     * @param s3Config
+     *            - the configuration of OSMN
+     * @param transferMode
+     *            - how data files stored on the PVC are read and sent
+     */
+    public RestoreBackupFile(final StreamObserver<RestoreData> responseObserver, final int fragmentChunkSize, final S3Config s3Config,
+                             final RestoreTransferMode transferMode) {
+        this(responseObserver, fragmentChunkSize, s3Config, transferMode, ChecksumAlgorithm.MD5);
+    }
+
+    /**
+     * @param responseObserver
+     *            - Stream Observer.
+     * @param fragmentChunkSize
+     *            - Maximum fragment chunk size
+     * @param s3Config
+     *            - the configuration of OSMN
+     * @param transferMode
+     *            - how data files stored on the PVC are read and sent
+     * @param checksumAlgorithm
+     *            - the checksum algorithm negotiated with the agent
+     */
+    public RestoreBackupFile(final StreamObserver<RestoreData> responseObserver, final int fragmentChunkSize, final S3Config s3Config,
+                             final RestoreTransferMode transferMode, final ChecksumAlgorithm checksumAlgorithm) {
+        this(responseObserver, AdaptiveChunkSize.fixed(fragmentChunkSize), s3Config, transferMode, checksumAlgorithm);
+    }
+
+    /**
+     * @param responseObserver
+     *            - Stream Observer.
+     * @param chunkSize
+     *            - size of the fragment chunks, recording each chunk sent
+     * @param s3Config
+     *            - the configuration of OSMN
+     * @param transferMode
+     *            - how data files stored on the PVC are read and sent
+     * @param checksumAlgorithm
+     *            - the checksum algorithm negotiated with the agent
+     */
+    public RestoreBackupFile(final StreamObserver<RestoreData> responseObserver, final AdaptiveChunkSize chunkSize, final S3Config s3Config,
+                             final RestoreTransferMode transferMode, final ChecksumAlgorithm checksumAlgorithm) {
+        this.checksumAlgorithm = checksumAlgorithm;
         this.responseObserver = responseObserver;
-        this.fragmentChunkSize = fragmentChunkSize;
+        this.chunkSize = chunkSize;
         this.s3Config = s3Config;
+        this.transferMode = transferMode;
         if (s3Config.isEnabled()) {
             s3MultipartClient = new S3MultipartClient(s3Config);
         } else {
@@ -78,63 +156,207 @@ public class RestoreBackupFile {
         log.debug("Transferring data for: {}", file);
         if (s3Config.isEnabled()) {
             return sendBackupChunksFromOSNM(S3Client.toObjectKey(file));
+        } else if (transferMode == RestoreTransferMode.MAPPED) {
+            return sendMappedBackupChunks(file);
         } else {
             return sendBackupChunks(file);
         }
     }
 
+    /**
+     * sends backup and checksum chunks of a deduplicated file, read from the chunks it's made of
+     *
+     * @param manifestFile
+     *            - location of the manifest of the backup data file.
+     * @param content
+     *            - content of the backup data file, closed once sent.
+     * @return the number of bytes transferred
+     */
+    public long sendDeduplicatedFile(final Path manifestFile, final InputStream content) {
+        final Path file = ChunkManifest.getDataFile(manifestFile);
+        log.debug("Transferring deduplicated data for: {}", file);
+        final String checksumObjectKey = S3Client.toObjectKey(file) + CHECKSUM_ALGORITHM_EXTENSION;
+        final Path checksumPath = Paths.get(file.toString() + CHECKSUM_ALGORITHM_EXTENSION);
+        final ChecksumCalculator calculator = createCalculator(s3Config.isEnabled()
+                ? checksumValidator.getStoredAlgorithmFromOSMN(checksumObjectKey)
+                : checksumValidator.getStoredAlgorithm(checksumPath));
+        final long transferredBytes;
+        sendFileName(file.getFileName().toString());
+        try (InputStream inputStream = content) {
+            transferredBytes = ProcessChunksUtil.processStreamChunks(inputStream, (chunk, bytesReadInChunk) -> {
+                sendChunk(ByteString.copyFrom(chunk, 0, bytesReadInChunk));
+                calculator.addBytes(chunk, 0, bytesReadInChunk);
+            }, chunkSize);
+        } catch (final Exception e) {
+            throw new RestoreDownloadException("Error sending restore file <" + file + ">", e);
+        }
+
+        log.debug("Validating stored checksum for: {}", file);
+        if (s3Config.isEnabled()) {
+            checksumValidator.validateFromOSMN(calculator, checksumObjectKey);
+        } else {
+            checksumValidator.validate(calculator, checksumPath);
+        }
+
+        sendChecksum(calculator.getChecksum(), file.toString());
+        return transferredBytes;
+    }
+
     /**
      * Send the object from OSMN to a series of chunks.
      * @param objectKey the ObjectKey
      * @return the number of bytes sent
      */
-    @SuppressWarnings("PMD.CloseResource")
     private long sendBackupChunksFromOSNM(final String objectKey) {
-        final ChecksumCalculator calculator = new ChecksumCalculator();
+        final String checksumObjectKey = objectKey + CHECKSUM_ALGORITHM_EXTENSION;
+        final ChecksumCalculator calculator = createCalculator(checksumValidator.getStoredAlgorithmFromOSMN(checksumObjectKey));
         sendFileName(new File(objectKey).getName());
         long sent = 0;
-        try {
-            final InputStream inputStream = s3MultipartClient.downloadObject(s3Config.getDefaultBucketName(), objectKey);
+        try (InputStream inputStream = s3MultipartClient.downloadObject(s3Config.getDefaultBucketName(), objectKey)) {
             sent = ProcessChunksUtil.processStreamChunks(inputStream, (chunk, bytesReadInChunk) -> {
                 sendChunk(ByteString.copyFrom(chunk, 0, bytesReadInChunk));
                 calculator.addBytes(chunk, 0, bytesReadInChunk);
-            }, fragmentChunkSize);
+            }, chunkSize);
         } catch (final Exception e) {
             throw new RestoreDownloadException("Error sending restore objectKey <" + objectKey + ">", e);
         }
 
-        final String calculatedChecksum = calculator.getChecksum();
-
         log.debug("Validating stored checksum for: {}", objectKey);
-        final String checksumObjectKey = objectKey + CHECKSUM_ALGORITHM_EXTENSION;
-        checksumValidator.validateFromOSMN(calculatedChecksum, checksumObjectKey);
+        checksumValidator.validateFromOSMN(calculator, checksumObjectKey);
 
-        sendChecksum(calculatedChecksum, objectKey);
+        sendChecksum(calculator.getChecksum(), objectKey);
         return sent;
     }
 
     private long sendBackupChunks(final Path file) {
-        final ChecksumCalculator calculator = new ChecksumCalculator();
-        final AtomicLong transferredBytes = new AtomicLong(0);
+        final Path checksumPath = Paths.get(file.toString() + CHECKSUM_ALGORITHM_EXTENSION);
+        final ChecksumCalculator calculator = createCalculator(checksumValidator.getStoredAlgorithm(checksumPath));
+        final long transferredBytes;
         sendFileName(file.getFileName().toString());
         try {
-            FileChunkServiceUtil.processFileChunks(file.toString(), (chunk, bytesReadInChunk) -> {
+            transferredBytes = ProcessChunksUtil.processStreamChunks(Files.newInputStream(file), (chunk, bytesReadInChunk) -> {
                 sendChunk(ByteString.copyFrom(chunk, 0, bytesReadInChunk));
-                transferredBytes.addAndGet(bytesReadInChunk);
                 calculator.addBytes(chunk, 0, bytesReadInChunk);
-            }, fragmentChunkSize);
+            }, chunkSize);
         } catch (final Exception e) {
             throw new RestoreDownloadException("Error sending restore file <" + file + ">", e);
         }
 
-        final String calculatedChecksum = calculator.getChecksum();
-
         log.debug("Validating stored checksum for: {}", file);
+        checksumValidator.validate(calculator, checksumPath);
+
+        sendChecksum(calculator.getChecksum(), file.toString());
+        return transferredBytes;
+    }
+
+    /**
+     * Maps the file in regions of several chunks and sends each chunk as a view of the mapped region,
+     * so the content is never copied onto the heap. The checksum of each region is calculated on the
+     * hashing pool shared by all restores, in order, while the following regions are sent, with at most
+     * MAX_PENDING_REGION_HASHES regions waiting to be hashed. A region is mapped only once the mapped
+     * regions of all restores still being sent or hashed fit in MAX_MAPPED_KIB, as the mappings are only
+     * released when the regions are garbage collected.
+     * @param file location of the backup data file
+     * @return the number of bytes sent
+     */
+    private long sendMappedBackupChunks(final Path file) {
         final Path checksumPath = Paths.get(file.toString() + CHECKSUM_ALGORITHM_EXTENSION);
-        checksumValidator.validate(calculatedChecksum, checksumPath);
+        final ChecksumCalculator calculator = createCalculator(checksumValidator.getStoredAlgorithm(checksumPath));
+        final Deque<CompletableFuture<Void>> pendingHashes = new ArrayDeque<>();
+        CompletableFuture<Void> hashed = CompletableFuture.completedFuture(null);
+        long transferredBytes = 0;
+        sendFileName(file.getFileName().toString());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            while (transferredBytes < fileSize) {
+                final long regionSize = Math.min((long) chunkSize.getAsInt() * CHUNKS_PER_MAPPED_REGION, fileSize - transferredBytes);
+                hashed = sendRegion(channel, transferredBytes, regionSize, hashed, calculator);
+                pendingHashes.add(hashed);
+                if (pendingHashes.size() > MAX_PENDING_REGION_HASHES) {
+                    pendingHashes.poll().get();
+                }
+                transferredBytes += regionSize;
+            }
+            hashed.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestoreDownloadException("Interrupted while sending restore file <" + file + ">", e);
+        } catch (final ExecutionException e) {
+            throw new RestoreDownloadException("Error calculating checksum of restore file <" + file + ">", e);
+        } catch (final Exception e) {
+            throw new RestoreDownloadException("Error sending restore file <" + file + ">", e);
+        }
 
-        sendChecksum(calculatedChecksum, file.toString());
-        return transferredBytes.get();
+        log.debug("Validating stored checksum for: {}", file);
+        checksumValidator.validate(calculator, checksumPath);
+
+        sendChecksum(calculator.getChecksum(), file.toString());
+        return transferredBytes;
+    }
+
+    /**
+     * Maps and sends a region of a file, then hashes it once the previous regions are hashed.
+     * @return the hash of the region, completed once the mapped budget of the region is released
+     */
+    private CompletableFuture<Void> sendRegion(final FileChannel channel, final long position, final long size,
+                                               final CompletableFuture<Void> previousHashed,
+                                               final ChecksumCalculator calculator) throws IOException, InterruptedException {
+        final int mappedKiB = (int) Math.min(MAX_MAPPED_KIB, (size + KIB - 1) / KIB);
+        MAPPED_KIB.acquire(mappedKiB);
+        boolean hashing = false;
+        try {
+            final MappedByteBuffer region = channel.map(MapMode.READ_ONLY, position, size);
+            sendRegion(region);
+            final ByteBuffer regionToHash = region.duplicate();
+            final CompletableFuture<Void> hashed = previousHashed
+                    .thenRunAsync(() -> calculator.addBytes(regionToHash), HASHING_EXECUTOR)
+                    .whenComplete((ignored, failure) -> MAPPED_KIB.release(mappedKiB));
+            hashing = true;
+            return hashed;
+        } finally {
+            if (!hashing) {
+                MAPPED_KIB.release(mappedKiB);
+            }
+        }
+    }
+
+    /**
+     * Get the size of the regions which can still be mapped
+     * @return the available mapped budget, in KiB
+     */
+    static int getAvailableMappedKiB() {
+        return MAPPED_KIB.availablePermits();
+    }
+
+    private static ExecutorService createHashingExecutor() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            final Thread thread = new Thread(runnable, "restore-region-hash-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The agent checks the checksum of the negotiated algorithm, while the stored checksum may have
+     * been calculated with another algorithm, by an older orchestrator or for another agent.
+     * @param storedAlgorithm the algorithm of the stored checksum, if any
+     * @return a calculator of both algorithms
+     */
+    private ChecksumCalculator createCalculator(final Optional<ChecksumAlgorithm> storedAlgorithm) {
+        return storedAlgorithm
+                .map(algorithm -> new ChecksumCalculator(checksumAlgorithm, algorithm))
+                .orElseGet(() -> new ChecksumCalculator(checksumAlgorithm));
+    }
+
+    private void sendRegion(final MappedByteBuffer region) {
+        final int regionLength = region.capacity();
+        int offset = 0;
+        while (offset < regionLength) {
+            final int chunkLength = Math.min(chunkSize.getAsInt(), regionLength - offset);
+            sendChunk(UnsafeByteOperations.unsafeWrap(region.slice(offset, chunkLength)));
+            offset += chunkLength;
+        }
     }
 
     private void sendChecksum(final String checksum, final String path) {
@@ -147,6 +369,7 @@ public class RestoreBackupFile {
 
     private void sendChunk(final ByteString chunkToSend) {
         responseObserver.onNext(createMessageForRestoreData(chunkToSend));
+        chunkSize.record(chunkToSend.size());
     }
 
     private RestoreData createMessageForRestoreData(final ByteString chunkToSend) {
@@ -16,17 +16,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Optional;
 
 import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
 import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3MultipartClient;
 import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3Client;
 import com.ericsson.adp.mgmt.backupandrestore.persist.ProcessChunksUtil;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumCalculator;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
 import com.ericsson.adp.mgmt.backupandrestore.exception.RestoreDownloadException;
 import com.ericsson.adp.mgmt.bro.api.filetransfer.FileChunkServiceUtil;
-import com.ericsson.adp.mgmt.bro.api.util.ChecksumCalculator;
 import com.ericsson.adp.mgmt.data.CustomMetadataFileChunk;
 import com.ericsson.adp.mgmt.data.DataMessageType;
 import com.ericsson.adp.mgmt.data.RestoreData;
@@ -40,10 +42,12 @@ import io.grpc.stub.StreamObserver;
 public class RestoreCustomMetadataFile {
 
     private static final Logger log = LogManager.getLogger(RestoreCustomMetadataFile.class);
+    private static final String CHECKSUM_ALGORITHM_EXTENSION = ".md5";
     private final StreamObserver<RestoreData> responseObserver;
     private final S3Config s3Config;
     private final S3MultipartClient s3MultipartClient;
     private final  ChecksumValidator checksumValidator;
+    private final ChecksumAlgorithm checksumAlgorithm;
 
     /**
      * @param responseObserver
@@ -52,6 +56,20 @@ public class RestoreCustomMetadataFile {
      *            - the configuration of OSMN
      */
     public RestoreCustomMetadataFile(final StreamObserver<RestoreData> responseObserver,  final S3Config s3Config) {
+        this(responseObserver, s3Config, ChecksumAlgorithm.MD5);
+    }
+
+    /**
+     * @param responseObserver
+     *            - Stream Observer.
+     * @param s3Config
+     *            - the configuration of OSMN
+     * @param checksumAlgorithm
+     *            - the checksum algorithm negotiated with the agent
+     */
+    public RestoreCustomMetadataFile(final StreamObserver<RestoreData> responseObserver, final S3Config s3Config,
+                                     final ChecksumAlgorithm checksumAlgorithm) {
+        this.checksumAlgorithm = checksumAlgorithm;
         this.responseObserver = responseObserver;
         this.s3Config = s3Config;
         if (s3Config.isEnabled()) {
@@ -77,7 +95,8 @@ public class RestoreCustomMetadataFile {
 
     @SuppressWarnings("PMD.CloseResource")
     private void sendCustomMetadataChunksFromOSMN(final String objectKey) {
-        final ChecksumCalculator calculator = new ChecksumCalculator();
+        final String checksumObjectKey = objectKey + CHECKSUM_ALGORITHM_EXTENSION;
+        final ChecksumCalculator calculator = createCalculator(checksumValidator.getStoredAlgorithmFromOSMN(checksumObjectKey));
         sendFileName(new File(objectKey).getName());
         try {
             final InputStream inputStream = s3MultipartClient.downloadObject(s3Config.getDefaultBucketName(), objectKey);
@@ -89,18 +108,16 @@ public class RestoreCustomMetadataFile {
             throw new RestoreDownloadException("Error sending restore custom metadata file <" + objectKey + ">", e);
         }
 
-        final String calculatedChecksum = calculator.getChecksum();
-
         log.debug("Validating stored checksum for: {}", objectKey);
-        final String checksumObjectKey = objectKey + ".md5" ;
-        checksumValidator.validateFromOSMN(calculatedChecksum, checksumObjectKey);
+        checksumValidator.validateFromOSMN(calculator, checksumObjectKey);
 
-        sendCustomMetadataChecksum(calculatedChecksum, objectKey);
+        sendCustomMetadataChecksum(calculator.getChecksum(), objectKey);
     }
 
 
     private void sendCustomMetadataChunks(final Path customMetadata) {
-        final ChecksumCalculator calculator = new ChecksumCalculator();
+        final Path checksumPath = Paths.get(customMetadata.toString() + CHECKSUM_ALGORITHM_EXTENSION);
+        final ChecksumCalculator calculator = createCalculator(checksumValidator.getStoredAlgorithm(checksumPath));
         sendFileName(customMetadata.getFileName().toString());
         try {
             FileChunkServiceUtil.processFileChunks(customMetadata.toString(), (chunk, bytesReadInChunk) -> {
@@ -111,13 +128,16 @@ public class RestoreCustomMetadataFile {
             throw new RestoreDownloadException("Error sending restore custom metadata file <" + customMetadata + ">", e);
         }
 
-        final String calculatedChecksum = calculator.getChecksum();
-
         log.debug("Validating stored checksum for: {}", customMetadata);
-        final Path checksumPath = Paths.get(customMetadata.toString() + ".md5");
-        checksumValidator.validate(calculatedChecksum, checksumPath);
+        checksumValidator.validate(calculator, checksumPath);
+
+        sendCustomMetadataChecksum(calculator.getChecksum(), customMetadata.toString());
+    }
 
-        sendCustomMetadataChecksum(calculatedChecksum, customMetadata.toString());
+    private ChecksumCalculator createCalculator(final Optional<ChecksumAlgorithm> storedAlgorithm) {
+        return storedAlgorithm
+                .map(algorithm -> new ChecksumCalculator(checksumAlgorithm, algorithm))
+                .orElseGet(() -> new ChecksumCalculator(checksumAlgorithm));
     }
 
     private void sendCustomMetadataChecksum(final String checksum, final String path) {
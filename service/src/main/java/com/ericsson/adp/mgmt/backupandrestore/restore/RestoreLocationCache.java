@@ -0,0 +1,131 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.restore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProvider;
+
+/**
+ * Locations of the fragments of a backup being restored.
+ * The backup folder is walked once when the restore starts, which is a single listing on object storage,
+ * so the data channels don't list and check each fragment folder again.
+ * Paths outside the backup folder, or any path before the walk succeeded, are looked up through the persist provider.
+ */
+public class RestoreLocationCache {
+
+    private static final Logger log = LogManager.getLogger(RestoreLocationCache.class);
+    /**
+     * backup folder / agent / fragment / data or customMetadata / file
+     */
+    private static final int DEPTH_OF_FILES = 4;
+
+    private final PersistProvider provider;
+    private final Path backupFolder;
+    private volatile Set<Path> existingPaths;
+    private volatile Map<Path, List<Path>> filesByFolder;
+
+    /**
+     * Creates a cache which caches nothing, so every location is looked up through the provider.
+     * @param provider used to look up locations
+     */
+    public RestoreLocationCache(final PersistProvider provider) {
+        this.provider = provider;
+        this.backupFolder = null;
+    }
+
+    /**
+     * Creates a cache for a backup folder, which is empty until prefetched.
+     * @param provider used to walk the backup folder, and to look up what is not cached
+     * @param backupFolder the folder of the backup being restored
+     */
+    public RestoreLocationCache(final PersistProvider provider, final Path backupFolder) {
+        this.provider = provider;
+        this.backupFolder = normalize(backupFolder);
+    }
+
+    /**
+     * Walks the backup folder and caches the paths found.
+     * @return this cache
+     * @throws IOException if the backup folder can't be walked
+     */
+    public RestoreLocationCache prefetch() throws IOException {
+        final List<Path> paths;
+        try (Stream<Path> walk = provider.walk(backupFolder, DEPTH_OF_FILES)) {
+            paths = walk.map(RestoreLocationCache::normalize).collect(Collectors.toList());
+        }
+        final Set<Path> folders = paths.stream().map(Path::getParent).collect(Collectors.toSet());
+        final Map<Path, List<Path>> files = new HashMap<>();
+        // Object storage has no folders, so whatever has nothing under it is a file
+        paths.stream()
+                .filter(path -> !folders.contains(path) && !path.equals(backupFolder))
+                .forEach(file -> files.computeIfAbsent(file.getParent(), folder -> new ArrayList<>()).add(file));
+        files.values().forEach(Collections::sort);
+        this.filesByFolder = files;
+        this.existingPaths = new HashSet<>(paths);
+        log.info("Prefetched <{}> locations of backup folder <{}>", paths.size(), backupFolder);
+        return this;
+    }
+
+    /**
+     * Checks if a path exists.
+     * @param path to check
+     * @return true if the path exists
+     */
+    public boolean exists(final Path path) {
+        final Path normalized = normalize(path);
+        if (isCached(normalized)) {
+            return existingPaths.contains(normalized);
+        }
+        return provider.exists(path);
+    }
+
+    /**
+     * Finds the first file of a folder, in path order.
+     * @param folder to look in
+     * @return the first file of the folder, if any
+     */
+    public Optional<Path> findFile(final Path folder) {
+        final Path normalized = normalize(folder);
+        if (isCached(normalized)) {
+            return filesByFolder.getOrDefault(normalized, List.of()).stream().findFirst();
+        }
+        return provider.list(folder)
+                .stream()
+                .filter(provider::isFile)
+                .sorted(Path::compareTo)
+                .findFirst();
+    }
+
+    private boolean isCached(final Path path) {
+        return existingPaths != null && path.startsWith(backupFolder)
+                && path.getNameCount() - backupFolder.getNameCount() <= DEPTH_OF_FILES;
+    }
+
+    private static Path normalize(final Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
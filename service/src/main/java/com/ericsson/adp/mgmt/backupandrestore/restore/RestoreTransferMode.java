@@ -0,0 +1,37 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.restore;
+
+/**
+ * How fragment data files stored on the PVC are read and sent to the agent during restore.
+ */
+public enum RestoreTransferMode {
+    /**
+     * Reads each chunk into a heap buffer, copies it into the message and hashes it on the sending thread.
+     */
+    BUFFERED,
+    /**
+     * Memory maps the data file, wraps the mapped chunks into the message without copying
+     * and hashes the mapped regions on a separate thread.
+     */
+    MAPPED;
+
+    /**
+     * Take a string value and match it to one of the enum constants here, in a CASE INSENSITIVE manner
+     * throws IllegalArgumentException if a matching enum constant can't be found
+     * @param value - value to be matched
+     * @return a matched value
+     * */
+    public static RestoreTransferMode caseSafeOf(final String value) {
+        return RestoreTransferMode.valueOf(value.trim().toUpperCase());
+    }
+}
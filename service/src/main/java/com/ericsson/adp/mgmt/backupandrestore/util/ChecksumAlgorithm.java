@@ -0,0 +1,221 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.util;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import jakarta.xml.bind.DatatypeConverter;
+
+import com.ericsson.adp.mgmt.backupandrestore.exception.BackupServiceException;
+import com.ericsson.adp.mgmt.metadata.AgentFeature;
+
+import net.jpountz.xxhash.StreamingXXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Checksum algorithms which can be used on the data channel and stored in the checksum file of a fragment.
+ * The algorithm is negotiated with each agent on registration, through the CHECKSUM_* agent features.
+ * Only agents registering with CHECKSUM_NEGOTIATION negotiate, as agents released before it could declare
+ * CHECKSUM_XXHASH_64 while still sending MD5 checksums.
+ */
+public enum ChecksumAlgorithm {
+    MD5(AgentFeature.CHECKSUM_MD5_VALUE) {
+        @Override
+        Hasher newHasher() {
+            return new DigestHasher("MD5");
+        }
+    },
+    XXHASH64(AgentFeature.CHECKSUM_XXHASH_64_VALUE) {
+        @Override
+        Hasher newHasher() {
+            return new XXHash64Hasher();
+        }
+    },
+    CRC32C(ChecksumAlgorithm.CHECKSUM_CRC32C_VALUE) {
+        @Override
+        Hasher newHasher() {
+            return new CRC32CHasher();
+        }
+    };
+
+    /**
+     * AgentFeature.CHECKSUM_CRC32C, which is not in the version of the agent api the orchestrator is built with
+     */
+    public static final int CHECKSUM_CRC32C_VALUE = 12;
+
+    /**
+     * AgentFeature.CHECKSUM_NEGOTIATION, sent only by agents which calculate the negotiated algorithm
+     */
+    public static final int CHECKSUM_NEGOTIATION_VALUE = 14;
+
+    /**
+     * Algorithms preferred over MD5, fastest first. MD5 is used when the agent and the orchestrator share none of these.
+     */
+    private static final List<ChecksumAlgorithm> NEGOTIABLE = List.of(CRC32C, XXHASH64);
+    private static final String SIDECAR_SEPARATOR = ":";
+
+    private final int agentFeature;
+
+    ChecksumAlgorithm(final int agentFeature) {
+        this.agentFeature = agentFeature;
+    }
+
+    /**
+     * Get the number of the agent feature advertising this algorithm
+     * @return the AgentFeature value
+     */
+    public int getAgentFeature() {
+        return agentFeature;
+    }
+
+    /**
+     * Chooses the algorithm used on the data channel of an agent.
+     * The agent api makes the same choice from the features acknowledged by the orchestrator.
+     * @param agentFeatures the values of the features the agent registered with
+     * @return the fastest algorithm supported by both, or MD5 if the agent doesn't negotiate checksums
+     */
+    public static ChecksumAlgorithm negotiate(final Collection<Integer> agentFeatures) {
+        if (!agentFeatures.contains(CHECKSUM_NEGOTIATION_VALUE)) {
+            return MD5;
+        }
+        return NEGOTIABLE.stream()
+                .filter(algorithm -> agentFeatures.contains(algorithm.agentFeature))
+                .findFirst()
+                .orElse(MD5);
+    }
+
+    /**
+     * Formats a checksum as stored in the checksum file of a fragment.
+     * MD5 checksums are stored on their own, as they always have been, so older orchestrators can still read them.
+     * @param checksum calculated with this algorithm
+     * @return the content of the checksum file
+     */
+    public String toChecksumFileContent(final String checksum) {
+        return this == MD5 ? checksum : name() + SIDECAR_SEPARATOR + checksum;
+    }
+
+    /**
+     * Gets the algorithm a checksum file was written with
+     * @param content of the checksum file
+     * @return the algorithm named in the file, or MD5 for files which name none
+     */
+    public static ChecksumAlgorithm ofChecksumFileContent(final String content) {
+        final int separator = content.indexOf(SIDECAR_SEPARATOR);
+        return separator < 0 ? MD5 : valueOf(content.substring(0, separator));
+    }
+
+    /**
+     * Gets the checksum stored in a checksum file
+     * @param content of the checksum file
+     * @return the checksum without the algorithm name
+     */
+    public static String checksumOfChecksumFileContent(final String content) {
+        return content.substring(content.indexOf(SIDECAR_SEPARATOR) + 1);
+    }
+
+    abstract Hasher newHasher();
+
+    /**
+     * Incremental calculation of one checksum
+     */
+    interface Hasher {
+        void update(byte[] bytes, int offset, int length);
+
+        void update(ByteBuffer buffer);
+
+        String finish();
+    }
+
+    private static class DigestHasher implements Hasher {
+        private final MessageDigest digest;
+
+        DigestHasher(final String algorithm) {
+            try {
+                this.digest = MessageDigest.getInstance(algorithm);
+            } catch (Exception e) {
+                throw new BackupServiceException("Couldn't start checksum algorithm", e);
+            }
+        }
+
+        @Override
+        public void update(final byte[] bytes, final int offset, final int length) {
+            digest.update(bytes, offset, length);
+        }
+
+        @Override
+        public void update(final ByteBuffer buffer) {
+            digest.update(buffer);
+        }
+
+        @Override
+        public String finish() {
+            return DatatypeConverter.printHexBinary(digest.digest());
+        }
+    }
+
+    private static class CRC32CHasher implements Hasher {
+        private final CRC32C crc = new CRC32C();
+
+        @Override
+        public void update(final byte[] bytes, final int offset, final int length) {
+            crc.update(bytes, offset, length);
+        }
+
+        @Override
+        public void update(final ByteBuffer buffer) {
+            crc.update(buffer);
+        }
+
+        @Override
+        public String finish() {
+            return String.format("%08x", crc.getValue());
+        }
+    }
+
+    private static class XXHash64Hasher implements Hasher {
+        private static final int COPY_SIZE = 64 * 1024;
+        private final StreamingXXHash64 hash64 = XXHashFactory.fastestInstance().newStreamingHash64(0);
+        private byte[] copyBuffer;
+
+        @Override
+        public void update(final byte[] bytes, final int offset, final int length) {
+            hash64.update(bytes, offset, length);
+        }
+
+        @Override
+        public void update(final ByteBuffer buffer) {
+            if (buffer.hasArray()) {
+                hash64.update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                buffer.position(buffer.limit());
+                return;
+            }
+            // The streaming hash only takes arrays, so direct and mapped buffers are copied a slice at a time
+            if (copyBuffer == null) {
+                copyBuffer = new byte[COPY_SIZE];
+            }
+            while (buffer.hasRemaining()) {
+                final int length = Math.min(COPY_SIZE, buffer.remaining());
+                buffer.get(copyBuffer, 0, length);
+                hash64.update(copyBuffer, 0, length);
+            }
+        }
+
+        @Override
+        public String finish() {
+            return String.format("%016x", hash64.getValue());
+        }
+    }
+}
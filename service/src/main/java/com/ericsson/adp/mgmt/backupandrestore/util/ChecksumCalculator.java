@@ -11,32 +11,48 @@
  *------------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.backupandrestore.util;
 
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.security.MessageDigest;
-
-import jakarta.xml.bind.DatatypeConverter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
 
 import com.ericsson.adp.mgmt.backupandrestore.exception.BackupServiceException;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm.Hasher;
 
 /**
  * Calculates checksum.
+ * Several algorithms can be calculated over the same bytes, e.g. while restoring a fragment whose
+ * checksum file was written with a different algorithm than the one the agent uses.
  */
 public class ChecksumCalculator {
 
-    private static final String CHECKSUM_ALGORITHM = "MD5";
+    private static final int FILE_BUFFER_SIZE = 256 * 1024;
 
-    private final MessageDigest digest;
+    private final ChecksumAlgorithm algorithm;
+    private final Map<ChecksumAlgorithm, Hasher> hashers = new EnumMap<>(ChecksumAlgorithm.class);
+    private final Map<ChecksumAlgorithm, String> checksums = new EnumMap<>(ChecksumAlgorithm.class);
 
     /**
-     * Creates a checksum calculator.
+     * Creates a MD5 checksum calculator.
      */
     public ChecksumCalculator() {
-        try {
-            this.digest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
-        } catch (Exception e) {
-            throw new BackupServiceException("Couldn't start checksum algorithm", e);
+        this(ChecksumAlgorithm.MD5);
+    }
+
+    /**
+     * Creates a checksum calculator.
+     * @param algorithm the algorithm returned by getChecksum()
+     * @param additionalAlgorithms other algorithms calculated over the same bytes
+     */
+    public ChecksumCalculator(final ChecksumAlgorithm algorithm, final ChecksumAlgorithm... additionalAlgorithms) {
+        this.algorithm = algorithm;
+        hashers.put(algorithm, algorithm.newHasher());
+        for (final ChecksumAlgorithm additional : additionalAlgorithms) {
+            hashers.computeIfAbsent(additional, ChecksumAlgorithm::newHasher);
         }
     }
 
@@ -44,8 +60,8 @@ public class ChecksumCalculator {
      * Checksum algorithm
      * @return checksum algorithm
      */
-    public String getChecksumAlgorithm() {
-        return CHECKSUM_ALGORITHM;
+    public ChecksumAlgorithm getChecksumAlgorithm() {
+        return algorithm;
     }
 
     /**
@@ -53,7 +69,30 @@ public class ChecksumCalculator {
      * @param bytes to be read.
      */
     public void addBytes(final byte[] bytes) {
-        digest.update(bytes);
+        addBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads part of a byte array.
+     * @param bytes chunk
+     * @param offset offset
+     * @param length bytes read in chunk
+     */
+    public void addBytes(final byte[] bytes, final int offset, final int length) {
+        for (final Hasher hasher : hashers.values()) {
+            hasher.update(bytes, offset, length);
+        }
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer, without copying them onto the heap.
+     * @param buffer to be read.
+     */
+    public void addBytes(final ByteBuffer buffer) {
+        for (final Hasher hasher : hashers.values()) {
+            hasher.update(buffer.duplicate());
+        }
+        buffer.position(buffer.limit());
     }
 
     /**
@@ -61,7 +100,39 @@ public class ChecksumCalculator {
      * @return checksum.
      */
     public String getChecksum() {
-        return toHex(digest.digest());
+        return getChecksum(algorithm);
+    }
+
+    /**
+     * Calculates the checksum of one of the algorithms of this calculator.
+     * No more bytes should be added once a checksum has been calculated.
+     * @param checksumAlgorithm the algorithm
+     * @return checksum.
+     */
+    public String getChecksum(final ChecksumAlgorithm checksumAlgorithm) {
+        final Hasher hasher = hashers.get(checksumAlgorithm);
+        if (hasher == null) {
+            throw new IllegalArgumentException("Checksum calculator does not calculate " + checksumAlgorithm);
+        }
+        return checksums.computeIfAbsent(checksumAlgorithm, key -> hasher.finish());
+    }
+
+    /**
+     * Reads the whole content of a file.
+     * The file is read through the buffer, so a direct buffer is read without copying it onto the heap.
+     * @param file to be read.
+     * @param buffer used to read the file, its content is overwritten.
+     * @throws IOException if the file can't be read.
+     */
+    public void addFile(final Path file, final ByteBuffer buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                addBytes(buffer);
+                buffer.clear();
+            }
+        }
     }
 
     /**
@@ -71,20 +142,12 @@ public class ChecksumCalculator {
      */
     public static String getChecksum(final String filePath) {
         final ChecksumCalculator calculator = new ChecksumCalculator();
-        try (BufferedInputStream fileStream = new BufferedInputStream(new FileInputStream(filePath))) {
-            final byte[] chunk = new byte[1];
-
-            while (fileStream.read(chunk, 0, 1) != -1) {
-                calculator.addBytes(chunk);
-            }
+        try {
+            calculator.addFile(Paths.get(filePath), ByteBuffer.allocate(FILE_BUFFER_SIZE));
         } catch (final IOException e) {
             throw new BackupServiceException("Exception reading backed up file for checksum calculation", e);
         }
         return calculator.getChecksum();
     }
 
-    private String toHex(final byte[] bytes) {
-        return DatatypeConverter.printHexBinary(bytes);
-    }
-
 }
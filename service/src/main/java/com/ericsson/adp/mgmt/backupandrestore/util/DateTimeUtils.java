@@ -25,7 +25,7 @@ import java.time.format.DateTimeParseException;
  */
 public class DateTimeUtils {
 
-    public static final String TIMESTAMP_PATTERN = "-\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}[0-9A-Za-z:+-\\[\\]\\.]*\\.tar\\.gz";
+    public static final String TIMESTAMP_PATTERN = "-\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}[0-9A-Za-z:+-\\[\\]\\.]*\\.tar(\\.gz|\\.zst|\\.lz4)?";
     private static final DateTimeFormatter DATE_TIME_FORMATTER = new DateTimeFormatterBuilder().append(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
             .optionalStart().appendOffset("+HH:MM", "+00:00").optionalEnd()
             .optionalStart().appendOffset("+HH", "Z").optionalEnd()
@@ -33,6 +33,8 @@ import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 public class JsonService {
 
     private static final Logger logger = LogManager.getLogger(JsonService.class);
+    // Configured once and shared, so the serializers and deserializers of each class are only built once
+    private static final ObjectMapper MAPPER = createObjectMapper();
 
     /**
      * Creates json string based on object.
@@ -106,6 +108,10 @@ public class JsonService {
     }
 
     private static ObjectMapper getObjectMapper() {
+        return MAPPER;
+    }
+
+    private static ObjectMapper createObjectMapper() {
         final ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new Jdk8Module());
         mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
@@ -174,7 +174,8 @@ public class ManagedQueueingWorker<T> {
         public void run() {
             while (processRunning.get()) {
                 try {
-                    final Optional<T> message = Optional.ofNullable(queue.poll(MAX_WAIT_TIME_NEW_MESSAGES, TimeUnit.SECONDS));
+                    final Optional<T> message = Optional.ofNullable(queue.poll(MAX_WAIT_TIME_NEW_MESSAGES, TimeUnit.SECONDS))
+                            .map(this::merge);
                     if (message.isPresent()) {
                         if (log.isDebugEnabled()) {
                             log.debug("processing queued message: <{}>", message.get());
@@ -196,6 +197,12 @@ public class ManagedQueueingWorker<T> {
                 }
             }
         }
+
+        private T merge(final T message) {
+            synchronized (queue) {
+                return processorEngine.merge(message, queue);
+            }
+        }
     }
 
     /**
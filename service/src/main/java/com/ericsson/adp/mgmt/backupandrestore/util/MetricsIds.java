@@ -25,6 +25,7 @@ import static com.ericsson.adp.mgmt.backupandrestore.util.MetricTags.STAGE;
 import static com.ericsson.adp.mgmt.backupandrestore.util.MetricTags.STATUS;
 import static io.micrometer.core.instrument.Meter.Type.COUNTER;
 import static io.micrometer.core.instrument.Meter.Type.GAUGE;
+import static io.micrometer.core.instrument.Meter.Type.TIMER;
 
 import java.util.Arrays;
 import java.util.Map.Entry;
@@ -42,6 +43,7 @@ import io.micrometer.core.instrument.Gauge.Builder;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.search.Search;
 
 /**
@@ -65,6 +67,37 @@ public enum MetricsIds {
             ACTION, BACKUP_TYPE, BACKUP_NAME, ACTION_ID, STATUS, ADDITIONAL_INFO),
     METRIC_BRO_OPERATION_TRANSFERRED_BYTES ("bro.operation.transferred.bytes", GAUGE, "Number of bytes transferred by backup operation",
             ACTION, BACKUP_TYPE, BACKUP_NAME, ACTION_ID, AGENT),
+    METRIC_BRO_OPERATION_BACKPRESSURE_WAIT_SECONDS ("bro.operation.backpressure.wait.seconds", GAUGE,
+            "Time the data channels of an agent were blocked waiting for the agent to accept more data",
+            ACTION, BACKUP_TYPE, BACKUP_NAME, ACTION_ID, AGENT),
+    METRIC_BRO_RESTORE_FRAGMENT_QUEUE_SECONDS ("bro.restore.fragment.queue.seconds", TIMER,
+            "Time restore fragments waited for a sender after the agent opened the data channel", AGENT),
+    METRIC_BRO_RESTORE_FRAGMENT_TRANSFER_SECONDS ("bro.restore.fragment.transfer.seconds", TIMER,
+            "Time taken to send restore fragments to the agent", AGENT),
+    METRIC_BRO_STARTUP_PHASE_SECONDS ("bro.startup.phase.seconds", TIMER,
+            "Time taken by each phase of loading the backup managers at startup", STAGE),
+    METRIC_BRO_JOB_QUEUE_WAIT_SECONDS ("bro.job.queue.wait.seconds", TIMER,
+            "Time actions waited between being accepted and their job starting", ACTION),
+    METRIC_BRO_CMM_MESSAGE_QUEUE_SECONDS ("bro.cmm.message.queue.seconds", TIMER,
+            "Time CMM messages waited in the queue before being sent"),
+    METRIC_BRO_CMM_MESSAGE_TRANSFER_SECONDS ("bro.cmm.message.transfer.seconds", TIMER,
+            "Time taken to send a CMM message, or a batch of CMM messages, including retries"),
+    METRIC_BRO_CMM_MESSAGES_MERGED_TOTAL ("bro.cmm.messages.merged.total", COUNTER,
+            "Counter for number of queued CMM messages sent along with an earlier message"),
+    METRIC_BRO_CMM_PROGRESS_REPORTS_MERGED_TOTAL ("bro.cmm.progress.reports.merged.total", COUNTER,
+            "Counter for number of progress report updates replaced by a later update before being published"),
+    METRIC_BRO_CMM_PROGRESS_REPORTS_DROPPED_TOTAL ("bro.cmm.progress.reports.dropped.total", COUNTER,
+            "Counter for number of progress report updates dropped as too many updates were pending"),
+    METRIC_BRO_DEDUP_INGESTED_BYTES_TOTAL ("bro.dedup.ingested.bytes.total", COUNTER,
+            "Counter for number of bytes of backup data files received to be deduplicated"),
+    METRIC_BRO_DEDUP_STORED_BYTES_TOTAL ("bro.dedup.stored.bytes.total", COUNTER,
+            "Counter for number of bytes of backup data files stored as chunks which were not already stored"),
+    METRIC_BRO_DEDUP_COLLECTED_BYTES_TOTAL ("bro.dedup.collected.bytes.total", COUNTER,
+            "Counter for number of bytes of chunks deleted as no stored backup referenced them anymore"),
+    METRIC_BRO_DEDUP_RATIO ("bro.dedup.ratio", GAUGE,
+            "Ratio of the bytes of backup data files received to the bytes stored by deduplication since startup"),
+    METRIC_BRO_DEDUP_INGEST_SECONDS ("bro.dedup.ingest.seconds", TIMER,
+            "Time taken to chunk, hash and store each deduplicated backup data file"),
 
     METRIC_BRO_DISK_USAGE_BYTES ("bro.disk.usage.bytes", GAUGE, "Total size of the backup files on disk",
             BACKUP_TYPE),
@@ -83,7 +116,9 @@ public enum MetricsIds {
     METRIC_BRO_OPERATIONS_TOTAL ("bro.operations.total", COUNTER, "Counter for number of executed operations",
             ACTION, STATUS, BACKUP_TYPE),
     METRIC_BRO_GRANULAR_OPERATIONS_TOTAL ("bro.granular.operations.total", COUNTER, "Counter for number of granular executed operations",
-            AGENT, ACTION, STATUS, BACKUP_TYPE);
+            AGENT, ACTION, STATUS, BACKUP_TYPE),
+    METRIC_BRO_OPERATION_OSMN_REQUESTS_TOTAL ("bro.operation.osmn.requests.total", COUNTER,
+            "Counter for number of requests sent to the object store by executed operations", ACTION, BACKUP_TYPE);
 
     private final String metricId;
     private final String description;
@@ -186,6 +221,13 @@ public enum MetricsIds {
             });
             counter.description(identification());
             counter.register(registry);
+        } else if (type() == TIMER) {
+            final Timer.Builder timer = Timer.builder(identification());
+            tags().forEach(entryTag -> {
+                timer.tag(entryTag.getValue().getKey(), entryTag.getValue().getValue());
+            });
+            timer.description(description());
+            timer.register(registry);
         }
     }
 
@@ -210,6 +252,8 @@ public enum MetricsIds {
                 .forEach(registry::remove);
         } else if (type == COUNTER) {
             search.counters().forEach(registry::remove);
+        } else if (type == TIMER) {
+            search.timers().forEach(registry::remove);
         }
 
     }
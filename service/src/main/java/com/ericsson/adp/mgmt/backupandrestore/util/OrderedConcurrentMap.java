@@ -16,11 +16,12 @@ import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -28,19 +29,26 @@ import org.apache.logging.log4j.Logger;
 /**
  * A thread-safe map that maintains the order of elements.
  *
+ * Each key is given a sequence number when it is added, and the keys are kept ordered by sequence in a skip list next
+ * to the map of values, so remove and replaceKey don't scan the map. Changes to the keys are serialized, while reads
+ * don't lock. Iterating returns the entries in the order they were added, and is weakly consistent: it never throws
+ * ConcurrentModificationException, and reflects the changes made while it runs that it hasn't gone past yet.
+ *
  * @param <K> the type of keys maintained by this map
  * @param <V> the type of mapped values
  */
 public class OrderedConcurrentMap<K, V> {
     private static final Logger log = LogManager.getLogger(OrderedConcurrentMap.class);
-    private final List<K> order;
-    private final ConcurrentHashMap<K, V> map;
+    private final ConcurrentSkipListMap<Long, K> order;
+    private final ConcurrentHashMap<K, Node<V>> map;
+    private final Object keysLock = new Object();
+    private long nextSequence;
 
     /**
-     * Initializes a new instance of the map and the order list.
+     * Initializes a new instance of the map and the order index.
      */
     public OrderedConcurrentMap() {
-        order = new LinkedList<>();
+        order = new ConcurrentSkipListMap<>();
         map = new ConcurrentHashMap<>();
     }
 
@@ -53,32 +61,7 @@ public class OrderedConcurrentMap<K, V> {
         return new AbstractSet<Map.Entry<K, V>>() {
             @Override
             public Iterator<Map.Entry<K, V>> iterator() {
-                final Iterator<K> keyIterator = order.iterator();
-
-                return new Iterator<Map.Entry<K, V>>() {
-                    private K currentKey;
-
-                    @Override
-                    public boolean hasNext() {
-                        return keyIterator.hasNext();
-                    }
-
-                    @Override
-                    public Map.Entry<K, V> next() {
-                        currentKey = keyIterator.next();
-                        return new AbstractMap.SimpleEntry<>(currentKey, map.get(currentKey));
-                    }
-
-                    @Override
-                    public void remove() {
-                        if (currentKey == null) {
-                            throw new IllegalStateException();
-                        }
-                        keyIterator.remove();
-                        map.remove(currentKey);
-                        currentKey = null;
-                    }
-                };
+                return new OrderedIterator();
             }
 
             @Override
@@ -106,45 +89,72 @@ public class OrderedConcurrentMap<K, V> {
      * @param value the new value to be associated with the specified key
      */
     public void replace(final K key, final V value) {
-        map.replace(key, value);
+        // Locked as replaceKey, or the value could be set on the old key of an entry just moved to its new key
+        synchronized (keysLock) {
+            final Node<V> existing = map.get(key);
+            if (existing != null) {
+                map.put(key, new Node<>(existing.sequence, value));
+            }
+        }
     }
 
     /**
-     * Associates the specified value with the specified key in this map and
-     * adds the key to the order list.
+     * Associates the specified value with the specified key in this map. A new key
+     * is added at the end of the order, an existing key keeps its position.
      *
      * @param key the key with which the specified value is to be associated
      * @param value the value to be associated with the specified key
      */
     public void put(final K key, final V value) {
-        map.put(key, value);
-        order.add(key);
+        synchronized (keysLock) {
+            final Node<V> existing = map.get(key);
+            if (existing != null) {
+                map.put(key, new Node<>(existing.sequence, value));
+            } else {
+                final long sequence = nextSequence++;
+                map.put(key, new Node<>(sequence, value));
+                order.put(sequence, key);
+            }
+        }
     }
 
     /**
-     * Removes the entry for the specified key from this map and the order list.
+     * Removes the entry for the specified key from this map and the order index.
      *
      * @param key the key of the entry to remove
      * @return the previous value associated with the specified key, or null
      * if there was no mapping for the key
      */
     public V remove(final K key) {
-        final V removedValue = map.remove(key);
-        order.remove(key);
-        return removedValue;
+        synchronized (keysLock) {
+            final Node<V> removed = map.remove(key);
+            if (removed == null) {
+                return null;
+            }
+            order.remove(removed.sequence);
+            return removed.value;
+        }
     }
 
     /**
-     * Replaces the key of an entry in this map and the order list.
+     * Replaces the key of an entry in this map, keeping the position of the entry in the order.
+     * If the new key was already in the map, its previous entry is dropped.
      *
      * @param oldKey the old key of the entry to replace
      * @param newKey the new key to be associated with the value of the old key
      */
     public void replaceKey(final K oldKey, final K newKey) {
-        if (map.containsKey(oldKey)) {
-            final V value = map.remove(oldKey);
-            map.put(newKey, value);
-            order.set(order.indexOf(oldKey), newKey);
+        synchronized (keysLock) {
+            final Node<V> node = map.get(oldKey);
+            if (node == null || oldKey.equals(newKey)) {
+                return;
+            }
+            final Node<V> replaced = map.put(newKey, node);
+            if (replaced != null) {
+                order.remove(replaced.sequence);
+            }
+            order.put(node.sequence, newKey);
+            map.remove(oldKey);
         }
     }
 
@@ -157,7 +167,8 @@ public class OrderedConcurrentMap<K, V> {
      * null if this map contains no mapping for the key
      */
     public V get(final K key) {
-        return map.get(key);
+        final Node<V> node = map.get(key);
+        return node == null ? null : node.value;
     }
 
     /**
@@ -167,9 +178,7 @@ public class OrderedConcurrentMap<K, V> {
      */
     public Collection<V> values() {
         final List<V> orderedValues = new ArrayList<>();
-        for (final K key : order) {
-            orderedValues.add(map.get(key));
-        }
+        entrySet().forEach(entry -> orderedValues.add(entry.getValue()));
         return orderedValues;
     }
 
@@ -177,6 +186,61 @@ public class OrderedConcurrentMap<K, V> {
      * Prints the entries of this map in the order they were added.
      */
     public void printOrderedMap() {
-        log.debug("<{}>", order);
+        log.debug("<{}>", order.values());
+    }
+
+    /**
+     * A value, with the sequence number giving the position of its key in the order.
+     * Nodes are replaced rather than updated, so the value and the sequence read from a node always match.
+     */
+    private static final class Node<V> {
+        private final long sequence;
+        private final V value;
+
+        private Node(final long sequence, final V value) {
+            this.sequence = sequence;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Walks the order index, skipping keys removed or moved since they were indexed.
+     */
+    private class OrderedIterator implements Iterator<Map.Entry<K, V>> {
+        private final Iterator<Map.Entry<Long, K>> positions = order.entrySet().iterator();
+        private Map.Entry<K, V> next;
+        private K currentKey;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && positions.hasNext()) {
+                final Map.Entry<Long, K> position = positions.next();
+                final Node<V> node = map.get(position.getValue());
+                if (node != null && node.sequence == position.getKey()) {
+                    next = new AbstractMap.SimpleEntry<>(position.getValue(), node.value);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Map.Entry<K, V> entry = next;
+            next = null;
+            currentKey = entry.getKey();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (currentKey == null) {
+                throw new IllegalStateException();
+            }
+            OrderedConcurrentMap.this.remove(currentKey);
+            currentKey = null;
+        }
     }
-}
\ No newline at end of file
+}
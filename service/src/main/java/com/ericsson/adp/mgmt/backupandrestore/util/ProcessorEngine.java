@@ -11,6 +11,8 @@
  *------------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.backupandrestore.util;
 
+import java.util.Deque;
+
 /**
  * Interface to define processor used by REST
  * @param <T> item to be processed
@@ -24,4 +26,18 @@ public interface ProcessorEngine<T> {
      * @return ServiceState service state after the processed message
      */
     T transferMessage(final T message);
+
+    /**
+     * Merges a message taken from the queue with the messages queued right after it, which are taken from the head of
+     * the queue. It's called by the worker, which is the only thread taking messages from the queue, while holding the
+     * monitor of the queue, so messages aren't moved to the head of the queue meanwhile. Messages can still be added at
+     * the tail of the queue.
+     * By default, messages are processed one by one.
+     * @param message taken from the queue
+     * @param queued the messages still queued
+     * @return the message to be processed in place of the message taken
+     */
+    default T merge(final T message, final Deque<T> queued) {
+        return message;
+    }
 }
\ No newline at end of file
@@ -147,6 +147,26 @@ public class ActionFileServiceTest {
         assertEquals(action.getState(), obtainedAction.getState());
     }
 
+    @Test
+    public void getActions_actionWrittenAfterRead_returnsWrittenActionAndKeepsOthers() throws Exception {
+        final String backupManagerId = "qwe";
+        final Action action = getAction("fgh", backupManagerId);
+        fileService.writeToFile(action);
+        fileService.writeToFile(getAction("jgk", backupManagerId));
+        final PersistedAction otherAction = fileService.getActions(backupManagerId).stream()
+                .filter(persistedAction -> "jgk".equals(persistedAction.getActionId())).findFirst().get();
+
+        action.setProgressInfo("updated");
+        fileService.writeToFile(action);
+        final List<PersistedAction> actions = fileService.getActions(backupManagerId);
+
+        assertEquals(2, actions.size());
+        assertEquals("updated", actions.stream().filter(persistedAction -> "fgh".equals(persistedAction.getActionId()))
+                .findFirst().get().getProgressInfo());
+        assertTrue(actions.contains(otherAction));
+        assertEquals(2, actions.stream().filter(persistedAction -> persistedAction.getVersion() == fileService.getLatestVersion()).count());
+    }
+
     @Test
     public void getActions_backupManagerIdWithoutPersistedFiles_emptyList() throws Exception {
         final String backupManagerId = "qwe";
@@ -26,13 +26,17 @@ import org.junit.Test;
 
 import com.ericsson.adp.mgmt.backupandrestore.agent.AgentInputStream;
 import com.ericsson.adp.mgmt.backupandrestore.backup.SoftwareVersion;
+import com.ericsson.adp.mgmt.backupandrestore.grpc.ChunkSizeNegotiation;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
 import com.ericsson.adp.mgmt.backupandrestore.job.RestoreJob;
 import com.ericsson.adp.mgmt.backupandrestore.restore.RestoreInformation;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.control.AgentControl;
 import com.ericsson.adp.mgmt.control.AgentMessageType;
 import com.ericsson.adp.mgmt.control.Register;
+import com.ericsson.adp.mgmt.metadata.AgentFeature;
 import com.ericsson.adp.mgmt.metadata.SoftwareVersionInfo;
+import com.google.protobuf.UnknownFieldSet;
 
 public class RecognizedStateTest {
 
@@ -119,6 +123,41 @@ public class RecognizedStateTest {
         state.executeRestore(null);
     }
 
+    @Test
+    public void getChecksumAlgorithm_agentRegisteredChecksumFeatures_fastestSharedAlgorithm() throws Exception {
+        assertEquals(ChecksumAlgorithm.MD5, state.getChecksumAlgorithm());
+
+        final Register registration = getRegistrationMessage("123").toBuilder()
+                .addAgentFeature(AgentFeature.CHECKSUM_XXHASH_64)
+                .addAgentFeatureValue(ChecksumAlgorithm.CHECKSUM_CRC32C_VALUE)
+                .addAgentFeatureValue(ChecksumAlgorithm.CHECKSUM_NEGOTIATION_VALUE)
+                .build();
+        assertEquals(ChecksumAlgorithm.CRC32C, new RecognizedState(registration).getChecksumAlgorithm());
+    }
+
+    @Test
+    public void getChecksumAlgorithm_releasedAgentDeclaringXXHash64_md5() throws Exception {
+        final Register registration = getRegistrationMessage("123").toBuilder()
+                .addAgentFeature(AgentFeature.CHECKSUM_MD5)
+                .addAgentFeature(AgentFeature.CHECKSUM_XXHASH_64)
+                .build();
+        assertEquals(ChecksumAlgorithm.MD5, new RecognizedState(registration).getChecksumAlgorithm());
+    }
+
+    @Test
+    public void getMaxChunkSize_agentRegisteredAdaptiveChunkSize_maxChunkSizeOfRegistration() throws Exception {
+        assertEquals(0, state.getMaxChunkSize());
+
+        final UnknownFieldSet maxChunkSize = UnknownFieldSet.newBuilder()
+                .addField(ChunkSizeNegotiation.REGISTER_MAX_CHUNK_SIZE_FIELD, UnknownFieldSet.Field.newBuilder().addVarint(1024 * 1024).build())
+                .build();
+        final Register withoutFeature = getRegistrationMessage("123").toBuilder().setUnknownFields(maxChunkSize).build();
+        assertEquals(0, new RecognizedState(withoutFeature).getMaxChunkSize());
+
+        final Register registration = withoutFeature.toBuilder().addAgentFeatureValue(ChunkSizeNegotiation.AGENT_FEATURE).build();
+        assertEquals(1024 * 1024, new RecognizedState(Register.parseFrom(registration.toByteArray())).getMaxChunkSize());
+    }
+
     @Test
     public void resetState_recognizedState(){
         assertEquals(RecognizedState.class, state.resetState().getClass());
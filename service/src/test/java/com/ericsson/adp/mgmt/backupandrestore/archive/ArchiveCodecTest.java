@@ -0,0 +1,125 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumHash64;
+import com.ericsson.adp.mgmt.backupandrestore.util.CustomTarArchiveInputStream;
+
+public class ArchiveCodecTest {
+
+    private static final byte[] CONTENT = "fragment data fragment data fragment data".getBytes(StandardCharsets.UTF_8);
+
+    private final StreamingArchiveService archiveService = new StreamingArchiveService(EasyMock.createMock(ArchiveUtils.class));
+
+    @Test
+    public void openTarInput_eachCodec_detectedAndUnpacked() throws IOException {
+        for (final ArchiveCodec codec : ArchiveCodec.values()) {
+            final byte[] tarball = createTarball(codec, 1);
+            try (BufferedInputStream stream = new BufferedInputStream(new ByteArrayInputStream(tarball))) {
+                assertEquals(codec, ArchiveCodec.detect(stream));
+            }
+            assertTarballContent(tarball, null);
+        }
+    }
+
+    @Test
+    public void openTarInput_multiThreadedZstd_unpacked() throws IOException {
+        assertTarballContent(createTarball(ArchiveCodec.ZSTD, 2), null);
+    }
+
+    @Test
+    public void openTarInput_eachCodec_checksumCalculatedOverWholeTarball() throws IOException {
+        for (final ArchiveCodec codec : ArchiveCodec.values()) {
+            final byte[] tarball = createTarball(codec, 1);
+            final ChecksumHash64 expected = new ChecksumHash64();
+            expected.updateHash64(tarball, tarball.length);
+            final ChecksumHash64 hash64 = new ChecksumHash64();
+            assertTarballContent(tarball, hash64);
+            assertEquals(codec.name(), expected.getStringValue(), hash64.getStringValue());
+        }
+    }
+
+    @Test
+    public void detect_shortStream_store() throws IOException {
+        try (BufferedInputStream stream = new BufferedInputStream(new ByteArrayInputStream(new byte[] {0x1f}))) {
+            assertEquals(ArchiveCodec.STORE, ArchiveCodec.detect(stream));
+            assertEquals(0x1f, stream.read());
+        }
+    }
+
+    @Test
+    public void tarballName_eachCodec_recognizedAndStripped() {
+        assertTrue(ArchiveCodec.isTarballName("backup-2024-01-01T00:00:00Z.tar.gz"));
+        assertTrue(ArchiveCodec.isTarballName("backup.tar.zst"));
+        assertTrue(ArchiveCodec.isTarballName("backup.tar.lz4"));
+        assertTrue(ArchiveCodec.isTarballName("backup.tar"));
+        assertFalse(ArchiveCodec.isTarballName("backup"));
+        assertEquals("backup", ArchiveCodec.stripExtension("backup.tar.gz"));
+        assertEquals("backup", ArchiveCodec.stripExtension("backup.tar.zst"));
+        assertEquals("backup", ArchiveCodec.stripExtension("backup.tar"));
+        assertEquals("backup", ArchiveCodec.stripExtension("backup"));
+        assertEquals(ArchiveCodec.ZSTD, ArchiveCodec.caseSafeOf(" zstd"));
+    }
+
+    @Test
+    public void checkConfiguredCodec_knownCodec_accepted() {
+        new ArchiveUtils().checkConfiguredCodec(" lz4");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void checkConfiguredCodec_unknownCodec_throwsException() {
+        new ArchiveUtils().checkConfiguredCodec("bzip2");
+    }
+
+    private byte[] createTarball(final ArchiveCodec codec, final int workers) throws IOException {
+        final ByteArrayOutputStream tarball = new ByteArrayOutputStream();
+        final OutputStream compressor = archiveService.openCompressor(codec, tarball, Deflater.BEST_SPEED, workers, 64 * 1024, Long.MAX_VALUE);
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(compressor)) {
+            final TarArchiveEntry entry = new TarArchiveEntry("backup/data/file");
+            entry.setSize(CONTENT.length);
+            tar.putArchiveEntry(entry);
+            tar.write(CONTENT);
+            tar.closeArchiveEntry();
+        }
+        return tarball.toByteArray();
+    }
+
+    private void assertTarballContent(final byte[] tarball, final ChecksumHash64 hash64) throws IOException {
+        try (TarArchiveInputStream tar = archiveService.openTarInput(new ByteArrayInputStream(tarball), hash64)) {
+            assertEquals("backup/data/file", tar.getNextTarEntry().getName());
+            assertArrayEquals(CONTENT, tar.readAllBytes());
+            while (tar.getNextTarEntry() != null) {
+                // only the one entry is expected
+            }
+            ((CustomTarArchiveInputStream) tar).readRemainingBytes();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.archive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.junit.Test;
+
+public class ParallelGzipOutputStreamTest {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    @Test
+    public void write_manyBlocks_readableAsSingleGzipMember() throws IOException {
+        final byte[] data = compressibleData(10 * BLOCK_SIZE + 4321);
+        final byte[] compressed = compress(data, Deflater.BEST_SPEED, 4);
+
+        // GzipCompressorInputStream stops after the first member, as openTarInput does
+        try (GzipCompressorInputStream input = new GzipCompressorInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(data, input.readAllBytes());
+        }
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(data, input.readAllBytes());
+        }
+        assertTrue(compressed.length < data.length / 2);
+    }
+
+    @Test
+    public void write_eachCompressionLevel_roundTrips() throws IOException {
+        final byte[] data = compressibleData(3 * BLOCK_SIZE);
+        for (final int level : new int[] {Deflater.NO_COMPRESSION, Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION}) {
+            try (GzipCompressorInputStream input = new GzipCompressorInputStream(new ByteArrayInputStream(compress(data, level, 2)))) {
+                assertArrayEquals(data, input.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    public void write_singleBytesAndFlushes_roundTrips() throws IOException {
+        final byte[] data = compressibleData(BLOCK_SIZE + 10);
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream output = new ParallelGzipOutputStream(compressed, Deflater.BEST_SPEED, 2, BLOCK_SIZE, Long.MAX_VALUE)) {
+            for (final byte value : data) {
+                output.write(value);
+            }
+            output.flush();
+        }
+        try (GzipCompressorInputStream input = new GzipCompressorInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(data, input.readAllBytes());
+        }
+    }
+
+    @Test
+    public void close_nothingWritten_emptyGzip() throws IOException {
+        try (GzipCompressorInputStream input = new GzipCompressorInputStream(
+                new ByteArrayInputStream(compress(new byte[0], Deflater.BEST_SPEED, 2)))) {
+            assertArrayEquals(new byte[0], input.readAllBytes());
+        }
+    }
+
+    private byte[] compress(final byte[] data, final int level, final int workers) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        // A memory limit of a single block still has to make progress
+        try (OutputStream output = new ParallelGzipOutputStream(compressed, level, workers, BLOCK_SIZE, BLOCK_SIZE)) {
+            output.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    private byte[] compressibleData(final int size) {
+        final Random random = new Random(42);
+        final byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) ('a' + random.nextInt(8));
+        }
+        return data;
+    }
+}
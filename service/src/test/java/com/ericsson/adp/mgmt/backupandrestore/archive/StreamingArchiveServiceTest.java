@@ -131,7 +131,7 @@ public class StreamingArchiveServiceTest {
     }
 
     @Test(expected = ExportException.class)
-    public void openTarGzipOutput_throwsException() throws IOException {
+    public void openTarOutput_throwsException() throws IOException {
         final MockedStatic<SpringContext> mockedSpringContext;
 
         mockedSpringContext = mockStatic(SpringContext.class);
@@ -140,7 +140,7 @@ public class StreamingArchiveServiceTest {
         final OutputStream outputStream = createMock(OutputStream.class);
         final ChecksumHash64 hash64 = createMock(ChecksumHash64.class);
         replay(outputStream, hash64);
-        archiveService.openTarGzipOutput(outputStream, hash64);
+        archiveService.openTarOutput(outputStream, hash64);
     }
 
     @Test
@@ -0,0 +1,199 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.aws;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.easymock.Capture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3MultipartClient;
+import com.ericsson.adp.mgmt.backupandrestore.exception.AWSException;
+
+public class BufferedS3OutputStreamTest {
+
+    private static final int PART_SIZE = S3MultipartClient.PART_SIZE_LOWER_BOUND;
+    private static final int NUMBER_OF_PARTS = 4;
+
+    private final ExecutorService uploadExecutor = Executors.newFixedThreadPool(NUMBER_OF_PARTS);
+    private S3MultipartClient client;
+    private AmazonS3 s3;
+
+    @Before
+    public void setup() {
+        client = createMock(S3MultipartClient.class);
+        s3 = createMock(AmazonS3.class);
+        client.createBucket();
+        expectLastCall().anyTimes();
+        expect(client.getS3Client()).andReturn(s3).anyTimes();
+        expect(client.getDefaultBucketName()).andReturn("bro").anyTimes();
+        final InitiateMultipartUploadResult initResult = new InitiateMultipartUploadResult();
+        initResult.setUploadId("upload");
+        expect(s3.initiateMultipartUpload(anyObject(InitiateMultipartUploadRequest.class))).andReturn(initResult);
+    }
+
+    @After
+    public void teardown() {
+        uploadExecutor.shutdownNow();
+    }
+
+    @Test
+    public void close_partsFinishOutOfOrder_completesWithOrderedPartETags() {
+        final CountDownLatch[] uploaded = new CountDownLatch[NUMBER_OF_PARTS + 1];
+        for (int part = 1; part <= NUMBER_OF_PARTS; part++) {
+            uploaded[part] = new CountDownLatch(1);
+        }
+        expect(s3.uploadPart(anyObject(UploadPartRequest.class))).andAnswer(() -> {
+            final UploadPartRequest request = (UploadPartRequest) getCurrentArguments()[0];
+            // The parts in flight with the first one finish in reverse order, the last part waits for a free slot
+            final int partNumber = request.getPartNumber();
+            if (partNumber < NUMBER_OF_PARTS - 1) {
+                uploaded[partNumber + 1].await(10, TimeUnit.SECONDS);
+            }
+            uploaded[partNumber].countDown();
+            final UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(partNumber);
+            result.setETag("etag" + partNumber);
+            return result;
+        }).times(NUMBER_OF_PARTS);
+        final Capture<CompleteMultipartUploadRequest> completeRequest = Capture.newInstance();
+        expect(s3.completeMultipartUpload(capture(completeRequest))).andReturn(new CompleteMultipartUploadResult());
+        replay(client, s3);
+
+        final CountingBufferPool pool = new CountingBufferPool(10L * PART_SIZE);
+        final BufferedS3OutputStream stream = new BufferedS3OutputStream(client, "key", PART_SIZE, NUMBER_OF_PARTS - 1, pool, uploadExecutor);
+        stream.write(new byte[NUMBER_OF_PARTS * PART_SIZE], 0, NUMBER_OF_PARTS * PART_SIZE);
+        stream.close();
+
+        verify(client, s3);
+        final List<Integer> partNumbers = completeRequest.getValue().getPartETags().stream()
+                .map(PartETag::getPartNumber).collect(Collectors.toList());
+        assertEquals(List.of(1, 2, 3, 4), partNumbers);
+        assertEquals(0, pool.getBuffersInUse());
+    }
+
+    @Test
+    public void write_partFailsWhileNextPartIsQueued_releasesBufferOfCancelledPart() {
+        expect(s3.uploadPart(anyObject(UploadPartRequest.class))).andThrow(new AmazonServiceException("failed")).once();
+        s3.abortMultipartUpload(anyObject(AbortMultipartUploadRequest.class));
+        expectLastCall().once();
+        replay(client, s3);
+
+        final Deque<Runnable> queuedUploads = new ArrayDeque<>();
+        final CountingBufferPool pool = new CountingBufferPool(10L * PART_SIZE);
+        final BufferedS3OutputStream stream = new BufferedS3OutputStream(client, "key", PART_SIZE, NUMBER_OF_PARTS, pool, queuedUploads::add);
+        stream.write(new byte[2 * PART_SIZE], 0, 2 * PART_SIZE);
+        // The first part fails while the second one is still queued
+        queuedUploads.poll().run();
+        try {
+            stream.write(new byte[PART_SIZE], 0, PART_SIZE);
+            fail("The upload should have failed");
+        } catch (AWSException e) {
+            stream.close();
+        }
+
+        verify(client, s3);
+        assertEquals(0, pool.getBuffersInUse());
+    }
+
+    @Test
+    public void write_partUploadFails_abortsUploadAndDoesNotComplete() {
+        expect(s3.uploadPart(anyObject(UploadPartRequest.class))).andThrow(new AmazonServiceException("failed")).anyTimes();
+        s3.abortMultipartUpload(anyObject(AbortMultipartUploadRequest.class));
+        expectLastCall().once();
+        replay(client, s3);
+
+        final BufferedS3OutputStream stream = new BufferedS3OutputStream(client, "key", PART_SIZE, 2, new S3PartBufferPool(0), uploadExecutor);
+        try {
+            stream.write(new byte[NUMBER_OF_PARTS * PART_SIZE], 0, NUMBER_OF_PARTS * PART_SIZE);
+            stream.close();
+            fail("The upload should have failed");
+        } catch (AWSException e) {
+            stream.close();
+        }
+        verify(client, s3);
+    }
+
+    @Test
+    public void write_singlePartInFlight_uploadsOnWritingThread() {
+        final long writingThread = Thread.currentThread().getId();
+        expect(s3.uploadPart(anyObject(UploadPartRequest.class))).andAnswer(() -> {
+            assertEquals(writingThread, Thread.currentThread().getId());
+            final UploadPartRequest request = (UploadPartRequest) getCurrentArguments()[0];
+            final UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag");
+            return result;
+        }).times(2);
+        expect(s3.completeMultipartUpload(anyObject(CompleteMultipartUploadRequest.class))).andReturn(new CompleteMultipartUploadResult());
+        replay(client, s3);
+
+        final BufferedS3OutputStream stream = new BufferedS3OutputStream(client, "key", PART_SIZE, 1, new S3PartBufferPool(0), uploadExecutor);
+        stream.write(new byte[PART_SIZE + 1], 0, PART_SIZE + 1);
+        stream.close();
+        verify(client, s3);
+    }
+
+    private static class CountingBufferPool extends S3PartBufferPool {
+        private int buffersInUse;
+
+        CountingBufferPool(final long maxIdleBytes) {
+            super(maxIdleBytes);
+        }
+
+        @Override
+        public synchronized byte[] acquire(final int size) {
+            buffersInUse++;
+            return super.acquire(size);
+        }
+
+        @Override
+        public synchronized void release(final byte[] buffer) {
+            buffersInUse--;
+            super.release(buffer);
+        }
+
+        synchronized int getBuffersInUse() {
+            return buffersInUse;
+        }
+    }
+}
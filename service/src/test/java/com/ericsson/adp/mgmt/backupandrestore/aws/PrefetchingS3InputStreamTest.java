@@ -0,0 +1,148 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.aws;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3Client;
+
+public class PrefetchingS3InputStreamTest {
+
+    private static final int RANGE_SIZE = 1000;
+
+    private final byte[] content = new byte[10 * RANGE_SIZE + 123];
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger rangesInFlight = new AtomicInteger();
+    private final AtomicInteger maxRangesInFlight = new AtomicInteger();
+    private final ExecutorService rangeExecutor = Executors.newFixedThreadPool(4);
+    private final Semaphore prefetchBudget = new Semaphore(Integer.MAX_VALUE);
+    private S3Client client;
+
+    @Before
+    public void setup() {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        final AmazonS3 s3 = createMock(AmazonS3.class);
+        expect(s3.getObject(anyObject(GetObjectRequest.class))).andAnswer(() -> {
+            final long[] range = ((GetObjectRequest) getCurrentArguments()[0]).getRange();
+            maxRangesInFlight.accumulateAndGet(rangesInFlight.incrementAndGet(), Math::max);
+            // Earlier ranges take longer, so later ranges complete first
+            Thread.sleep(Math.max(0, 10 - range[0] / RANGE_SIZE));
+            rangesInFlight.decrementAndGet();
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new SdkClientException("Connection reset");
+            }
+            final S3Object object = new S3Object();
+            object.setObjectContent(new ByteArrayInputStream(Arrays.copyOfRange(content, (int) range[0], (int) range[1] + 1)));
+            return object;
+        }).anyTimes();
+        client = createMock(S3Client.class);
+        expect(client.getS3Client()).andReturn(s3).anyTimes();
+        replay(s3, client);
+    }
+
+    @After
+    public void teardown() {
+        rangeExecutor.shutdownNow();
+    }
+
+    @Test
+    public void read_manyRangesInFlight_returnsContentInOrder() throws IOException {
+        try (InputStream stream = createStream(content.length, RANGE_SIZE, 4, 0)) {
+            assertArrayEquals(content, stream.readAllBytes());
+            assertEquals(-1, stream.read());
+        }
+    }
+
+    @Test
+    public void read_rangeFailsBelowRetryLimit_rangeIsFetchedAgain() throws IOException {
+        failuresLeft.set(2);
+        try (InputStream stream = createStream(content.length, RANGE_SIZE, 1, 2)) {
+            assertArrayEquals(content, stream.readAllBytes());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rangeFailsAboveRetryLimit_throwsIOException() throws IOException {
+        failuresLeft.set(3);
+        try (InputStream stream = createStream(content.length, RANGE_SIZE, 1, 2)) {
+            stream.readAllBytes();
+        }
+    }
+
+    @Test
+    public void read_objectSmallerThanRange_readsSingleRange() throws IOException {
+        try (InputStream stream = createStream(10, RANGE_SIZE, 4, 0)) {
+            assertArrayEquals(Arrays.copyOf(content, 10), stream.readAllBytes());
+        }
+    }
+
+    @Test
+    public void read_emptyObject_endOfStream() throws IOException {
+        try (InputStream stream = createStream(0, RANGE_SIZE, 4, 0)) {
+            assertEquals(-1, stream.read());
+        }
+    }
+
+    @Test
+    public void read_prefetchBudgetExhausted_fetchesOneRangeAtATime() throws IOException {
+        final Semaphore exhaustedBudget = new Semaphore(0);
+        try (InputStream stream = new PrefetchingS3InputStream(client, "bro", "key", content.length, RANGE_SIZE, 4, 0,
+                rangeExecutor, exhaustedBudget)) {
+            assertArrayEquals(content, stream.readAllBytes());
+        }
+        assertEquals(1, maxRangesInFlight.get());
+        assertEquals(0, exhaustedBudget.availablePermits());
+    }
+
+    @Test
+    public void close_rangesFetchedAhead_releasesPrefetchBudget() throws IOException {
+        final Semaphore budget = new Semaphore(2);
+        try (InputStream stream = new PrefetchingS3InputStream(client, "bro", "key", content.length, RANGE_SIZE, 4, 0,
+                rangeExecutor, budget)) {
+            assertEquals(content[0], (byte) stream.read());
+            assertTrue(budget.availablePermits() < 2);
+        }
+        assertEquals(2, budget.availablePermits());
+    }
+
+    private PrefetchingS3InputStream createStream(final long totalSize, final int rangeSize, final int prefetchDepth,
+                                                  final int rangeRetries) {
+        return new PrefetchingS3InputStream(client, "bro", "key", totalSize, rangeSize, prefetchDepth, rangeRetries,
+                rangeExecutor, prefetchBudget);
+    }
+}
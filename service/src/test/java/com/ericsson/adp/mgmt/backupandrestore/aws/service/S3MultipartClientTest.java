@@ -13,6 +13,7 @@ package com.ericsson.adp.mgmt.backupandrestore.aws.service;
 
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -293,6 +294,23 @@ public class S3MultipartClientTest {
         assertTrue(s3MultipartClient.getObjectList(defaultBucketName, "").contains(objectKey));
     }
 
+    @Test
+    public void initMultipartUpload_parallelParts_contentInOrder() throws IOException {
+        final String objectKey = "object5";
+        s3Config.setUploadParallelParts(3);
+        final byte[] bytes = new byte[3 * S3MultipartClient.PART_SIZE_LOWER_BOUND + 1234];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i / S3MultipartClient.PART_SIZE_LOWER_BOUND + i);
+        }
+        final OutputStream stream = s3MultipartClient.getOutputStream(objectKey);
+        stream.write(bytes);
+        stream.close();
+
+        final InputStream inputStream = s3MultipartClient.downloadObject(defaultBucketName, objectKey);
+        assertArrayEquals(bytes, inputStream.readAllBytes());
+        assertTrue(s3Config.getPartBufferPool().getIdleBytes() > 0);
+    }
+
     @Test
     public void toObjectKey_path_valid() {
         assumeFalse("Skipping the test on Windows OS.", OSUtils.isWindows());
@@ -160,6 +160,69 @@ public class BackupFileServiceTest {
         assertFalse(file.toFile().exists());
     }
 
+    @Test
+    public void getBackups_filesNotModifiedSinceLastRead_returnsBackupsReadBefore() throws Exception {
+        final String backupManagerId = "qwe";
+        fileService.writeToFile(getBackup("fgh", backupManagerId));
+        fileService.writeToFile(getBackup("rtd", backupManagerId));
+
+        final List<PersistedBackup> backups = fileService.getBackups(backupManagerId);
+        final List<PersistedBackup> backupsReadAgain = fileService.getBackups(backupManagerId);
+
+        assertEquals(2, backupsReadAgain.size());
+        assertTrue(backupsReadAgain.stream().allMatch(backup -> backups.stream().anyMatch(readBefore -> readBefore == backup)));
+    }
+
+    @Test
+    public void getBackups_backupWrittenAfterRead_returnsWrittenBackup() throws Exception {
+        final String backupManagerId = "qwe";
+        final Backup backup = getBackup("fgh", backupManagerId);
+        fileService.writeToFile(backup);
+        assertEquals("UserLabel", fileService.getBackups(backupManagerId).get(0).getUserLabel());
+
+        backup.setUserLabel("Updated_USER_LABEL");
+        fileService.writeToFile(backup);
+        fileService.writeToFile(getBackup("rtd", backupManagerId));
+
+        final List<PersistedBackup> backups = fileService.getBackups(backupManagerId);
+
+        assertEquals(2, backups.size());
+        assertEquals("Updated_USER_LABEL", backups.stream().filter(persistedBackup -> "fgh".equals(persistedBackup.getBackupId()))
+                .findFirst().get().getUserLabel());
+    }
+
+    @Test
+    public void getBackups_filesModifiedOutsideOfService_readsModifiedFiles() throws Exception {
+        final String backupManagerId = "qwe";
+        final Path backupsFolder = fileLocation.resolve(backupManagerId).resolve("backups");
+        fileService.writeToFile(getBackup("fgh", backupManagerId));
+        fileService.writeToFile(getBackup("rtd", backupManagerId));
+        assertEquals(2, fileService.getBackups(backupManagerId).size());
+
+        final Path file = backupsFolder.resolve("fgh.json");
+        Files.writeString(file, Files.readString(file).replace("UserLabel", "EditedUserLabel"));
+        Files.delete(backupsFolder.resolve("rtd.json"));
+
+        final List<PersistedBackup> backups = fileService.getBackups(backupManagerId);
+
+        assertEquals(1, backups.size());
+        assertEquals("EditedUserLabel", backups.get(0).getUserLabel());
+    }
+
+    @Test
+    public void deleteBackup_backupReadBefore_isNoLongerRead() throws Exception {
+        final String backupManagerId = "qpwoei";
+        fileService.writeToFile(getBackup("mznxbc", backupManagerId));
+        fileService.writeToFile(getBackup("rtd", backupManagerId));
+        assertEquals(2, fileService.getBackups(backupManagerId).size());
+
+        fileService.deleteBackup(backupManagerId, "mznxbc");
+
+        final List<PersistedBackup> backups = fileService.getBackups(backupManagerId);
+        assertEquals(1, backups.size());
+        assertEquals("rtd", backups.get(0).getBackupId());
+    }
+
     @Test(expected = DeleteBackupException.class)
     public void deleteBackup_inexistingBackupManagerIdAndBackupId_throwsException() throws Exception {
         fileService.deleteBackup("1", "2");
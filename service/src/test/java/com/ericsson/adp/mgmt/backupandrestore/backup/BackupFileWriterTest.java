@@ -12,9 +12,12 @@
 package com.ericsson.adp.mgmt.backupandrestore.backup;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
 
 import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
 import com.ericsson.adp.mgmt.backupandrestore.exception.BackupServiceException;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumCalculator;
 import org.junit.After;
 import org.junit.Before;
@@ -22,8 +25,13 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -105,6 +113,120 @@ public class BackupFileWriterTest {
         assertEquals(Arrays.asList(getChecksum()), Files.readAllLines(backupChecksumFile));
     }
 
+    @Test
+    public void writeChecksumFile_negotiatedAlgorithm_checksumFileNamesAlgorithm() throws Exception {
+        backupFileWriter.build();
+        backupFileWriter = new BackupFileWriter(folder.getRoot().toPath(), "backupFile", new S3Config(), 0, ChecksumAlgorithm.CRC32C);
+        backupFileWriter.addChunk("ABCtre".getBytes());
+
+        final ChecksumCalculator checksumCalculator = new ChecksumCalculator(ChecksumAlgorithm.CRC32C);
+        checksumCalculator.addBytes("ABCtre".getBytes());
+        backupFileWriter.validateChecksum(checksumCalculator.getChecksum());
+        backupFileWriter.writeChecksumFile();
+
+        assertEquals(Arrays.asList("CRC32C:" + checksumCalculator.getChecksum()), Files.readAllLines(backupChecksumFile));
+    }
+
+    @Test
+    public void addChunk_writeService_chunksQueuedUntilWrittenTogether() throws Exception {
+        final List<Runnable> writers = new ArrayList<>();
+        final BackupFileWriteService writeService = new BackupFileWriteService();
+        writeService.setExecutor(writers::add);
+        writeService.setQueueChunks(2);
+        backupFileWriter.build();
+        backupFileWriter = writeService.createWriter(folder.getRoot().toPath(), "backupFile", new S3Config(), 0, ChecksumAlgorithm.MD5);
+
+        backupFileWriter.addChunk("ABC".getBytes());
+        backupFileWriter.addChunk(ByteBuffer.wrap("tre".getBytes()));
+
+        assertEquals(1, writers.size());
+        assertEquals(0, Files.size(backupFile));
+
+        writers.get(0).run();
+
+        assertEquals(Arrays.asList("ABCtre"), Files.readAllLines(backupFile));
+        backupFileWriter.validateChecksum(getChecksum());
+    }
+
+    @Test
+    public void whenReady_queueFull_runsOnceChunksWritten() throws Exception {
+        final List<Runnable> writers = new ArrayList<>();
+        final List<String> readiness = new ArrayList<>();
+        final BackupFileWriteService writeService = new BackupFileWriteService();
+        writeService.setExecutor(writers::add);
+        writeService.setQueueChunks(2);
+        backupFileWriter.build();
+        backupFileWriter = writeService.createWriter(folder.getRoot().toPath(), "backupFile", new S3Config(), 0, ChecksumAlgorithm.MD5);
+
+        backupFileWriter.addChunk("ABC".getBytes());
+        backupFileWriter.whenReady(() -> readiness.add("first"));
+        backupFileWriter.addChunk("tre".getBytes());
+        backupFileWriter.whenReady(() -> readiness.add("second"));
+
+        assertEquals(Arrays.asList("first"), readiness);
+
+        writers.get(0).run();
+
+        assertEquals(Arrays.asList("first", "second"), readiness);
+        backupFileWriter.validateChecksum(getChecksum());
+    }
+
+    @Test
+    public void validateChecksum_writerPoolAndFsyncPolicies_waitsForAllChunks() throws Exception {
+        final byte[] chunk = new byte[64 * 1024];
+        Arrays.fill(chunk, (byte) 'a');
+        for (final FsyncPolicy fsyncPolicy : FsyncPolicy.values()) {
+            final BackupFileWriteService writeService = new BackupFileWriteService();
+            writeService.setQueueChunks(4);
+            writeService.setFsyncPolicy(fsyncPolicy.name().toLowerCase());
+            writeService.setFsyncIntervalMiB(1);
+            backupFileWriter.build();
+            backupFileWriter = writeService.createWriter(folder.getRoot().toPath(), "backupFile", new S3Config(), 0, ChecksumAlgorithm.CRC32C);
+            final ChecksumCalculator checksumCalculator = new ChecksumCalculator(ChecksumAlgorithm.CRC32C);
+            for (int i = 0; i < 100; i++) {
+                backupFileWriter.addChunk(chunk);
+                checksumCalculator.addBytes(chunk);
+            }
+
+            backupFileWriter.validateChecksum(checksumCalculator.getChecksum());
+
+            assertEquals(100L * chunk.length, Files.size(backupFile));
+        }
+    }
+
+    @Test(expected = BackupServiceException.class)
+    public void addChunk_writeFails_throwsException() throws Exception {
+        final BackupFileWriteService writeService = new BackupFileWriteService();
+        writeService.setExecutor(Runnable::run);
+        backupFileWriter.build();
+        backupFileWriter = writeService.createWriter(folder.getRoot().toPath(), "backupFile", new S3Config(), 0, ChecksumAlgorithm.MD5);
+        backupFileWriter.build();
+
+        backupFileWriter.addChunk("ABC".getBytes());
+    }
+
+    @Test
+    public void build_waitForWritesInterrupted_closesFile() throws Exception {
+        final BackupFileWriteService writeService = new BackupFileWriteService();
+        writeService.setExecutor(writer -> { });
+        final WritableByteChannel dataChannel = Channels.newChannel(new ByteArrayOutputStream());
+        backupFileWriter.build();
+        backupFileWriter = new BackupFileWriter(folder.getRoot().toPath(), "backupFile", new S3Config(), 0, ChecksumAlgorithm.MD5,
+                writeService, dataChannel);
+        backupFileWriter.addChunk("ABC".getBytes());
+
+        Thread.currentThread().interrupt();
+        try {
+            backupFileWriter.build();
+            fail("Waiting for the queued chunk should have been interrupted");
+        } catch (final BackupServiceException e) {
+            assertFalse(dataChannel.isOpen());
+        } finally {
+            Thread.interrupted();
+            backupFileWriter = new BackupFileWriter(folder.getRoot().toPath(), "backupFile", new S3Config());
+        }
+    }
+
     private String getChecksum() {
         final ChecksumCalculator checksumCalculator = new ChecksumCalculator();
         checksumCalculator.addBytes("ABCtre".getBytes());
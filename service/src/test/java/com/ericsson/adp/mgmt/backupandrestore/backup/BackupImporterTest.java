@@ -21,12 +21,15 @@ import static org.easymock.EasyMock.isA;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeFalse;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -35,7 +38,9 @@ import java.util.Optional;
 
 import org.easymock.EasyMock;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.ericsson.adp.mgmt.backupandrestore.archive.ArchiveUtils;
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
@@ -45,6 +50,8 @@ import com.ericsson.adp.mgmt.backupandrestore.exception.UnexpectedBackupManagerE
 import com.ericsson.adp.mgmt.backupandrestore.external.ExternalClientImportProperties;
 import com.ericsson.adp.mgmt.backupandrestore.external.connection.HttpConnection;
 import com.ericsson.adp.mgmt.backupandrestore.external.connection.SftpConnection;
+import com.ericsson.adp.mgmt.backupandrestore.restore.ChecksumValidationException;
+import com.ericsson.adp.mgmt.backupandrestore.restore.FileChecksumService;
 import com.ericsson.adp.mgmt.backupandrestore.util.BackupLimitValidator;
 import com.ericsson.adp.mgmt.backupandrestore.util.OSUtils;
 
@@ -63,6 +70,9 @@ public class BackupImporterTest {
     private BackupLimitValidator backupLimitValidator;
     private PropertyReceived propertyReceivedListener;
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 
     @Before
     public void setup() {
@@ -77,6 +87,7 @@ public class BackupImporterTest {
         backupImporter.setExternalConnectionFactory(externalConnectionFactory);
         backupImporter.setBackupRepository(backupRepository);
         backupImporter.setBackupLimitValidator(backupLimitValidator);
+        backupImporter.setFileChecksumService(new FileChecksumService());
         propertyReceivedListener = new PropertyReceived();
     }
 
@@ -261,6 +272,52 @@ public class BackupImporterTest {
         verify(sftpConnection, backup, backupManager);
     }
 
+    @Test
+    public void importBackup_fragmentNotMatchingItsChecksum_backupCorrupted() throws Exception {
+        final Path backupDataFolder = temporaryFolder.getRoot().toPath();
+        final Path fragmentFolder = Files.createDirectories(backupDataFolder.resolve("backupId").resolve("agent").resolve("1").resolve("data"));
+        Files.write(fragmentFolder.resolve("fragment.txt"), "imported content".getBytes());
+        Files.write(fragmentFolder.resolve("fragment.txt.md5"), "0123456789ABCDEF0123456789ABCDEF".getBytes());
+        final String localPath = "/tmp/backupId.tar.gz";
+
+        expect(externalClientImportProperties.getImportFormat()).andReturn(TARBALL).times(3);
+        expect(externalClientImportProperties.isUsingHttpUriScheme()).andReturn(false);
+        expect(externalClientImportProperties.getExternalClientPath()).andReturn("backupId.tar.gz").anyTimes();
+        expect(externalClientImportProperties.getFolderToStoreBackupData()).andReturn(backupDataFolder);
+        expect(externalConnectionFactory.connect(externalClientImportProperties)).andReturn(sftpConnection).times(2);
+        expect(sftpConnection.downloadBackupFile(externalClientImportProperties, propertyReceivedListener)).andReturn(localPath);
+        expect(sftpConnection.getBackupFileContent(localPath, TARBALL)).andReturn(localPath);
+        sftpConnection.importBackupData(localPath, backupDataFolder, TARBALL);
+        expectLastCall();
+        sftpConnection.close();
+        expectLastCall().anyTimes();
+        expect(backupManager.getBackupManagerId()).andReturn("123").anyTimes();
+        expect(backupManager.getBackupID(EasyMock.anyString())).andReturn(Optional.of("backupId")).anyTimes();
+        backupManager.assertBackupIsNotPresent("backupId.tar.gz");
+        expectLastCall();
+        backupLimitValidator.validateLimit(EasyMock.anyString());
+        expectLastCall();
+
+        final Backup backup = createMock(Backup.class);
+        expect(backupRepository.importBackup(localPath, backupManager)).andReturn(backup);
+        expect(backup.getBackupManagerId()).andReturn("123").anyTimes();
+        expect(backup.getBackupId()).andReturn("backupId");
+        backup.setStatus(BackupStatus.CORRUPTED);
+        expectLastCall();
+        backup.persist();
+        expectLastCall();
+
+        replay(sftpConnection, externalConnectionFactory, externalClientImportProperties, backup, backupManager, backupRepository, backupLimitValidator);
+
+        try {
+            backupImporter.importBackup(externalClientImportProperties, backupManager, propertyReceivedListener);
+            fail("The import of a backup with a corrupted fragment should fail");
+        } catch (final ImportException e) {
+            assertTrue(e.getCause() instanceof ChecksumValidationException);
+        }
+        verify(sftpConnection, backup, backupManager);
+    }
+
     @Test(expected = ImportException.class)
     public void importBackup_sftpServerIssueWhileAccessingForBackupFile_throwException() throws URISyntaxException {
         expect(externalClientImportProperties.getImportFormat()).andReturn(LEGACY).times(2);
@@ -102,7 +102,7 @@ public class BackupRepositoryTest {
         expectLastCall().anyTimes();
         cmMediatorService.updateBackup(eq(backupManager), anyObject());
         expectLastCall().anyTimes();
-        cmMediatorService.updateBackupAndWait(eq(backupManager), anyObject());
+        cmMediatorService.updateBackupAndWait(eq(List.of(backupManager)), anyObject());
         expectLastCall();
         backupFileService.writeToFile(anyObject());
         expectLastCall().times(2);
@@ -141,7 +141,7 @@ public class BackupRepositoryTest {
         expectLastCall().anyTimes();
         cmMediatorService.updateBackup(eq(backupManager), anyObject());
         expectLastCall().anyTimes();
-        cmMediatorService.updateBackupAndWait(eq(backupManager), anyObject());
+        cmMediatorService.updateBackupAndWait(eq(List.of(backupManager)), anyObject());
         expectLastCall();
         backupFileService.writeToFile(anyObject());
         expectLastCall().times(2);
@@ -0,0 +1,239 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.backup.dedup;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.awaitility.Awaitility;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.ericsson.adp.mgmt.backupandrestore.backup.BackupLocationService;
+import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProviderFactory;
+
+public class ChunkStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ChunkStore chunkStore;
+    private Path backupLocation;
+
+    @Before
+    public void setup() {
+        backupLocation = folder.getRoot().toPath();
+        final BackupLocationService backupLocationService = new BackupLocationService();
+        backupLocationService.setProvider(new PersistProviderFactory());
+        backupLocationService.setBackupLocation(backupLocation.toString());
+
+        chunkStore = new ChunkStore();
+        chunkStore.setBackupLocationService(backupLocationService);
+        chunkStore.setProvider(new PersistProviderFactory());
+        chunkStore.setEnabled(true);
+        chunkStore.setChunkAverageKiB(4);
+    }
+
+    @Test
+    public void openChannel_sameContentInTwoBackups_storesChunksOnce() throws Exception {
+        final byte[] content = randomBytes(1, 256 * 1024);
+
+        write(getDataFolder("backup1"), "file.txt", content);
+        final long chunks = countChunks();
+        write(getDataFolder("backup2"), "file.txt", content);
+
+        assertTrue(chunks > 1);
+        assertEquals(chunks, countChunks());
+        assertEquals(2.0, chunkStore.getDeduplicationRatio(), 0.01);
+        assertFalse(Files.exists(getDataFolder("backup1").resolve("file.txt")));
+        assertTrue(Files.exists(getManifestFile("backup2")));
+    }
+
+    @Test
+    public void newInputStream_deduplicatedFile_readsContentOfFile() throws Exception {
+        final byte[] content = randomBytes(2, 100 * 1024 + 7);
+        write(getDataFolder("backup1"), "file.txt", content);
+
+        final ChunkManifest manifest = chunkStore.readManifest(getManifestFile("backup1")).get();
+
+        assertEquals(content.length, manifest.getLength());
+        try (InputStream stream = chunkStore.newInputStream(manifest)) {
+            assertArrayEquals(content, stream.readAllBytes());
+        }
+    }
+
+    @Test
+    public void newInputStream_emptyFile_readsNothing() throws Exception {
+        write(getDataFolder("backup1"), "file.txt", new byte[0]);
+
+        final ChunkManifest manifest = chunkStore.readManifest(getManifestFile("backup1")).get();
+
+        assertTrue(manifest.getChunks().isEmpty());
+        try (InputStream stream = chunkStore.newInputStream(manifest)) {
+            assertEquals(-1, stream.read());
+        }
+    }
+
+    @Test
+    public void readManifest_fileOnlyNamedAsManifest_isEmpty() throws Exception {
+        final Path dataFolder = getDataFolder("backup1");
+        Files.createDirectories(dataFolder);
+        Files.write(dataFolder.resolve("file.txt" + ChunkManifest.EXTENSION), randomBytes(3, 1024));
+
+        assertFalse(chunkStore.readManifest(dataFolder.resolve("file.txt" + ChunkManifest.EXTENSION)).isPresent());
+    }
+
+    @Test(expected = IOException.class)
+    public void readManifest_chunkHashIsPathOutsideStore_throwsException() throws Exception {
+        readManifest("BRO-CHUNK-MANIFEST 1 4\n../../backup2/agent/fragment/data/file.txt 4\n");
+    }
+
+    @Test(expected = IOException.class)
+    public void readManifest_chunkHashTooShort_throwsException() throws Exception {
+        readManifest("BRO-CHUNK-MANIFEST 1 4\na 4\n");
+    }
+
+    @Test(expected = IOException.class)
+    public void readManifest_chunkHashInUppercase_throwsException() throws Exception {
+        readManifest("BRO-CHUNK-MANIFEST 1 4\n" + ChunkStore.hash(new byte[4]).toUpperCase(Locale.ROOT) + " 4\n");
+    }
+
+    @Test
+    public void collectGarbage_backupDeleted_deletesOnlyChunksNoOtherBackupReferences() throws Exception {
+        final byte[] content = randomBytes(4, 256 * 1024);
+        final byte[] changedContent = randomBytes(5, 512 * 1024);
+        System.arraycopy(content, 0, changedContent, 0, content.length);
+        write(getDataFolder("backup1"), "file.txt", content);
+        write(getDataFolder("backup2"), "file.txt", changedContent);
+        final long chunks = countChunks();
+
+        Files.delete(getManifestFile("backup2"));
+
+        assertTrue(chunkStore.collectGarbage() > 0);
+        assertTrue(countChunks() < chunks);
+        try (InputStream stream = chunkStore.newInputStream(chunkStore.readManifest(getManifestFile("backup1")).get())) {
+            assertArrayEquals(content, stream.readAllBytes());
+        }
+
+        Files.delete(getManifestFile("backup1"));
+        chunkStore.collectGarbage();
+        assertEquals(0, countChunks());
+    }
+
+    @Test
+    public void collectGarbage_fileBeingWritten_deletesOtherUnreferencedChunks() throws Exception {
+        write(getDataFolder("backup1"), "file.txt", randomBytes(6, 64 * 1024));
+        Files.delete(getManifestFile("backup1"));
+        final long chunks = countChunks();
+        final byte[] content = randomBytes(7, 64 * 1024);
+
+        final WritableByteChannel channel = chunkStore.openChannel(getDataFolder("backup2"), "file.txt");
+        channel.write(ByteBuffer.wrap(content));
+
+        assertEquals(chunks, chunkStore.collectGarbage());
+
+        channel.close();
+        assertEquals(0, chunkStore.collectGarbage());
+        try (InputStream stream = chunkStore.newInputStream(chunkStore.readManifest(getManifestFile("backup2")).get())) {
+            assertArrayEquals(content, stream.readAllBytes());
+        }
+    }
+
+    @Test
+    public void collectGarbage_fileBeingWrittenListsUnreferencedChunks_keepsChunksOfFile() throws Exception {
+        final byte[] content = randomBytes(6, 64 * 1024);
+        write(getDataFolder("backup1"), "file.txt", content);
+        Files.delete(getManifestFile("backup1"));
+        final long chunks = countChunks();
+
+        final WritableByteChannel channel = chunkStore.openChannel(getDataFolder("backup2"), "file.txt");
+        channel.write(ByteBuffer.wrap(content));
+        chunkStore.collectGarbage();
+        channel.close();
+
+        assertEquals(chunks, countChunks());
+        try (InputStream stream = chunkStore.newInputStream(chunkStore.readManifest(getManifestFile("backup2")).get())) {
+            assertArrayEquals(content, stream.readAllBytes());
+        }
+    }
+
+    @Test
+    public void scheduleGarbageCollection_twoBackupsDeleted_collectsChunksOfBoth() throws Exception {
+        write(getDataFolder("backup1"), "file.txt", randomBytes(8, 64 * 1024));
+        write(getDataFolder("backup2"), "file.txt", randomBytes(9, 64 * 1024));
+        chunkStore.setCollectionDelaySeconds(1);
+
+        Files.delete(getManifestFile("backup1"));
+        chunkStore.scheduleGarbageCollection();
+        Files.delete(getManifestFile("backup2"));
+        chunkStore.scheduleGarbageCollection();
+
+        Awaitility.await().until(() -> countChunks() == 0);
+    }
+
+    @Test
+    public void collectGarbage_noChunkStored_deletesNothing() {
+        assertEquals(0, chunkStore.collectGarbage());
+    }
+
+    private void write(final Path dataFolder, final String fileName, final byte[] content) throws IOException {
+        try (WritableByteChannel channel = chunkStore.openChannel(dataFolder, fileName)) {
+            channel.write(ByteBuffer.wrap(content));
+        }
+    }
+
+    private void readManifest(final String content) throws IOException {
+        final Path manifestFile = getManifestFile("backup1");
+        Files.createDirectories(manifestFile.getParent());
+        Files.write(manifestFile, content.getBytes(StandardCharsets.UTF_8));
+        chunkStore.readManifest(manifestFile);
+    }
+
+    private Path getDataFolder(final String backupName) {
+        return backupLocation.resolve("DEFAULT").resolve(backupName).resolve("agent").resolve("fragment").resolve("data");
+    }
+
+    private Path getManifestFile(final String backupName) {
+        return getDataFolder(backupName).resolve("file.txt" + ChunkManifest.EXTENSION);
+    }
+
+    private long countChunks() throws IOException {
+        final Path chunkFolder = backupLocation.resolve(".chunk-store");
+        if (!Files.exists(chunkFolder)) {
+            return 0;
+        }
+        try (Stream<Path> paths = Files.walk(chunkFolder)) {
+            return paths.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private byte[] randomBytes(final long seed, final int length) {
+        final byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
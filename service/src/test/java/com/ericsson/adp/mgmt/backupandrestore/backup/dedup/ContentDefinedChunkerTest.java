@@ -0,0 +1,126 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.backup.dedup;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ContentDefinedChunkerTest {
+
+    private static final int AVERAGE_SIZE = 4 * 1024;
+
+    @Test
+    public void add_randomContent_chunksWithinBoundsMakeUpContent() {
+        final byte[] content = randomBytes(1, 256 * 1024);
+        final List<byte[]> chunks = chunk(content, content.length);
+
+        final ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (int index = 0; index < chunks.size(); index++) {
+            final int size = chunks.get(index).length;
+            assertTrue(size <= 4 * AVERAGE_SIZE);
+            assertTrue(index == chunks.size() - 1 || size > AVERAGE_SIZE / 4);
+            joined.writeBytes(chunks.get(index));
+        }
+        assertArrayEquals(content, joined.toByteArray());
+        assertTrue(chunks.size() > 256 / 16);
+    }
+
+    @Test
+    public void add_bytesInsertedAtStart_onlyFirstChunksChange() {
+        final byte[] content = randomBytes(2, 256 * 1024);
+        final byte[] changed = new byte[content.length + 10];
+        System.arraycopy(content, 0, changed, 10, content.length);
+
+        final Set<String> chunks = hashes(chunk(content, content.length));
+        final List<byte[]> changedChunks = chunk(changed, changed.length);
+        int reused = 0;
+        for (final byte[] chunk : changedChunks) {
+            if (chunks.contains(ChunkStore.hash(chunk))) {
+                reused++;
+            }
+        }
+
+        assertTrue(reused >= changedChunks.size() - 2);
+    }
+
+    @Test
+    public void add_contentSplitAcrossBuffers_sameChunksAsSingleBuffer() {
+        final byte[] content = randomBytes(3, 64 * 1024);
+
+        final List<byte[]> chunks = chunk(content, content.length);
+        final List<byte[]> splitChunks = chunk(content, 1000);
+
+        assertEquals(chunks.size(), splitChunks.size());
+        for (int index = 0; index < chunks.size(); index++) {
+            assertArrayEquals(chunks.get(index), splitChunks.get(index));
+        }
+    }
+
+    @Test
+    public void add_constantContent_cutsChunksAtMaximumSize() {
+        final List<byte[]> chunks = chunk(new byte[40 * AVERAGE_SIZE], 4096);
+
+        assertEquals(10, chunks.size());
+        assertEquals(4 * AVERAGE_SIZE, chunks.get(0).length);
+    }
+
+    @Test
+    public void finish_noBytesAdded_passesNoChunk() {
+        final List<byte[]> chunks = new ArrayList<>();
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(AVERAGE_SIZE, chunks::add);
+
+        chunker.finish();
+
+        assertTrue(chunks.isEmpty());
+    }
+
+    @Test
+    public void constructor_averageSizeNotPowerOfTwo_roundsDown() {
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(6000, chunk -> { });
+
+        assertEquals(1024, chunker.getMinimumSize());
+        assertEquals(16 * 1024, chunker.getMaximumSize());
+    }
+
+    private List<byte[]> chunk(final byte[] content, final int bufferSize) {
+        final List<byte[]> chunks = new ArrayList<>();
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(AVERAGE_SIZE, chunks::add);
+        for (int offset = 0; offset < content.length; offset += bufferSize) {
+            chunker.add(ByteBuffer.wrap(content, offset, Math.min(bufferSize, content.length - offset)));
+        }
+        chunker.finish();
+        return chunks;
+    }
+
+    private Set<String> hashes(final List<byte[]> chunks) {
+        final Set<String> hashes = new HashSet<>();
+        chunks.forEach(chunk -> hashes.add(ChunkStore.hash(chunk)));
+        return hashes;
+    }
+
+    private byte[] randomBytes(final long seed, final int length) {
+        final byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
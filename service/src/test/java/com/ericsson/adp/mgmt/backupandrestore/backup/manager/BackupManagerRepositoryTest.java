@@ -12,6 +12,7 @@
 package com.ericsson.adp.mgmt.backupandrestore.backup.manager;
 
 import static com.ericsson.adp.mgmt.backupandrestore.util.ApplicationConstantsUtils.AUTO_DELETE_ENABLED;
+import static com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds.METRIC_BRO_STARTUP_PHASE_SECONDS;
 import static org.easymock.EasyMock.anyInt;
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.anyString;
@@ -24,6 +25,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -74,12 +76,15 @@ import com.ericsson.adp.mgmt.backupandrestore.cminterface.CMMediatorService;
 import com.ericsson.adp.mgmt.backupandrestore.exception.BackupManagerNotFoundException;
 import com.ericsson.adp.mgmt.backupandrestore.exception.FilePersistenceException;
 import com.ericsson.adp.mgmt.backupandrestore.exception.InvalidIdException;
+import com.ericsson.adp.mgmt.backupandrestore.job.ResetConfigJob;
 import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProvider;
 import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProviderFactory;
 import com.ericsson.adp.mgmt.backupandrestore.util.IdValidator;
 import com.ericsson.adp.mgmt.backupandrestore.util.JsonService;
+import com.ericsson.adp.mgmt.backupandrestore.util.MetricTags;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 public class BackupManagerRepositoryTest {
 
@@ -236,7 +241,7 @@ public class BackupManagerRepositoryTest {
         mockPersistence(new ArrayList<>());
 
         final List<BackupManager> list = backupManagerRepository.getBackupManagers();
-        list.add(createMock(BackupManager.class));
+        assertThrows(UnsupportedOperationException.class, () -> list.add(createMock(BackupManager.class)));
 
         final List<BackupManager> backupManagers = backupManagerRepository.getBackupManagers();
 
@@ -716,6 +721,112 @@ public class BackupManagerRepositoryTest {
                 });
 
         assertEquals(1, backupManagerRepository.getIndex("b"));
+        assertEquals("b", backupManagerRepository.getBackupManager(backupManagerRepository.getIndex("b")).getBackupManagerId());
+    }
+
+    @Test
+    public void getChildren_hasMultiplePersistedBackupManagers_returnsTheirResetVBRMs() throws Exception {
+        mockPersistence(Arrays.asList(createPersistedBackupManager("a", true, 2), createPersistedBackupManager("b", true, 2), createPersistedBackupManager(BackupManager.DEFAULT_BACKUP_MANAGER_ID, true, 2)),
+                () -> {
+                    expect(schedulerFileService.getPersistedSchedulerInformation(anyObject())).andReturn(new SchedulerInformation());
+                    expectLastCall().times(6);
+                    expect(eventHandler.getPeriodicEvents(anyObject())).andReturn(new ArrayList<>()).anyTimes();
+                    expect(eventHandler.getCalendarEvents(anyObject())).andReturn(new ArrayList<>()).anyTimes();
+                    eventHandler.schedulePeriodicEvents(anyObject());
+                    expectLastCall().anyTimes();
+                    eventHandler.scheduleCalendarEvents(anyObject());
+                    expectLastCall().anyTimes();
+                    schedulerFileService.writeToFile(anyObject());
+                    expectLastCall().anyTimes();
+                    fileService.writeToFile(anyObject());
+                    expectLastCall().anyTimes();
+                    housekeepingFileService.writeToFile(anyObject());
+                    expectLastCall().anyTimes();
+                    cmMediatorService.addBackupManager(anyObject());
+                    expectLastCall().anyTimes();
+                });
+
+        final List<String> childrenIds = backupManagerRepository.getChildren("b").map(BackupManager::getBackupManagerId).collect(Collectors.toList());
+
+        assertEquals(List.of("b" + ResetConfigJob.RESET_BRM_SUFFIX), childrenIds);
+        assertEquals(0, backupManagerRepository.getChildren("b" + ResetConfigJob.RESET_BRM_SUFFIX).count());
+    }
+
+    @Test
+    public void initializeBackupManagers_multipleStartupThreads_keepsPersistedOrderAndRecordsPhases() throws Exception {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        backupManagerRepository.setMeterRegistry(meterRegistry);
+        backupManagerRepository.setStartupThreads(3);
+        mockPersistence(Arrays.asList(createPersistedBackupManager("a", true, 2), createPersistedBackupManager("b", true, 2),
+                createPersistedBackupManager("c", true, 2), createPersistedBackupManager(BackupManager.DEFAULT_BACKUP_MANAGER_ID, true, 2)),
+                () -> {
+                    expect(schedulerFileService.getPersistedSchedulerInformation(anyObject())).andReturn(new SchedulerInformation()).anyTimes();
+                    expect(eventHandler.getPeriodicEvents(anyObject())).andReturn(new ArrayList<>()).anyTimes();
+                    expect(eventHandler.getCalendarEvents(anyObject())).andReturn(new ArrayList<>()).anyTimes();
+                    eventHandler.schedulePeriodicEvents(anyObject());
+                    expectLastCall().anyTimes();
+                    eventHandler.scheduleCalendarEvents(anyObject());
+                    expectLastCall().anyTimes();
+                    schedulerFileService.writeToFile(anyObject());
+                    expectLastCall().anyTimes();
+                    fileService.writeToFile(anyObject());
+                    expectLastCall().anyTimes();
+                    housekeepingFileService.writeToFile(anyObject());
+                    expectLastCall().anyTimes();
+                    cmMediatorService.addBackupManager(anyObject());
+                    expectLastCall().anyTimes();
+                });
+
+        assertEquals(0, backupManagerRepository.getIndex("a"));
+        assertEquals(1, backupManagerRepository.getIndex("b"));
+        assertEquals(2, backupManagerRepository.getIndex("c"));
+        assertEquals(3, backupManagerRepository.getIndex(BackupManager.DEFAULT_BACKUP_MANAGER_ID));
+        final Set<String> phases = meterRegistry.find(METRIC_BRO_STARTUP_PHASE_SECONDS.identification()).timers().stream()
+                .map(timer -> timer.getId().getTag(MetricTags.STAGE.identification()))
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("load", "recover", "schedule", "sync"), phases);
+    }
+
+    @Test
+    public void initializeBackupManagers_multipleStartupThreadsWithoutHousekeeping_addsHousekeepingInOrderOnCallingThread() throws Exception {
+        backupManagerRepository.setStartupThreads(3);
+        final List<String> ids = List.of("a", "b", "c", BackupManager.DEFAULT_BACKUP_MANAGER_ID);
+        final List<PersistedBackupManager> persistedBackupManagers = new ArrayList<>();
+        final List<String> addedHousekeeping = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> addingThreads = Collections.synchronizedList(new ArrayList<>());
+        mockPersistence(persistedBackupManagers,
+                () -> {
+                    for (final String id : ids) {
+                        final PersistedBackupManager persistedBackupManager = new PersistedBackupManager();
+                        persistedBackupManager.setBackupManagerId(id);
+                        persistedBackupManagers.add(persistedBackupManager);
+                        expect(sftpServerFileService.getSftpServers(id)).andReturn(new ArrayList<>());
+                        expect(housekeepingFileService.getPersistedHousekeepingInformation(id)).andThrow(new IndexOutOfBoundsException());
+                    }
+                    cmMediatorService.addHousekeeping(anyObject(Housekeeping.class));
+                    expectLastCall().andAnswer(() -> {
+                        addedHousekeeping.add(((Housekeeping) EasyMock.getCurrentArguments()[0]).getBackupManagerId());
+                        addingThreads.add(Thread.currentThread());
+                        return null;
+                    }).times(ids.size());
+                    expect(schedulerFileService.getPersistedSchedulerInformation(anyObject())).andReturn(new SchedulerInformation()).anyTimes();
+                    expect(eventHandler.getPeriodicEvents(anyObject())).andReturn(new ArrayList<>()).anyTimes();
+                    expect(eventHandler.getCalendarEvents(anyObject())).andReturn(new ArrayList<>()).anyTimes();
+                    eventHandler.schedulePeriodicEvents(anyObject());
+                    expectLastCall().anyTimes();
+                    eventHandler.scheduleCalendarEvents(anyObject());
+                    expectLastCall().anyTimes();
+                    fileService.writeToFile(anyObject());
+                    expectLastCall().anyTimes();
+                    housekeepingFileService.writeToFile(anyObject());
+                    expectLastCall().anyTimes();
+                    cmMediatorService.addBackupManager(anyObject());
+                    expectLastCall().anyTimes();
+                });
+
+        // Housekeeping is added to CMM while the backup managers are constructed, one at a time and in order
+        assertEquals(ids, addedHousekeeping);
+        assertTrue(addingThreads.stream().allMatch(Thread.currentThread()::equals));
     }
 
     @Test(expected = BackupManagerNotFoundException.class)
@@ -31,6 +31,7 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -44,6 +45,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.ericsson.adp.mgmt.backupandrestore.action.Action;
+import com.ericsson.adp.mgmt.backupandrestore.action.ActionType;
 import com.ericsson.adp.mgmt.backupandrestore.backup.Backup;
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.scheduler.AdminState;
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.scheduler.Scheduler;
@@ -79,7 +81,7 @@ public class BackupManagerTest {
         final List<Action> actions = backupManager.getActions();
         final int originalNumberOfActions = actions.size();
 
-        actions.add(null);
+        assertThrows(UnsupportedOperationException.class, () -> actions.add(null));
 
         assertEquals(originalNumberOfActions, backupManager.getActions().size());
     }
@@ -200,8 +202,10 @@ public class BackupManagerTest {
         backupManager.addBackup(createBackup("456456456"), Ownership.OWNED);
         assertEquals(1, backupManager.getBackups(Ownership.READABLE).size());
 
-        backups = backupManager.getBackups(Ownership.READABLE);
-        backups.add(createBackup("234234234"));
+        assertTrue(backups.isEmpty());
+
+        final List<Backup> currentBackups = backupManager.getBackups(Ownership.READABLE);
+        assertThrows(UnsupportedOperationException.class, () -> currentBackups.add(createBackup("234234234")));
 
         assertEquals(1, backupManager.getBackups(Ownership.READABLE).size());
     }
@@ -273,6 +277,51 @@ public class BackupManagerTest {
         assertEquals(1, backupManager.getBackups(Ownership.READABLE).size());
     }
 
+    @Test
+    public void removeBackup_backupWasLookedUp_isNoLongerFoundByIdNameOrIndex() throws Exception {
+        backupManager.addBackup(createBackup("123"), Ownership.OWNED);
+        backupManager.addBackup(createBackup("456"), Ownership.OWNED);
+        assertEquals(1, backupManager.getBackupIndex("456"));
+        assertTrue(backupManager.ownsBackup("Name-123"));
+
+        backupManager.removeBackup(backupManager.getBackup("123", Ownership.READABLE));
+
+        assertEquals(0, backupManager.getBackupIndex("456"));
+        assertEquals(-1, backupManager.getBackupIndex("123"));
+        assertFalse(backupManager.ownsBackup("Name-123"));
+        assertThrows(BackupNotFoundException.class, () -> backupManager.getBackup("123", Ownership.OWNED));
+        assertThrows(BackupNotFoundException.class, () -> backupManager.getBackupByName("Name-123", Ownership.READABLE));
+        assertEquals("456", backupManager.getBackup(0).get().getBackupId());
+        assertFalse(backupManager.getBackup(1).isPresent());
+    }
+
+    @Test
+    public void getLastAction_severalActionsOnBackups_returnsLatestActionOfThatTypeOnTheBackup() throws Exception {
+        final OffsetDateTime now = OffsetDateTime.now();
+        final Action firstExport = createAction("1", ActionType.EXPORT, "Name-123", now.minusMinutes(2));
+        final Action lastExport = createAction("2", ActionType.EXPORT, "Name-123", now);
+        backupManager.addAction(lastExport);
+        backupManager.addAction(firstExport);
+        backupManager.addAction(createAction("3", ActionType.RESTORE, "Name-123", now.plusMinutes(1)));
+        backupManager.addAction(createAction("4", ActionType.EXPORT, "Name-456", now.plusMinutes(2)));
+        final Action housekeeping = createMock(Action.class);
+        expect(housekeeping.getActionId()).andReturn("5").anyTimes();
+        expect(housekeeping.getName()).andReturn(ActionType.HOUSEKEEPING).anyTimes();
+        expect(housekeeping.hasBackupName()).andReturn(false).anyTimes();
+        replay(housekeeping);
+        backupManager.addAction(housekeeping);
+
+        final Backup backup = createBackup("123");
+
+        assertEquals(lastExport, backupManager.getLastAction(backup, ActionType.EXPORT).get());
+        assertEquals("3", backupManager.getLastAction(backup, ActionType.RESTORE).get().getActionId());
+        assertFalse(backupManager.getLastAction(backup, ActionType.IMPORT).isPresent());
+
+        backupManager.removeAction(lastExport);
+
+        assertEquals(firstExport, backupManager.getLastAction(backup, ActionType.EXPORT).get());
+    }
+
     @Test
     public void isDefault_backupManagerWithIdDifferentFromDefault_isNotDefaultBackupManager() throws Exception {
         assertFalse(backupManager.isDefault());
@@ -460,6 +509,17 @@ public class BackupManagerTest {
         assertTrue(backupManagerNew.equals(backupManager));
     }
 
+    private Action createAction(final String actionId, final ActionType actionType, final String backupName, final OffsetDateTime startTime) {
+        final Action action = createMock(Action.class);
+        expect(action.getActionId()).andReturn(actionId).anyTimes();
+        expect(action.getName()).andReturn(actionType).anyTimes();
+        expect(action.hasBackupName()).andReturn(true).anyTimes();
+        expect(action.getBackupName()).andReturn(backupName).anyTimes();
+        expect(action.getStartTime()).andReturn(startTime).anyTimes();
+        replay(action);
+        return action;
+    }
+
     private Backup createBackup(final String backupId) {
         final Backup backup = createMock(Backup.class);
         expect(backup.getBackupId()).andReturn(backupId).anyTimes();
@@ -18,6 +18,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
+import com.ericsson.adp.mgmt.backupandrestore.backup.BackupFileWriteService;
 import com.ericsson.adp.mgmt.backupandrestore.exception.BackupServiceException;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
 import com.ericsson.adp.mgmt.backupandrestore.job.FragmentFolder;
@@ -56,6 +57,7 @@ public class BackupCustomMetadataStateTest {
         this.fragmentFolder = new FragmentFolder(location);
         this.job = createMock(CreateBackupJob.class);
         expect(job.getAwsConfig()).andReturn(new S3Config()).anyTimes();
+        expect(job.getBackupFileWriteService()).andReturn(getBackupFileWriteService()).anyTimes();
         replay(job);
         state = new BackupCustomMetadataState(fragmentFolder, job, null);
     }
@@ -95,6 +97,12 @@ public class BackupCustomMetadataStateTest {
         state.processMessage(message, "dummyStreamId");
     }
 
+    private BackupFileWriteService getBackupFileWriteService() {
+        final BackupFileWriteService backupFileWriteService = new BackupFileWriteService();
+        backupFileWriteService.setExecutor(Runnable::run);
+        return backupFileWriteService;
+    }
+
     private String getChecksum() {
         final ChecksumCalculator checksumCalculator = new ChecksumCalculator();
         checksumCalculator.addBytes("ABCtre".getBytes());
@@ -21,6 +21,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
+import com.ericsson.adp.mgmt.backupandrestore.backup.BackupFileWriteService;
 import com.ericsson.adp.mgmt.backupandrestore.exception.BackupServiceException;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
 import com.ericsson.adp.mgmt.backupandrestore.job.FragmentFolder;
@@ -60,6 +61,7 @@ public class BackupFileDataStateTest {
         this.job = createMock(CreateBackupJob.class);
         this.state = new BackupFileDataState(fragmentFolder, job, Optional.empty());
         expect(job.getAwsConfig()).andReturn(new S3Config()).anyTimes();
+        expect(job.getBackupFileWriteService()).andReturn(getBackupFileWriteService()).anyTimes();
         job.updateAgentChunkSize(anyString(), anyLong());
         expectLastCall().anyTimes();
         replay(job);
@@ -101,6 +103,12 @@ public class BackupFileDataStateTest {
         assertTrue(nextState2 instanceof BackupCustomMetadataState);
     }
 
+    private BackupFileWriteService getBackupFileWriteService() {
+        final BackupFileWriteService backupFileWriteService = new BackupFileWriteService();
+        backupFileWriteService.setExecutor(Runnable::run);
+        return backupFileWriteService;
+    }
+
     private String getChecksum() {
         final ChecksumCalculator checksumCalculator = new ChecksumCalculator();
         checksumCalculator.addBytes("ABCtre".getBytes());
@@ -41,6 +41,7 @@ import org.junit.rules.TemporaryFolder;
 
 import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.Optional;
 
 public class BackupMetadataStateTest {
 
@@ -48,13 +49,14 @@ public class BackupMetadataStateTest {
     public TemporaryFolder folder = new TemporaryFolder();
 
     private BackupMetadataState state;
+    private BackupMetadataWriter backupMetadataWriter;
     private Metadata metadata;
     private CreateBackupJob job;
     private IdValidator idValidator;
 
     @Before
     public void setUp() {
-        final BackupMetadataWriter backupMetadataWriter = new BackupMetadataWriter();
+        backupMetadataWriter = new BackupMetadataWriter();
         backupMetadataWriter.setJsonService(new JsonService());
 
         metadata = Metadata
@@ -95,6 +97,42 @@ public class BackupMetadataStateTest {
         verify(job);
     }
 
+    @Test
+    public void processMessage_metadataOfAgentOfOneOfTheJobs_writesMetadataForThatJob() throws Exception {
+        final CreateBackupJob otherJob = createMock(CreateBackupJob.class);
+        replay(otherJob);
+        state = new BackupMetadataState(backupMetadataWriter, agentId -> Optional.of("agentID".equals(agentId) ? job : otherJob),
+                idValidator);
+        final BackupData message = BackupData
+                .newBuilder()
+                .setDataMessageType(DataMessageType.METADATA)
+                .setMetadata(metadata).build();
+
+        idValidator.validateId(anyObject());
+        expectLastCall();
+        replay(idValidator);
+
+        final BackupState newState = state.processMessage(message, "dummyStreamId");
+
+        assertTrue(newState instanceof BackupFileDataState);
+        verify(job, otherJob);
+    }
+
+    @Test(expected = BackupServiceException.class)
+    public void processMessage_metadataOfAgentWithoutJob_throwsException() {
+        state = new BackupMetadataState(backupMetadataWriter, agentId -> Optional.empty(), idValidator);
+        final BackupData message = BackupData
+                .newBuilder()
+                .setDataMessageType(DataMessageType.METADATA)
+                .setMetadata(metadata).build();
+
+        idValidator.validateId(anyObject());
+        expectLastCall();
+        replay(idValidator);
+
+        state.processMessage(message, "dummyStreamId");
+    }
+
     @Test(expected = BackupServiceException.class)
     public void processMessage_backupFileData_throwsException() throws Exception {
         final BackupData message = BackupData
@@ -0,0 +1,113 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.cminterface;
+
+import static com.ericsson.adp.mgmt.backupandrestore.util.ApplicationConstantsUtils.CONFIGURATION_BRO_RESOURCE;
+import static org.easymock.EasyMock.createMock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+
+import com.ericsson.adp.mgmt.backupandrestore.action.Action;
+import com.ericsson.adp.mgmt.backupandrestore.cminterface.json.PatchOperationJson;
+import com.ericsson.adp.mgmt.backupandrestore.cminterface.operation.ConfigurationPatch;
+import com.ericsson.adp.mgmt.backupandrestore.cminterface.operation.PatchOperation;
+import com.ericsson.adp.mgmt.backupandrestore.cminterface.operation.ProgressReportPatch;
+
+public class BatchedCMMMessageTest {
+
+    @Test
+    public void isBatchable_plainPatchOfBroConfiguration_true() {
+        assertTrue(BatchedCMMMessage.isBatchable(message(PatchOperation.REPLACE, "/a/0")));
+    }
+
+    @Test
+    public void isBatchable_otherMessages_false() {
+        final ConfigurationPatch patch = new TestPatch(PatchOperation.REPLACE, "/a/0");
+        assertFalse(BatchedCMMMessage.isBatchable(new CMMMessage(CONFIGURATION_BRO_RESOURCE, null, patch, HttpMethod.PUT)));
+        assertFalse(BatchedCMMMessage.isBatchable(new CMMMessage("configurations/other", null, patch, HttpMethod.PATCH)));
+        assertFalse(BatchedCMMMessage.isBatchable(new CMMMessage(CONFIGURATION_BRO_RESOURCE, new HttpEntity<>("{}"), patch, HttpMethod.PATCH)));
+        assertFalse(BatchedCMMMessage.isBatchable(new CMMMessage(CONFIGURATION_BRO_RESOURCE, null, null, HttpMethod.PATCH)));
+        assertFalse(BatchedCMMMessage.isBatchable(new BatchedCMMMessage(Arrays.asList(message(PatchOperation.REPLACE, "/a/0")))));
+    }
+
+    @Test
+    public void endsBatch_addOrRemove_true() {
+        assertTrue(BatchedCMMMessage.endsBatch(message(PatchOperation.ADD, "/a/-")));
+        assertTrue(BatchedCMMMessage.endsBatch(message(PatchOperation.REMOVE, "/a/0")));
+        assertFalse(BatchedCMMMessage.endsBatch(message(PatchOperation.REPLACE, "/a/0")));
+    }
+
+    @Test
+    public void supersedes_laterUpdateOfSameProgressReport_true() {
+        final Action action = createMock(Action.class);
+        final CMMMessage earlier = progressReport(PatchOperation.REPLACE, "/progress-report/0", action);
+        final CMMMessage later = progressReport(PatchOperation.REPLACE, "/progress-report/0", action);
+
+        assertTrue(BatchedCMMMessage.supersedes(later, earlier));
+        assertFalse(BatchedCMMMessage.supersedes(progressReport(PatchOperation.REPLACE, "/progress-report/1", action), earlier));
+        assertFalse(BatchedCMMMessage.supersedes(progressReport(PatchOperation.ADD, "/progress-report/0", action), earlier));
+        assertFalse(BatchedCMMMessage.supersedes(message(PatchOperation.REPLACE, "/progress-report/0"), earlier));
+    }
+
+    @Test
+    public void new_severalMessages_sendsOperationsOfEachInOrder() {
+        final List<CMMMessage> messages = Arrays.asList(
+                message(PatchOperation.REPLACE, "/a/0"),
+                message(PatchOperation.REPLACE, "/b/0"),
+                new CMMMessage(CONFIGURATION_BRO_RESOURCE, null, new TestPatch(PatchOperation.ADD, "/c/-"),
+                        HttpMethod.PATCH, CMMClient.RETRY_INDEFINITELY));
+
+        final BatchedCMMMessage batch = new BatchedCMMMessage(messages);
+
+        assertEquals(CONFIGURATION_BRO_RESOURCE, batch.getResource());
+        assertEquals(HttpMethod.PATCH, batch.getHttpMethod());
+        assertEquals(CMMClient.RETRY_INDEFINITELY, batch.getRetry());
+        assertEquals(messages, batch.getMessages());
+        assertEquals(Arrays.asList("/a/0", "/b/0", "/c/-"),
+                batch.getConfigurationPatch().toJson().getOperations().stream()
+                        .map(PatchOperationJson::getPath)
+                        .collect(Collectors.toList()));
+        assertFalse(batch.isFailed());
+        batch.setFailed();
+        assertTrue(batch.isFailed());
+    }
+
+    private CMMMessage message(final PatchOperation operation, final String path) {
+        return new CMMMessage(CONFIGURATION_BRO_RESOURCE, null, new TestPatch(operation, path), HttpMethod.PATCH, 3);
+    }
+
+    private CMMMessage progressReport(final PatchOperation operation, final String path, final Action action) {
+        return new CMMMessage(CONFIGURATION_BRO_RESOURCE, null, new ProgressReportPatch(operation, path, action) { },
+                HttpMethod.PATCH);
+    }
+
+    private class TestPatch extends ConfigurationPatch {
+
+        TestPatch(final PatchOperation operation, final String path) {
+            super(operation, path);
+        }
+
+        @Override
+        protected List<PatchOperationJson> getJsonOfOperations() {
+            return Arrays.asList(createOperationJson(path, "value"));
+        }
+    }
+}
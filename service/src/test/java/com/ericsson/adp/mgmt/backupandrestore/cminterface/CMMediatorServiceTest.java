@@ -1007,6 +1007,7 @@ public class CMMediatorServiceTest {
     @Test
     public void addProgressReport_cmIntegrationEnabledAndNoProgressReportExist_addNewProgressReport() throws Exception {
         final Action action = createMock(Action.class);
+        expect(action.getState()).andReturn(ActionStateType.RUNNING).anyTimes();
         final AddProgressReportPatch add = createMock(AddProgressReportPatch.class);
 
         final BRMEricssonbrmJson brmEricConfiguration = getbrmEricConfiguration();
@@ -1048,6 +1049,7 @@ public class CMMediatorServiceTest {
     @Test
     public void addProgressReport_cmIntegrationEnabledAndNoProgressReportExist_addNewProgressReport_getBackups_BRMBackupJsonEmpty() throws Exception {
         final Action action = createMock(Action.class);
+        expect(action.getState()).andReturn(ActionStateType.RUNNING).anyTimes();
         final BRMEricssonbrmJson brmEricConfiguration = getbrmEricConfiguration(false);
         final List<BackupManager> backupManagers = new ArrayList<BackupManager>();
         final BackupManager backupMgr = mockBackupManager(BCKMGR_ID, "a", "b", false);
@@ -1085,6 +1087,7 @@ public class CMMediatorServiceTest {
     @Test
     public void addProgressReport_cmIntegrationEnabledAndNoProgressReportExist_addNewProgressReport_getBackups_getProgressReports() throws Exception {
         final Action action = createMock(Action.class);
+        expect(action.getState()).andReturn(ActionStateType.RUNNING).anyTimes();
         final List<BackupManager> backupManagers = new ArrayList<BackupManager>();
         final BackupManager backupMgr = mockBackupManager(BCKMGR_ID, "a", "b", false);
         final UpdateProgressReportPatch update = createMock(UpdateProgressReportPatch.class);
@@ -1129,6 +1132,7 @@ public class CMMediatorServiceTest {
     @Test
     public void addProgressReport_cmIntegrationEnabled_ProgressPercentageIs33Percent_CMIsNotAvailable_NoExceptionThrown() throws Exception {
         final Action action = createMock(Action.class);
+        expect(action.getState()).andReturn(ActionStateType.RUNNING).anyTimes();
         final BackupManager backupMgr = mockBackupManager(BCKMGR_ID, "a", "b", false);
         final BackupManagerRepository backupManagerRepository = EasyMock.createMock(BackupManagerRepository.class);
         final AddProgressReportPatch add = createMock(AddProgressReportPatch.class);
@@ -1167,6 +1171,7 @@ public class CMMediatorServiceTest {
     public void addProgressReport_cmIntegrationEnabledAndNoProgressReportExist_isEmptyProgressReport_emptyBackups() throws Exception {
         cmmClient.setFlagEnabled(true);
         final Action action = createMock(Action.class);
+        expect(action.getState()).andReturn(ActionStateType.RUNNING).anyTimes();
         final BackupManager backupMgr = mockBackupManager(BCKMGR_ID, "a", "b", false);
         final List<BackupManager> backupManagers = new ArrayList<BackupManager>();
         final UpdateProgressReportPatch update = createMock(UpdateProgressReportPatch.class);
@@ -1200,6 +1205,7 @@ public class CMMediatorServiceTest {
     public void addProgressReport_cmIntegrationEnabledAndNoProgressReportExist_updateProgressReport() throws Exception {
         cmmClient.setFlagEnabled(true);
         final Action action = createMock(Action.class);
+        expect(action.getState()).andReturn(ActionStateType.RUNNING).anyTimes();
         final BackupManager backupMgr = mockBackupManager(BCKMGR_ID, "a", "b", true);
         final UpdateProgressReportPatch update = createMock(UpdateProgressReportPatch.class);
         expect(restTemplate.get().getForObject(TEST_URL_CONFIGURATION, String.class)).andReturn("").anyTimes();
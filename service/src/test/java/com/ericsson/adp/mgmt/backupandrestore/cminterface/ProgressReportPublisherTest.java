@@ -0,0 +1,121 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.cminterface;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Test;
+
+import com.ericsson.adp.mgmt.backupandrestore.action.Action;
+import com.ericsson.adp.mgmt.backupandrestore.action.ActionStateType;
+
+public class ProgressReportPublisherTest {
+
+    private final List<Action> published = new CopyOnWriteArrayList<>();
+    private ProgressReportPublisher publisher;
+
+    @After
+    public void tearDown() {
+        publisher.stop();
+    }
+
+    @Test
+    public void submit_updatesWithinFlushInterval_publishesFirstUpdateAndStateChangeOnly() throws Exception {
+        publisher = new ProgressReportPublisher(published::add, TimeUnit.MINUTES.toMillis(1), 10);
+        final Action action = mockAction("1", ActionStateType.RUNNING, ActionStateType.RUNNING, ActionStateType.RUNNING,
+                ActionStateType.FINISHED);
+
+        publisher.submit(action);
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> published.size() == 1);
+        publisher.submit(action);
+        publisher.submit(action);
+        publisher.submit(action);
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> published.size() == 2);
+        Thread.sleep(100);
+        assertEquals(Arrays.asList(action, action), published);
+    }
+
+    @Test
+    public void submit_updateReplacedBeforeFlushInterval_publishesLatestUpdate() throws Exception {
+        publisher = new ProgressReportPublisher(published::add, 200, 10);
+        final Action first = mockAction("1", ActionStateType.RUNNING, ActionStateType.RUNNING);
+        final Action second = mockAction("1", ActionStateType.RUNNING);
+
+        publisher.submit(first);
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> published.size() == 1);
+        publisher.submit(first);
+        publisher.submit(second);
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> published.size() == 2);
+        Thread.sleep(400);
+        assertEquals(Arrays.asList(first, second), published);
+    }
+
+    @Test
+    public void submit_tooManyUpdatesPending_dropsOldestUpdateNotChangingState() throws Exception {
+        publisher = new ProgressReportPublisher(published::add, TimeUnit.MINUTES.toMillis(1), 1);
+        final Action actionA = mockAction("A", ActionStateType.RUNNING, ActionStateType.RUNNING, ActionStateType.FINISHED);
+        final Action actionB = mockAction("B", ActionStateType.RUNNING, ActionStateType.RUNNING);
+
+        publisher.submit(actionA);
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> published.size() == 1);
+        publisher.submit(actionB);
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> published.size() == 2);
+
+        publisher.submit(actionA);
+        publisher.submit(actionB);
+        publisher.submit(actionA);
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> published.size() == 3);
+        Thread.sleep(100);
+        assertEquals(Arrays.asList(actionA, actionB, actionA), published);
+    }
+
+    @Test
+    public void forget_jobOfActionEnded_nextUpdatePublishedRightAway() throws Exception {
+        publisher = new ProgressReportPublisher(published::add, TimeUnit.MINUTES.toMillis(1), 10);
+        final Action action = mockAction("1", ActionStateType.RUNNING, ActionStateType.RUNNING);
+
+        publisher.submit(action);
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> published.size() == 1);
+        publisher.forget(action);
+        publisher.submit(action);
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> published.size() == 2);
+        assertEquals(Arrays.asList(action, action), published);
+    }
+
+    private Action mockAction(final String actionId, final ActionStateType state, final ActionStateType... nextStates) {
+        final Action action = createMock(Action.class);
+        expect(action.getBackupManagerId()).andReturn("DEFAULT").anyTimes();
+        expect(action.getActionId()).andReturn(actionId).anyTimes();
+        expect(action.getCopy()).andReturn(Optional.of(action)).anyTimes();
+        expect(action.getState()).andReturn(state);
+        for (final ActionStateType nextState : nextStates) {
+            expect(action.getState()).andReturn(nextState);
+        }
+        replay(action);
+        return action;
+    }
+}
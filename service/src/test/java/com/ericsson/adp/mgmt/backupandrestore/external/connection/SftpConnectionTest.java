@@ -968,7 +968,7 @@ public class SftpConnectionTest {
         sourceStream.close();
 
         sourceStream = new FileInputStream(compressedFile);
-        try (TarArchiveInputStream inputStream = archiveService.openTarGzipInput (sourceStream, calculatedChecksum)) {
+        try (TarArchiveInputStream inputStream = archiveService.openTarInput (sourceStream, calculatedChecksum)) {
             files=archiveService.unpackTarStream(inputStream,
                     folderForBackupData.getRoot().toPath(),
                     folderForBackupFile.getRoot().toPath(), (b) -> {});
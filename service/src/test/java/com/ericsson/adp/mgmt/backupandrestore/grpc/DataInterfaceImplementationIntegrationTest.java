@@ -11,6 +11,7 @@
  *------------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.backupandrestore.grpc;
 
+import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.anyLong;
 import static org.easymock.EasyMock.anyString;
 import static org.easymock.EasyMock.createMock;
@@ -26,8 +27,10 @@ import static org.mockito.Mockito.when;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import org.junit.After;
 import org.junit.Before;
@@ -37,8 +40,10 @@ import org.junit.rules.TemporaryFolder;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
+import com.ericsson.adp.mgmt.backupandrestore.backup.BackupFileWriteService;
 import com.ericsson.adp.mgmt.backupandrestore.backup.BackupMetadataWriter;
 import com.ericsson.adp.mgmt.backupandrestore.grpc.backup.BackupDataStream;
+import com.ericsson.adp.mgmt.backupandrestore.grpc.restore.RestoreDataScheduler;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
 import com.ericsson.adp.mgmt.backupandrestore.job.FragmentFolder;
 import com.ericsson.adp.mgmt.backupandrestore.job.Job;
@@ -46,6 +51,7 @@ import com.ericsson.adp.mgmt.backupandrestore.job.JobExecutor;
 import com.ericsson.adp.mgmt.backupandrestore.job.QueueingJobExecutor;
 import com.ericsson.adp.mgmt.backupandrestore.job.RestoreJob;
 import com.ericsson.adp.mgmt.backupandrestore.test.IntegrationTest;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumCalculator;
 import com.ericsson.adp.mgmt.backupandrestore.util.JsonService;
 import com.ericsson.adp.mgmt.bro.api.filetransfer.FileChunkServiceUtil;
@@ -70,6 +76,10 @@ public class DataInterfaceImplementationIntegrationTest extends IntegrationTest
     private DataInterfaceImplementation dataInterface;
     @Autowired
     private JobExecutor jobExecutor;
+    @Autowired
+    private RestoreDataScheduler restoreDataScheduler;
+    @Autowired
+    private BackupFileWriteService backupFileWriteService;
 
     private Path backupLocation;
     private ServerCallStreamObserver<RestoreData> stub;
@@ -82,11 +92,13 @@ public class DataInterfaceImplementationIntegrationTest extends IntegrationTest
         when(stub.isReady()).thenReturn(true);
 
         backupLocation = folder.getRoot().toPath();
+        dataInterface.setRestoreDataScheduler(new RestoreDataScheduler(Runnable::run, 4));
     }
 
     @After
     public void tearDown() throws Exception {
         this.dataInterface.setJobExecutor(this.jobExecutor);
+        this.dataInterface.setRestoreDataScheduler(this.restoreDataScheduler);
     }
 
     @Test
@@ -239,12 +251,17 @@ public class DataInterfaceImplementationIntegrationTest extends IntegrationTest
         final CreateBackupJob job = createMock(CreateBackupJob.class);
         expect(job.getFragmentFolder(metadata)).andReturn(fragmentTestFolder);
         expect(job.getAwsConfig()).andReturn(new S3Config()).anyTimes();
+        expect(job.getBackupFileWriteService()).andReturn(backupFileWriteService).anyTimes();
+        expect(job.getChecksumAlgorithm(anyString())).andReturn(ChecksumAlgorithm.MD5).anyTimes();
+        expect(job.getMaxChunkSize(anyString())).andReturn(0).anyTimes();
         job.receiveNewFragment("abc", "fragment");
         expectLastCall();
         job.fragmentSucceeded("abc", "fragment");
         expectLastCall();
         job.updateAgentChunkSize(anyString(), anyLong());
         expectLastCall().anyTimes();
+        job.updateAgentBackpressureWaitTime(anyString(), anyObject(Duration.class));
+        expectLastCall().anyTimes();
 
         final JobExecutor jobExecutor = createMock(QueueingJobExecutor.class);
         expect(jobExecutor.getRunningJobs()).andReturn(List.of((Job) job)).anyTimes();
@@ -261,8 +278,13 @@ public class DataInterfaceImplementationIntegrationTest extends IntegrationTest
         final RestoreJob job = createMock(RestoreJob.class);
         expect(job.getFragmentFolder(metadata)).andReturn(fragmentTestFolder).anyTimes();
         expect(job.getAwsConfig()).andReturn(new S3Config()).anyTimes();
+        expect(job.getChecksumAlgorithm(anyString())).andReturn(ChecksumAlgorithm.MD5).anyTimes();
+        expect(job.getMaxChunkSize(anyString())).andReturn(0).anyTimes();
+        expect(job.getRestoreLocations()).andReturn(Optional.empty()).anyTimes();
         job.updateAgentChunkSize(anyString(), anyLong());
         expectLastCall().anyTimes();
+        job.updateAgentBackpressureWaitTime(anyString(), anyObject(Duration.class));
+        expectLastCall().anyTimes();
 
         final JobExecutor jobExecutor = createMock(QueueingJobExecutor.class);
         expect(jobExecutor.getRunningJobs()).andReturn(List.of((Job) job)).anyTimes();
@@ -28,6 +28,7 @@ import org.junit.Test;
 
 import com.ericsson.adp.mgmt.backupandrestore.grpc.backup.BackupDataStream;
 import com.ericsson.adp.mgmt.backupandrestore.grpc.backup.UnexpectedBackupDataStream;
+import com.ericsson.adp.mgmt.backupandrestore.grpc.restore.RestoreDataScheduler;
 import com.ericsson.adp.mgmt.backupandrestore.grpc.restore.RestoreDataService;
 import com.ericsson.adp.mgmt.backupandrestore.grpc.restore.RestoreFragmentStream;
 import com.ericsson.adp.mgmt.backupandrestore.job.CreateBackupJob;
@@ -36,7 +37,9 @@ import com.ericsson.adp.mgmt.backupandrestore.job.Job;
 import com.ericsson.adp.mgmt.backupandrestore.job.JobExecutor;
 import com.ericsson.adp.mgmt.backupandrestore.job.QueueingJobExecutor;
 import com.ericsson.adp.mgmt.backupandrestore.job.RestoreJob;
+import com.ericsson.adp.mgmt.backupandrestore.util.IdValidator;
 import com.ericsson.adp.mgmt.data.BackupData;
+import com.ericsson.adp.mgmt.data.DataMessageType;
 import com.ericsson.adp.mgmt.data.Metadata;
 import com.ericsson.adp.mgmt.data.RestoreData;
 import com.ericsson.adp.mgmt.metadata.Fragment;
@@ -56,6 +59,7 @@ public class DataInterfaceImplementationTest {
 
         this.dataInterfaceImplementation = new DataInterfaceImplementation();
         this.dataInterfaceImplementation.setJobExecutor(jobExecutor);
+        this.dataInterfaceImplementation.setRestoreDataScheduler(new RestoreDataScheduler(Runnable::run, 4));
     }
 
     @Test
@@ -78,6 +82,33 @@ public class DataInterfaceImplementationTest {
         assertTrue(observer instanceof BackupDataStream);
     }
 
+    @Test
+    public void backup_orchestratorHasSeveralCreateBackupJobsRunning_routesDataChannelToJobOfAgent() throws Exception {
+        final Metadata metadata = Metadata.newBuilder().setAgentId("agentB")
+                .setFragment(Fragment.newBuilder().setFragmentId("fragmentId").setSizeInBytes("bytes").setVersion("version"))
+                .setBackupName("backupName").build();
+        final CreateBackupJob jobOfAgentA = createMock(CreateBackupJob.class);
+        expect(jobOfAgentA.hasAgent("agentB")).andReturn(false).anyTimes();
+        final CreateBackupJob jobOfAgentB = createMock(CreateBackupJob.class);
+        expect(jobOfAgentB.hasAgent("agentB")).andReturn(true).anyTimes();
+        expect(jobOfAgentB.getFragmentFolder(metadata)).andThrow(new IllegalStateException("Routed to the job of agentB"));
+        jobOfAgentB.fragmentFailed("agentB", "fragmentId");
+        expectLastCall();
+        expect(jobExecutor.getRunningJobs()).andReturn(List.of((Job) jobOfAgentA, (Job) jobOfAgentB)).anyTimes();
+        final IdValidator idValidator = createMock(IdValidator.class);
+        idValidator.validateId("fragmentId");
+        expectLastCall();
+        replay(jobExecutor, jobOfAgentA, jobOfAgentB, idValidator);
+        dataInterfaceImplementation.setIdValidator(idValidator);
+
+        final OrchestratorStream<Empty> orchestratorStream = new OrchestratorStream<>();
+        final StreamObserver<BackupData> observer = dataInterfaceImplementation.backup(orchestratorStream);
+        observer.onNext(BackupData.newBuilder().setDataMessageType(DataMessageType.METADATA).setMetadata(metadata).build());
+
+        assertTrue(orchestratorStream.receivedException());
+        verify(jobOfAgentA, jobOfAgentB);
+    }
+
     @Test
     public void backup_orchestratorHasAnyJobOtherThanCreateBackupRunning_doesNotAcceptBackup() throws Exception {
         final RestoreJob job = createMock(RestoreJob.class);
@@ -35,6 +35,7 @@ import com.ericsson.adp.mgmt.metadata.Fragment;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Empty;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.easymock.EasyMock;
 import org.junit.Before;
@@ -43,7 +44,14 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class BackupDataStreamTest {
 
@@ -270,6 +278,85 @@ public class BackupDataStreamTest {
         assertTrue(streamObserverStub.isCompleted());
     }
 
+    @Test
+    public void onCompleted_concurrentStreamsFromSameAgent_updatesJobWithSuccessOfEachFragment() throws Exception {
+        final int streams = 8;
+        final CreateBackupJob job = EasyMock.createMock(CreateBackupJob.class);
+        expect(job.getAwsConfig()).andReturn(new S3Config()).anyTimes();
+        expect(job.getFragmentFolder(EasyMock.anyObject(Metadata.class))).andAnswer(() -> new FragmentFolder(folder.getRoot().toPath()
+                .resolve(((Metadata) EasyMock.getCurrentArguments()[0]).getFragment().getFragmentId()))).times(streams);
+        for (int stream = 0; stream < streams; stream++) {
+            job.receiveNewFragment("agentID", "fragment" + stream);
+            EasyMock.expectLastCall();
+            job.fragmentSucceeded("agentID", "fragment" + stream);
+            EasyMock.expectLastCall();
+        }
+        EasyMock.replay(job);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(streams);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<StreamObserverStub>> results = new ArrayList<>();
+        for (int stream = 0; stream < streams; stream++) {
+            final String fragmentId = "fragment" + stream;
+            results.add(executor.submit(() -> {
+                final StreamObserverStub streamObserverStub = new StreamObserverStub();
+                final BackupDataStream dataStream = new BackupDataStream(backupMetadataWriter, job, streamObserverStub, mockIdValidator());
+                start.await();
+                dataStream.onNext(BackupData
+                        .newBuilder()
+                        .setDataMessageType(DataMessageType.METADATA)
+                        .setMetadata(Metadata
+                                .newBuilder()
+                                .setAgentId("agentID")
+                                .setFragment(Fragment.newBuilder().setFragmentId(fragmentId).setSizeInBytes("bytes").setVersion("version"))
+                                .setBackupName("backupName")
+                                .build()).build());
+                dataStream.onCompleted();
+                return streamObserverStub;
+            }));
+        }
+        start.countDown();
+
+        for (final Future<StreamObserverStub> result : results) {
+            assertTrue(result.get(10, TimeUnit.SECONDS).isCompleted());
+        }
+        executor.shutdown();
+
+        verify(job);
+        for (int stream = 0; stream < streams; stream++) {
+            assertTrue(Files.exists(folder.getRoot().toPath().resolve("fragment" + stream).resolve("Fragment.json")));
+        }
+    }
+
+    @Test
+    public void onNext_serverCallStream_requestsNextMessageOnceProcessed() throws Exception {
+        final CreateBackupJob job = EasyMock.createMock(CreateBackupJob.class);
+        expect(job.getFragmentFolder(EasyMock.anyObject(Metadata.class))).andReturn(new FragmentFolder(folder.getRoot().toPath()));
+        expect(job.getAwsConfig()).andReturn(new S3Config()).anyTimes();
+        job.receiveNewFragment("agentID", "fragmentId");
+        EasyMock.expectLastCall();
+        EasyMock.replay(job);
+
+        final ServerCallStreamObserverStub serverCallStream = new ServerCallStreamObserverStub();
+        streamObserver = new BackupDataStream(backupMetadataWriter, job, serverCallStream, mockIdValidator());
+
+        assertTrue(serverCallStream.isAutoInboundFlowControlDisabled());
+        assertEquals(1, serverCallStream.getRequestedMessages());
+
+        streamObserver.onNext(BackupData
+                .newBuilder()
+                .setDataMessageType(DataMessageType.METADATA)
+                .setMetadata(Metadata
+                        .newBuilder()
+                        .setAgentId("agentID")
+                        .setFragment(Fragment.newBuilder().setFragmentId("fragmentId").setSizeInBytes("bytes").setVersion("version"))
+                        .setBackupName("backupName")
+                        .build()).build());
+
+        assertEquals(2, serverCallStream.getRequestedMessages());
+        verify(job);
+    }
+
     private IdValidator mockIdValidator() {
         final IdValidator idValidator = createMock(IdValidator.class);
         idValidator.validateId(EasyMock.anyObject());
@@ -308,4 +395,74 @@ public class BackupDataStreamTest {
 
     }
 
+    private class ServerCallStreamObserverStub extends ServerCallStreamObserver<Empty> {
+
+        private boolean autoInboundFlowControlDisabled;
+        private int requestedMessages;
+
+        public boolean isAutoInboundFlowControlDisabled() {
+            return autoInboundFlowControlDisabled;
+        }
+
+        public int getRequestedMessages() {
+            return requestedMessages;
+        }
+
+        @Override
+        public void onNext(final Empty value) {
+
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+
+        }
+
+        @Override
+        public void onCompleted() {
+
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setOnCancelHandler(final Runnable onCancelHandler) {
+
+        }
+
+        @Override
+        public void setCompression(final String compression) {
+
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setOnReadyHandler(final Runnable onReadyHandler) {
+
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+            autoInboundFlowControlDisabled = true;
+        }
+
+        @Override
+        public void request(final int count) {
+            requestedMessages += count;
+        }
+
+        @Override
+        public void setMessageCompression(final boolean enable) {
+
+        }
+
+    }
+
 }
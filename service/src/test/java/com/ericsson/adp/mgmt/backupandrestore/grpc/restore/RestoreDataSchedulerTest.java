@@ -0,0 +1,91 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.grpc.restore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ericsson.adp.mgmt.backupandrestore.util.MetricsIds;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RestoreDataSchedulerTest {
+
+    private List<Runnable> senders;
+    private RestoreDataScheduler scheduler;
+
+    @Before
+    public void setup() {
+        senders = new ArrayList<>();
+        scheduler = new RestoreDataScheduler(senders::add, 2);
+    }
+
+    @Test
+    public void schedule_moreFragmentsThanAgentLimit_extraFragmentsWaitForTransfersOfSameAgent() {
+        final List<String> transferred = new ArrayList<>();
+        final CompletableFuture<Void> first = scheduler.schedule("agent", () -> transferred.add("1"));
+        scheduler.schedule("agent", () -> transferred.add("2"));
+        final CompletableFuture<Void> third = scheduler.schedule("agent", () -> transferred.add("3"));
+        scheduler.schedule("otherAgent", () -> transferred.add("other"));
+
+        assertEquals(3, senders.size());
+
+        senders.remove(0).run();
+
+        assertTrue(first.isDone());
+        assertFalse(third.isDone());
+        assertEquals(3, senders.size());
+
+        senders.forEach(Runnable::run);
+
+        assertTrue(third.isDone());
+        assertEquals(List.of("1", "2", "other", "3"), transferred);
+    }
+
+    @Test
+    public void schedule_transferFails_completesExceptionallyAndStartsNextFragment() {
+        scheduler = new RestoreDataScheduler(Runnable::run, 1);
+
+        final CompletableFuture<Void> failed = scheduler.schedule("agent", () -> {
+            throw new IllegalStateException("Boom");
+        });
+        final CompletableFuture<Void> next = scheduler.schedule("agent", () -> { });
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertTrue(next.isDone());
+        assertFalse(next.isCompletedExceptionally());
+    }
+
+    @Test
+    public void schedule_meterRegistry_recordsQueueAndTransferTimesPerAgent() {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        scheduler = new RestoreDataScheduler(Runnable::run, 1);
+        scheduler.setMeterRegistry(meterRegistry);
+
+        scheduler.schedule("agent", () -> { });
+        scheduler.schedule("agent", () -> { });
+
+        assertEquals(2, meterRegistry.get(MetricsIds.METRIC_BRO_RESTORE_FRAGMENT_QUEUE_SECONDS.identification())
+                .tag("agent", "agent").timer().count());
+        assertEquals(2, meterRegistry.get(MetricsIds.METRIC_BRO_RESTORE_FRAGMENT_TRANSFER_SECONDS.identification())
+                .tag("agent", "agent").timer().count());
+    }
+
+}
@@ -18,6 +18,7 @@ import com.ericsson.adp.mgmt.backupandrestore.job.FragmentFolder;
 import com.ericsson.adp.mgmt.backupandrestore.job.RestoreJob;
 import com.ericsson.adp.mgmt.backupandrestore.persist.PersistProviderFactory;
 import com.ericsson.adp.mgmt.backupandrestore.restore.ChecksumValidationException;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.backupandrestore.util.JsonService;
 import com.ericsson.adp.mgmt.data.Metadata;
 import com.ericsson.adp.mgmt.data.RestoreData;
@@ -31,6 +32,7 @@ import org.junit.rules.TemporaryFolder;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.Optional;
 
 import static org.easymock.EasyMock.anyLong;
 import static org.easymock.EasyMock.anyString;
@@ -62,6 +64,9 @@ public class RestoreDataServiceTest {
         job = EasyMock.createMock(RestoreJob.class);
         expect(job.getFragmentFolder(EasyMock.anyObject(Metadata.class))).andReturn(fragmentFolder).anyTimes();
         expect(job.getAwsConfig()).andReturn(new S3Config()).anyTimes();
+        expect(job.getChecksumAlgorithm(anyString())).andReturn(ChecksumAlgorithm.MD5).anyTimes();
+        expect(job.getMaxChunkSize(anyString())).andReturn(0).anyTimes();
+        expect(job.getRestoreLocations()).andReturn(Optional.empty()).anyTimes();
         job.updateAgentChunkSize(anyString(), anyLong());
         expectLastCall().anyTimes();
 
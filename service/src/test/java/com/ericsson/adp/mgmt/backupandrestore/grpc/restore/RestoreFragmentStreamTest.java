@@ -14,6 +14,8 @@ package com.ericsson.adp.mgmt.backupandrestore.grpc.restore;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.time.Duration;
+
 import org.junit.Test;
 
 import com.ericsson.adp.mgmt.backupandrestore.exception.TimedOutDataChannelException;
@@ -37,6 +39,38 @@ public class RestoreFragmentStreamTest {
         new RestoreFragmentStream(new NeverReadyServerCallStreamObserverStub(), 5).onNext(RestoreData.getDefaultInstance());
     }
 
+    @Test
+    public void onNext_streamBecomesReadyLater_waitsForOnReadyHandlerAndRecordsTimeBlocked() throws Exception {
+        final ReadyOnSignalServerCallStreamObserverStub stub = new ReadyOnSignalServerCallStreamObserverStub();
+        final RestoreData message = RestoreData.getDefaultInstance();
+        final RestoreFragmentStream stream = new RestoreFragmentStream(stub, 5);
+
+        final Thread transport = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            stub.becomeReady();
+        });
+        transport.start();
+        stream.onNext(message);
+        transport.join();
+
+        assertEquals(message, stub.getMessage());
+        assertTrue(stream.getTimeBlockedOnBackpressure().toMillis() >= 100);
+    }
+
+    @Test
+    public void onNext_streamIsReady_doesNotRecordTimeBlocked() throws Exception {
+        final ServerCallStreamObserverStub stub = new ServerCallStreamObserverStub();
+        final RestoreFragmentStream stream = new RestoreFragmentStream(stub, 5);
+
+        stream.onNext(RestoreData.getDefaultInstance());
+
+        assertEquals(Duration.ZERO, stream.getTimeBlockedOnBackpressure());
+    }
+
     @Test
     public void onCompleted_streamIsOpen_closesStream() throws Exception {
         final ServerCallStreamObserverStub stub = new ServerCallStreamObserverStub();
@@ -61,6 +95,7 @@ public class RestoreFragmentStreamTest {
         private RestoreData message;
         private Throwable error;
         private boolean completedConnection;
+        protected Runnable onReadyHandler;
 
         @Override
         public void onCompleted() {
@@ -114,7 +149,7 @@ public class RestoreFragmentStreamTest {
 
         @Override
         public void setOnReadyHandler(final Runnable handler) {
-
+            this.onReadyHandler = handler;
         }
 
         public RestoreData getMessage() {
@@ -143,6 +178,22 @@ public class RestoreFragmentStreamTest {
 
     }
 
+    private class ReadyOnSignalServerCallStreamObserverStub extends ServerCallStreamObserverStub {
+
+        private volatile boolean isReady;
+
+        @Override
+        public boolean isReady() {
+            return isReady;
+        }
+
+        public void becomeReady() {
+            isReady = true;
+            onReadyHandler.run();
+        }
+
+    }
+
     private class NeverReadyServerCallStreamObserverStub extends ServerCallStreamObserverStub {
 
         @Override
@@ -36,6 +36,7 @@ import org.junit.rules.TemporaryFolder;
 
 import com.ericsson.adp.mgmt.backupandrestore.action.Action;
 import com.ericsson.adp.mgmt.backupandrestore.action.payload.BackupNamePayload;
+import com.ericsson.adp.mgmt.backupandrestore.backup.dedup.ChunkStore;
 import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
 import com.ericsson.adp.mgmt.backupandrestore.cminterface.CMMClient;
 import com.ericsson.adp.mgmt.backupandrestore.cminterface.CMMediatorService;
@@ -135,6 +136,21 @@ public class DeleteBackupJobTest {
         assertFalse(rootBackupFolder.toFile().exists());
     }
 
+    @Test
+    public void triggerJob_chunkStore_schedulesCollectionOfUnreferencedChunksAfterDeletingBackup() throws Exception {
+        final ChunkStore chunkStore = createMock(ChunkStore.class);
+        chunkStore.scheduleGarbageCollection();
+        expectLastCall();
+        replay(chunkStore);
+        job.setChunkStore(chunkStore);
+
+        job.triggerJob();
+
+        verify(backupRepository);
+        verify(chunkStore);
+        assertFalse(rootBackupFolder.toFile().exists());
+    }
+
     @Test
     public void didFinish_job_finishesWhenBackupManagerNoLongerHasBackup() throws Exception {
         job.triggerJob();
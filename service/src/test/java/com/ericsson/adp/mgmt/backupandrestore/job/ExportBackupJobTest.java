@@ -19,6 +19,7 @@ import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.isA;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.beans.PropertyChangeEvent;
@@ -50,6 +51,7 @@ import com.ericsson.adp.mgmt.backupandrestore.cminterface.CMMClient;
 import com.ericsson.adp.mgmt.backupandrestore.cminterface.CMMediatorService;
 import com.ericsson.adp.mgmt.backupandrestore.exception.SftpServerNotFoundException;
 import com.ericsson.adp.mgmt.backupandrestore.external.ExternalClientExportProperties;
+import com.ericsson.adp.mgmt.backupandrestore.kms.CMKeyPassphraseService;
 
 public class ExportBackupJobTest {
 
@@ -136,6 +138,25 @@ public class ExportBackupJobTest {
         assertTrue(job.didFinish());
     }
 
+    @Test
+    public void triggerJob_scheduledExportWithEncryptedPassword_payloadKeepsEncryptedPassword() throws Exception {
+        final Payload payload = getURIPayload(true, "backup");
+        expect(action.getPayload()).andReturn(payload).anyTimes();
+        expect(backupManager.getBackup("backup", Ownership.OWNED)).andReturn(backup);
+        expect(action.isScheduledEvent()).andReturn(true).anyTimes();
+        final CMKeyPassphraseService passphraseService = createMock(CMKeyPassphraseService.class);
+        expect(passphraseService.isEnabled()).andReturn(true);
+        expect(passphraseService.getPassphrase("password")).andReturn("decrypted");
+        job.setExportPasswordService(passphraseService);
+
+        job.setAction(action);
+        replay(action, backupManager, passphraseService);
+        job.triggerJob();
+        verify(backupExporter, passphraseService);
+
+        assertEquals("password", ((ExportPayload) payload).getPassword());
+    }
+
     @Test
     public void triggerJob_externalClientPropertiesWithValidSftpServerName_importBackupFromExternalAgentsCalled() throws Exception {
 
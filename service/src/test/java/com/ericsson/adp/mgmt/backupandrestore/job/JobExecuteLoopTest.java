@@ -0,0 +1,116 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.job;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ericsson.adp.mgmt.backupandrestore.action.Action;
+import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
+import com.ericsson.adp.mgmt.backupandrestore.rest.action.CreateActionRequest;
+
+public class JobExecuteLoopTest {
+
+    private final Semaphore jobStarted = new Semaphore(0);
+    private JobQueue queue;
+    private Thread loop;
+
+    @Before
+    public void setup() {
+        final JobFactory jobFactory = createMock(JobFactory.class);
+        expect(jobFactory.createJob(anyObject(), anyObject())).andAnswer(() -> {
+            final Job job = new StartSignallingJob();
+            job.setAction((Action) getCurrentArguments()[1]);
+            return job;
+        }).anyTimes();
+        replay(jobFactory);
+
+        queue = new JobQueue();
+        loop = new Thread(new JobExecuteLoop(queue, queue, jobFactory, null, null, null, new CopyOnWriteArrayList<>()));
+        loop.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        loop.interrupt();
+        loop.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Test
+    public void run_jobQueuedWhileLoopWaits_startsJobOnSignal() throws Exception {
+        final BackupManager manager = createNiceMock(BackupManager.class);
+        final Action action = createNiceMock(Action.class);
+        replay(manager, action);
+
+        for (int job = 0; job < 2; job++) {
+            // WAITING rather than TIMED_WAITING, so the loop isn't polling the queue
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> loop.getState() == Thread.State.WAITING);
+            queue.add(new JobQueueItem(manager, action));
+            assertTrue(jobStarted.tryAcquire(5, TimeUnit.SECONDS));
+            Awaitility.await().atMost(5, TimeUnit.SECONDS).until(queue::isEmpty);
+        }
+    }
+
+    @Test
+    public void run_interruptedWhileQueueIsEmpty_exits() throws Exception {
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> loop.getState() == Thread.State.WAITING);
+        loop.interrupt();
+        loop.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(loop.isAlive());
+    }
+
+    private class StartSignallingJob extends Job {
+
+        @Override
+        public List<CreateActionRequest> run() {
+            jobStarted.release();
+            return new LinkedList<>();
+        }
+
+        @Override
+        protected void triggerJob() {
+            //Not needed
+        }
+
+        @Override
+        protected boolean didFinish() {
+            return true;
+        }
+
+        @Override
+        protected void completeJob() {
+            //Not needed
+        }
+
+        @Override
+        protected void fail() {
+            //Not needed
+        }
+    }
+}
@@ -100,7 +100,7 @@ public class JobExecutorTest {
         expectLastCall().once();
         expect(action.getCompletionTime()).andReturn(OffsetDateTime.now()).once();
         expect(action.getResult()).andReturn(ResultType.SUCCESS).once();
-        expect(action.getName()).andReturn(CREATE_BACKUP).times(1,2);
+        expect(action.getName()).andReturn(CREATE_BACKUP).times(1,3);
         expect(action.getActionId()).andReturn("12345").anyTimes();
 
         cmMediatorService.enqueueProgressReport(action);
@@ -0,0 +1,123 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.job;
+
+import static com.ericsson.adp.mgmt.backupandrestore.action.ActionType.CREATE_BACKUP;
+import static com.ericsson.adp.mgmt.backupandrestore.action.ActionType.DELETE_BACKUP;
+import static com.ericsson.adp.mgmt.backupandrestore.action.ActionType.EXPORT;
+import static com.ericsson.adp.mgmt.backupandrestore.action.ActionType.HOUSEKEEPING;
+import static com.ericsson.adp.mgmt.backupandrestore.action.ActionType.IMPORT;
+import static com.ericsson.adp.mgmt.backupandrestore.action.ActionType.RESTORE;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.ericsson.adp.mgmt.backupandrestore.action.Action;
+import com.ericsson.adp.mgmt.backupandrestore.action.ActionType;
+import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
+
+public class JobResourceTest {
+
+    @Test
+    public void conflictsWith_sameResource_conflictsUnlessBothShared() {
+        final JobResource exclusive = JobResource.exclusive(JobResource.Type.BACKUP, "DEFAULT/backup");
+        final JobResource shared = JobResource.shared(JobResource.Type.BACKUP, "DEFAULT/backup");
+
+        assertTrue(exclusive.conflictsWith(exclusive));
+        assertTrue(exclusive.conflictsWith(shared));
+        assertTrue(shared.conflictsWith(exclusive));
+        assertFalse(shared.conflictsWith(shared));
+        assertFalse(exclusive.conflictsWith(JobResource.exclusive(JobResource.Type.BACKUP, "DEFAULT/other")));
+        assertFalse(exclusive.conflictsWith(JobResource.exclusive(JobResource.Type.AGENT, "DEFAULT/backup")));
+    }
+
+    @Test
+    public void conflictsWith_agentNamedAfterBackupManager_doesNotConflictWithAgentsOfBackupManager() {
+        final JobResource agentsOfBackupManager = JobResource.exclusive(JobResource.Type.BACKUP_MANAGER_AGENTS, "A");
+
+        assertFalse(agentsOfBackupManager.conflictsWith(JobResource.exclusive(JobResource.Type.AGENT, "A")));
+        assertTrue(JobResource.requiredBy(manager("A", "A"), action(CREATE_BACKUP, "backup")).contains(agentsOfBackupManager));
+    }
+
+    @Test
+    public void requiredBy_createBackupsOnBackupManagersWithDifferentAgents_doNotConflict() {
+        assertFalse(conflict(manager("A", "A"), action(CREATE_BACKUP, "backup"),
+                manager("B", "B"), action(CREATE_BACKUP, "backup")));
+    }
+
+    @Test
+    public void requiredBy_createBackupOnBackupManagerAndItsVirtualBackupManager_conflict() {
+        assertTrue(conflict(manager("A", "A"), action(CREATE_BACKUP, "backup1"),
+                manager("A-vbrm", "A"), action(CREATE_BACKUP, "backup2")));
+    }
+
+    @Test
+    public void requiredBy_exportAndCreateBackupOfSameBackupManager_conflictOnlyForSameBackup() {
+        final BackupManager manager = manager("A", "A");
+        assertFalse(conflict(manager, action(EXPORT, "backup1"), manager, action(CREATE_BACKUP, "backup2")));
+        assertTrue(conflict(manager, action(EXPORT, "backup1"), manager, action(CREATE_BACKUP, "backup1")));
+    }
+
+    @Test
+    public void requiredBy_exportsOfDifferentBackupManagers_conflictOnExternalServer() {
+        assertTrue(conflict(manager("A", "A"), action(EXPORT, "backup"), manager("B", "B"), action(IMPORT, "backup")));
+    }
+
+    @Test
+    public void requiredBy_housekeepingAndExportOfDifferentBackupManagers_doNotConflict() {
+        assertFalse(conflict(manager("A", "A"), action(HOUSEKEEPING, null), manager("B", "B"), action(EXPORT, "backup")));
+    }
+
+    @Test
+    public void requiredBy_deleteAndExportOfSameBackupManager_conflict() {
+        final BackupManager manager = manager("A", "A");
+        assertTrue(conflict(manager, action(DELETE_BACKUP, "backup1"), manager, action(EXPORT, "backup2")));
+    }
+
+    @Test
+    public void requiredBy_restoreOfConfigurationBackupManager_conflictsWithActionsOfItsTarget() {
+        assertTrue(conflict(manager("A-bro", "A-bro"), action(RESTORE, "backup1"),
+                manager("A", "A"), action(EXPORT, "backup2")));
+        assertTrue(conflict(manager("A-bro", "A-bro"), action(RESTORE, "backup"),
+                manager("A", "A"), action(IMPORT, "backup")));
+    }
+
+    private boolean conflict(final BackupManager manager, final Action action,
+                             final BackupManager otherManager, final Action otherAction) {
+        final List<JobResource> resources = JobResource.requiredBy(manager, action);
+        final List<JobResource> otherResources = JobResource.requiredBy(otherManager, otherAction);
+        return JobResource.conflict(resources, otherResources);
+    }
+
+    private BackupManager manager(final String backupManagerId, final String agentVisibleBackupManagerId) {
+        final BackupManager manager = createNiceMock(BackupManager.class);
+        expect(manager.getBackupManagerId()).andReturn(backupManagerId).anyTimes();
+        expect(manager.getAgentVisibleBRMId()).andReturn(agentVisibleBackupManagerId).anyTimes();
+        replay(manager);
+        return manager;
+    }
+
+    private Action action(final ActionType type, final String backupName) {
+        final Action action = createNiceMock(Action.class);
+        expect(action.getName()).andReturn(type).anyTimes();
+        expect(action.hasBackupName()).andReturn(backupName != null).anyTimes();
+        expect(action.getBackupName()).andReturn(backupName).anyTimes();
+        replay(action);
+        return action;
+    }
+}
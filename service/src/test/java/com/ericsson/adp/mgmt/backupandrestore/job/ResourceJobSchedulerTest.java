@@ -0,0 +1,206 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.job;
+
+import static com.ericsson.adp.mgmt.backupandrestore.action.ActionType.CREATE_BACKUP;
+import static com.ericsson.adp.mgmt.backupandrestore.action.ActionType.DELETE_BACKUP;
+import static com.ericsson.adp.mgmt.backupandrestore.action.ActionType.EXPORT;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ericsson.adp.mgmt.backupandrestore.action.Action;
+import com.ericsson.adp.mgmt.backupandrestore.action.ActionType;
+import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
+import com.ericsson.adp.mgmt.backupandrestore.rest.action.CreateActionRequest;
+
+public class ResourceJobSchedulerTest {
+
+    private final List<String> started = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> runningAtStart = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Job> runningJobs = new CopyOnWriteArrayList<>();
+    private final Map<String, CountDownLatch> releases = new ConcurrentHashMap<>();
+    private JobFactory jobFactory;
+
+    @Before
+    public void setup() {
+        jobFactory = createMock(JobFactory.class);
+        expect(jobFactory.createJob(anyObject(), anyObject())).andAnswer(() -> {
+            final Job job = new BlockingJob();
+            job.setAction((Action) getCurrentArguments()[1]);
+            return job;
+        }).anyTimes();
+        replay(jobFactory);
+    }
+
+    @After
+    public void tearDown() {
+        releases.values().forEach(CountDownLatch::countDown);
+    }
+
+    @Test
+    public void offer_createBackupsOnDifferentBackupManagers_runAtTheSameTime() {
+        final ResourceJobScheduler scheduler = scheduler(4, 10);
+
+        assertTrue(offer(scheduler, manager("A"), action(CREATE_BACKUP, "A1", "backup")));
+        assertTrue(offer(scheduler, manager("B"), action(CREATE_BACKUP, "B1", "backup")));
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> started.size() == 2);
+        release("A1", "B1");
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(runningJobs::isEmpty);
+    }
+
+    @Test
+    public void offer_conflictingAction_isQueuedAndRunsOnceTheRunningActionFinishes() throws Exception {
+        final ResourceJobScheduler scheduler = scheduler(4, 10);
+        final BackupManager manager = manager("A");
+
+        assertTrue(offer(scheduler, manager, action(CREATE_BACKUP, "1", "backup")));
+        assertTrue(offer(scheduler, manager, action(DELETE_BACKUP, "2", "backup")));
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> started.size() == 1);
+        Thread.sleep(100);
+        assertEquals(Arrays.asList("1"), started);
+
+        release("1");
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> started.size() == 2);
+        // The first job had left the running jobs when the second one started
+        assertEquals(Integer.valueOf(1), runningAtStart.get("2"));
+        release("2");
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(runningJobs::isEmpty);
+    }
+
+    @Test
+    public void offer_queueFull_rejectsActionsWhichCantRunRightAway() {
+        final ResourceJobScheduler scheduler = scheduler(4, 1);
+        final BackupManager manager = manager("A");
+        final AtomicInteger accepted = new AtomicInteger();
+
+        assertTrue(scheduler.offer(new JobQueueItem(manager, action(CREATE_BACKUP, "1", "backup")), accepted::incrementAndGet));
+        assertTrue(scheduler.offer(new JobQueueItem(manager, action(DELETE_BACKUP, "2", "backup")), accepted::incrementAndGet));
+        assertFalse(scheduler.offer(new JobQueueItem(manager, action(DELETE_BACKUP, "3", "backup")), accepted::incrementAndGet));
+        assertTrue(scheduler.offer(new JobQueueItem(manager("B"), action(CREATE_BACKUP, "4", "backup")), accepted::incrementAndGet));
+
+        assertEquals(3, accepted.get());
+        release("1", "2", "4");
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> started.size() == 3);
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(runningJobs::isEmpty);
+    }
+
+    @Test
+    public void offer_slotFreed_startsActionOfBackupManagerWithFewestRunningActions() {
+        final ResourceJobScheduler scheduler = scheduler(2, 10);
+        final BackupManager managerA = manager("A");
+        final BackupManager managerB = manager("B");
+
+        assertTrue(offer(scheduler, managerA, action(CREATE_BACKUP, "A1", "backup1")));
+        assertTrue(offer(scheduler, managerB, action(DELETE_BACKUP, "B1", "backup")));
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> started.size() == 2);
+
+        assertTrue(offer(scheduler, managerA, action(EXPORT, "A2", "backup2")));
+        assertTrue(offer(scheduler, managerB, action(DELETE_BACKUP, "B2", "backup")));
+        release("B1");
+
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> started.size() == 3);
+        assertEquals("B2", started.get(2));
+        release("A1", "A2", "B2");
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> started.size() == 4);
+        Awaitility.await().atMost(5, TimeUnit.SECONDS).until(runningJobs::isEmpty);
+    }
+
+    private ResourceJobScheduler scheduler(final int slots, final int maxQueued) {
+        return new ResourceJobScheduler(new JobRunner(jobFactory, null, null, null, runningJobs), slots, maxQueued);
+    }
+
+    private boolean offer(final ResourceJobScheduler scheduler, final BackupManager manager, final Action action) {
+        return scheduler.offer(new JobQueueItem(manager, action), () -> { });
+    }
+
+    private void release(final String... actionIds) {
+        Arrays.stream(actionIds).forEach(actionId -> releases.get(actionId).countDown());
+    }
+
+    private BackupManager manager(final String backupManagerId) {
+        final BackupManager manager = createNiceMock(BackupManager.class);
+        expect(manager.getBackupManagerId()).andReturn(backupManagerId).anyTimes();
+        expect(manager.getAgentVisibleBRMId()).andReturn(backupManagerId).anyTimes();
+        replay(manager);
+        return manager;
+    }
+
+    private Action action(final ActionType type, final String actionId, final String backupName) {
+        releases.put(actionId, new CountDownLatch(1));
+        final Action action = createNiceMock(Action.class);
+        expect(action.getActionId()).andReturn(actionId).anyTimes();
+        expect(action.getName()).andReturn(type).anyTimes();
+        expect(action.hasBackupName()).andReturn(true).anyTimes();
+        expect(action.getBackupName()).andReturn(backupName).anyTimes();
+        replay(action);
+        return action;
+    }
+
+    private class BlockingJob extends Job {
+
+        @Override
+        public List<CreateActionRequest> run() {
+            runningAtStart.put(action.getActionId(), runningJobs.size());
+            started.add(action.getActionId());
+            try {
+                releases.get(action.getActionId()).await(5, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new LinkedList<>();
+        }
+
+        @Override
+        protected void triggerJob() {
+            //Not needed
+        }
+
+        @Override
+        protected boolean didFinish() {
+            return true;
+        }
+
+        @Override
+        protected void completeJob() {
+            //Not needed
+        }
+
+        @Override
+        protected void fail() {
+            //Not needed
+        }
+    }
+}
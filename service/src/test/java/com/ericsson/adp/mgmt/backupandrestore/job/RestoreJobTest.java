@@ -37,12 +37,14 @@ import com.ericsson.adp.mgmt.backupandrestore.exception.RestoreDownloadException
 import com.ericsson.adp.mgmt.backupandrestore.exception.SemanticVersionNullValueException;
 import com.ericsson.adp.mgmt.backupandrestore.job.stage.JobStage;
 import com.ericsson.adp.mgmt.backupandrestore.job.stage.RestoreJobStage;
+import com.ericsson.adp.mgmt.backupandrestore.persist.PVCPersistProvider;
 import com.ericsson.adp.mgmt.backupandrestore.productinfo.ProductInfoService;
 import com.ericsson.adp.mgmt.backupandrestore.productinfo.exception.MissingFieldsInConfigmapException;
 import com.ericsson.adp.mgmt.backupandrestore.productinfo.exception.UnableToRetrieveDataFromConfigmapException;
 import com.ericsson.adp.mgmt.backupandrestore.productinfo.exception.UnsupportedSoftwareVersionException;
 import com.ericsson.adp.mgmt.backupandrestore.restore.FragmentFileService;
 import com.ericsson.adp.mgmt.backupandrestore.restore.RestoreInformation;
+import com.ericsson.adp.mgmt.backupandrestore.restore.RestoreLocationCache;
 import com.ericsson.adp.mgmt.backupandrestore.test.MockedAgentFactory;
 import com.ericsson.adp.mgmt.control.Preparation;
 import com.ericsson.adp.mgmt.data.Metadata;
@@ -85,6 +87,8 @@ public class RestoreJobTest {
         expect(backupManager.getParent()).andReturn(Optional.empty()).anyTimes();
         expect(parentManager.getBackupManagerId()).andReturn("PARENT").anyTimes();
         backupLocationService = createMock(BackupLocationService.class);
+        expect(backupLocationService.getRestoreLocationCache(anyString(), anyString()))
+                .andStubReturn(new RestoreLocationCache(new PVCPersistProvider(), Path.of("notThere")));
         action = createMock(Action.class);
         expect(action.getActionId()).andReturn("1").anyTimes();
 
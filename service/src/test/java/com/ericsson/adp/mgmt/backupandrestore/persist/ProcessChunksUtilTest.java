@@ -20,6 +20,8 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -35,4 +37,15 @@ public class ProcessChunksUtilTest {
         });
         assertEquals(15, bytesReadInChunk.get());
     }
+
+    @Test
+    public void processStreamChunks_chunkSizeChangesBetweenChunks_readsChunksOfEachSize() throws IOException {
+        final InputStream inputStream = new ByteArrayInputStream(new byte[20]);
+        final List<Integer> chunkSizes = new ArrayList<>();
+        final long processed = ProcessChunksUtil.processStreamChunks(inputStream, (chunk, bytesReadInChunk) -> {
+            chunkSizes.add(bytesReadInChunk);
+        }, () -> chunkSizes.isEmpty() ? 4 : 8);
+        assertEquals(List.of(4, 8, 8), chunkSizes);
+        assertEquals(20, processed);
+    }
 }
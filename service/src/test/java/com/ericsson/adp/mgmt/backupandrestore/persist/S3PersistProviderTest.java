@@ -12,7 +12,9 @@
 package com.ericsson.adp.mgmt.backupandrestore.persist;
 
 import com.amazonaws.services.s3.model.Bucket;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3MultipartClient;
 import com.ericsson.adp.mgmt.backupandrestore.aws.service.S3Client;
 import org.junit.Before;
@@ -22,23 +24,33 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.anyString;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArgument;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class S3PersistProviderTest {
@@ -104,7 +116,7 @@ public class S3PersistProviderTest {
         expectGetBucketName();
         expectGetBucket();
 
-        expect(client.getObjectList(BUCKET_NAME, S3Client.toObjectKey(ROOT))).andReturn(allPaths
+        expect(client.getObjectList(eq(BUCKET_NAME), eq(S3Client.toObjectKey(ROOT)), eq(Integer.MAX_VALUE), anyObject())).andReturn(allPaths
                 .stream()
                 .map(p -> p.getRoot().relativize(p).toString())
                 .collect(Collectors.toList())
@@ -137,23 +149,189 @@ public class S3PersistProviderTest {
     @Test
     public void existsTest() {
         final Path existingFile = ROOT.resolve("1.json");
-        final List<Path> paths = List.of(ROOT.resolve("1.json"), ROOT.resolve("2/2.json"), ROOT.resolve("indirect/../indirect.json"));
 
         expectGetBucketName();
-        expectGetBucket();
-        expect(client.getObjectList(BUCKET_NAME, S3Client.toObjectKey(existingFile), 1)).andReturn(paths
-                .stream()
-                .map(p -> p.getRoot().relativize(p).toString())
-                .collect(Collectors.toList())
-        ).anyTimes();
+        expectListFolder(ROOT, ROOT.resolve("1.json"), ROOT.resolve("2/2.json"), ROOT.resolve("indirect/../indirect.json"));
 
         replay(client);
-        replay(bucket);
 
         assertTrue(persistProvider.exists(existingFile));
+        assertTrue(persistProvider.exists(ROOT.resolve("2")));
+        assertFalse(persistProvider.exists(ROOT.resolve("1")));
 
         verify(client);
-        verify(bucket);
+    }
+
+    @Test
+    public void isFileAndIsDir_pathsOfTwoFolders_listsEachFolderOnce() {
+        expectGetBucketName();
+        expectListFolder(ROOT, ROOT.resolve("1.json"), ROOT.resolve("2/2.json"), ROOT.resolve("2/3/3.json"));
+        expectListFolder(ROOT.resolve("2"), ROOT.resolve("2/2.json"), ROOT.resolve("2/3/3.json"));
+
+        replay(client);
+
+        final List<Path> children = persistProvider.list(ROOT);
+
+        assertEquals(List.of(ROOT.resolve("1.json"), ROOT.resolve("2")), children);
+        assertTrue(persistProvider.isFile(ROOT.resolve("1.json")));
+        assertFalse(persistProvider.isDir(ROOT.resolve("1.json")));
+        assertTrue(persistProvider.isDir(ROOT.resolve("2")));
+        assertFalse(persistProvider.isFile(ROOT.resolve("2")));
+        assertTrue(persistProvider.isFile(ROOT.resolve("2/2.json")));
+        assertTrue(persistProvider.isDir(ROOT.resolve("2/3")));
+        assertEquals(DATA.length, persistProvider.length(ROOT.resolve("2/2.json")));
+        verify(client);
+    }
+
+    @Test
+    public void exists_fileWrittenAfterListing_listsTheFolderAgain() throws InterruptedException {
+        final Path file = ROOT.resolve("1.json");
+        expectGetBucketName();
+        expectListFolder(ROOT);
+        client.uploadObject(BUCKET_NAME, S3Client.toObjectKey(file), DATA);
+        expectLastCall().once();
+        expectListFolder(ROOT, file);
+
+        replay(client);
+
+        assertFalse(persistProvider.exists(file));
+        persistProvider.write(ROOT, file, DATA);
+        assertTrue(persistProvider.exists(file));
+        verify(client);
+    }
+
+    @Test
+    public void exists_fileWrittenInSubfolder_listsTheParentFolderAgain() throws InterruptedException {
+        final Path file = ROOT.resolve("2/2.json");
+        expectGetBucketName();
+        expectListFolder(ROOT);
+        client.uploadObject(BUCKET_NAME, S3Client.toObjectKey(file), DATA);
+        expectLastCall().once();
+        expectListFolder(ROOT, file);
+
+        replay(client);
+
+        assertFalse(persistProvider.exists(ROOT.resolve("2")));
+        persistProvider.write(ROOT.resolve("2"), file, DATA);
+        assertTrue(persistProvider.exists(ROOT.resolve("2")));
+        verify(client);
+    }
+
+    @Test
+    public void write_otherProviderOfBucket_dropsListingOfBothProviders() throws InterruptedException {
+        final S3ListingCache listings = PersistProviderFactory.getListings("shared-" + BUCKET_NAME);
+        final PersistProvider otherProvider = new S3PersistProvider(client, listings);
+        persistProvider = new S3PersistProvider(client, listings);
+        final Path file = ROOT.resolve("1.json");
+        expectGetBucketName();
+        expectListFolder(ROOT);
+        client.uploadObject(eq(BUCKET_NAME), anyString(), eq(DATA));
+        expectLastCall().once();
+        expectListFolder(ROOT, file);
+
+        replay(client);
+
+        assertFalse(otherProvider.exists(file));
+        persistProvider.write(ROOT, file, DATA);
+        assertTrue(otherProvider.exists(file));
+        assertSame(listings, PersistProviderFactory.getListings("shared-" + BUCKET_NAME));
+        verify(client);
+    }
+
+    @Test
+    public void exists_listingExpired_listsTheFolderAgain() {
+        final AtomicLong now = new AtomicLong();
+        persistProvider = new S3PersistProvider(client, new S3ListingCache(Duration.ofSeconds(1), now::get));
+        final Path file = ROOT.resolve("1.json");
+        expectGetBucketName();
+        expectListFolder(ROOT);
+        expectListFolder(ROOT, file);
+
+        replay(client);
+
+        assertFalse(persistProvider.exists(file));
+        now.set(Duration.ofMillis(999).toNanos());
+        assertFalse(persistProvider.exists(file));
+        now.set(Duration.ofSeconds(1).toNanos());
+        assertTrue(persistProvider.exists(file));
+        verify(client);
+    }
+
+    @Test
+    public void exists_folderListedInTwoPages_countsARequestPerPageInCountOfThread() {
+        final ListObjectsV2Result firstPage = getPage(ROOT, ROOT.resolve("1.json"));
+        final ListObjectsV2Result secondPage = getPage(ROOT, ROOT.resolve("2.json"));
+        expectGetBucketName();
+        client.listFolder(eq(BUCKET_NAME), eq(S3Client.toObjectKey(ROOT) + "/"), anyObject());
+        expectLastCall().andAnswer(() -> {
+            final Consumer<ListObjectsV2Result> onPage = getCurrentArgument(2);
+            onPage.accept(firstPage);
+            onPage.accept(secondPage);
+            return null;
+        }).once();
+
+        replay(client);
+
+        final S3RequestCount countOfOtherJob = S3RequestCount.start();
+        try (S3RequestCount count = S3RequestCount.start(); S3RequestCount.Binding binding = count.bind()) {
+            assertTrue(persistProvider.exists(ROOT.resolve("2.json")));
+            assertTrue(persistProvider.exists(ROOT.resolve("1.json")));
+            assertEquals(2, count.get());
+        }
+        assertEquals(0, countOfOtherJob.get());
+        verify(client);
+    }
+
+    @Test
+    public void getFileRevisions_objectsUnderPath_returnsETagsOfObjectsUpToMaxDepth() throws IOException {
+        final Map<String, String> eTags = new LinkedHashMap<>();
+        eTags.put(S3Client.toObjectKey(ROOT.resolve("1.json")), "etag1");
+        eTags.put(S3Client.toObjectKey(ROOT.resolve("v2/2.json")), "etag2");
+        eTags.put(S3Client.toObjectKey(ROOT.resolve("v2/deeper/3.json")), "etag3");
+        eTags.put(S3Client.toObjectKey(ROOT.getParent().resolve("pathWithSamePrefix/4.json")), "etag4");
+
+        expectGetBucketName();
+        expect(client.getObjectETags(eq(BUCKET_NAME), eq(S3Client.toObjectKey(ROOT)), anyObject())).andReturn(eTags);
+
+        replay(client);
+
+        final Map<Path, String> revisions = persistProvider.getFileRevisions(ROOT, 2).get();
+
+        assertEquals(Map.of(ROOT.resolve("1.json"), "etag1", ROOT.resolve("v2/2.json"), "etag2"), revisions);
+        verify(client);
+    }
+
+    private void expectListFolder(final Path folder, final Path... paths) {
+        final ListObjectsV2Result page = getPage(folder, paths);
+        client.listFolder(eq(BUCKET_NAME), eq(S3Client.toObjectKey(folder) + "/"), anyObject());
+        expectLastCall().andAnswer(() -> {
+            final Consumer<ListObjectsV2Result> onPage = getCurrentArgument(2);
+            onPage.accept(page);
+            return null;
+        }).once();
+    }
+
+    /**
+     * Lists the paths as a delimited listing of the folder does, with the paths in subfolders as common prefixes
+     */
+    private ListObjectsV2Result getPage(final Path folder, final Path... paths) {
+        final String prefix = S3Client.toObjectKey(folder) + "/";
+        final ListObjectsV2Result page = new ListObjectsV2Result();
+        final Set<String> folders = new TreeSet<>();
+        for (final Path path: paths) {
+            final String key = S3Client.toObjectKey(path);
+            final int separator = key.indexOf('/', prefix.length());
+            if (separator < 0) {
+                final S3ObjectSummary summary = new S3ObjectSummary();
+                summary.setKey(key);
+                summary.setSize(DATA.length);
+                page.getObjectSummaries().add(summary);
+            } else {
+                folders.add(key.substring(0, separator + 1));
+            }
+        }
+        page.setCommonPrefixes(new ArrayList<>(folders));
+        return page;
     }
 
     private S3ObjectInputStream getInputStream(final String data) {
@@ -11,8 +11,11 @@
  *------------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.backupandrestore.restore;
 
+import static org.junit.Assert.assertEquals;
+
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -20,6 +23,8 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumCalculator;
 
 public class ChecksumValidatorTest {
 
@@ -49,6 +54,42 @@ public class ChecksumValidatorTest {
         checksumValidator.validate("CAFEBABE", testFilePath);
     }
 
+    @Test
+    public void validate_md5FileWithoutAlgorithmName_validatedAsMd5() throws Exception {
+        final ChecksumCalculator calculator = new ChecksumCalculator(ChecksumAlgorithm.CRC32C, ChecksumAlgorithm.MD5);
+        calculator.addBytes("content".getBytes());
+        final Path testFilePath = folder.getRoot().toPath().resolve("test.md5");
+        Files.write(testFilePath, calculator.getChecksum(ChecksumAlgorithm.MD5).getBytes());
+
+        assertEquals(Optional.of(ChecksumAlgorithm.MD5), checksumValidator.getStoredAlgorithm(testFilePath));
+        checksumValidator.validate(calculator, testFilePath);
+    }
+
+    @Test
+    public void validate_fileNamesAlgorithm_validatedWithThatAlgorithm() throws Exception {
+        final ChecksumCalculator calculator = new ChecksumCalculator(ChecksumAlgorithm.MD5, ChecksumAlgorithm.XXHASH64);
+        calculator.addBytes("content".getBytes());
+        final Path testFilePath = folder.getRoot().toPath().resolve("test.md5");
+        Files.write(testFilePath, ChecksumAlgorithm.XXHASH64.toChecksumFileContent(calculator.getChecksum(ChecksumAlgorithm.XXHASH64)).getBytes());
+
+        assertEquals(Optional.of(ChecksumAlgorithm.XXHASH64), checksumValidator.getStoredAlgorithm(testFilePath));
+        checksumValidator.validate(calculator, testFilePath);
+    }
+
+    @Test(expected = ChecksumValidationException.class)
+    public void validate_fileNamesAlgorithm_checksumDoesNotMatch() throws Exception {
+        final ChecksumCalculator calculator = new ChecksumCalculator(ChecksumAlgorithm.CRC32C);
+        calculator.addBytes("content".getBytes());
+        final Path testFilePath = folder.getRoot().toPath().resolve("test.md5");
+        Files.write(testFilePath, "CRC32C:cafebabe".getBytes());
+        checksumValidator.validate(calculator, testFilePath);
+    }
+
+    @Test
+    public void getStoredAlgorithm_fileDoesNotExist_empty() {
+        assertEquals(Optional.empty(), checksumValidator.getStoredAlgorithm(folder.getRoot().toPath().resolve("none.md5")));
+    }
+
     @Test
     public void validate_fileDoesNotExist() {
         checksumValidator.validate("CAFEBABE", folder.getRoot().toPath().resolve("none.md5"));
@@ -0,0 +1,131 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.restore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.ericsson.adp.mgmt.backupandrestore.exception.BackupServiceException;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumCalculator;
+
+public class FileChecksumServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileChecksumService fileChecksumService;
+
+    @Before
+    public void setup() {
+        fileChecksumService = new FileChecksumService();
+        fileChecksumService.setParallelism(3);
+    }
+
+    @Test
+    public void calculate_fileLargerThanBuffer_sameChecksumAsCalculator() throws Exception {
+        final byte[] content = randomContent(3 * 1024 * 1024 + 17, 1);
+        final Path file = write("fragment", content);
+
+        for (final ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            assertEquals(checksumOf(content, algorithm), fileChecksumService.calculate(file, algorithm));
+        }
+        assertEquals(checksumOf(content, ChecksumAlgorithm.MD5), ChecksumCalculator.getChecksum(file.toString()));
+    }
+
+    @Test
+    public void calculate_manyFiles_checksumOfEachFileInOrder() throws Exception {
+        final List<Path> files = new ArrayList<>();
+        final List<String> expectedChecksums = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final byte[] content = randomContent(i * 100_000, i);
+            files.add(write("fragment" + i, content));
+            expectedChecksums.add(checksumOf(content, ChecksumAlgorithm.CRC32C));
+        }
+
+        final Map<Path, String> checksums = fileChecksumService.calculate(files, ChecksumAlgorithm.CRC32C);
+
+        assertEquals(files, new ArrayList<>(checksums.keySet()));
+        assertEquals(expectedChecksums, new ArrayList<>(checksums.values()));
+    }
+
+    @Test(expected = BackupServiceException.class)
+    public void calculate_missingFile_throwsException() {
+        fileChecksumService.calculate(List.of(folder.getRoot().toPath().resolve("a"), folder.getRoot().toPath().resolve("b")),
+                ChecksumAlgorithm.MD5);
+    }
+
+    @Test
+    public void validateFolder_storedChecksumsMatch_valid() throws Exception {
+        final byte[] md5Content = randomContent(1000, 1);
+        final byte[] xxhashContent = randomContent(2000, 2);
+        write("agent/1/data/md5", md5Content);
+        write("agent/1/data/md5.md5", checksumOf(md5Content, ChecksumAlgorithm.MD5).getBytes());
+        write("agent/2/data/xxhash", xxhashContent);
+        write("agent/2/data/xxhash.md5",
+            ChecksumAlgorithm.XXHASH64.toChecksumFileContent(checksumOf(xxhashContent, ChecksumAlgorithm.XXHASH64)).getBytes());
+        write("agent/3/data/noChecksumFile", randomContent(10, 3));
+
+        fileChecksumService.validateFolder(folder.getRoot().toPath());
+        fileChecksumService.validateFolder(folder.getRoot().toPath().resolve("notThere"));
+    }
+
+    @Test
+    public void validateFolder_storedChecksumDoesNotMatch_throwsExceptionNamingFile() throws Exception {
+        final byte[] content = randomContent(1000, 1);
+        write("agent/1/data/valid", content);
+        write("agent/1/data/valid.md5", ChecksumAlgorithm.CRC32C.toChecksumFileContent(checksumOf(content, ChecksumAlgorithm.CRC32C)).getBytes());
+        final Path corrupted = write("agent/2/data/corrupted", content);
+        write("agent/2/data/corrupted.md5", "CRC32C:00000000".getBytes());
+
+        try {
+            fileChecksumService.validateFolder(folder.getRoot().toPath());
+            fail("Expected a checksum mismatch");
+        } catch (final ChecksumValidationException e) {
+            assertTrue(e.getMessage().contains(corrupted.toString()));
+            assertFalse(e.getMessage().contains(folder.getRoot().toPath().resolve("agent/1").toString()));
+        }
+    }
+
+    private Path write(final String name, final byte[] content) throws Exception {
+        final Path file = folder.getRoot().toPath().resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        return file;
+    }
+
+    private String checksumOf(final byte[] content, final ChecksumAlgorithm algorithm) {
+        final ChecksumCalculator calculator = new ChecksumCalculator(algorithm);
+        calculator.addBytes(content);
+        return calculator.getChecksum();
+    }
+
+    private byte[] randomContent(final int size, final long seed) {
+        final byte[] content = new byte[size];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+}
@@ -11,13 +11,21 @@
  *----------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.backupandrestore.restore;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Random;
 
 import com.ericsson.adp.mgmt.backupandrestore.aws.S3Config;
+import com.ericsson.adp.mgmt.backupandrestore.backup.dedup.ChunkManifest;
+import com.ericsson.adp.mgmt.backupandrestore.grpc.AdaptiveChunkSize;
+import com.ericsson.adp.mgmt.backupandrestore.grpc.ChunkMemoryBudget;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -25,7 +33,9 @@ import org.junit.rules.TemporaryFolder;
 
 import com.ericsson.adp.mgmt.backupandrestore.exception.RestoreDownloadException;
 import com.ericsson.adp.mgmt.backupandrestore.job.FragmentFolder;
+import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumAlgorithm;
 import com.ericsson.adp.mgmt.backupandrestore.util.ChecksumCalculator;
+import com.ericsson.adp.mgmt.data.BackupFileChunk;
 import com.ericsson.adp.mgmt.data.RestoreData;
 
 import io.grpc.stub.StreamObserver;
@@ -73,11 +83,187 @@ public class RestoreBackupFileTest {
         assertTrue(restoreStreamObserverTest.receivedMessage());
     }
 
+    @Test
+    public void sendDeduplicatedFile_manifest_sendsContentUnderNameOfDataFile() throws Exception {
+        final byte[] content = new byte[(1024 * 3) + 100];
+        new Random(1).nextBytes(content);
+        final ChecksumCalculator calculator = new ChecksumCalculator();
+        calculator.addBytes(content);
+        final String expectedChecksum = calculator.getChecksum();
+        Files.write(backup.resolve("BackupFile.txt.md5"), expectedChecksum.getBytes());
+
+        final ContentCollectingObserver observer = new ContentCollectingObserver();
+        final long sent = new RestoreBackupFile(observer, 1024, new S3Config())
+                .sendDeduplicatedFile(backup.resolve("BackupFile.txt" + ChunkManifest.EXTENSION), new ByteArrayInputStream(content));
+
+        assertEquals(content.length, sent);
+        assertArrayEquals(content, observer.getContent());
+        assertEquals(expectedChecksum, observer.getChecksum());
+        assertEquals("BackupFile.txt", observer.getFileName());
+    }
+
+    @Test(expected = ChecksumValidationException.class)
+    public void sendDeduplicatedFile_checksumFileMismatch_throwsError() throws Exception {
+        Files.write(backup.resolve("BackupFile.txt.md5"), "CAFEBABE".getBytes());
+        restoreBackupFile.sendDeduplicatedFile(backup.resolve("BackupFile.txt" + ChunkManifest.EXTENSION),
+                new ByteArrayInputStream("ABCDEF-BackupFile".getBytes()));
+    }
+
     @Test(expected = RestoreDownloadException.class)
     public void sendFile_sendIncorrectBackupPath_throwsError() throws Exception {
         restoreBackupFile.sendFile(backup.resolve("BackupFile.txt"));
     }
 
+    @Test
+    public void sendFile_mappedTransferModeFileSpanningSeveralRegions_sendsSameContentAndChecksum() throws Exception {
+        final byte[] content = new byte[(1024 * 64 * 3) + 100];
+        new Random(1).nextBytes(content);
+        Files.write(backup.resolve("BackupFile.txt"), content);
+        final ChecksumCalculator calculator = new ChecksumCalculator();
+        calculator.addBytes(content);
+        final String expectedChecksum = calculator.getChecksum();
+        Files.write(backup.resolve("BackupFile.txt.md5"), expectedChecksum.getBytes());
+
+        final ContentCollectingObserver observer = new ContentCollectingObserver();
+        final long sent = new RestoreBackupFile(observer, 1024, new S3Config(), RestoreTransferMode.MAPPED)
+                .sendFile(backup.resolve("BackupFile.txt"));
+
+        assertEquals(content.length, sent);
+        assertArrayEquals(content, observer.getContent());
+        assertEquals(expectedChecksum, observer.getChecksum());
+        assertEquals("BackupFile.txt", observer.getFileName());
+    }
+
+    @Test
+    public void sendFile_mappedTransferModeSeveralRegions_releasesMappedBudget() throws Exception {
+        final int availableMappedKiB = RestoreBackupFile.getAvailableMappedKiB();
+        final byte[] content = new byte[(1024 * 1024) + 100];
+        new Random(2).nextBytes(content);
+        Files.write(backup.resolve("BackupFile.txt"), content);
+
+        final ContentCollectingObserver observer = new ContentCollectingObserver();
+        new RestoreBackupFile(observer, 1024, new S3Config(), RestoreTransferMode.MAPPED)
+                .sendFile(backup.resolve("BackupFile.txt"));
+
+        assertArrayEquals(content, observer.getContent());
+        assertEquals(availableMappedKiB, RestoreBackupFile.getAvailableMappedKiB());
+    }
+
+    @Test
+    public void sendFile_mappedTransferModeEmptyFile_sendsOnlyFileNameAndChecksum() throws Exception {
+        Files.write(backup.resolve("BackupFile.txt"), new byte[0]);
+
+        final ContentCollectingObserver observer = new ContentCollectingObserver();
+        final long sent = new RestoreBackupFile(observer, 1024, new S3Config(), RestoreTransferMode.MAPPED)
+                .sendFile(backup.resolve("BackupFile.txt"));
+
+        assertEquals(0, sent);
+        assertEquals(0, observer.getContent().length);
+        assertEquals(new ChecksumCalculator().getChecksum(), observer.getChecksum());
+    }
+
+    @Test(expected = ChecksumValidationException.class)
+    public void sendFile_mappedTransferModeChecksumFileMismatch_throwsError() throws Exception {
+        Files.write(backup.resolve("BackupFile.txt"), "ABCDEF-BackupFile".getBytes());
+        Files.write(backup.resolve("BackupFile.txt.md5"), "CAFEBABE".getBytes());
+        new RestoreBackupFile(restoreStreamObserverTest, 512 * 1024, new S3Config(), RestoreTransferMode.MAPPED)
+                .sendFile(backup.resolve("BackupFile.txt"));
+    }
+
+    @Test(expected = RestoreDownloadException.class)
+    public void sendFile_mappedTransferModeIncorrectBackupPath_throwsError() throws Exception {
+        new RestoreBackupFile(restoreStreamObserverTest, 512 * 1024, new S3Config(), RestoreTransferMode.MAPPED)
+                .sendFile(backup.resolve("BackupFile.txt"));
+    }
+
+    @Test
+    public void sendFile_md5ChecksumFileAgentUsesCrc32c_validatesMd5AndSendsCrc32c() throws Exception {
+        Files.write(backup.resolve("BackupFile.txt"), "ABCDEF-BackupFile".getBytes());
+        final ChecksumCalculator calculator = new ChecksumCalculator(ChecksumAlgorithm.MD5, ChecksumAlgorithm.CRC32C);
+        calculator.addBytes("ABCDEF-BackupFile".getBytes());
+        // Checksum file written before the algorithm was negotiated
+        Files.write(backup.resolve("BackupFile.txt.md5"), calculator.getChecksum().getBytes());
+
+        for (final RestoreTransferMode transferMode : RestoreTransferMode.values()) {
+            final ContentCollectingObserver observer = new ContentCollectingObserver();
+            new RestoreBackupFile(observer, 4, new S3Config(), transferMode, ChecksumAlgorithm.CRC32C)
+                    .sendFile(backup.resolve("BackupFile.txt"));
+            assertEquals(calculator.getChecksum(ChecksumAlgorithm.CRC32C), observer.getChecksum());
+        }
+    }
+
+    @Test
+    public void sendFile_adaptiveChunkSize_sendsSameContentAndChecksumInEachTransferMode() throws Exception {
+        final byte[] content = new byte[(1024 * 1024) + 100];
+        new Random(1).nextBytes(content);
+        Files.write(backup.resolve("BackupFile.txt"), content);
+        final ChecksumCalculator calculator = new ChecksumCalculator();
+        calculator.addBytes(content);
+        Files.write(backup.resolve("BackupFile.txt.md5"), calculator.getChecksum().getBytes());
+
+        for (final RestoreTransferMode transferMode : RestoreTransferMode.values()) {
+            final ChunkMemoryBudget budget = new ChunkMemoryBudget(1024 * 1024);
+            final ContentCollectingObserver observer = new ContentCollectingObserver();
+            try (AdaptiveChunkSize chunkSize = new AdaptiveChunkSize(1024, 1024, 64 * 1024, budget, () -> 0L)) {
+                final long sent = new RestoreBackupFile(observer, chunkSize, new S3Config(), transferMode, ChecksumAlgorithm.MD5)
+                        .sendFile(backup.resolve("BackupFile.txt"));
+                assertEquals(content.length, sent);
+            }
+            assertArrayEquals(content, observer.getContent());
+            assertEquals(calculator.getChecksum(), observer.getChecksum());
+            assertEquals(0, budget.getReserved());
+        }
+    }
+
+    @Test(expected = ChecksumValidationException.class)
+    public void sendFile_xxHash64ChecksumFileMismatch_throwsError() throws Exception {
+        Files.write(backup.resolve("BackupFile.txt"), "ABCDEF-BackupFile".getBytes());
+        Files.write(backup.resolve("BackupFile.txt.md5"), ChecksumAlgorithm.XXHASH64.toChecksumFileContent("00000000cafebabe").getBytes());
+        new RestoreBackupFile(restoreStreamObserverTest, 512 * 1024, new S3Config(), RestoreTransferMode.BUFFERED, ChecksumAlgorithm.MD5)
+                .sendFile(backup.resolve("BackupFile.txt"));
+    }
+
+    private class ContentCollectingObserver implements StreamObserver<RestoreData> {
+
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private String fileName;
+        private String checksum;
+
+        @Override
+        public void onNext(final RestoreData value) {
+            final BackupFileChunk chunk = value.getBackupFileChunk();
+            if (!chunk.getFileName().isEmpty()) {
+                fileName = chunk.getFileName();
+            } else if (!chunk.getChecksum().isEmpty()) {
+                checksum = chunk.getChecksum();
+            } else {
+                content.writeBytes(chunk.getContent().toByteArray());
+            }
+        }
+
+        @Override
+        public void onError(final Throwable t) {
+            //not needed.
+        }
+
+        @Override
+        public void onCompleted() {
+            //not needed.
+        }
+
+        public byte[] getContent() {
+            return content.toByteArray();
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getChecksum() {
+            return checksum;
+        }
+    }
+
     private class RestoreStreamObserverTest implements StreamObserver<RestoreData> {
 
         private boolean receivedMessage;
@@ -0,0 +1,96 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.restore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.ericsson.adp.mgmt.backupandrestore.persist.PVCPersistProvider;
+
+public class RestoreLocationCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path backupFolder;
+    private RestoreLocationCache cache;
+
+    @Before
+    public void setup() throws IOException {
+        backupFolder = folder.getRoot().toPath().resolve("backup");
+        write("agent/1/data/b.txt");
+        write("agent/1/data/a.txt");
+        write("agent/1/customMetadata/metadata.txt");
+        Files.createDirectories(backupFolder.resolve("agent/2/data"));
+        cache = new RestoreLocationCache(new PVCPersistProvider(), backupFolder);
+    }
+
+    @Test
+    public void findFile_prefetched_firstFileOfFolder() throws IOException {
+        cache.prefetch();
+
+        assertEquals(Optional.of(backupFolder.resolve("agent/1/data/a.txt")), cache.findFile(backupFolder.resolve("agent/1/data")));
+        assertEquals(Optional.of(backupFolder.resolve("agent/1/customMetadata/metadata.txt")),
+                cache.findFile(backupFolder.resolve("agent/1/customMetadata")));
+        assertEquals(Optional.empty(), cache.findFile(backupFolder.resolve("agent/1/notThere")));
+    }
+
+    @Test
+    public void exists_prefetched_pathsOfBackupFolder() throws IOException {
+        cache.prefetch();
+
+        assertTrue(cache.exists(backupFolder.resolve("agent/1/data")));
+        assertTrue(cache.exists(backupFolder.resolve("agent/2")));
+        assertFalse(cache.exists(backupFolder.resolve("agent/3")));
+    }
+
+    @Test
+    public void prefetch_filesAddedAfterwards_notSeenUnderBackupFolderButSeenOutsideOfIt() throws IOException {
+        cache.prefetch();
+        write("agent/2/data/late.txt");
+        final Path outside = Files.createDirectories(folder.getRoot().toPath().resolve("other"));
+
+        assertFalse(cache.exists(backupFolder.resolve("agent/2/data/late.txt")));
+        assertTrue(cache.exists(outside));
+    }
+
+    @Test
+    public void findFile_notPrefetched_looksUpThroughProvider() throws IOException {
+        assertEquals(Optional.of(backupFolder.resolve("agent/1/data/a.txt")), cache.findFile(backupFolder.resolve("agent/1/data")));
+        assertTrue(cache.exists(backupFolder.resolve("agent/1/data/b.txt")));
+        assertEquals(Optional.of(backupFolder.resolve("agent/1/data/a.txt")),
+                new RestoreLocationCache(new PVCPersistProvider()).findFile(backupFolder.resolve("agent/1/data")));
+    }
+
+    @Test(expected = IOException.class)
+    public void prefetch_backupFolderDoesNotExist_throwsException() throws IOException {
+        new RestoreLocationCache(new PVCPersistProvider(), folder.getRoot().toPath().resolve("notThere")).prefetch();
+    }
+
+    private void write(final String file) throws IOException {
+        final Path path = backupFolder.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.write(path, file.getBytes());
+    }
+
+}
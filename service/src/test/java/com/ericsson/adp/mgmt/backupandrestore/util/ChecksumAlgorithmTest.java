@@ -0,0 +1,88 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.ericsson.adp.mgmt.metadata.AgentFeature;
+
+public class ChecksumAlgorithmTest {
+
+    private static final byte[] CHECK_INPUT = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void negotiate_agentWithoutChecksumFeatures_md5() {
+        assertEquals(ChecksumAlgorithm.MD5, ChecksumAlgorithm.negotiate(List.of(AgentFeature.PLAINTEXT_VALUE, AgentFeature.CHECKSUM_MD5_VALUE)));
+        assertEquals(ChecksumAlgorithm.MD5, ChecksumAlgorithm.negotiate(List.of()));
+    }
+
+    @Test
+    public void negotiate_agentWithSeveralChecksumFeatures_fastestAlgorithm() {
+        assertEquals(ChecksumAlgorithm.XXHASH64, ChecksumAlgorithm.negotiate(List.of(ChecksumAlgorithm.CHECKSUM_NEGOTIATION_VALUE,
+                AgentFeature.CHECKSUM_MD5_VALUE, AgentFeature.CHECKSUM_XXHASH_64_VALUE)));
+        assertEquals(ChecksumAlgorithm.CRC32C, ChecksumAlgorithm.negotiate(List.of(ChecksumAlgorithm.CHECKSUM_NEGOTIATION_VALUE,
+                AgentFeature.CHECKSUM_XXHASH_64_VALUE, ChecksumAlgorithm.CHECKSUM_CRC32C_VALUE)));
+    }
+
+    @Test
+    public void negotiate_releasedAgentDeclaringXXHash64_md5() {
+        // Agents which predate the negotiation could declare CHECKSUM_XXHASH_64 while always sending MD5 checksums
+        assertEquals(ChecksumAlgorithm.MD5, ChecksumAlgorithm.negotiate(
+                List.of(AgentFeature.CHECKSUM_MD5_VALUE, AgentFeature.CHECKSUM_XXHASH_64_VALUE)));
+    }
+
+    @Test
+    public void checksum_standardCheckInput_sameValuesAsAgentApi() {
+        assertEquals("e3069283", checksum(ChecksumAlgorithm.CRC32C, CHECK_INPUT));
+        assertEquals("44bc2cf5ad770999", checksum(ChecksumAlgorithm.XXHASH64, "abc".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("25F9E794323B453885F5181F1B624D0B", checksum(ChecksumAlgorithm.MD5, CHECK_INPUT));
+    }
+
+    @Test
+    public void checksum_arrayOrMappedBuffer_sameChecksum() {
+        final byte[] content = new byte[200 * 1024 + 7];
+        new Random(3).nextBytes(content);
+        for (final ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            final ChecksumCalculator fromArray = new ChecksumCalculator(algorithm);
+            fromArray.addBytes(content, 0, content.length);
+            final ChecksumCalculator fromDirectBuffer = new ChecksumCalculator(algorithm);
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+            buffer.put(content).flip();
+            fromDirectBuffer.addBytes(buffer);
+            assertEquals(algorithm.name(), fromArray.getChecksum(), fromDirectBuffer.getChecksum());
+        }
+    }
+
+    @Test
+    public void checksumFileContent_eachAlgorithm_roundTrips() {
+        for (final ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+            final String content = algorithm.toChecksumFileContent("0123abcd");
+            assertEquals(algorithm, ChecksumAlgorithm.ofChecksumFileContent(content));
+            assertEquals("0123abcd", ChecksumAlgorithm.checksumOfChecksumFileContent(content));
+        }
+        // Checksum files written before the algorithm was negotiated contain only the MD5 checksum
+        assertEquals("0123abcd", ChecksumAlgorithm.MD5.toChecksumFileContent("0123abcd"));
+    }
+
+    private String checksum(final ChecksumAlgorithm algorithm, final byte[] input) {
+        final ChecksumCalculator calculator = new ChecksumCalculator(algorithm);
+        calculator.addBytes(input);
+        return calculator.getChecksum();
+    }
+}
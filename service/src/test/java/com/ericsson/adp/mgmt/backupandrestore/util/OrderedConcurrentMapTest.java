@@ -0,0 +1,138 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class OrderedConcurrentMapTest {
+
+    private OrderedConcurrentMap<String, Integer> map;
+
+    @Before
+    public void setup() {
+        map = new OrderedConcurrentMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+    }
+
+    @Test
+    public void values_entriesAdded_returnsValuesInTheOrderTheyWereAdded() {
+        assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    public void put_existingKey_replacesValueAndKeepsPosition() {
+        map.put("a", 4);
+
+        assertEquals(Arrays.asList(4, 2, 3), new ArrayList<>(map.values()));
+        assertEquals(3, map.entrySet().size());
+    }
+
+    @Test
+    public void remove_keyInTheMiddle_removesEntryAndKeepsOrderOfOthers() {
+        assertEquals(Integer.valueOf(2), map.remove("b"));
+        assertNull(map.remove("b"));
+
+        assertFalse(map.containsKey("b"));
+        assertEquals(Arrays.asList(1, 3), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    public void replaceKey_existingKey_keepsPositionOfEntry() {
+        map.replaceKey("b", "d");
+
+        assertFalse(map.containsKey("b"));
+        assertEquals(Integer.valueOf(2), map.get("d"));
+        assertEquals(Arrays.asList("a", "d", "c"), keys());
+    }
+
+    @Test
+    public void replaceKey_newKeyAlreadyInMap_dropsPreviousEntryOfNewKey() {
+        map.replaceKey("a", "c");
+
+        assertEquals(Arrays.asList("c", "b"), keys());
+        assertEquals(Integer.valueOf(1), map.get("c"));
+    }
+
+    @Test
+    public void replace_missingKey_doesNothing() {
+        map.replace("d", 4);
+        map.replace("b", 5);
+
+        assertFalse(map.containsKey("d"));
+        assertEquals(Arrays.asList(1, 5, 3), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    public void entrySetIterator_remove_removesEntryFromMap() {
+        final Iterator<Map.Entry<String, Integer>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue() % 2 == 1) {
+                iterator.remove();
+            }
+        }
+
+        assertEquals(Arrays.asList("b"), keys());
+    }
+
+    @Test
+    public void entrySetIterator_mapModifiedWhileIterating_neverFails() throws Exception {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CountDownLatch writerStarted = new CountDownLatch(1);
+        final Thread writer = new Thread(() -> {
+            writerStarted.countDown();
+            int key = 0;
+            while (running.get()) {
+                map.put("key" + key, key);
+                map.replaceKey("key" + key, "renamed" + key);
+                map.remove("renamed" + (key - 10));
+                key++;
+            }
+        });
+        writer.start();
+        writerStarted.await(5, TimeUnit.SECONDS);
+        try {
+            for (int read = 0; read < 1000; read++) {
+                final List<String> seen = new ArrayList<>();
+                map.entrySet().forEach(entry -> seen.add(entry.getKey()));
+                assertEquals(Arrays.asList("a", "b", "c"), seen.subList(0, 3));
+                assertEquals(seen.size(), seen.stream().distinct().count());
+            }
+        } finally {
+            running.set(false);
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        assertTrue(map.containsKey("a"));
+    }
+
+    private List<String> keys() {
+        final List<String> keys = new ArrayList<>();
+        map.entrySet().forEach(entry -> keys.add(entry.getKey()));
+        return keys;
+    }
+}
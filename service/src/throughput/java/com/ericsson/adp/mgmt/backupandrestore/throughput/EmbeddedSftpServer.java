@@ -0,0 +1,66 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.throughput;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+
+/**
+ * SFTP server on localhost, storing files in a local folder, which backups are exported to and imported from.
+ */
+class EmbeddedSftpServer implements AutoCloseable {
+
+    static final String USER = "benchmark";
+    static final String PASSWORD = "benchmark";
+
+    private final SshServer server;
+
+    /**
+     * Starts the server
+     * @param root folder the server stores files in
+     * @param port port the server listens on
+     * @throws IOException if the server couldn't start
+     */
+    EmbeddedSftpServer(final Path root, final int port) throws IOException {
+        Files.createDirectories(root);
+        server = SshServer.setUpDefaultServer();
+        server.setHost("localhost");
+        server.setPort(port);
+        server.setKeyPairProvider(new SimpleGeneratorHostKeyProvider(root.resolveSibling("sftp-host-key.ser")));
+        server.setPasswordAuthenticator((username, password, session) -> USER.equals(username) && PASSWORD.equals(password));
+        server.setSubsystemFactories(List.of(new SftpSubsystemFactory()));
+        server.setFileSystemFactory(new VirtualFileSystemFactory(root));
+        server.start();
+    }
+
+    /**
+     * Gets the URI of a path on the server
+     * @param path relative to the root of the server
+     * @return the URI
+     */
+    URI uri(final String path) {
+        return URI.create("sftp://" + USER + "@localhost:" + server.getPort() + "/" + path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.stop();
+    }
+}
@@ -0,0 +1,58 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.throughput;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how long the agents took to send or download each fragment, and how many bytes the fragments held.
+ */
+class FragmentTimer {
+
+    private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Records a fragment
+     * @param startNanos System.nanoTime() when the agent started sending or downloading the fragment
+     * @param fragmentBytes size of the fragment
+     */
+    void record(final long startNanos, final long fragmentBytes) {
+        latencies.add(System.nanoTime() - startNanos);
+        bytes.addAndGet(fragmentBytes);
+    }
+
+    /**
+     * Returns the fragments recorded since the last call, and forgets them
+     * @return the time taken by each fragment, in nanoseconds
+     */
+    List<Long> drainLatencies() {
+        final List<Long> drained = new ArrayList<>();
+        Long latency;
+        while ((latency = latencies.poll()) != null) {
+            drained.add(latency);
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the bytes recorded since the last call, and forgets them
+     * @return bytes of the fragments
+     */
+    long drainBytes() {
+        return bytes.getAndSet(0);
+    }
+}
@@ -0,0 +1,131 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.throughput;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds up the measurements of every run of a phase of the benchmark, e.g. every create backup.
+ *
+ * CPU time is the CPU time of the whole process and allocation the bytes allocated by its threads, so both include the
+ * agents and the REST calls polling the actions. Allocation by threads which started and ended within a run isn't
+ * counted, but the threads moving backup data are pooled.
+ */
+class Phase {
+
+    private static final double BYTES_IN_MEGABYTE = 1024d * 1024d;
+    private static final double BYTES_IN_GIGABYTE = BYTES_IN_MEGABYTE * 1024d;
+    private static final double NANOS_IN_SECOND = 1_000_000_000d;
+    private static final double NANOS_IN_MILLI = 1_000_000d;
+
+    private final String name;
+    private final List<Long> latencies = new ArrayList<>();
+    private long bytes;
+    private long nanos;
+    private long cpuNanos;
+    private long allocatedBytes;
+
+    /**
+     * Creates a phase
+     * @param name of the phase
+     */
+    Phase(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Starts measuring a run of the phase
+     * @return the run, to be passed to {@link #add(Run, long, List)} once it finished
+     */
+    static Run start() {
+        return new Run();
+    }
+
+    /**
+     * Adds a finished run to the phase
+     * @param run the run, from {@link #start()}
+     * @param runBytes bytes of backup data the run transferred
+     * @param runLatencies time taken by each fragment of the run, in nanoseconds, or empty if not measured
+     */
+    void add(final Run run, final long runBytes, final List<Long> runLatencies) {
+        nanos += System.nanoTime() - run.startNanos;
+        cpuNanos += processCpuNanos() - run.startCpuNanos;
+        allocatedBytes += allocatedSince(run.startAllocatedBytes);
+        bytes += runBytes;
+        latencies.addAll(runLatencies);
+    }
+
+    /**
+     * Gets the result of the runs added so far
+     * @return the result
+     */
+    PhaseResult result() {
+        final double gigabytes = bytes / BYTES_IN_GIGABYTE;
+        final double seconds = nanos / NANOS_IN_SECOND;
+        final PhaseResult result = new PhaseResult();
+        result.setPhase(name);
+        result.setMegabytes(bytes / BYTES_IN_MEGABYTE);
+        result.setSeconds(seconds);
+        result.setMegabytesPerSecond(seconds == 0 ? 0 : bytes / BYTES_IN_MEGABYTE / seconds);
+        result.setCpuSecondsPerGigabyte(gigabytes == 0 ? 0 : cpuNanos / NANOS_IN_SECOND / gigabytes);
+        result.setAllocatedMegabytesPerGigabyte(gigabytes == 0 ? 0 : allocatedBytes / BYTES_IN_MEGABYTE / gigabytes);
+        if (!latencies.isEmpty()) {
+            final List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            result.setP50FragmentMillis(percentile(sorted, 0.50) / NANOS_IN_MILLI);
+            result.setP99FragmentMillis(percentile(sorted, 0.99) / NANOS_IN_MILLI);
+        }
+        return result;
+    }
+
+    private static long percentile(final List<Long> sorted, final double percentile) {
+        final int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+
+    private static Map<Long, Long> allocatedBytesPerThread() {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long[] threadIds = threads.getAllThreadIds();
+        final long[] allocated = threads.getThreadAllocatedBytes(threadIds);
+        final Map<Long, Long> allocatedPerThread = new HashMap<>();
+        for (int thread = 0; thread < threadIds.length; thread++) {
+            if (allocated[thread] >= 0) {
+                allocatedPerThread.put(threadIds[thread], allocated[thread]);
+            }
+        }
+        return allocatedPerThread;
+    }
+
+    private static long allocatedSince(final Map<Long, Long> start) {
+        return allocatedBytesPerThread().entrySet().stream()
+                .mapToLong(thread -> thread.getValue() - start.getOrDefault(thread.getKey(), 0L))
+                .sum();
+    }
+
+    /**
+     * A run of a phase being measured
+     */
+    static class Run {
+        private final long startNanos = System.nanoTime();
+        private final long startCpuNanos = processCpuNanos();
+        private final Map<Long, Long> startAllocatedBytes = allocatedBytesPerThread();
+    }
+}
@@ -0,0 +1,106 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.throughput;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/**
+ * Result of a phase of the benchmark, as written to the result and baseline files.
+ */
+@JsonInclude(Include.NON_NULL)
+public class PhaseResult {
+
+    private String phase;
+    private double megabytes;
+    private double seconds;
+    private double megabytesPerSecond;
+    private Double p50FragmentMillis;
+    private Double p99FragmentMillis;
+    private double cpuSecondsPerGigabyte;
+    private double allocatedMegabytesPerGigabyte;
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public void setPhase(final String phase) {
+        this.phase = phase;
+    }
+
+    public double getMegabytes() {
+        return megabytes;
+    }
+
+    public void setMegabytes(final double megabytes) {
+        this.megabytes = megabytes;
+    }
+
+    public double getSeconds() {
+        return seconds;
+    }
+
+    public void setSeconds(final double seconds) {
+        this.seconds = seconds;
+    }
+
+    public double getMegabytesPerSecond() {
+        return megabytesPerSecond;
+    }
+
+    public void setMegabytesPerSecond(final double megabytesPerSecond) {
+        this.megabytesPerSecond = megabytesPerSecond;
+    }
+
+    public Double getP50FragmentMillis() {
+        return p50FragmentMillis;
+    }
+
+    public void setP50FragmentMillis(final Double p50FragmentMillis) {
+        this.p50FragmentMillis = p50FragmentMillis;
+    }
+
+    public Double getP99FragmentMillis() {
+        return p99FragmentMillis;
+    }
+
+    public void setP99FragmentMillis(final Double p99FragmentMillis) {
+        this.p99FragmentMillis = p99FragmentMillis;
+    }
+
+    public double getCpuSecondsPerGigabyte() {
+        return cpuSecondsPerGigabyte;
+    }
+
+    public void setCpuSecondsPerGigabyte(final double cpuSecondsPerGigabyte) {
+        this.cpuSecondsPerGigabyte = cpuSecondsPerGigabyte;
+    }
+
+    public double getAllocatedMegabytesPerGigabyte() {
+        return allocatedMegabytesPerGigabyte;
+    }
+
+    public void setAllocatedMegabytesPerGigabyte(final double allocatedMegabytesPerGigabyte) {
+        this.allocatedMegabytesPerGigabyte = allocatedMegabytesPerGigabyte;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-14s %10.1f MB %8.2f s %9.2f MB/s  p50 %s  p99 %s  %7.2f CPU s/GB %10.1f MB allocated/GB",
+                phase, megabytes, seconds, megabytesPerSecond, millis(p50FragmentMillis), millis(p99FragmentMillis),
+                cpuSecondsPerGigabyte, allocatedMegabytesPerGigabyte);
+    }
+
+    private static String millis(final Double value) {
+        return value == null ? "      -" : String.format("%7.2f ms", value);
+    }
+}
@@ -0,0 +1,324 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.throughput;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.client.RestTemplate;
+
+import com.ericsson.adp.mgmt.backupandrestore.BackupAndRestoreApplication;
+import com.ericsson.adp.mgmt.backupandrestore.action.ActionStateType;
+import com.ericsson.adp.mgmt.backupandrestore.action.ActionType;
+import com.ericsson.adp.mgmt.backupandrestore.action.ResultType;
+import com.ericsson.adp.mgmt.backupandrestore.action.payload.BackupNamePayload;
+import com.ericsson.adp.mgmt.backupandrestore.action.payload.ExportPayload;
+import com.ericsson.adp.mgmt.backupandrestore.action.payload.ImportPayload;
+import com.ericsson.adp.mgmt.backupandrestore.action.payload.Payload;
+import com.ericsson.adp.mgmt.backupandrestore.backup.manager.BackupManager;
+import com.ericsson.adp.mgmt.backupandrestore.rest.action.ActionResponse;
+import com.ericsson.adp.mgmt.backupandrestore.rest.action.CreateActionRequest;
+import com.ericsson.adp.mgmt.backupandrestore.rest.action.CreateActionResponse;
+import com.ericsson.adp.mgmt.backupandrestore.rest.health.HealthResponse;
+import com.ericsson.adp.mgmt.backupandrestore.test.MyTestConfiguration;
+import com.ericsson.adp.mgmt.bro.api.agent.AgentFactory;
+import com.ericsson.adp.mgmt.bro.api.agent.OrchestratorConnectionInformation;
+import com.ericsson.adp.mgmt.brotestagent.util.PropertiesHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.findify.s3mock.S3Mock;
+
+/**
+ * Measures the throughput of the orchestrator end to end, without a cluster.
+ *
+ * Starts the orchestrator in this JVM, storing backups in a temporary folder (PVC) or in a local S3 stand-in (S3),
+ * registers test agents with it and runs create backup, restore, export and import of their backups, exporting to an
+ * SFTP server also started in this JVM. Each phase is reported with its throughput, the p50 and p99 time taken by an
+ * agent to send or download a fragment, and the CPU time and allocation per GB of backup data. The report is written to
+ * the result file and compared with the committed baseline, and the benchmark fails if any phase regressed, or if the
+ * baseline is missing, was measured with another configuration, or has no figures for a phase. The baseline is never
+ * written, it's replaced by hand with a result measured on the reference machine.
+ *
+ * Configured through system properties, see the throughput profile of the pom.
+ */
+public class ThroughputBenchmark {
+
+    private static final Logger log = LogManager.getLogger(ThroughputBenchmark.class);
+
+    private static final String CREATE_BACKUP = "create-backup";
+    private static final String RESTORE = "restore";
+    private static final String EXPORT = "export";
+    private static final String IMPORT = "import";
+    private static final String EXPORTED_BACKUP_PREFIX = "Exported Backup: ";
+    private static final String REMOTE_PATH = "remote";
+    private static final int SMALL_FILES = 10;
+    private static final int SMALL_FILE_BYTES = 1024 * 1024;
+    private static final int MAX_INBOUND_MESSAGE_SIZE = 32 * 1024 * 1024;
+    private static final long POLL_MILLIS = 50;
+    private static final long ACTION_TIMEOUT_MINUTES = 60;
+
+    private final String persist = System.getProperty("throughput.persist", "PVC");
+    private final int agents = Integer.getInteger("throughput.agents", 3);
+    private final List<Workload> workloads = Arrays.stream(System.getProperty("throughput.workloads", "LARGE_FILE").split(","))
+            .map(String::trim).map(Workload::valueOf).collect(Collectors.toList());
+    private final int largeFileMegabytes = Integer.getInteger("throughput.largeFileMegabytes", 256);
+    private final int fragments = Integer.getInteger("throughput.fragments", 1000);
+    private final int iterations = Integer.getInteger("throughput.iterations", 3);
+    private final double tolerance = Double.parseDouble(System.getProperty("throughput.tolerance", "0.2"));
+    private final Path baseline = Paths.get(System.getProperty("throughput.baseline", "throughput-baseline.json"));
+    private final Path result = Paths.get(System.getProperty("throughput.result", "throughput-result.json"));
+    private final int restPort = Integer.getInteger("throughput.restPort", 7001);
+    private final int grpcPort = Integer.getInteger("throughput.grpcPort", 3000);
+    private final int sftpPort = Integer.getInteger("throughput.sftpPort", 2222);
+    private final int s3Port = Integer.getInteger("throughput.s3Port", 28002);
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FragmentTimer timer = new FragmentTimer();
+
+    /**
+     * Runs the benchmark
+     * @param args not used
+     */
+    public static void main(final String[] args) {
+        int exitCode;
+        try {
+            exitCode = new ThroughputBenchmark().run();
+        } catch (final Exception e) {
+            log.error("Throughput benchmark failed", e);
+            exitCode = 1;
+        }
+        System.exit(exitCode);
+    }
+
+    private int run() throws Exception {
+        final Path workFolder = Files.createTempDirectory("bro-throughput");
+        final S3Mock s3 = "S3".equals(persist)
+                ? new S3Mock.Builder().withPort(s3Port).withFileBackend(workFolder.resolve("s3").toString()).build()
+                : null;
+        try {
+            configureTestAgents(workFolder);
+            if (s3 != null) {
+                s3.start();
+            }
+            try (EmbeddedSftpServer sftpServer = new EmbeddedSftpServer(workFolder.resolve("sftp"), sftpPort);
+                 ConfigurableApplicationContext orchestrator = startOrchestrator(workFolder)) {
+                registerAgents(workFolder);
+                final ThroughputReport report = measure(sftpServer, workFolder.resolve("sftp").resolve(REMOTE_PATH));
+                return compareWithBaseline(report);
+            }
+        } finally {
+            if (s3 != null) {
+                s3.shutdown();
+            }
+            FileSystemUtils.deleteRecursively(workFolder);
+        }
+    }
+
+    private void configureTestAgents(final Path workFolder) throws IOException {
+        PropertiesHelper.setProperty("test.agent.backendType", "BRO");
+        PropertiesHelper.setProperty("test.agent.agentFeatures", "PLAINTEXT");
+        PropertiesHelper.setProperty("large.backup.file.agent.backup.size", String.valueOf(largeFileMegabytes));
+        PropertiesHelper.setProperty("many.fragment.agent.fragment.count", String.valueOf(fragments));
+
+        final Path smallFiles = Files.createDirectories(workFolder.resolve("small-files"));
+        final Random random = new Random(0);
+        final byte[] content = new byte[SMALL_FILE_BYTES];
+        final List<String> paths = new ArrayList<>();
+        for (int file = 0; file < SMALL_FILES; file++) {
+            random.nextBytes(content);
+            paths.add(Files.write(smallFiles.resolve(file + ".data"), content).toString());
+        }
+        PropertiesHelper.setProperty("test.agent.fragment.backup.data.path", String.join(",", paths));
+        PropertiesHelper.setProperty("test.agent.fragment.custom.backup.data.path", String.join(",", Collections.nCopies(SMALL_FILES, "")));
+    }
+
+    private ConfigurableApplicationContext startOrchestrator(final Path workFolder) {
+        final List<String> properties = new ArrayList<>(Arrays.asList(
+                "--server.port=" + restPort,
+                "--grpc.server.port=" + grpcPort,
+                "--backup.location=" + workFolder.resolve("backups"),
+                "--backup.managers.location=" + workFolder.resolve("backupManagers"),
+                "--backup.dummy.location=" + workFolder.resolve("reservedspace")));
+        if ("S3".equals(persist)) {
+            properties.addAll(Arrays.asList(
+                    "--osmn.enabled=true",
+                    "--osmn.host=http://localhost",
+                    "--osmn.port=" + s3Port,
+                    "--osmn.bucketName=bro",
+                    "--osmn.credentials.accessKeyName=benchmark",
+                    "--osmn.credentials.secretKeyName=benchmark"));
+        }
+        return new SpringApplicationBuilder(BackupAndRestoreApplication.class, MyTestConfiguration.class)
+                .profiles("test")
+                .bannerMode(Banner.Mode.OFF)
+                .run(properties.toArray(new String[0]));
+    }
+
+    private void registerAgents(final Path workFolder) throws InterruptedException {
+        final List<String> agentIds = new ArrayList<>();
+        for (int agent = 0; agent < agents; agent++) {
+            final Workload workload = workloads.get(agent % workloads.size());
+            final String agentId = "throughput-" + workload.name().toLowerCase().replace('_', '-') + "-" + agent;
+            AgentFactory.createAgent(new OrchestratorConnectionInformation("127.0.0.1", grpcPort, MAX_INBOUND_MESSAGE_SIZE),
+                    workload.behavior(agentId, timer, workFolder.resolve("restored").resolve(agentId)));
+            agentIds.add(agentId);
+        }
+        final long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (!restTemplate.getForObject(url("v1/health"), HealthResponse.class).getRegisteredAgents().containsAll(agentIds)) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Agents " + agentIds + " did not register");
+            }
+            TimeUnit.MILLISECONDS.sleep(POLL_MILLIS);
+        }
+        log.info("Registered agents {}", agentIds);
+    }
+
+    private ThroughputReport measure(final EmbeddedSftpServer sftpServer, final Path exported) throws Exception {
+        log.info("Warming up, generating the backup data of the agents");
+        runAction(ActionType.CREATE_BACKUP, backupName("throughput-warmup"));
+        runAction(ActionType.DELETE_BACKUP, backupName("throughput-warmup"));
+        timer.drainBytes();
+        timer.drainLatencies();
+
+        final Phase create = new Phase(CREATE_BACKUP);
+        final Phase restore = new Phase(RESTORE);
+        final Phase export = new Phase(EXPORT);
+        final Phase imported = new Phase(IMPORT);
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            final String backup = "throughput-" + iteration;
+            log.info("Running iteration {} of {}", iteration + 1, iterations);
+
+            Phase.Run run = Phase.start();
+            runAction(ActionType.CREATE_BACKUP, backupName(backup));
+            final long bytes = timer.drainBytes();
+            create.add(run, bytes, timer.drainLatencies());
+
+            run = Phase.start();
+            runAction(ActionType.RESTORE, backupName(backup));
+            timer.drainBytes();
+            restore.add(run, bytes, timer.drainLatencies());
+
+            run = Phase.start();
+            final ActionResponse exportAction = runAction(ActionType.EXPORT,
+                    new ExportPayload(backup, sftpServer.uri(REMOTE_PATH), EmbeddedSftpServer.PASSWORD));
+            export.add(run, bytes, Collections.emptyList());
+
+            runAction(ActionType.DELETE_BACKUP, backupName(backup));
+            final String tarball = exportAction.getAdditionalInfo().substring(EXPORTED_BACKUP_PREFIX.length());
+            run = Phase.start();
+            runAction(ActionType.IMPORT, new ImportPayload(
+                    sftpServer.uri(REMOTE_PATH + "/" + BackupManager.DEFAULT_BACKUP_MANAGER_ID + "/" + tarball),
+                    EmbeddedSftpServer.PASSWORD));
+            imported.add(run, bytes, Collections.emptyList());
+
+            runAction(ActionType.DELETE_BACKUP, backupName(backup));
+            FileSystemUtils.deleteRecursively(exported);
+        }
+
+        final ThroughputReport report = new ThroughputReport();
+        report.setConfiguration(String.format("persist=%s agents=%d workloads=%s largeFileMegabytes=%d fragments=%d",
+                persist, agents, workloads, largeFileMegabytes, fragments));
+        for (final Phase phase : Arrays.asList(create, restore, export, imported)) {
+            final PhaseResult phaseResult = phase.result();
+            report.getPhases().put(phaseResult.getPhase(), phaseResult);
+        }
+        log.info("Throughput with {} over {} iterations:", report.getConfiguration(), iterations);
+        report.getPhases().values().forEach(phase -> log.info("{}", phase));
+        Files.createDirectories(result.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(result.toFile(), report);
+        log.info("Wrote results to {}", result);
+        return report;
+    }
+
+    private int compareWithBaseline(final ThroughputReport report) throws IOException {
+        if (!Files.exists(baseline)) {
+            log.error("No baseline found at {}, copy {} there once measured on the reference machine", baseline, result);
+            return 1;
+        }
+        final ThroughputReport expected = objectMapper.readValue(baseline.toFile(), ThroughputReport.class);
+        if (!report.getConfiguration().equals(expected.getConfiguration())) {
+            log.error("Baseline {} was measured with {}, not with {}, so the results can't be compared",
+                    baseline, expected.getConfiguration(), report.getConfiguration());
+            return 1;
+        }
+        final List<String> unmeasured = report.getPhases().keySet().stream()
+                .filter(phase -> !expected.getPhases().containsKey(phase))
+                .collect(Collectors.toList());
+        if (!unmeasured.isEmpty()) {
+            log.error("Baseline {} has no figures for phases {}, so they can't be compared, copy {} there once measured on "
+                    + "the reference machine", baseline, unmeasured, result);
+            return 1;
+        }
+        final List<String> regressions = report.regressionsFrom(expected, tolerance);
+        regressions.forEach(regression -> log.error("Regression: {}", regression));
+        if (regressions.isEmpty()) {
+            log.info("No phase regressed by more than {}% from baseline {}", tolerance * 100, baseline);
+            return 0;
+        }
+        return 1;
+    }
+
+    private ActionResponse runAction(final ActionType type, final Payload payload) throws InterruptedException {
+        final CreateActionRequest request = new CreateActionRequest();
+        request.setAction(type);
+        request.setPayload(payload);
+        final String actionId = restTemplate.postForObject(actionsUrl(), request, CreateActionResponse.class).getActionId();
+
+        final long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(ACTION_TIMEOUT_MINUTES);
+        ActionResponse action = getAction(actionId);
+        while (action.getState() != ActionStateType.FINISHED) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(type + " action " + actionId + " did not finish");
+            }
+            TimeUnit.MILLISECONDS.sleep(POLL_MILLIS);
+            action = getAction(actionId);
+        }
+        if (action.getResult() != ResultType.SUCCESS) {
+            throw new IllegalStateException(type + " action " + actionId + " failed: " + action.getAdditionalInfo());
+        }
+        return action;
+    }
+
+    private ActionResponse getAction(final String actionId) {
+        return restTemplate.getForObject(actionsUrl() + "/" + actionId, ActionResponse.class);
+    }
+
+    private String actionsUrl() {
+        return url("v1/backup-manager/" + BackupManager.DEFAULT_BACKUP_MANAGER_ID + "/action");
+    }
+
+    private String url(final String path) {
+        return "http://localhost:" + restPort + "/" + path;
+    }
+
+    private static BackupNamePayload backupName(final String backupName) {
+        final BackupNamePayload payload = new BackupNamePayload();
+        payload.setBackupName(backupName);
+        return payload;
+    }
+}
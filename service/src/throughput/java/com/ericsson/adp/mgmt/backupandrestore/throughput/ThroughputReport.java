@@ -0,0 +1,73 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.throughput;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of every phase of a benchmark run, along with the configuration they were measured with. Stored as the
+ * baseline later runs are compared against.
+ */
+public class ThroughputReport {
+
+    private String configuration;
+    private Map<String, PhaseResult> phases = new LinkedHashMap<>();
+
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    public void setConfiguration(final String configuration) {
+        this.configuration = configuration;
+    }
+
+    public Map<String, PhaseResult> getPhases() {
+        return phases;
+    }
+
+    public void setPhases(final Map<String, PhaseResult> phases) {
+        this.phases = phases;
+    }
+
+    /**
+     * Compares this report with a baseline, for the phases in both. A phase regressed if its throughput dropped, or
+     * its CPU time or allocation per GB rose, by more than the tolerance.
+     * @param baseline the report to compare with
+     * @param tolerance fraction of the baseline value a result may be worse by, e.g. 0.2 for 20%
+     * @return a description of each regression, empty if none
+     */
+    List<String> regressionsFrom(final ThroughputReport baseline, final double tolerance) {
+        final List<String> regressions = new ArrayList<>();
+        phases.forEach((name, result) -> {
+            final PhaseResult expected = baseline.getPhases().get(name);
+            if (expected == null) {
+                return;
+            }
+            if (result.getMegabytesPerSecond() < expected.getMegabytesPerSecond() * (1 - tolerance)) {
+                regressions.add(String.format("%s throughput dropped from %.2f to %.2f MB/s",
+                        name, expected.getMegabytesPerSecond(), result.getMegabytesPerSecond()));
+            }
+            if (result.getCpuSecondsPerGigabyte() > expected.getCpuSecondsPerGigabyte() * (1 + tolerance)) {
+                regressions.add(String.format("%s CPU time rose from %.2f to %.2f s/GB",
+                        name, expected.getCpuSecondsPerGigabyte(), result.getCpuSecondsPerGigabyte()));
+            }
+            if (result.getAllocatedMegabytesPerGigabyte() > expected.getAllocatedMegabytesPerGigabyte() * (1 + tolerance)) {
+                regressions.add(String.format("%s allocation rose from %.1f to %.1f MB/GB",
+                        name, expected.getAllocatedMegabytesPerGigabyte(), result.getAllocatedMegabytesPerGigabyte()));
+            }
+        });
+        return regressions;
+    }
+}
@@ -0,0 +1,215 @@
+/**------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *------------------------------------------------------------------------------*/
+package com.ericsson.adp.mgmt.backupandrestore.throughput;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ericsson.adp.mgmt.bro.api.agent.AgentBehavior;
+import com.ericsson.adp.mgmt.bro.api.agent.BackupExecutionActions;
+import com.ericsson.adp.mgmt.bro.api.agent.RestoreExecutionActions;
+import com.ericsson.adp.mgmt.bro.api.fragment.BackupFragmentInformation;
+import com.ericsson.adp.mgmt.bro.api.fragment.FragmentInformation;
+import com.ericsson.adp.mgmt.bro.api.registration.RegistrationInformation;
+import com.ericsson.adp.mgmt.brotestagent.agent.FragmentFactory;
+import com.ericsson.adp.mgmt.brotestagent.agent.behavior.LargeBackupFileAgentBehavior;
+import com.ericsson.adp.mgmt.brotestagent.agent.behavior.ManyFragmentsBehavior;
+import com.ericsson.adp.mgmt.brotestagent.agent.behavior.TestAgentBehavior;
+
+/**
+ * The data a benchmark agent backs up, each built on one of the test agent behaviors.
+ *
+ * The behaviors are extended to register under their own agent id, so several can run in the same JVM, and to time
+ * each fragment they send or download. The large file and the many fragments are generated once and shared by every
+ * agent of the workload, so generating them isn't measured after the first backup.
+ */
+enum Workload {
+    SMALL_FILES {
+        @Override
+        AgentBehavior behavior(final String agentId, final FragmentTimer timer, final Path downloadLocation) {
+            return new SmallFiles(new TimedFragments(agentId, timer, downloadLocation));
+        }
+    },
+    LARGE_FILE {
+        @Override
+        AgentBehavior behavior(final String agentId, final FragmentTimer timer, final Path downloadLocation) {
+            return new LargeFile(new TimedFragments(agentId, timer, downloadLocation));
+        }
+    },
+    MANY_FRAGMENTS {
+        @Override
+        AgentBehavior behavior(final String agentId, final FragmentTimer timer, final Path downloadLocation) {
+            return new ManyFragments(new TimedFragments(agentId, timer, downloadLocation));
+        }
+    };
+
+    private static final Logger log = LogManager.getLogger(Workload.class);
+
+    /**
+     * Creates the behavior of an agent running this workload
+     * @param agentId id the agent registers with
+     * @param timer records the fragments the agent sends and downloads
+     * @param downloadLocation where the agent downloads fragments to on restore
+     * @return the behavior
+     */
+    abstract AgentBehavior behavior(String agentId, FragmentTimer timer, Path downloadLocation);
+
+    private static class SmallFiles extends TestAgentBehavior {
+        private final TimedFragments timed;
+
+        SmallFiles(final TimedFragments timed) {
+            this.timed = timed;
+        }
+
+        @Override
+        public RegistrationInformation getRegistrationInformation() {
+            return timed.registration(super.getRegistrationInformation());
+        }
+
+        @Override
+        public void executeBackup(final BackupExecutionActions backupExecutionActions) {
+            timed.backup(backupExecutionActions, () -> doSomethingToCreateBackup(backupExecutionActions.getBackupType()));
+        }
+
+        @Override
+        public void executeRestore(final RestoreExecutionActions restoreExecutionActions) {
+            timed.restore(restoreExecutionActions);
+        }
+
+        @Override
+        protected List<BackupFragmentInformation> doSomethingToCreateBackup(final String backupType) {
+            return new FragmentFactory(timed.agentId).getFragmentList();
+        }
+    }
+
+    private static class LargeFile extends LargeBackupFileAgentBehavior {
+        private static List<BackupFragmentInformation> fragments;
+        private final TimedFragments timed;
+
+        LargeFile(final TimedFragments timed) {
+            this.timed = timed;
+        }
+
+        @Override
+        public RegistrationInformation getRegistrationInformation() {
+            return timed.registration(super.getRegistrationInformation());
+        }
+
+        @Override
+        public void executeBackup(final BackupExecutionActions backupExecutionActions) {
+            timed.backup(backupExecutionActions, () -> doSomethingToCreateBackup(backupExecutionActions.getBackupType()));
+        }
+
+        @Override
+        public void executeRestore(final RestoreExecutionActions restoreExecutionActions) {
+            timed.restore(restoreExecutionActions);
+        }
+
+        @Override
+        protected List<BackupFragmentInformation> doSomethingToCreateBackup(final String backupType) {
+            synchronized (LargeFile.class) {
+                if (fragments == null) {
+                    fragments = super.doSomethingToCreateBackup(backupType);
+                }
+                return fragments;
+            }
+        }
+    }
+
+    private static class ManyFragments extends ManyFragmentsBehavior {
+        private static List<BackupFragmentInformation> fragments;
+        private final TimedFragments timed;
+
+        ManyFragments(final TimedFragments timed) {
+            this.timed = timed;
+        }
+
+        @Override
+        public RegistrationInformation getRegistrationInformation() {
+            return timed.registration(super.getRegistrationInformation());
+        }
+
+        @Override
+        public void executeBackup(final BackupExecutionActions backupExecutionActions) {
+            timed.backup(backupExecutionActions, () -> doSomethingToCreateBackup(backupExecutionActions.getBackupType()));
+        }
+
+        @Override
+        public void executeRestore(final RestoreExecutionActions restoreExecutionActions) {
+            timed.restore(restoreExecutionActions);
+        }
+
+        @Override
+        protected List<BackupFragmentInformation> doSomethingToCreateBackup(final String backupType) {
+            synchronized (ManyFragments.class) {
+                if (fragments == null) {
+                    fragments = super.doSomethingToCreateBackup(backupType);
+                }
+                return fragments;
+            }
+        }
+    }
+
+    /**
+     * Sends and downloads the fragments of an agent, timing each one
+     */
+    private static class TimedFragments {
+        private final String agentId;
+        private final FragmentTimer timer;
+        private final Path downloadLocation;
+
+        TimedFragments(final String agentId, final FragmentTimer timer, final Path downloadLocation) {
+            this.agentId = agentId;
+            this.timer = timer;
+            this.downloadLocation = downloadLocation;
+        }
+
+        RegistrationInformation registration(final RegistrationInformation registrationInformation) {
+            registrationInformation.setAgentId(agentId);
+            return registrationInformation;
+        }
+
+        void backup(final BackupExecutionActions actions, final Supplier<List<BackupFragmentInformation>> fragments) {
+            try {
+                for (final BackupFragmentInformation fragment : fragments.get()) {
+                    final long start = System.nanoTime();
+                    actions.sendBackup(fragment);
+                    timer.record(start, Long.parseLong(fragment.getSizeInBytes()));
+                }
+                actions.backupComplete(true, "Agent " + agentId + " sent backup " + actions.getBackupName());
+            } catch (final Exception e) {
+                log.error("Agent {} failed to send backup {}", agentId, actions.getBackupName(), e);
+                actions.backupComplete(false, "Agent " + agentId + " failed to send backup: " + e.getMessage());
+            }
+        }
+
+        void restore(final RestoreExecutionActions actions) {
+            try {
+                Files.createDirectories(downloadLocation);
+                for (final FragmentInformation fragment : actions.getFragmentList()) {
+                    final long start = System.nanoTime();
+                    actions.downloadFragment(fragment, downloadLocation.toString());
+                    timer.record(start, Long.parseLong(fragment.getSizeInBytes()));
+                }
+                actions.sendStageComplete(true, "Agent " + agentId + " restored backup " + actions.getBackupName());
+            } catch (final Exception e) {
+                log.error("Agent {} failed to restore backup {}", agentId, actions.getBackupName(), e);
+                actions.sendStageComplete(false, "Agent " + agentId + " failed to restore backup: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -11,6 +11,7 @@
  *------------------------------------------------------------------------------*/
 package com.ericsson.adp.mgmt.brotestagent.agent.behavior;
 
+import com.ericsson.adp.mgmt.bro.api.agent.BackupExecutionActions;
 import com.ericsson.adp.mgmt.bro.api.fragment.BackupFragmentInformation;
 import com.ericsson.adp.mgmt.brotestagent.exception.FailedToCreateBackupException;
 import com.ericsson.adp.mgmt.brotestagent.util.PropertiesHelper;
@@ -27,8 +28,10 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -36,7 +39,8 @@ import java.util.stream.Stream;
 
 /**
  * This class holds custom agent behavior for BRO testing purposes.
- * It is used to simulate an agent which sends a large number of fragments during a backup.
+ * It is used to simulate an agent which sends a large number of fragments during a backup,
+ * sending several of them at once.
  */
 public class ManyFragmentsBehavior extends TestAgentBehavior {
     private static final Logger log = LogManager.getLogger(ManyFragmentsBehavior.class);
@@ -63,6 +67,13 @@ public class ManyFragmentsBehavior extends TestAgentBehavior {
         }
     }
 
+    @Override
+    protected void sendFragments(final BackupExecutionActions backupExecutionActions, final List<BackupFragmentInformation> fragments)
+            throws Exception {
+        final Map<String, CompletableFuture<Void>> completions = backupExecutionActions.sendBackups(fragments);
+        CompletableFuture.allOf(completions.values().toArray(new CompletableFuture[0])).get();
+    }
+
     private BackupFragmentInformation createFragment(final Path fragmentLocation) {
         final BackupFragmentInformation backupFragmentInformation = new BackupFragmentInformation();
         backupFragmentInformation.setFragmentId(UUID.randomUUID().toString());
@@ -78,9 +78,7 @@ public class TestAgentBehavior implements AgentBehavior {
     @Override
     public void executeBackup(final BackupExecutionActions backupExecutionActions) {
         try {
-            for (final BackupFragmentInformation fragment : doSomethingToCreateBackup(backupExecutionActions.getBackupType())) {
-                backupExecutionActions.sendBackup(fragment);
-            }
+            sendFragments(backupExecutionActions, doSomethingToCreateBackup(backupExecutionActions.getBackupType()));
             backupExecutionActions.backupComplete(true, getBackupSuccessfulMessage(backupExecutionActions));
             log.info("Finished backup {}, for backup type {}", backupExecutionActions.getBackupName(), backupExecutionActions.getBackupType());
         } catch (final Exception e) {
@@ -152,6 +150,23 @@ public class TestAgentBehavior implements AgentBehavior {
 
     }
 
+    /**
+     * Sends the fragments of a backup, one after the other
+     *
+     * @param backupExecutionActions
+     *            the actions used to send the fragments
+     * @param fragments
+     *            the fragments to send
+     * @throws Exception
+     *             if a fragment could not be sent
+     */
+    protected void sendFragments(final BackupExecutionActions backupExecutionActions, final List<BackupFragmentInformation> fragments)
+            throws Exception {
+        for (final BackupFragmentInformation fragment : fragments) {
+            backupExecutionActions.sendBackup(fragment);
+        }
+    }
+
     /**
      * Get the string including the backup type list
      *
@@ -20,11 +20,14 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.ericsson.adp.mgmt.bro.api.agent.BackupExecutionActions;
 import com.ericsson.adp.mgmt.bro.api.fragment.BackupFragmentInformation;
 import com.ericsson.adp.mgmt.brotestagent.util.PropertiesHelper;
 
@@ -64,4 +67,52 @@ public class ManyFragmentsBehaviorTest {
             assertFalse(Path.of(backupFragmentInformation.getBackupFilePath()).toFile().exists());
         }
     }
+
+    @Test
+    public void executeBackup_manyFragments_sendsEveryFragmentAndCompletesBackupSuccessfully() throws Exception {
+        final BackupExecutionActionsStub backupExecutionActions = new BackupExecutionActionsStub();
+
+        manyFragmentsBehavior.executeBackup(backupExecutionActions);
+
+        assertEquals(10, backupExecutionActions.getFragmentIds().size());
+        assertTrue(backupExecutionActions.isSuccessful());
+    }
+
+    private class BackupExecutionActionsStub extends BackupExecutionActions {
+
+        private final Set<String> fragmentIds = ConcurrentHashMap.newKeySet();
+        private boolean successful;
+
+        BackupExecutionActionsStub() {
+            super(null, null);
+        }
+
+        @Override
+        public void sendBackup(final BackupFragmentInformation fragmentInformation) {
+            fragmentIds.add(fragmentInformation.getFragmentId());
+        }
+
+        @Override
+        public void backupComplete(final boolean success, final String message) {
+            this.successful = success;
+        }
+
+        @Override
+        public String getBackupName() {
+            return "myBackup";
+        }
+
+        @Override
+        public String getBackupType() {
+            return BACKUP_TYPE;
+        }
+
+        public Set<String> getFragmentIds() {
+            return fragmentIds;
+        }
+
+        public boolean isSuccessful() {
+            return successful;
+        }
+    }
 }